@@ -1,29 +1,36 @@
 package fr.inote.inote_api.controller;
 
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.*;
 import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
+import fr.inote.inote_api.cross_cutting.security.PasswordHashingExecutor;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.*;
 import fr.inote.inote_api.entity.User;
 import fr.inote.inote_api.service.impl.UserServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mail.MailException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.REFRESH;
@@ -81,15 +88,43 @@ public class AuthController {
     private final UserServiceImpl userService;
     private final JwtServiceImpl jwtService;
 
+    /*
+     * The requests hashing or verifying a password (BCrypt) run in this bounded
+     * pool: they release their servlet thread meanwhile, and are rejected (429)
+     * when too many are already waiting.
+     */
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final ResourceVersions resourceVersions;
+
+    /*
+     * The introspection endpoint is reserved to our internal services: they
+     * send the shared key in the SERVICE_KEY_HEADER header. It is closed while
+     * no key is configured.
+     */
+    private final byte[] introspectionServiceKey;
+    private final int introspectionMaxTokens;
+
     public AuthController(
             AuthenticationManager authenticationManager,
             UserServiceImpl userService,
-            JwtServiceImpl jwtService) {
+            JwtServiceImpl jwtService,
+            PasswordHashingExecutor passwordHashingExecutor,
+            ResourceVersions resourceVersions,
+            @Value("${inote.introspection.serviceKey:}") String introspectionServiceKey,
+            @Value("${inote.introspection.maxTokens:100}") int introspectionMaxTokens) {
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtService = jwtService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.resourceVersions = resourceVersions;
+        this.introspectionServiceKey = introspectionServiceKey.getBytes(StandardCharsets.UTF_8);
+        this.introspectionMaxTokens = introspectionMaxTokens;
     }
 
+    /* CONSTANTS */
+    /* ============================================================ */
+    public static final String SERVICE_KEY_HEADER = "X-Inote-Service-Key";
+
     /* PUBLIC METHODS */
     /* ============================================================ */
 
@@ -107,13 +142,14 @@ public class AuthController {
      * @author atsuhikoMochizuki
      * @throws InoteMailException
      * @throws MailException
+     * @throws InotePasswordHashingBusyException
      * @since 19/05/2024
      */
 
     @PostMapping(path = Endpoint.REGISTER)
-    public ResponseEntity<String> register(@RequestBody RegisterRequestDto registerRequestDto)
-            throws MailException, InoteExistingEmailException, InoteInvalidEmailException, InoteRoleNotFoundException,
-            InoteInvalidPasswordFormatException, InoteMailException {
+    public CompletableFuture<ResponseEntity<String>> register(@RequestBody RegisterRequestDto registerRequestDto)
+            throws InotePasswordHashingBusyException, InoteInvalidEmailException,
+            InoteInvalidPasswordFormatException, InoteExistingEmailException {
 
         User userToRegister = User.builder()
                 .email(registerRequestDto.username())
@@ -121,12 +157,19 @@ public class AuthController {
                 .pseudonyme(registerRequestDto.pseudo())
                 .password(registerRequestDto.password())
                 .build();
-
-        this.userService.register(userToRegister);
-
-        return ResponseEntity
-                .status(HttpStatusCode.valueOf(201))
-                .body(MessagesEn.ACTIVATION_NEED_ACTIVATION);
+        this.userService.checkRegistration(userToRegister);
+
+        // Only the hashing runs in the pool: the activation mail is sent out of it
+        return this.passwordHashingExecutor.submit(
+                () -> this.userService.encodePassword(userToRegister.getPassword()),
+                encodedPassword -> {
+                    userToRegister.setPassword(encodedPassword);
+                    this.userService.registerEncoded(userToRegister);
+
+                    return ResponseEntity
+                            .status(HttpStatusCode.valueOf(201))
+                            .body(MessagesEn.ACTIVATION_NEED_ACTIVATION);
+                });
     }
 
     /**
@@ -166,18 +209,24 @@ public class AuthController {
      * @date 19-05-2024
      */
     @PostMapping(path = Endpoint.SIGN_IN)
-    public ResponseEntity<SignInResponseDto> signIn(@RequestBody SignInRequestDto signInRequestDto) throws AuthenticationException{
-        
-        Authentication authenticate = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(signInRequestDto.username(),
-                        signInRequestDto.password()));
-        UserDetails userDetails = (UserDetails) authenticate.getPrincipal();
-        Map<String, String> map = this.jwtService.generate(userDetails.getUsername());
-        SignInResponseDto signInReponseDto = new SignInResponseDto(map.get(BEARER), map.get(REFRESH));
-
-        return ResponseEntity
-                .status(OK)
-                .body(signInReponseDto);
+    public CompletableFuture<ResponseEntity<SignInResponseDto>> signIn(@RequestBody SignInRequestDto signInRequestDto)
+            throws InotePasswordHashingBusyException {
+
+        // Fails with AuthenticationException or InoteTokenIssuanceBusyException. Only the
+        // verification of the password runs in the pool: the tokens are issued out of it
+        return this.passwordHashingExecutor.submit(
+                () -> authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(signInRequestDto.username(),
+                                signInRequestDto.password())),
+                authenticate -> {
+                    // The authenticated principal is the user loaded by the authentication: no need to reload it
+                    Map<String, String> map = this.jwtService.generate((User) authenticate.getPrincipal());
+                    SignInResponseDto signInReponseDto = new SignInResponseDto(map.get(BEARER), map.get(REFRESH));
+
+                    return ResponseEntity
+                            .status(OK)
+                            .body(signInReponseDto);
+                });
     }
 
     /**
@@ -213,20 +262,33 @@ public class AuthController {
      * @throws InoteInvalidPasswordFormatException
      * @throws InoteValidationNotFoundException
      * @throws UsernameNotFoundException
+     * @throws InotePasswordHashingBusyException
      * @date 19-05-2024
      */
     @PostMapping(path = Endpoint.NEW_PASSWORD)
-    public ResponseEntity<String> newPassword(@RequestBody NewPasswordRequestDto newPasswordRequestDto)
-            throws UsernameNotFoundException, InoteValidationNotFoundException, InoteInvalidPasswordFormatException {
+    public CompletableFuture<ResponseEntity<String>> newPassword(
+            @RequestBody NewPasswordRequestDto newPasswordRequestDto) throws InotePasswordHashingBusyException,
+            InoteValidationNotFoundException, InoteInvalidPasswordFormatException, UsernameNotFoundException {
 
-        this.userService.newPassword(
+        final ResponseEntity<String> response = ResponseEntity
+                .status(OK)
+                .body(MessagesEn.NEW_PASSWORD_SUCCESS);
+
+        User user = this.userService.checkNewPassword(
                 newPasswordRequestDto.email(),
                 newPasswordRequestDto.password(),
                 newPasswordRequestDto.code());
+        if (user == null) {
+            return CompletableFuture.completedFuture(response);
+        }
 
-        return ResponseEntity
-                .status(OK)
-                .body(MessagesEn.NEW_PASSWORD_SUCCESS);
+        // Only the hashing runs in the pool
+        return this.passwordHashingExecutor.submit(
+                () -> this.userService.encodePassword(newPasswordRequestDto.password()),
+                encodedPassword -> {
+                    this.userService.replacePassword(user, encodedPassword);
+                    return response;
+                });
     }
 
     /**
@@ -244,11 +306,12 @@ public class AuthController {
      * @return
      * @throws InoteJwtNotFoundException
      * @throws InoteExpiredRefreshTokenException
+     * @throws InoteTokenIssuanceBusyException
      */ 
     @PostMapping(path = Endpoint.REFRESH_TOKEN)
     public ResponseEntity<SignInResponseDto> refreshConnectionWithRefreshTokenValue(
         @RequestBody RefreshRequestDto refreshRequestDto)
-            throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException {
+            throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException, InoteTokenIssuanceBusyException {
 
         Map<String, String> response;
 
@@ -285,10 +348,44 @@ public class AuthController {
             .body(MessagesEn.USER_SIGNOUT_SUCCESS);
     }
 
+    /**
+     * Get the status of a batch of bearer tokens, for the internal services
+     *
+     * @param serviceKey              key of the calling service
+     * @param introspectionRequestDto the tokens to check
+     * @return the status of each token, in the order of the request
+     * @throws InoteNotAuthenticatedUserException       when the service key is
+     *                                                  missing or wrong
+     * @throws InoteIntrospectionBatchTooLargeException when the batch exceeds
+     *                                                  inote.introspection.maxTokens
+     */
+    @PostMapping(path = Endpoint.INTROSPECT)
+    public ResponseEntity<List<IntrospectionResponseDto>> introspect(
+            @RequestHeader(name = SERVICE_KEY_HEADER, required = false) String serviceKey,
+            @RequestBody IntrospectionRequestDto introspectionRequestDto)
+            throws InoteNotAuthenticatedUserException, InoteIntrospectionBatchTooLargeException {
+
+        if (this.introspectionServiceKey.length == 0 || serviceKey == null
+                || !MessageDigest.isEqual(this.introspectionServiceKey, serviceKey.getBytes(StandardCharsets.UTF_8))) {
+            throw new InoteNotAuthenticatedUserException();
+        }
+        List<String> tokens = introspectionRequestDto.tokens() == null ? List.of() : introspectionRequestDto.tokens();
+        if (tokens.size() > this.introspectionMaxTokens) {
+            throw new InoteIntrospectionBatchTooLargeException();
+        }
+
+        return ResponseEntity
+                .status(OK)
+                .body(this.jwtService.introspect(tokens));
+    }
+
     /**
      * Get informations of current connected user
+     * <p>
+     * Answered 304 when If-None-Match holds the current ETag of the user
      * 
      * @param user
+     * @param webRequest the request, for its If-None-Match header
      * @return ResponseEntity<Map<String, PublicUserDto>>
      * @throws InoteUserNotFoundException
      * 
@@ -296,15 +393,21 @@ public class AuthController {
      * @date 14-05-2024
      */
     @GetMapping(path = Endpoint.GET_CURRENT_USER)
-    public ResponseEntity<PublicUserRequestDto> getCurrentUser(@AuthenticationPrincipal User user)
-            throws InoteUserNotFoundException {
+    public ResponseEntity<PublicUserRequestDto> getCurrentUser(@AuthenticationPrincipal User user,
+            WebRequest webRequest) throws InoteUserNotFoundException {
         if (user == null) {
             throw new InoteUserNotFoundException();
         }
+        String etag = this.resourceVersions.etagOf(ResourceVersions.Collection.USERS, user.getId());
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         PublicUserRequestDto publicUserDto = new PublicUserRequestDto(user.getName(), user.getUsername(), null, user.isActif(),
                 user.getRole().getName().toString());
         return ResponseEntity
                 .status(HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
                 .body(publicUserDto);
     }
 }
@@ -1,16 +1,18 @@
 package fr.inote.inote_api.controller;
 
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteEmptyMessageCommentException;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
+import fr.inote.inote_api.dto.CommentPageResponseDto;
 import fr.inote.inote_api.dto.CommentRequestDto;
 import fr.inote.inote_api.dto.CommentResponseDto;
 import fr.inote.inote_api.entity.Comment;
 import fr.inote.inote_api.service.CommentService;
 import fr.inote.inote_api.service.impl.UserServiceImpl;
 
-import java.util.List;
-
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,8 +20,10 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Controller for account user routes
@@ -58,12 +62,24 @@ public class CommentController {
     @SuppressWarnings("unused")
     private final JwtServiceImpl jwtService;
 
+    private final ResourceVersions resourceVersions;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
     public CommentController(CommentService commentService, AuthenticationManager authenticationManager,
-            UserServiceImpl userService, JwtServiceImpl jwtService) {
+            UserServiceImpl userService, JwtServiceImpl jwtService, ResourceVersions resourceVersions,
+            @Value("${inote.comments.pageSize:20}") int defaultPageSize,
+            @Value("${inote.comments.maxPageSize:100}") int maxPageSize) {
         this.commentService = commentService;
         this.authenticationManager = authenticationManager;
         this.userService = userService;
         this.jwtService = jwtService;
+        this.resourceVersions = resourceVersions;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     @PostMapping(Endpoint.CREATE_COMMENT)
@@ -80,9 +96,34 @@ public class CommentController {
             .body(returnDtoValue);
     }
 
+    /**
+     * Get a page of the comments, newest first
+     * <p>
+     * Answered 304, without query, when If-None-Match holds the current ETag of
+     * the comments
+     *
+     * @param cursor     nextCursor of the previous page, absent for the first
+     *                   page
+     * @param size       number of comments, inote.comments.pageSize if absent,
+     *                   bounded by inote.comments.maxPageSize
+     * @param webRequest the request, for its If-None-Match header
+     * @return the page and the cursor of the next one, null on the last page
+     */
     @GetMapping(value = Endpoint.COMMENT_GET_ALL, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public ResponseEntity<List<CommentResponseDto>> getComments() {
-        return new ResponseEntity<>(this.commentService.getAll(), HttpStatus.OK);
+    public ResponseEntity<CommentPageResponseDto> getComments(
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest webRequest) {
+        String etag = this.resourceVersions.etagOf(ResourceVersions.Collection.COMMENTS);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(size == null ? this.defaultPageSize : size, this.maxPageSize));
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(this.commentService.getPage(cursor, pageSize));
     }
 }
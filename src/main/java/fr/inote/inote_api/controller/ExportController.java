@@ -0,0 +1,65 @@
+package fr.inote.inote_api.controller;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controller for the bulk exports, in NDJSON
+ * <p>
+ * The rows are written into the response while they are read, in the request
+ * thread: the response is sent in chunks from the first rows, and an export
+ * of any size uses a constant heap.
+ */
+@RestController
+public class ExportController {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /* Endpoints */
+    /* ============================================================ */
+
+    /**
+     * Export all the comments, one CommentResponseDto by line
+     *
+     * @param response the response written
+     * @throws IOException when the client is gone
+     */
+    @GetMapping(path = Endpoint.COMMENTS_EXPORT, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportComments(HttpServletResponse response) throws IOException {
+        this.prepare(response);
+        this.exportService.exportComments(response.getOutputStream());
+    }
+
+    /**
+     * Export all the users, one ProtectedUserResponseDto by line
+     *
+     * @param response the response written
+     * @throws IOException when the client is gone
+     */
+    @GetMapping(path = Endpoint.USERS_EXPORT, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        this.prepare(response);
+        this.exportService.exportUsers(response.getOutputStream());
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private void prepare(HttpServletResponse response) {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    }
+}
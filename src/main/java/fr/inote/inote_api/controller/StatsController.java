@@ -0,0 +1,48 @@
+package fr.inote.inote_api.controller;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Controller publishing the counters of this instance
+ * <p>
+ * The counters of every StatsSource (validity cache, issuance locks, password
+ * hashing pool, rate limits, revocation broadcast, cluster jobs) are read at
+ * each call, under the name of their source. They are local to the instance
+ * answering.
+ */
+@RestController
+public class StatsController {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final List<StatsSource> statsSources;
+
+    public StatsController(List<StatsSource> statsSources) {
+        this.statsSources = statsSources;
+    }
+
+    /* Endpoints */
+    /* ============================================================ */
+
+    /**
+     * Get the counters of this instance
+     *
+     * @return the counters of each source, by name of source
+     */
+    @GetMapping(path = Endpoint.ADMIN_STATS)
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        for (StatsSource statsSource : this.statsSources) {
+            stats.put(statsSource.getStatsName(), statsSource.getStats());
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
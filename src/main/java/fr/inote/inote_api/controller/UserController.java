@@ -1,22 +1,30 @@
 package fr.inote.inote_api.controller;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteInvalidRevocationScopeException;
+import fr.inote.inote_api.cross_cutting.security.impl.JwtBulkRevoker;
+import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.dto.PublicUserResponseDto;
+import fr.inote.inote_api.dto.SessionRevocationRequestDto;
+import fr.inote.inote_api.dto.SessionRevocationResponseDto;
 import fr.inote.inote_api.dto.UserRequestDto;
 import fr.inote.inote_api.entity.User;
 import fr.inote.inote_api.service.impl.UserServiceImpl;
 
 import static fr.inote.inote_api.cross_cutting.constants.Endpoint.GET_ALL_USERS;
+import static fr.inote.inote_api.cross_cutting.constants.Endpoint.REVOKE_SESSIONS;
 import static fr.inote.inote_api.cross_cutting.constants.Endpoint.USER;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,9 +39,14 @@ public class UserController {
     /* DEPENDENCIES INJECTION */
     /* ============================================================ */
     private final UserServiceImpl userService;
+    private final JwtServiceImpl jwtService;
+    private final ResourceVersions resourceVersions;
 
-    public UserController(UserServiceImpl userService) {
+    public UserController(UserServiceImpl userService, JwtServiceImpl jwtService,
+            ResourceVersions resourceVersions) {
         this.userService = userService;
+        this.jwtService = jwtService;
+        this.resourceVersions = resourceVersions;
     }
 
     /* Endpoints */
@@ -56,26 +69,58 @@ public class UserController {
     /**
      * Get list of all registered users with useful informations for frontend 
      * 
+     * <p>
+     * Answered 304, without query, when If-None-Match holds the current ETag of
+     * the users
+     *
+     * @param webRequest the request, for its If-None-Match header
      * @return List of ProtectedUseRequestDto or "[]" if empty
      */
     @GetMapping(path = GET_ALL_USERS)
-    public ResponseEntity<List<ProtectedUserResponseDto>> getAllUsers() {
-        List<User> users = this.userService.list();
-        List<ProtectedUserResponseDto> protectedUserDtos = new ArrayList<>();
-        for(User item:users){
-            protectedUserDtos.add(
-                new ProtectedUserResponseDto(
-                    item.getName(),
-                    item.getEmail(),
-                    item.isActif(),
-                    item.getPseudonyme(),
-                    item.getAvatar(),
-                    item.getRole().getName().toString()));
+    public ResponseEntity<List<ProtectedUserResponseDto>> getAllUsers(WebRequest webRequest) {
+        String etag = this.resourceVersions.etagOf(ResourceVersions.Collection.USERS);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
         }
-       
         return ResponseEntity
                 .status(HttpStatusCode.valueOf(200))
-                .body(protectedUserDtos);
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(this.userService.listProtectedUsers());
+    }
+
+    /**
+     * Revoke the sessions (tokens and refresh tokens) of a list of users, of the
+     * users of a role, or of everybody before an instant
+     *
+     * @param sessionRevocationRequestDto scope of the revocation
+     * @return number of sessions revoked and time spent
+     * @throws InoteInvalidRevocationScopeException when the scope is not exactly
+     *                                              one of emails, role or
+     *                                              instant
+     */
+    @PostMapping(path = REVOKE_SESSIONS)
+    public ResponseEntity<SessionRevocationResponseDto> revokeSessions(
+            @RequestBody SessionRevocationRequestDto sessionRevocationRequestDto)
+            throws InoteInvalidRevocationScopeException {
+        int scopes = (sessionRevocationRequestDto.emails() != null ? 1 : 0)
+                + (sessionRevocationRequestDto.role() != null ? 1 : 0)
+                + (sessionRevocationRequestDto.issuedBefore() != null ? 1 : 0);
+        if (scopes != 1) {
+            throw new InoteInvalidRevocationScopeException();
+        }
+
+        JwtBulkRevoker.Report report;
+        if (sessionRevocationRequestDto.emails() != null) {
+            report = this.jwtService.revokeSessionsOfUsers(sessionRevocationRequestDto.emails());
+        } else if (sessionRevocationRequestDto.role() != null) {
+            report = this.jwtService.revokeSessionsOfRole(sessionRevocationRequestDto.role());
+        } else {
+            report = this.jwtService.revokeSessionsIssuedBefore(sessionRevocationRequestDto.issuedBefore());
+        }
+
+        return ResponseEntity
+                .status(HttpStatusCode.valueOf(200))
+                .body(new SessionRevocationResponseDto(report.tokens(), report.elapsedInMillis()));
     }
-   
 }
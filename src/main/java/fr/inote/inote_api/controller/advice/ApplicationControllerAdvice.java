@@ -3,7 +3,9 @@ package fr.inote.inote_api.controller.advice;
 import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
 import fr.inote.inote_api.cross_cutting.exceptions.*;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -269,6 +271,73 @@ public class ApplicationControllerAdvice {
         return ProblemDetail.forStatusAndDetail(BAD_REQUEST, ex.getMessage());
     }
 
+    /**
+     * Handle exception when another issuance of tokens of the same user holds
+     * the lock for too long: the request is fine, and can be retried soon
+     * @param ex
+     * @return 503 status code, the delay before a retry in Retry-After and
+     *         exception cause
+     */
+    @ExceptionHandler(value = InoteTokenIssuanceBusyException.class)
+    private ResponseEntity<ProblemDetail> InoteTokenIssuanceBusyExceptionHandler(
+            InoteTokenIssuanceBusyException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity
+                .status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterInSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(SERVICE_UNAVAILABLE, ex.getMessage()));
+    }
+
+    /**
+     * Handle exception when the queue of the password hashing pool is full
+     * @param ex
+     * @return 429 status code and exception cause
+     */
+    @ExceptionHandler(value = InotePasswordHashingBusyException.class)
+    private ProblemDetail InotePasswordHashingBusyExceptionHandler(InotePasswordHashingBusyException ex) {
+        log.warn(ex.getMessage());
+        return ProblemDetail.forStatusAndDetail(TOO_MANY_REQUESTS, ex.getMessage());
+    }
+
+    /**
+     * Handle exception when a client exceeds the rate limit of an endpoint
+     * @param ex
+     * @return 429 status code, the delay before the next allowed request in
+     *         Retry-After and exception cause
+     */
+    @ExceptionHandler(value = InoteRateLimitException.class)
+    private ResponseEntity<ProblemDetail> InoteRateLimitExceptionHandler(InoteRateLimitException ex) {
+        log.warn(ex.getMessage());
+        return ResponseEntity
+                .status(TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterInSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(TOO_MANY_REQUESTS, ex.getMessage()));
+    }
+
+    /**
+     * Handle exception when an introspection request holds too many tokens
+     * @param ex
+     * @return 400 status code and exception cause
+     */
+    @ExceptionHandler(value = InoteIntrospectionBatchTooLargeException.class)
+    private ProblemDetail InoteIntrospectionBatchTooLargeExceptionHandler(
+            InoteIntrospectionBatchTooLargeException ex) {
+        log.warn(ex.getMessage());
+        return ProblemDetail.forStatusAndDetail(BAD_REQUEST, ex.getMessage());
+    }
+
+    /**
+     * Handle exception when the scope of a bulk revocation of sessions is not
+     * exactly one of emails, role or instant
+     * @param ex
+     * @return 400 status code and exception cause
+     */
+    @ExceptionHandler(value = InoteInvalidRevocationScopeException.class)
+    private ProblemDetail InoteInvalidRevocationScopeExceptionHandler(InoteInvalidRevocationScopeException ex) {
+        log.warn(ex.getMessage());
+        return ProblemDetail.forStatusAndDetail(BAD_REQUEST, ex.getMessage());
+    }
+
      /**
      * Handle exception when username is not found
      * @param ex
@@ -8,12 +8,51 @@ public class Endpoint {
     public static final String NEW_PASSWORD = "/api/auth/new-password";
     public static final String REFRESH_TOKEN = "/api/auth/refresh-token";
     public static final String SIGN_OUT = "/api/auth/sign-out";
+    public static final String INTROSPECT = "/api/auth/introspect";
     public static final String CREATE_COMMENT = "/api/comment/create";
     public static final String COMMENT_GET_ALL = "/api/comments";
+    public static final String COMMENTS_EXPORT = "/api/comments/export";
     public static final String GET_CURRENT_USER = "/api/auth/current-user";
     public static final String USER = "/api/users/get-user";
     public static final String GET_ALL_USERS = "/api/users/get-all-users";
-    
-    
-    
+    public static final String USERS_EXPORT = "/api/users/export";
+    public static final String REVOKE_SESSIONS = "/api/users/revoke-sessions";
+    public static final String ADMIN_STATS = "/api/admin/stats";
+
+    /**
+     * Rate limits of the POST endpoints costly for us (bcrypt, mail), applied by
+     * client ip and by authenticated user
+     * <p>
+     * Each client has a bucket of capacity requests, refilled by refillByMinute
+     * requests per minute.
+     */
+    public enum RateLimit {
+        SIGN_IN(Endpoint.SIGN_IN, 10, 10),
+        REGISTER(Endpoint.REGISTER, 3, 3),
+        CHANGE_PASSWORD(Endpoint.CHANGE_PASSWORD, 3, 3),
+        NEW_PASSWORD(Endpoint.NEW_PASSWORD, 5, 5),
+        CREATE_COMMENT(Endpoint.CREATE_COMMENT, 20, 30);
+
+        private final String path;
+        private final int capacity;
+        private final int refillByMinute;
+
+        RateLimit(String path, int capacity, int refillByMinute) {
+            this.path = path;
+            this.capacity = capacity;
+            this.refillByMinute = refillByMinute;
+        }
+
+        public String getPath() {
+            return this.path;
+        }
+
+        public int getCapacity() {
+            return this.capacity;
+        }
+
+        public int getRefillByMinute() {
+            return this.refillByMinute;
+        }
+    }
 }
@@ -34,9 +34,15 @@ public class MessagesEn {
         public static final String ROLE_ERROR_NOT_FOUND = "The asked role doesn't exists in database";
         public static final String NEW_PASSWORD_SUCCESS = "The new password user affectation has been success";
 
+        // PASSWORD
+        public static final String PASSWORD_ERROR_HASHING_BUSY = "Too many sign in or registration requests at the moment, please retry";
+
         // TOKEN
         public static final String TOKEN_ERROR_NOT_FOUND = "Token was not found";
         public static final String TOKEN_ERROR_REFRESH_TOKEN_EXPIRED = "The refresh token is expired";
+        public static final String TOKEN_ERROR_ISSUANCE_BUSY = "Another sign in of this account is in progress, please retry";
+        public static final String TOKEN_ERROR_INTROSPECTION_BATCH_TOO_LARGE = "Too many tokens in the introspection batch";
+        public static final String TOKEN_ERROR_INVALID_REVOCATION_SCOPE = "Exactly one of emails, role or issuedBefore must be given";
 
         // COMMENT
         public static final String COMMENT_ERROR_MESSAGE_IS_EMPTY = "The comment you wish to post contains no message.";
@@ -47,6 +53,9 @@ public class MessagesEn {
                         smtpServer_simul_run.sh" (located in the root folder of the complete project)?
                             """;
 
+        // RATE LIMIT
+        public static final String RATE_LIMIT_ERROR_TOO_MANY_REQUESTS = "Too many requests, please retry later";
+
         // MISCELLEANOUS
         public static final String UNSPECIFIED_ERROR_HAS_OCCURED = "An unspecified error has occurred";
         public static final String EXPIRED_TOKEN = "The JWT has expired";
@@ -1,14 +1,13 @@
 package fr.inote.inote_api.cross_cutting.enums;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 /*
@@ -18,7 +17,6 @@ import lombok.Getter;
  * use the public getAuthorities() method
  */
 
-@AllArgsConstructor
 @Getter
 public enum RoleEnum {
         /*
@@ -59,29 +57,36 @@ public enum RoleEnum {
          */
         private final Set<PermissionEnum> permissions;
 
+        /**
+         * Spring Security authorities of the role, built once with the enum
+         */
+        @Getter(lombok.AccessLevel.NONE)
+        private final List<GrantedAuthority> authorities;
+
+        RoleEnum(Set<PermissionEnum> permissions) {
+                this.permissions = permissions;
+
+                List<GrantedAuthority> grantedAuthorities = new ArrayList<>(permissions.size() + 1);
+                // Each permission is transformed here into an effective authorization
+                // in Spring Security
+                for (PermissionEnum permission : permissions) {
+                        grantedAuthorities.add(new SimpleGrantedAuthority(permission.name()));
+                }
+                // Title this set of permissions
+                grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + this.name()));
+                this.authorities = List.copyOf(grantedAuthorities);
+        }
+
         /**
          * Get the Spring Security Autorities associated to the given role.
          * Nota: GrantedAuthority is a Spring Security interface representing a
          * permission or role
          * assigned to an user of application
          * 
-         * @return a list of authorities for the given role
+         * @return the immutable list of authorities for the given role, the same
+         *         instance at each call
          */
         public Collection<? extends GrantedAuthority> getAuthorities() {
-
-                List<SimpleGrantedAuthority> grantedAuthorities =
-                                // Get the Set for a given role
-                                this.getPermissions()
-                                                // Transforming the Set into a flow to iterate over each permission
-                                                .stream()
-                                                // Each permission is transformed here into an effective authorization
-                                                // in Spring Security
-                                                .map(permission -> new SimpleGrantedAuthority(permission.name()))
-                                                // Collecting permissions in a list
-                                                .collect(Collectors.toList());
-                // Title this set of permissions
-                grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_" + this.name()));
-
-                return grantedAuthorities;
+                return this.authorities;
         }
 }
@@ -0,0 +1,107 @@
+package fr.inote.inote_api.cross_cutting.etag;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version counters of the collections read by the frontend, for the ETags of
+ * their endpoints
+ * <p>
+ * Each write into a collection bumps its counter, and the ETag of a resource
+ * of the collection carries the counter: a conditional GET whose
+ * If-None-Match still holds it is answered 304 before any query or
+ * serialization.
+ * <p>
+ * The counters are local to an instance:
+ * -> the ETags also carry an epoch drawn at startup, so those of another
+ * instance (or of a previous run) never match
+ * -> a write on another instance is not seen here: the ETags also carry the
+ * current window of inote.etag.maxStalenessInSeconds, and change with it. A
+ * client may get 304 for a resource changed elsewhere until the end of the
+ * window. With 0, there is no window (single instance).
+ */
+@Component
+public class ResourceVersions {
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * The versioned collections
+     */
+    public enum Collection {
+        COMMENTS, USERS
+    }
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final AtomicLongArray versions = new AtomicLongArray(Collection.values().length);
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final long windowInMillis;
+
+    public ResourceVersions(@Value("${inote.etag.maxStalenessInSeconds:10}") long maxStalenessInSeconds) {
+        this.windowInMillis = Math.max(0, maxStalenessInSeconds) * 1000;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Record a write into a collection, at once and again after the commit of
+     * the current transaction, if any (a request could read the not yet
+     * committed rows in between and answer them with the new version)
+     *
+     * @param collection the collection written
+     */
+    public void bump(Collection collection) {
+        this.versions.incrementAndGet(collection.ordinal());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ResourceVersions.this.versions.incrementAndGet(collection.ordinal());
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the ETag of a whole collection
+     *
+     * @param collection the collection
+     * @return a weak ETag, quoted
+     */
+    public String etagOf(Collection collection) {
+        return this.etagOf(collection, null);
+    }
+
+    /**
+     * Get the ETag of a resource of a collection
+     *
+     * @param collection the collection
+     * @param key        identifies the resource in the collection, null for
+     *                   the whole collection
+     * @return a weak ETag, quoted
+     */
+    public String etagOf(Collection collection, Object key) {
+        StringBuilder etag = new StringBuilder(48)
+                .append("W/\"")
+                .append(collection.name().toLowerCase())
+                .append('-');
+        if (key != null) {
+            etag.append(key).append('-');
+        }
+        etag.append(this.epoch)
+                .append('-')
+                .append(this.versions.get(collection.ordinal()));
+        if (this.windowInMillis > 0) {
+            etag.append('-').append(System.currentTimeMillis() / this.windowInMillis);
+        }
+        return etag.append('"').toString();
+    }
+}
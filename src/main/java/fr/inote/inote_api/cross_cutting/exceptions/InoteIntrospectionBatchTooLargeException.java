@@ -0,0 +1,9 @@
+package fr.inote.inote_api.cross_cutting.exceptions;
+
+import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
+
+public class InoteIntrospectionBatchTooLargeException extends Exception {
+    public InoteIntrospectionBatchTooLargeException() {
+        super(MessagesEn.TOKEN_ERROR_INTROSPECTION_BATCH_TOO_LARGE);
+    }
+}
@@ -0,0 +1,9 @@
+package fr.inote.inote_api.cross_cutting.exceptions;
+
+import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
+
+public class InoteInvalidRevocationScopeException extends Exception {
+    public InoteInvalidRevocationScopeException() {
+        super(MessagesEn.TOKEN_ERROR_INVALID_REVOCATION_SCOPE);
+    }
+}
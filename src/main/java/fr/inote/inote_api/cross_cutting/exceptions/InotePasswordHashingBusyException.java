@@ -0,0 +1,9 @@
+package fr.inote.inote_api.cross_cutting.exceptions;
+
+import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
+
+public class InotePasswordHashingBusyException extends Exception {
+    public InotePasswordHashingBusyException() {
+        super(MessagesEn.PASSWORD_ERROR_HASHING_BUSY);
+    }
+}
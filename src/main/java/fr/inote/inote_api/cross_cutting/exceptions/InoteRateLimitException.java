@@ -0,0 +1,14 @@
+package fr.inote.inote_api.cross_cutting.exceptions;
+
+import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
+import lombok.Getter;
+
+@Getter
+public class InoteRateLimitException extends Exception {
+    private final long retryAfterInSeconds;
+
+    public InoteRateLimitException(long retryAfterInSeconds) {
+        super(MessagesEn.RATE_LIMIT_ERROR_TOO_MANY_REQUESTS);
+        this.retryAfterInSeconds = retryAfterInSeconds;
+    }
+}
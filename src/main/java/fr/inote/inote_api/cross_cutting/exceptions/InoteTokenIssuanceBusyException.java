@@ -0,0 +1,14 @@
+package fr.inote.inote_api.cross_cutting.exceptions;
+
+import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
+import lombok.Getter;
+
+@Getter
+public class InoteTokenIssuanceBusyException extends Exception {
+    private final long retryAfterInSeconds;
+
+    public InoteTokenIssuanceBusyException(long retryAfterInSeconds) {
+        super(MessagesEn.TOKEN_ERROR_ISSUANCE_BUSY);
+        this.retryAfterInSeconds = retryAfterInSeconds;
+    }
+}
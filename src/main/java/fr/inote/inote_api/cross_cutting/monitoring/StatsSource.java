@@ -0,0 +1,26 @@
+package fr.inote.inote_api.cross_cutting.monitoring;
+
+/**
+ * Component keeping counters of its activity on this instance (hits of a
+ * cache, rejected requests, lag...)
+ * <p>
+ * Every bean implementing this interface is published, under its name, by the
+ * admin stats endpoint (see StatsController): the counters are read there
+ * only, never by the components themselves.
+ */
+public interface StatsSource {
+
+    /**
+     * Get the name of the counters in the published stats
+     *
+     * @return a name unique among the sources
+     */
+    String getStatsName();
+
+    /**
+     * Get the counters since startup
+     *
+     * @return a snapshot of the counters, serialisable in JSON
+     */
+    Object getStats();
+}
@@ -0,0 +1,35 @@
+package fr.inote.inote_api.cross_cutting.scheduling;
+
+import java.time.Duration;
+
+/**
+ * Periodic job run by a single instance of the cluster at each period (see
+ * ClusterJobRunner)
+ * <p>
+ * A bean implementing this interface is scheduled by SchedulingConfiguration;
+ * a run must end well within its period.
+ */
+public interface ClusterJob {
+
+    /**
+     * Get the name of the job, key of its lease
+     *
+     * @return a name of at most 64 characters, the same on every instance
+     */
+    String getName();
+
+    /**
+     * Get the period of the job: it runs once by slot of this duration,
+     * aligned on the epoch
+     *
+     * @return the period
+     */
+    Duration getPeriod();
+
+    /**
+     * Run the job
+     *
+     * @return number of rows affected, recorded with the run
+     */
+    long run();
+}
@@ -0,0 +1,170 @@
+package fr.inote.inote_api.cross_cutting.scheduling;
+
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import fr.inote.inote_api.repository.JobLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.Trigger;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs each ClusterJob on a single instance of the cluster by slot
+ * <p>
+ * Time is cut in slots of the period of the job, aligned on the epoch. Every
+ * instance fires at the start of each slot plus a random jitter (at most
+ * inote.jobs.jitterInMillis, and half the period), then tries to take the
+ * lease of the job in the job_lease table until the end of the slot: the
+ * first one runs the job, the others skip it. Adding an instance adds one
+ * conditional update by slot, not a run.
+ * <p>
+ * The duration and the number of rows of each run are recorded on the lease
+ * and logged. Slots are computed with the clock of each instance: their
+ * clocks must be synchronised well below the jitter.
+ */
+@Slf4j
+@Component
+public class ClusterJobRunner implements StatsSource {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final JobLeaseRepository jobLeaseRepository;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final String nodeId;
+    private final long jitterInMillis;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public ClusterJobRunner(
+            JobLeaseRepository jobLeaseRepository,
+            ClusterNode clusterNode,
+            @Value("${inote.jobs.jitterInMillis:10000}") long jitterInMillis) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.nodeId = clusterNode.getId();
+        this.jitterInMillis = Math.max(jitterInMillis, 0);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Run a job if this instance takes its lease for the current slot
+     *
+     * @param job the job
+     * @param now current instant
+     * @return true if the job has run here
+     */
+    public boolean runIfLeader(ClusterJob job, Instant now) {
+        final Counters jobCounters = this.counters.computeIfAbsent(job.getName(), name -> new Counters());
+        this.createLeaseIfNeeded(job.getName());
+
+        final long period = job.getPeriod().toMillis();
+        final Instant slotEnd = Instant.ofEpochMilli((now.toEpochMilli() / period + 1) * period);
+        if (this.jobLeaseRepository.acquire(job.getName(), this.nodeId, now, slotEnd) == 0) {
+            jobCounters.skipped.increment();
+            return false;
+        }
+
+        final long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = false;
+        try {
+            rows = job.run();
+        } catch (RuntimeException e) {
+            failed = true;
+            log.error("Job {} failed", job.getName(), e);
+        }
+        final long durationInMillis = (System.nanoTime() - start) / 1_000_000;
+        this.jobLeaseRepository.recordRun(job.getName(), this.nodeId, now, durationInMillis, rows, failed);
+
+        jobCounters.runs.increment();
+        if (failed) {
+            jobCounters.failures.increment();
+        }
+        log.info("Job {} run in {} ms: {} rows", job.getName(), durationInMillis, rows);
+        return true;
+    }
+
+    /**
+     * Get the trigger of a job: start of the next slot, plus a random jitter
+     *
+     * @param job the job
+     * @return the trigger
+     */
+    public Trigger triggerOf(ClusterJob job) {
+        final long period = job.getPeriod().toMillis();
+        final long jitter = Math.min(this.jitterInMillis, period / 2);
+        return context -> {
+            Instant last = context.lastScheduledExecution();
+            long from = (last != null ? last : context.getClock().instant()).toEpochMilli();
+            long nextSlot = (from / period + 1) * period;
+            return Instant.ofEpochMilli(nextSlot + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter) : 0));
+        };
+    }
+
+    /**
+     * Get the id of this instance in the leases
+     *
+     * @return the id of the ClusterNode
+     */
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "clusterJobs";
+    }
+
+    /**
+     * Get the counters of each job on this instance
+     *
+     * @return runs, skipped slots and failures since startup, by name of job
+     */
+    @Override
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        this.counters.forEach((name, jobCounters) -> stats.put(name,
+                new Stats(jobCounters.runs.sum(), jobCounters.skipped.sum(), jobCounters.failures.sum())));
+        return stats;
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private void createLeaseIfNeeded(String name) {
+        if (this.jobLeaseRepository.existsById(name)) {
+            return;
+        }
+        try {
+            this.jobLeaseRepository.save(JobLease.builder().name(name).leaseUntil(Instant.EPOCH).build());
+        } catch (DataIntegrityViolationException e) {
+            // Created in the meantime by another instance
+        }
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+    private static final class Counters {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    /**
+     * Counters of a job on this instance
+     *
+     * @param runs     runs on this instance
+     * @param skipped  slots run by another instance
+     * @param failures runs which have thrown
+     */
+    public record Stats(long runs, long skipped, long failures) {
+    }
+}
@@ -0,0 +1,38 @@
+package fr.inote.inote_api.cross_cutting.scheduling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Identity of this instance in the cluster
+ * <p>
+ * The same id marks the leases of the cluster jobs taken by this instance (see
+ * ClusterJobRunner) and the revocations it publishes (see
+ * RevocationBroadcaster). It is set with inote.nodeId, random at each start
+ * otherwise.
+ */
+@Component
+public class ClusterNode {
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final String id;
+
+    public ClusterNode(@Value("${inote.nodeId:}") String id) {
+        this.id = id == null || id.isBlank() ? UUID.randomUUID().toString() : id;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Get the id of this instance
+     *
+     * @return the id, random if inote.nodeId is not set
+     */
+    public String getId() {
+        return this.id;
+    }
+}
@@ -0,0 +1,45 @@
+package fr.inote.inote_api.cross_cutting.scheduling;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Lease of a ClusterJob, and record of its last run
+ * <p>
+ * One row by job. The instance which moves leaseUntil forward, with a
+ * conditional update, runs the job for the current slot.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_lease")
+public class JobLease {
+
+    /* Id & strategy generation <=> primary key */
+    /* ============================================================ */
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    /* Private attributes <=> columns*/
+    /* ============================================================ */
+
+    // Instance holding the lease
+    @Column(length = 64)
+    private String owner;
+    // End of the slot of the lease: nobody else can take it before
+    private Instant leaseUntil;
+
+    private long runs;
+    private Instant lastRunStart;
+    private long lastRunDurationInMillis;
+    private long lastRunRows;
+    private boolean lastRunFailed;
+}
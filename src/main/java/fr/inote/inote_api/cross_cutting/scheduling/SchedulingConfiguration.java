@@ -0,0 +1,44 @@
+package fr.inote.inote_api.cross_cutting.scheduling;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Instant;
+
+/**
+ * Scheduling configuration
+ * <p>
+ * Enables the @Scheduled tasks (compaction of the revocation log...), run by
+ * every instance, and the ClusterJob beans (suppression of the useless
+ * tokens...), run by one instance at each period (see ClusterJobRunner).
+ * They can be disabled with inote.scheduling.enabled=false, as in tests where
+ * a task running in the middle of a test would make it flaky.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "inote.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfiguration implements SchedulingConfigurer {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final ClusterJobRunner clusterJobRunner;
+    private final ObjectProvider<ClusterJob> clusterJobs;
+
+    public SchedulingConfiguration(ClusterJobRunner clusterJobRunner, ObjectProvider<ClusterJob> clusterJobs) {
+        this.clusterJobRunner = clusterJobRunner;
+        this.clusterJobs = clusterJobs;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        this.clusterJobs.orderedStream().forEach(job -> registrar.addTriggerTask(
+                () -> this.clusterJobRunner.runIfLeader(job, Instant.now()),
+                this.clusterJobRunner.triggerOf(job)));
+    }
+}
@@ -0,0 +1,106 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose strength (cost) is chosen for the hardware
+ * <p>
+ * Each step of strength doubles the hashing time. At startup, a hash is timed
+ * at a low strength and the highest strength whose extrapolated time stays
+ * under the target is kept, bounded below by a minimal strength: sign in keeps
+ * the same latency whatever the instance type.
+ * <p>
+ * The hashes stored with a lower strength (the seeded $2y$10 ones on a faster
+ * instance type, those of a slower previous one) are to be upgraded:
+ * upgradeEncoding() is true for them, and the authentication provider then
+ * rehashes the password it has just verified (UserDetailsPasswordService).
+ * Hashes of a higher strength are kept: a slower instance never weakens them.
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final int MAX_STRENGTH = 31;
+    private static final int CALIBRATION_STRENGTH = 6;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final int strength;
+
+    /**
+     * Create an encoder of a given strength
+     *
+     * @param strength log rounds, 4 to 31
+     */
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Create an encoder whose hashing time is closest to a target, without
+     * exceeding it
+     *
+     * @param targetMillis maximum hashing time of a password
+     * @param minStrength  strength kept even if its time exceeds the target
+     * @return the encoder
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(long targetMillis, int minStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_STRENGTH);
+        // First hash warms up the jit, the fastest of the following ones is kept
+        probe.encode("calibration");
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long targetNanos = targetMillis * 1_000_000L;
+        int strength = CALIBRATION_STRENGTH;
+        long nanos = bestNanos;
+        while (strength < MAX_STRENGTH && nanos * 2 <= targetNanos) {
+            strength++;
+            nanos *= 2;
+        }
+        strength = Math.max(strength, minStrength);
+
+        log.info("BCrypt strength {} (about {} ms by hash, target {} ms)", strength,
+                (bestNanos << (strength - CALIBRATION_STRENGTH)) / 1_000_000L, targetMillis);
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * Get the strength of the new hashes
+     *
+     * @return log rounds
+     */
+    public int getStrength() {
+        return this.strength;
+    }
+
+    /**
+     * Tell if a hash was made with a lower strength than the current one
+     *
+     * @param encodedPassword the stored hash
+     * @return true if the password should be hashed again
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(1)) < this.strength;
+    }
+}
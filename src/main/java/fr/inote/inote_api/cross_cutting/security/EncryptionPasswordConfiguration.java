@@ -1,5 +1,6 @@
 package fr.inote.inote_api.cross_cutting.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -21,7 +22,14 @@ public class EncryptionPasswordConfiguration {
     
     /**
      * Create a BCryptPasswordEncoder bean
+     * <p>
+     * Its strength is inote.passwordHashing.strength if set, otherwise the
+     * highest one hashing a password within inote.passwordHashing.targetMillis
+     * on this hardware, and at least inote.passwordHashing.minStrength.
      *
+     * @param strength     fixed strength, 0 to calibrate it at startup
+     * @param targetMillis maximum hashing time targeted by the calibration
+     * @param minStrength  lowest strength the calibration may choose
      * @return BCryptPasswordEncoder bean
      * @author Atsuhiko Mochizuki
      * @date 26/03/2024
@@ -32,7 +40,13 @@ public class EncryptionPasswordConfiguration {
      * context
      */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(
+            @Value("${inote.passwordHashing.strength:0}") int strength,
+            @Value("${inote.passwordHashing.targetMillis:100}") long targetMillis,
+            @Value("${inote.passwordHashing.minStrength:10}") int minStrength) {
+        if (strength > 0) {
+            return new CalibratedBCryptPasswordEncoder(strength);
+        }
+        return CalibratedBCryptPasswordEncoder.calibrate(targetMillis, minStrength);
     }
-}
\ No newline at end of file
+}
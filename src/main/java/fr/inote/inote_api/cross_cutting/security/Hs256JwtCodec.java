@@ -0,0 +1,666 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Specialised HS256 codec for the tokens issued by Inote
+ * <p>
+ * The claims of our tokens are always the same: name, sub, exp, iat and jti,
+ * followed by role and uid when the token carries the principal.
+ * Instead of building a claims map serialized by Jackson for each token, this
+ * codec writes the JSON payload and its base64url encoding directly into
+ * buffers reused by the thread, and signs them with a Mac also reused by the
+ * thread. The only allocation of an encoding is the returned String.
+ * <p>
+ * Decoding checks the signature before anything else, and raises the same
+ * jjwt exceptions as the jjwt parser (MalformedJwtException,
+ * SignatureException, ExpiredJwtException...).
+ * A token outside of our fixed format (other header, other claims) is not
+ * decoded: decode() returns null, and the caller must use the jjwt parser.
+ * <p>
+ * A codec built with a key id (kid) writes it in the header of its tokens,
+ * and only decodes tokens with this exact header.
+ */
+public final class Hs256JwtCodec {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+
+    /* Base64url encoding of {"alg":"HS256"} */
+    static final String ENCODED_HEADER = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final String HEX = "0123456789abcdef";
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BASE64URL_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, (byte) -1);
+        for (int i = 0; i < BASE64URL.length; i++) {
+            BASE64URL_VALUES[BASE64URL[i]] = (byte) i;
+        }
+    }
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final SecretKeySpec key;
+    private final String encodedHeader;
+    private final byte[] encodedHeaderBytes;
+    private final ThreadLocal<Buffers> buffers;
+
+    public Hs256JwtCodec(byte[] secret) {
+        this(secret, null);
+    }
+
+    /**
+     * Build a codec whose tokens carry a key id
+     *
+     * @param secret HMAC secret
+     * @param kid    key id written in the header, none if null. Letters,
+     *               digits, '.', '_' and '-' only
+     */
+    public Hs256JwtCodec(byte[] secret, String kid) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.encodedHeader = encodedHeader(kid);
+        this.encodedHeaderBytes = this.encodedHeader.getBytes(StandardCharsets.US_ASCII);
+        this.buffers = ThreadLocal.withInitial(() -> new Buffers(this.newMac()));
+    }
+
+    /**
+     * Get the base64url encoded header of the tokens of a key
+     *
+     * @param kid key id, none if null
+     * @return the encoded header
+     */
+    public static String encodedHeader(String kid) {
+        if (kid == null) {
+            return ENCODED_HEADER;
+        }
+        if (!kid.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("Invalid key id: " + kid);
+        }
+        byte[] header = ("{\"alg\":\"HS256\",\"kid\":\"" + kid + "\"}").getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = new byte[(header.length * 4 + 2) / 3];
+        encodeBase64Url(header, header.length, encoded, 0);
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Build and sign a token
+     *
+     * @param name       name of the user
+     * @param subject    email of the user
+     * @param issuedAt   creation of the token, in epoch seconds
+     * @param expiration expiration of the token, in epoch seconds
+     * @param id         id of the token (jti), omitted if null
+     * @return the compact token
+     */
+    public String encode(String name, String subject, long issuedAt, long expiration, String id) {
+        return this.encode(name, subject, issuedAt, expiration, id, null, null);
+    }
+
+    /**
+     * Build and sign a token carrying the principal
+     *
+     * @param name       name of the user
+     * @param subject    email of the user
+     * @param issuedAt   creation of the token, in epoch seconds
+     * @param expiration expiration of the token, in epoch seconds
+     * @param id         id of the token (jti), omitted if null
+     * @param role       role of the user, omitted if null
+     * @param userId     id of the user, omitted if null
+     * @return the compact token
+     */
+    public String encode(String name, String subject, long issuedAt, long expiration, String id,
+            String role, Integer userId) {
+        Buffers buffers = this.buffers.get();
+
+        // JSON payload
+        buffers.jsonLength = 0;
+        buffers.appendAscii("{\"name\":");
+        buffers.appendJsonString(name);
+        buffers.appendAscii(",\"sub\":");
+        buffers.appendJsonString(subject);
+        buffers.appendAscii(",\"exp\":");
+        buffers.appendLong(expiration);
+        buffers.appendAscii(",\"iat\":");
+        buffers.appendLong(issuedAt);
+        if (id != null) {
+            buffers.appendAscii(",\"jti\":");
+            buffers.appendJsonString(id);
+        }
+        if (role != null) {
+            buffers.appendAscii(",\"role\":");
+            buffers.appendJsonString(role);
+        }
+        if (userId != null) {
+            buffers.appendAscii(",\"uid\":");
+            buffers.appendLong(userId);
+        }
+        buffers.appendAscii("}");
+
+        // header.payload, then signature
+        byte[] out = buffers.token(this.encodedHeaderBytes.length + 2 + (buffers.jsonLength * 4 + 2) / 3
+                + ENCODED_SIGNATURE_LENGTH);
+        int position = this.encodedHeaderBytes.length;
+        System.arraycopy(this.encodedHeaderBytes, 0, out, 0, position);
+        out[position++] = '.';
+        position = encodeBase64Url(buffers.json, buffers.jsonLength, out, position);
+
+        buffers.mac.update(out, 0, position);
+        buffers.sign();
+        out[position++] = '.';
+        position = encodeBase64Url(buffers.signature, SIGNATURE_LENGTH, out, position);
+
+        return new String(out, 0, position, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Verify and decode a token
+     *
+     * @param token the compact token
+     * @return the verified claims, or null if the token is not in our fixed
+     *         format
+     */
+    public VerifiedClaims decode(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters.");
+        }
+        if (secondDot == token.length() - 1) {
+            throw new UnsupportedJwtException("Unsigned Claims JWTs are not supported.");
+        }
+        if (firstDot != this.encodedHeader.length() || !token.startsWith(this.encodedHeader)
+                || token.indexOf('=', firstDot) >= 0) {
+            return null;
+        }
+
+        Buffers buffers = this.buffers.get();
+
+        // Signature verification, in constant time
+        byte[] signed = buffers.token(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c > 127) {
+                throw new MalformedJwtException("JWT strings must be ASCII.");
+            }
+            signed[i] = (byte) c;
+        }
+        buffers.mac.update(signed, 0, secondDot);
+        buffers.sign();
+        encodeBase64Url(buffers.signature, SIGNATURE_LENGTH, buffers.expectedSignature, 0);
+        int difference = token.length() - secondDot - 1 ^ ENCODED_SIGNATURE_LENGTH;
+        if (difference == 0) {
+            for (int i = 0; i < ENCODED_SIGNATURE_LENGTH; i++) {
+                difference |= buffers.expectedSignature[i] ^ signed[secondDot + 1 + i];
+            }
+        }
+        if (difference != 0) {
+            throw new SignatureException("JWT signature does not match locally computed signature."
+                    + " JWT validity cannot be asserted and should not be trusted.");
+        }
+
+        // Payload decoding
+        buffers.jsonLength = decodeBase64Url(signed, firstDot + 1, secondDot, buffers);
+        PayloadReader reader = new PayloadReader(buffers.json, buffers.jsonLength);
+        if (!reader.read()) {
+            return null;
+        }
+
+        VerifiedClaims claims = new VerifiedClaims(
+                reader.id,
+                reader.subject,
+                reader.name,
+                reader.issuedAt == null ? null : Instant.ofEpochSecond(reader.issuedAt),
+                reader.expiration == null ? null : Instant.ofEpochSecond(reader.expiration),
+                reader.role,
+                reader.userId);
+        if (reader.expiration != null && System.currentTimeMillis() > reader.expiration * 1000) {
+            throw this.expired(claims);
+        }
+        return claims;
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(this.key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ExpiredJwtException expired(VerifiedClaims verifiedClaims) {
+        Claims claims = Jwts.claims();
+        claims.setId(verifiedClaims.id());
+        claims.setSubject(verifiedClaims.subject());
+        claims.put("name", verifiedClaims.name());
+        claims.setExpiration(Date.from(verifiedClaims.expiration()));
+        if (verifiedClaims.issuedAt() != null) {
+            claims.setIssuedAt(Date.from(verifiedClaims.issuedAt()));
+        }
+        return new ExpiredJwtException(Jwts.header(), claims,
+                "JWT expired at " + verifiedClaims.expiration() + ". Current time: " + Instant.now());
+    }
+
+    private static int encodeBase64Url(byte[] source, int length, byte[] out, int position) {
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (source[i] & 0xff) << 16 | (source[i + 1] & 0xff) << 8 | (source[i + 2] & 0xff);
+            out[position++] = BASE64URL[bits >>> 18];
+            out[position++] = BASE64URL[(bits >>> 12) & 0x3f];
+            out[position++] = BASE64URL[(bits >>> 6) & 0x3f];
+            out[position++] = BASE64URL[bits & 0x3f];
+        }
+        if (i < length) {
+            int bits = (source[i] & 0xff) << 16 | (i + 1 < length ? (source[i + 1] & 0xff) << 8 : 0);
+            out[position++] = BASE64URL[bits >>> 18];
+            out[position++] = BASE64URL[(bits >>> 12) & 0x3f];
+            if (i + 1 < length) {
+                out[position++] = BASE64URL[(bits >>> 6) & 0x3f];
+            }
+        }
+        return position;
+    }
+
+    private static int decodeBase64Url(byte[] source, int from, int to, Buffers buffers) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            throw new MalformedJwtException("Invalid base64url payload.");
+        }
+        byte[] out = buffers.json(length * 3 / 4);
+        int position = 0;
+        int bits = 0;
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            byte value = BASE64URL_VALUES[source[i]];
+            if (value < 0) {
+                throw new MalformedJwtException("Invalid base64url payload.");
+            }
+            bits = bits << 6 | value;
+            if (++count == 4) {
+                out[position++] = (byte) (bits >> 16);
+                out[position++] = (byte) (bits >> 8);
+                out[position++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count == 2) {
+            out[position++] = (byte) (bits >> 4);
+        } else if (count == 3) {
+            out[position++] = (byte) (bits >> 10);
+            out[position++] = (byte) (bits >> 2);
+        }
+        return position;
+    }
+
+    /* INNER TYPES */
+    /* ============================================================ */
+
+    /**
+     * Mac and buffers of a thread
+     */
+    private static final class Buffers {
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private final byte[] expectedSignature = new byte[ENCODED_SIGNATURE_LENGTH];
+        private byte[] json = new byte[256];
+        private int jsonLength;
+        private byte[] token = new byte[512];
+
+        private Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        private void sign() {
+            try {
+                this.mac.doFinal(this.signature, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private byte[] token(int capacity) {
+            if (this.token.length < capacity) {
+                this.token = new byte[Math.max(capacity, this.token.length * 2)];
+            }
+            return this.token;
+        }
+
+        private byte[] json(int capacity) {
+            if (this.json.length < capacity) {
+                this.json = Arrays.copyOf(this.json, Math.max(capacity, this.json.length * 2));
+            }
+            return this.json;
+        }
+
+        private void append(int b) {
+            if (this.jsonLength == this.json.length) {
+                this.json(this.jsonLength + 1);
+            }
+            this.json[this.jsonLength++] = (byte) b;
+        }
+
+        private void appendAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                this.append(value.charAt(i));
+            }
+        }
+
+        private void appendLong(long value) {
+            if (value < 0) {
+                this.append('-');
+            } else {
+                value = -value;
+            }
+            // Digits are computed on the negative value, which covers Long.MIN_VALUE
+            int start = this.jsonLength;
+            do {
+                this.append('0' - (int) (value % 10));
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = this.jsonLength - 1; i < j; i++, j--) {
+                byte digit = this.json[i];
+                this.json[i] = this.json[j];
+                this.json[j] = digit;
+            }
+        }
+
+        private void appendJsonString(String value) {
+            if (value == null) {
+                this.appendAscii("null");
+                return;
+            }
+            this.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    this.append('\\');
+                    this.append(c);
+                } else if (c < 0x20) {
+                    this.appendAscii("\\u00");
+                    this.append(HEX.charAt(c >> 4));
+                    this.append(HEX.charAt(c & 0xf));
+                } else if (c < 0x80) {
+                    this.append(c);
+                } else if (c < 0x800) {
+                    this.append(0xc0 | c >> 6);
+                    this.append(0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    this.append(0xf0 | codePoint >> 18);
+                    this.append(0x80 | codePoint >> 12 & 0x3f);
+                    this.append(0x80 | codePoint >> 6 & 0x3f);
+                    this.append(0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    this.append('?');
+                } else {
+                    this.append(0xe0 | c >> 12);
+                    this.append(0x80 | c >> 6 & 0x3f);
+                    this.append(0x80 | c & 0x3f);
+                }
+            }
+            this.append('"');
+        }
+    }
+
+    /**
+     * Reader of a flat JSON payload made of our claims only
+     */
+    private static final class PayloadReader {
+        private final byte[] json;
+        private final int length;
+        private int position;
+
+        private String name;
+        private String subject;
+        private String id;
+        private Long expiration;
+        private Long issuedAt;
+        private String role;
+        private Integer userId;
+
+        private PayloadReader(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        /**
+         * Read the payload
+         *
+         * @return false if the payload contains other claims or other types than
+         *         expected
+         */
+        private boolean read() {
+            this.expect('{');
+            if (this.peek() == '}') {
+                this.position++;
+                return this.end();
+            }
+            byte separator;
+            do {
+                String claim = this.readString();
+                this.expect(':');
+                switch (claim) {
+                    case "name", "sub", "jti", "role" -> {
+                        if (this.peek() != '"' && this.peek() != 'n') {
+                            return false;
+                        }
+                        String value = this.readNullableString();
+                        if (claim.equals("name")) {
+                            this.name = value;
+                        } else if (claim.equals("sub")) {
+                            this.subject = value;
+                        } else if (claim.equals("jti")) {
+                            this.id = value;
+                        } else {
+                            this.role = value;
+                        }
+                    }
+                    case "exp", "iat" -> {
+                        Long value = this.readLong();
+                        if (value == null) {
+                            return false;
+                        }
+                        if (claim.equals("exp")) {
+                            this.expiration = value;
+                        } else {
+                            this.issuedAt = value;
+                        }
+                    }
+                    case "uid" -> {
+                        Long value = this.readLong();
+                        if (value == null || value != value.intValue()) {
+                            return false;
+                        }
+                        this.userId = value.intValue();
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+                separator = this.next();
+            } while (separator == ',');
+            if (separator != '}') {
+                throw this.malformed();
+            }
+            return this.end();
+        }
+
+        private boolean end() {
+            this.skipWhitespaces();
+            if (this.position != this.length) {
+                throw this.malformed();
+            }
+            return true;
+        }
+
+        private String readNullableString() {
+            if (this.peek() == 'n') {
+                this.expectLiteral("null");
+                return null;
+            }
+            return this.readString();
+        }
+
+        private String readString() {
+            this.expect('"');
+            int start = this.position;
+            StringBuilder escaped = null;
+            while (true) {
+                if (this.position >= this.length) {
+                    throw this.malformed();
+                }
+                byte b = this.json[this.position];
+                if (b == '"') {
+                    String tail = new String(this.json, start, this.position - start, StandardCharsets.UTF_8);
+                    this.position++;
+                    return escaped == null ? tail : escaped.append(tail).toString();
+                }
+                if (b == '\\') {
+                    if (escaped == null) {
+                        escaped = new StringBuilder();
+                    }
+                    escaped.append(new String(this.json, start, this.position - start, StandardCharsets.UTF_8));
+                    this.position++;
+                    escaped.append(this.readEscape());
+                    start = this.position;
+                } else {
+                    this.position++;
+                }
+            }
+        }
+
+        private char readEscape() {
+            if (this.position >= this.length) {
+                throw this.malformed();
+            }
+            byte b = this.json[this.position++];
+            switch (b) {
+                case '"', '\\', '/':
+                    return (char) b;
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 't':
+                    return '\t';
+                case 'u':
+                    if (this.position + 4 > this.length) {
+                        throw this.malformed();
+                    }
+                    int value = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(this.json[this.position++], 16);
+                        if (digit < 0) {
+                            throw this.malformed();
+                        }
+                        value = value << 4 | digit;
+                    }
+                    return (char) value;
+                default:
+                    throw this.malformed();
+            }
+        }
+
+        /**
+         * Read an integer
+         *
+         * @return the value, or null if the value is not an integer
+         */
+        private Long readLong() {
+            this.skipWhitespaces();
+            int start = this.position;
+            if (this.position < this.length && this.json[this.position] == '-') {
+                this.position++;
+            }
+            int digits = 0;
+            long value = 0;
+            while (this.position < this.length && this.json[this.position] >= '0'
+                    && this.json[this.position] <= '9') {
+                value = value * 10 - (this.json[this.position++] - '0');
+                digits++;
+            }
+            if (digits == 0 || digits > 18) {
+                this.position = start;
+                return null;
+            }
+            byte next = this.peek();
+            if (next == '.' || next == 'e' || next == 'E') {
+                return null;
+            }
+            return this.json[start] == '-' ? value : -value;
+        }
+
+        private void expectLiteral(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (this.position >= this.length || this.json[this.position++] != literal.charAt(i)) {
+                    throw this.malformed();
+                }
+            }
+        }
+
+        private void expect(char expected) {
+            if (this.next() != expected) {
+                throw this.malformed();
+            }
+        }
+
+        private byte next() {
+            this.skipWhitespaces();
+            if (this.position >= this.length) {
+                throw this.malformed();
+            }
+            return this.json[this.position++];
+        }
+
+        private byte peek() {
+            this.skipWhitespaces();
+            return this.position < this.length ? this.json[this.position] : 0;
+        }
+
+        private void skipWhitespaces() {
+            while (this.position < this.length && (this.json[this.position] == ' '
+                    || this.json[this.position] == '\t' || this.json[this.position] == '\n'
+                    || this.json[this.position] == '\r')) {
+                this.position++;
+            }
+        }
+
+        private MalformedJwtException malformed() {
+            return new MalformedJwtException("Unable to read JWT payload.");
+        }
+    }
+}
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.util.Date;
 
 @Builder
@@ -14,7 +15,9 @@ import java.util.Date;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "jwt")
+@Table(name = "jwt", indexes = {
+        @Index(name = "idx_jwt_content_digest", columnList = "contentDigest", unique = true),
+        @Index(name = "idx_jwt_refresh_token_expiration", columnList = "refreshTokenExpiration") })
 public class Jwt {
 
     /* Id & strategy generation <=> primary key */
@@ -25,10 +28,26 @@ public class Jwt {
 
     /* Private attributes <=> columns*/
     /* ============================================================ */
+
+    // The token itself is never stored, only its digest (unique index)
+    @Transient
     private String contentValue;
+    @Column(length = TokenDigest.LENGTH)
+    private String contentDigest;
+    // Id of the token (jti claim), used by the stateless revocation
+    @Column(length = 64)
+    private String jti;
     private boolean deactivated;
     private boolean expired;
+    // Instant after which the row is useless (expiration of the refresh token, or
+    // revocation time), used by the reaper
     private Date refreshTokenExpiration;
+    // Instant of issuance, used by the revocation of the tokens issued before an
+    // instant (null on the tokens issued before this column existed)
+    private Instant issuedAt;
+    // Time bucket of the expiration of the refresh token at issuance: the
+    // partition of the row in the partitioned layout (see TokenPartitions)
+    private Integer bucket;
 
     /* Private attributes in relations with others entities <=> foreign key*/
     /* ============================================================ */
@@ -43,4 +62,14 @@ public class Jwt {
     @ManyToOne(cascade = { CascadeType.DETACH, CascadeType.MERGE })
     @JoinColumn(name = "user_id")
     private User user;
+
+    /* Entity lifecycle */
+    /* ============================================================ */
+    @PrePersist
+    @PreUpdate
+    private void computeContentDigest() {
+        if (this.contentValue != null) {
+            this.contentDigest = TokenDigest.of(this.contentValue);
+        }
+    }
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package fr.inote.inote_api.cross_cutting.security;
 
+import fr.inote.inote_api.cross_cutting.exceptions.InoteNotAuthenticatedUserException;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import lombok.NonNull;
 
+import java.time.Instant;
+
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.AUTHORIZATION;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
 
@@ -70,9 +75,8 @@ public class JwtFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain) {
 
         String token;
-        Jwt tokenInDatabase = null;
-        String username = null;
-        boolean isTokenExpired = true;
+        String tokenOwner = null;
+        VerifiedClaims claims = null;
 
         try {
 
@@ -84,17 +88,21 @@ public class JwtFilter extends OncePerRequestFilter {
                 // Token cleaning
                 token = authorization.substring(7);
 
-                // Token verification
-                tokenInDatabase = jwtServiceImpl.findValidToken(token);
-
-                // Get expiration token status
-                isTokenExpired = jwtServiceImpl.isTokenExpired(token);
+                // Token decoding and signature verification, done once per request.
+                // A token that we did not sign is rejected before any database access
+                try {
+                    claims = jwtServiceImpl.verify(token);
+                } catch (ExpiredJwtException expiredJwtException) {
+                    throw expiredJwtException;
+                } catch (JwtException jwtException) {
+                    throw new InoteNotAuthenticatedUserException();
+                }
 
-                // username recuperation
-                username = jwtServiceImpl.extractUsername(token);
+                // Token verification in validity cache, then in database on cache miss
+                tokenOwner = jwtServiceImpl.findValidTokenOwner(token, claims);
 
-                if (!isTokenExpired
-                        && tokenInDatabase.getUser().getEmail().equals(username)
+                if (!claims.isExpiredAt(Instant.now())
+                        && tokenOwner.equals(claims.subject())
                         /*
                          * The SecurityContextHolder.getContext().getAuthentication() method is used in
                          * Spring Security to retrieve the currently authenticated user’s information
@@ -105,8 +113,12 @@ public class JwtFilter extends OncePerRequestFilter {
                      * UserDetails interface represents information about a user. It contains
                      * details such as the user’s username, password, authorities (roles), and
                      * additional attributes
+                     * It is built from the token when it carries the principal, else loaded
                      */
-                    UserDetails userDetails = utilisateurService.loadUserByUsername(username);
+                    UserDetails userDetails = jwtServiceImpl.principalOf(claims);
+                    if (userDetails == null) {
+                        userDetails = utilisateurService.loadUserByUsername(claims.subject());
+                    }
 
                     /*
                      * UsernamePasswordAuthenticationToken is a concrete implementation of the
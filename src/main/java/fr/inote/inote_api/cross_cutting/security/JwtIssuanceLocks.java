@@ -0,0 +1,148 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.exceptions.InoteTokenIssuanceBusyException;
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped locks serialising the issuance of tokens of a same user
+ * <p>
+ * A sign in or a refresh revokes the tokens of the user, then inserts the new
+ * ones. Run concurrently for the same user, these transactions update the same
+ * jwt rows (lock waits, deadlocks) and may each leave their token active.
+ * They are serialised here, in memory, before touching the database.
+ * <p>
+ * A user id is mapped to one of jwt.issuance.lockStripes locks: two users
+ * share a lock only if they fall on the same stripe, so unrelated users stay
+ * parallel without one lock object per user.
+ * The lock is held until the end (commit or rollback) of the current
+ * transaction, and waited for at most jwt.issuance.lockTimeoutInMillis.
+ * <p>
+ * The serialisation is per instance: several instances of the api still rely
+ * on the database locks.
+ */
+@Slf4j
+@Component
+public class JwtIssuanceLocks implements StatsSource {
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final ReentrantLock[] stripes;
+    private final long timeoutInMillis;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contentions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitInNanos = new LongAdder();
+
+    public JwtIssuanceLocks(
+            @Value("${jwt.issuance.lockStripes:64}") int stripes,
+            @Value("${jwt.issuance.lockTimeoutInMillis:3000}") long timeoutInMillis) {
+        // Power of two, for the stripe to be selected with a mask
+        int size = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Lock the issuance of tokens of an user until the end of the current
+     * transaction
+     *
+     * @param userId id of the user
+     * @throws InoteTokenIssuanceBusyException when the lock is not obtained in
+     *                                         time
+     */
+    public void lockUntilEndOfTransaction(Integer userId) throws InoteTokenIssuanceBusyException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Tokens must be issued within a transaction");
+        }
+        final ReentrantLock lock = this.stripeOf(userId);
+        this.acquire(lock, userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public String getStatsName() {
+        return "jwtIssuanceLocks";
+    }
+
+    /**
+     * Get the counters of the locks
+     *
+     * @return the counters since startup
+     */
+    @Override
+    public Stats getStats() {
+        return new Stats(this.acquisitions.sum(), this.contentions.sum(), this.timeouts.sum(),
+                TimeUnit.NANOSECONDS.toMillis(this.waitInNanos.sum()));
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private void acquire(ReentrantLock lock, Integer userId) throws InoteTokenIssuanceBusyException {
+        if (lock.tryLock()) {
+            this.acquisitions.increment();
+            return;
+        }
+
+        this.contentions.increment();
+        final long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(this.timeoutInMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            this.waitInNanos.add(System.nanoTime() - start);
+        }
+
+        if (!acquired) {
+            this.timeouts.increment();
+            log.warn("Tokens issuance of user {} still locked after {} ms", userId, this.timeoutInMillis);
+            // The other issuance should be over within one more wait
+            throw new InoteTokenIssuanceBusyException(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(
+                    this.timeoutInMillis + 999)));
+        }
+        this.acquisitions.increment();
+    }
+
+    private ReentrantLock stripeOf(Integer userId) {
+        // Fibonacci hashing spreads consecutive ids over the stripes
+        int hash = (userId == null ? 0 : userId) * 0x9E3779B9;
+        return this.stripes[(hash ^ (hash >>> 16)) & (this.stripes.length - 1)];
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * Counters of the locks
+     *
+     * @param acquisitions      locks obtained
+     * @param contentions       locks already held by another issuance when asked
+     * @param timeouts          locks not obtained in time
+     * @param totalWaitInMillis time spent waiting for held locks
+     */
+    public record Stats(long acquisitions, long contentions, long timeouts, long totalWaitInMillis) {
+    }
+}
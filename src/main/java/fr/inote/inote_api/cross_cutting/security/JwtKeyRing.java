@@ -0,0 +1,162 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of the signing keys of the tokens, indexed by key id (kid)
+ * <p>
+ * Each key is derived once, with its codec, when the ring is built:
+ * -> the active key signs the new tokens, with its kid in their header
+ * -> every key of the ring verifies the tokens carrying its kid, until its
+ * optional retirement instant
+ * -> the legacy key (jwt.encryptionKey) has no kid: it verifies the tokens
+ * issued without kid, and signs when no other key is active
+ * <p>
+ * The verifier of a token is selected by a single lookup of its encoded
+ * header, without decoding it: all the headers are known in advance.
+ * <p>
+ * Rotation without logging everybody out:
+ * 1. add the new key to jwt.keyRing.keys on every instance (it verifies only)
+ * 2. make it active with jwt.keyRing.activeKid (it signs)
+ * 3. give the previous key a retirement instant beyond the expiration of the
+ * last tokens it signed, or remove it afterwards
+ * The tokens signed by the previous key stay valid until they expire or are
+ * refreshed: there is no wave of sign in.
+ */
+public final class JwtKeyRing {
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final Member signer;
+    private final Map<String, Member> byEncodedHeader = new HashMap<>();
+    private final Map<String, Member> byKid = new HashMap<>();
+
+    /**
+     * Build a ring
+     *
+     * @param legacyKey key of the tokens issued without kid
+     * @param keys      other keys, comma separated, each one as
+     *                  kid:base64 secret[:retirement in epoch seconds]
+     * @param activeKid kid of the key signing the new tokens, the legacy key
+     *                  if blank
+     */
+    public JwtKeyRing(Key legacyKey, String keys, String activeKid) {
+        this.add(new Member(null, legacyKey, new Hs256JwtCodec(legacyKey.getEncoded()), null));
+
+        if (keys != null && !keys.isBlank()) {
+            for (String definition : keys.split(",")) {
+                String[] parts = definition.trim().split(":");
+                if (parts.length < 2 || parts.length > 3) {
+                    throw new IllegalArgumentException("Invalid key definition, expected kid:secret[:notAfter]");
+                }
+                String kid = parts[0];
+                if (this.byKid.containsKey(kid)) {
+                    throw new IllegalArgumentException("Duplicate key id: " + kid);
+                }
+                Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(parts[1]));
+                Instant notAfter = parts.length == 3 ? Instant.ofEpochSecond(Long.parseLong(parts[2])) : null;
+                this.add(new Member(kid, key, new Hs256JwtCodec(key.getEncoded(), kid), notAfter));
+            }
+        }
+
+        if (activeKid == null || activeKid.isBlank()) {
+            this.signer = this.byKid.get("");
+        } else {
+            this.signer = this.byKid.get(activeKid);
+            if (this.signer == null) {
+                throw new IllegalStateException("Active key " + activeKid + " is not in the key ring");
+            }
+            if (this.signer.isRetiredAt(Instant.now())) {
+                throw new IllegalStateException("Active key " + activeKid + " is retired");
+            }
+        }
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Get the codec signing the new tokens
+     *
+     * @return the codec of the active key
+     */
+    public Hs256JwtCodec signer() {
+        return this.signer.codec();
+    }
+
+    /**
+     * Get the kid of the key signing the new tokens
+     *
+     * @return the kid, null for the legacy key
+     */
+    public String activeKid() {
+        return this.signer.kid();
+    }
+
+    /**
+     * Verify and decode a token with the key designated by its header
+     *
+     * @param token the compact token
+     * @return the verified claims, or null if the header or the claims are not
+     *         in the fixed format of our codecs
+     * @throws SignatureException when the key of the token is retired
+     */
+    public VerifiedClaims decode(String token) {
+        int firstDot = token.indexOf('.');
+        Member member = firstDot < 0 ? null : this.byEncodedHeader.get(token.substring(0, firstDot));
+        if (member == null) {
+            return null;
+        }
+        member.checkNotRetired();
+        return member.codec().decode(token);
+    }
+
+    /**
+     * Get the key of a kid, for the tokens parsed by jjwt
+     *
+     * @param kid key id read in the header of the token, null if none
+     * @return the key
+     * @throws SignatureException when the key is unknown or retired
+     */
+    public Key keyOf(String kid) {
+        Member member = this.byKid.get(kid == null ? "" : kid);
+        if (member == null) {
+            throw new SignatureException("Unknown key id: " + kid);
+        }
+        member.checkNotRetired();
+        return member.key();
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private void add(Member member) {
+        this.byKid.put(member.kid() == null ? "" : member.kid(), member);
+        this.byEncodedHeader.put(Hs256JwtCodec.encodedHeader(member.kid()), member);
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * A key of the ring, with its prebuilt codec
+     */
+    private record Member(String kid, Key key, Hs256JwtCodec codec, Instant notAfter) {
+
+        private boolean isRetiredAt(Instant instant) {
+            return this.notAfter != null && this.notAfter.isBefore(instant);
+        }
+
+        private void checkNotRetired() {
+            if (this.isRetiredAt(Instant.now())) {
+                throw new SignatureException("Key " + this.kid + " is retired since " + this.notAfter);
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids (jti), used by the stateless validation mode
+ * <p>
+ * The revoked ids are kept in memory, for a lookup without any database
+ * access, and appended to a memory-mapped file so that they survive a restart.
+ * <p>
+ * Layout of the file:
+ * -> a header of {@value #HEADER_SIZE} bytes: magic number, record size and
+ * number of records
+ * -> fixed records of {@value #RECORD_SIZE} bytes: expiration of the token in
+ * epoch seconds, length of the id, then the id in ASCII
+ * <p>
+ * A record is written before the number of records is incremented, so a crash
+ * during an append loses at most this record.
+ * A revocation returns once its record is flushed to disk, but the flushes are
+ * grouped: the msync runs outside the monitor, and one flush covers every
+ * record appended before it. Concurrent revocations don't queue up behind one
+ * flush each.
+ * <p>
+ * compact() drops the expired records in place (the live ones are moved
+ * towards the start of the file, in their order, so a crash leaves each of
+ * them at least once), and does nothing when none has expired. The file is
+ * only rewritten and mapped again when it is opened, and when it must grow.
+ * <p>
+ * The file (jwt.revocation.logFile) must be set explicitly, on a persistent
+ * disk, and be specific to the instance: the temporary directory may be
+ * emptied on reboot. An instance holds a lock on the file (a sibling .lock
+ * file) while it is open: a second instance using the same file fails to start.
+ * Nothing is opened until the first use, so the file does not exist when the
+ * stateless mode is not enabled.
+ */
+@Slf4j
+@Component
+public class JwtRevocationLog {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    static final int MAGIC = 0x494E4A52; // "INJR"
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 64;
+    static final int MAX_ID_LENGTH = RECORD_SIZE - Long.BYTES - 1;
+    private static final int COUNT_OFFSET = 8;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final Path file;
+    private final int initialCapacity;
+
+    /* revoked id -> expiration of the token in epoch seconds */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile boolean opened;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int count;
+
+    /* Appends since the opening, and those already flushed */
+    private final Object flushMonitor = new Object();
+    private long appended;
+    private long flushed;
+
+    public JwtRevocationLog(
+            @Value("${jwt.revocation.logFile:}") String file,
+            @Value("${jwt.revocation.initialCapacity:4096}") int initialCapacity) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.initialCapacity = Math.max(initialCapacity, 1);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Get revocation status of a token id
+     *
+     * @param id id (jti) of the token
+     * @return true if the token has been revoked
+     */
+    public boolean isRevoked(String id) {
+        this.openIfNeeded();
+        return this.revoked.containsKey(id);
+    }
+
+    /**
+     * Revoke a token id, until the expiration of the token
+     * <p>
+     * Returns once the record is on disk.
+     *
+     * @param id         id (jti) of the token
+     * @param expiration expiration of the token
+     */
+    public void revoke(String id, Instant expiration) {
+        byte[] idBytes = id.getBytes(StandardCharsets.US_ASCII);
+        if (idBytes.length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Token id longer than " + MAX_ID_LENGTH + " characters");
+        }
+        final long sequence;
+        synchronized (this) {
+            this.openIfNeeded();
+            long now = Instant.now().getEpochSecond();
+            long expiresAt = expiration.getEpochSecond();
+            if (expiresAt <= now || this.revoked.containsKey(id)) {
+                return;
+            }
+            if (this.count == this.capacity) {
+                this.makeRoom(now);
+            }
+            this.revoked.put(id, expiresAt);
+            this.writeRecord(this.buffer, this.count, idBytes, expiresAt);
+            this.count++;
+            this.buffer.putInt(COUNT_OFFSET, this.count);
+            sequence = ++this.appended;
+        }
+        this.flush(sequence);
+    }
+
+    /**
+     * Drop the ids of the expired tokens, in memory and in file
+     *
+     * @return number of dropped ids
+     */
+    public synchronized int compact() {
+        if (!this.opened) {
+            return 0;
+        }
+        int before = this.revoked.size();
+        this.compactInPlace(Instant.now().getEpochSecond());
+        return before - this.revoked.size();
+    }
+
+    /**
+     * Get the number of revoked ids actually kept
+     *
+     * @return the number of ids
+     */
+    public int size() {
+        this.openIfNeeded();
+        return this.revoked.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!this.opened) {
+            return;
+        }
+        this.buffer.force();
+        try {
+            this.lock.release();
+            this.lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Lock of revocation log {} not released", this.file, e);
+        }
+        this.opened = false;
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+
+    /**
+     * Load the file, if any, keeping only the ids of the tokens not yet expired
+     */
+    private void openIfNeeded() {
+        if (this.opened) {
+            return;
+        }
+        synchronized (this) {
+            if (this.opened) {
+                return;
+            }
+            if (this.file == null) {
+                throw new IllegalStateException(
+                        "jwt.revocation.logFile must be set to a persistent file specific to this instance");
+            }
+            long now = Instant.now().getEpochSecond();
+            try {
+                Files.createDirectories(this.file.toAbsolutePath().getParent());
+                this.lock();
+                this.revoked.clear();
+                this.capacity = 0;
+                if (Files.exists(this.file)) {
+                    this.load(now);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.rewrite(now);
+            this.opened = true;
+            log.info("Revocation log {} opened with {} revoked token ids", this.file, this.revoked.size());
+        }
+    }
+
+    private void lock() throws IOException {
+        Path lockFile = this.file.resolveSibling(this.file.getFileName() + ".lock");
+        FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock fileLock;
+        try {
+            fileLock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            fileLock = null;
+        }
+        if (fileLock == null) {
+            channel.close();
+            throw new IllegalStateException("Revocation log " + this.file
+                    + " is used by another instance: jwt.revocation.logFile must be specific to each instance");
+        }
+        this.lockChannel = channel;
+        this.lock = fileLock;
+    }
+
+    /**
+     * Flush the records appended up to a sequence, with those appended by the
+     * other threads meanwhile
+     *
+     * @param sequence sequence of the last record to flush
+     */
+    private void flush(long sequence) {
+        synchronized (this.flushMonitor) {
+            if (this.flushed >= sequence) {
+                return;
+            }
+            final MappedByteBuffer target;
+            final long upTo;
+            synchronized (this) {
+                target = this.buffer;
+                upTo = this.appended;
+            }
+            // A rewrite meanwhile has flushed its own file: the records are on disk either way
+            target.force();
+            this.flushed = upTo;
+        }
+    }
+
+    /**
+     * Make room for a record in a full file: drop the expired records, then
+     * grow the file if the live ones still fill more than half of it
+     *
+     * @param now actual time in epoch seconds
+     */
+    private void makeRoom(long now) {
+        this.compactInPlace(now);
+        if (this.count * 2 > this.capacity) {
+            this.rewrite(now);
+        }
+    }
+
+    /**
+     * Drop the expired records, moving the live ones towards the start of the
+     * mapped file in their order, then set the new number of records
+     * <p>
+     * Nothing is written when no record has expired.
+     *
+     * @param now actual time in epoch seconds
+     */
+    private void compactInPlace(long now) {
+        if (!this.revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+        byte[] record = new byte[RECORD_SIZE];
+        int live = 0;
+        for (int i = 0; i < this.count; i++) {
+            int position = HEADER_SIZE + i * RECORD_SIZE;
+            if (this.buffer.getLong(position) <= now) {
+                continue;
+            }
+            if (live != i) {
+                this.buffer.get(position, record);
+                this.buffer.put(HEADER_SIZE + live * RECORD_SIZE, record);
+            }
+            live++;
+        }
+        this.count = live;
+        this.buffer.putInt(COUNT_OFFSET, live);
+        this.buffer.force();
+    }
+
+    private void load(long now) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return;
+            }
+            ByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (content.getInt(0) != MAGIC || content.getInt(4) != RECORD_SIZE) {
+                log.warn("Revocation log {} ignored: unknown format", this.file);
+                return;
+            }
+            int records = (int) Math.min(content.getInt(COUNT_OFFSET),
+                    (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+            byte[] idBytes = new byte[MAX_ID_LENGTH];
+            for (int i = 0; i < records; i++) {
+                int position = HEADER_SIZE + i * RECORD_SIZE;
+                long expiresAt = content.getLong(position);
+                int length = Math.min(content.get(position + Long.BYTES), MAX_ID_LENGTH);
+                if (expiresAt > now && length > 0) {
+                    content.get(position + Long.BYTES + 1, idBytes, 0, length);
+                    this.revoked.put(new String(idBytes, 0, length, StandardCharsets.US_ASCII), expiresAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop the expired ids, then rewrite the live ones in a new file which
+     * atomically replaces the previous one, and map it
+     * The capacity is doubled when the live ids fill more than half of it
+     * The previous mapping is released by the garbage collector: it happens on
+     * opening and on growth only
+     *
+     * @param now actual time in epoch seconds
+     */
+    private void rewrite(long now) {
+        this.revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        int live = this.revoked.size();
+        int newCapacity = Math.max(this.capacity, this.initialCapacity);
+        while (live * 2 > newCapacity) {
+            newCapacity *= 2;
+        }
+
+        Path tmp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_SIZE + (long) newCapacity * RECORD_SIZE);
+                content.putInt(0, MAGIC);
+                content.putInt(4, RECORD_SIZE);
+                int index = 0;
+                for (Map.Entry<String, Long> entry : this.revoked.entrySet()) {
+                    this.writeRecord(content, index++, entry.getKey().getBytes(StandardCharsets.US_ASCII),
+                            entry.getValue());
+                }
+                content.putInt(COUNT_OFFSET, index);
+                content.force();
+                this.count = index;
+            }
+            Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            this.capacity = newCapacity;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRecord(ByteBuffer content, int index, byte[] idBytes, long expiresAt) {
+        int position = HEADER_SIZE + index * RECORD_SIZE;
+        content.putLong(position, expiresAt);
+        content.put(position + Long.BYTES, (byte) idBytes.length);
+        content.put(position + Long.BYTES + 1, idBytes);
+    }
+}
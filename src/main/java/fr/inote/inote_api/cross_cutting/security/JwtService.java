@@ -3,8 +3,11 @@ package fr.inote.inote_api.cross_cutting.security;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteExpiredRefreshTokenException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteJwtNotFoundException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteNotAuthenticatedUserException;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteTokenIssuanceBusyException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
+import fr.inote.inote_api.dto.IntrospectionResponseDto;
 
+import java.util.List;
 import java.util.Map;
 
 public interface JwtService {
@@ -21,7 +24,15 @@ public interface JwtService {
     Jwt findValidToken(String value) throws InoteUserException, InoteNotAuthenticatedUserException;
 
     public Map<String, String> refreshConnectionWithRefreshTokenValue(String tokenValue)
-            throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException;
+            throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException, InoteTokenIssuanceBusyException;
+
+    /**
+     * Get the status of a batch of bearer tokens, with the checks of JwtFilter
+     *
+     * @param tokens values of the tokens
+     * @return the status of each token, in the order of the tokens
+     */
+    List<IntrospectionResponseDto> introspect(List<String> tokens);
 
     /**
      * Signout of the user
@@ -30,4 +41,11 @@ public interface JwtService {
      * The token is deactivated and saved in database.
      */
     void signOut() throws InoteJwtNotFoundException;
+
+    /**
+     * Remove the useless tokens and revocation events
+     *
+     * @return number of rows removed
+     */
+    long removeUselessJwt();
 }
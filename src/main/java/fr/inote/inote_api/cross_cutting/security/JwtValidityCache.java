@@ -0,0 +1,276 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory cache of the validity of bearer tokens
+ * <p>
+ * It remembers, for a token already found active in database, the email and
+ * the role of its owner, so that the authenticated requests and the
+ * introspections only reach the jwt table on cache misses.
+ * An entry lives at most jwt.cache.ttlInSeconds, and never beyond the
+ * expiration of the token itself.
+ * When the cache is full, expired entries are purged first, then entries are
+ * evicted until the cache is back to 90% of its maximum size: the scan is paid
+ * once every tenth of the capacity, not on every miss.
+ * <p>
+ * The tokens are also indexed by owner, so that the invalidation of the tokens
+ * of an user does not scan the cache.
+ * <p>
+ * Every revocation (sign out, tokens deactivation, refresh) must call one of
+ * the invalidate methods. Each invalidation also bumps a stamp: a value read
+ * in database before an invalidation is never put in cache after it.
+ */
+@Component
+public class JwtValidityCache implements StatsSource {
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final int maxSize;
+    private final int lowWatermark;
+    private final long ttlInMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> tokensByOwner = new ConcurrentHashMap<>();
+    private final AtomicLong stamp = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JwtValidityCache(
+            @Value("${jwt.cache.maxSize:10000}") int maxSize,
+            @Value("${jwt.cache.ttlInSeconds:60}") long ttlInSeconds) {
+        this.maxSize = maxSize;
+        this.lowWatermark = maxSize - Math.max(1, maxSize / 10);
+        this.ttlInMillis = ttlInSeconds * 1000;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Get the current invalidation stamp, to be read before a database lookup
+     * and given back to put()
+     *
+     * @return the current stamp
+     */
+    public long stamp() {
+        return this.stamp.get();
+    }
+
+    /**
+     * Get the owner of a cached valid token
+     *
+     * @param token value of the token
+     * @return the email of the owner, or null if the token is not in cache
+     */
+    public String getOwner(String token) {
+        Owner owner = this.get(token);
+        return owner == null ? null : owner.email();
+    }
+
+    /**
+     * Get the owner of a cached valid token, with its role
+     *
+     * @param token value of the token
+     * @return the owner, or null if the token is not in cache
+     */
+    public Owner get(String token) {
+        Entry entry = this.entries.get(token);
+        if (entry == null) {
+            this.misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (this.remove(token, entry)) {
+                this.evictions.increment();
+            }
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        return entry.owner();
+    }
+
+    /**
+     * Remember a token found active in database
+     *
+     * @param token           value of the token
+     * @param owner           email of the owner of the token
+     * @param role            name of the role of the owner, null without role
+     * @param tokenExpiration expiration of the token, which caps the time to
+     *                        live of the entry
+     * @param readStamp       stamp read before the database lookup
+     */
+    public void put(String token, String owner, String role, Instant tokenExpiration, long readStamp) {
+        if (this.maxSize <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + this.ttlInMillis;
+        if (tokenExpiration != null) {
+            expiresAt = Math.min(expiresAt, tokenExpiration.toEpochMilli());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+        if (this.entries.size() >= this.maxSize) {
+            this.makeRoom(now);
+        }
+        // Indexed before being visible: an invalidation of the owner finds it
+        this.tokensByOwner.compute(owner, (key, tokens) -> {
+            Set<String> indexed = tokens == null ? ConcurrentHashMap.newKeySet() : tokens;
+            indexed.add(token);
+            return indexed;
+        });
+        Entry entry = new Entry(new Owner(owner, role), expiresAt);
+        this.entries.put(token, entry);
+
+        // A revocation happened during the database lookup: the read value may be stale
+        if (this.stamp.get() != readStamp) {
+            this.remove(token, entry);
+        }
+    }
+
+    /**
+     * Forget a token
+     *
+     * @param token value of the token
+     */
+    public void invalidate(String token) {
+        this.stamp.incrementAndGet();
+        Entry entry = this.entries.remove(token);
+        if (entry != null) {
+            this.unindex(entry.owner().email(), token);
+        }
+    }
+
+    /**
+     * Forget all tokens of an user, through the index by owner
+     *
+     * @param owner email of the user
+     */
+    public void invalidateUser(String owner) {
+        this.stamp.incrementAndGet();
+        Set<String> tokens = this.tokensByOwner.remove(owner);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            this.entries.computeIfPresent(token, (key, entry) -> entry.owner().email().equals(owner) ? null : entry);
+        }
+    }
+
+    /**
+     * Forget all tokens
+     */
+    public void invalidateAll() {
+        this.stamp.incrementAndGet();
+        this.entries.clear();
+        this.tokensByOwner.clear();
+    }
+
+    @Override
+    public String getStatsName() {
+        return "jwtValidityCache";
+    }
+
+    /**
+     * Get the counters of the cache
+     *
+     * @return hits, misses, evictions and actual size
+     */
+    @Override
+    public Stats getStats() {
+        return new Stats(this.hits.sum(), this.misses.sum(), this.evictions.sum(), this.entries.size());
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+
+    /**
+     * Purge the expired entries, then evict entries until the cache is back to
+     * its low watermark
+     * <p>
+     * Run by one thread at a time: the others put their entry meanwhile, the
+     * cache may exceed its maximum size by the number of concurrent misses.
+     *
+     * @param now actual time in milliseconds
+     */
+    private void makeRoom(long now) {
+        if (!this.evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (entry.getValue().expiresAtMillis() <= now && this.remove(entry.getKey(), entry.getValue())) {
+                    this.evictions.increment();
+                }
+            }
+            iterator = this.entries.entrySet().iterator();
+            while (this.entries.size() > this.lowWatermark && iterator.hasNext()) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                if (this.remove(entry.getKey(), entry.getValue())) {
+                    this.evictions.increment();
+                }
+            }
+        } finally {
+            this.evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Remove an entry and its index
+     *
+     * @return true if the entry was still in cache
+     */
+    private boolean remove(String token, Entry entry) {
+        if (!this.entries.remove(token, entry)) {
+            return false;
+        }
+        this.unindex(entry.owner().email(), token);
+        return true;
+    }
+
+    private void unindex(String owner, String token) {
+        this.tokensByOwner.computeIfPresent(owner, (key, tokens) -> {
+            tokens.remove(token);
+            return tokens.isEmpty() ? null : tokens;
+        });
+    }
+
+    /* INNER TYPES */
+    /* ============================================================ */
+    private record Entry(Owner owner, long expiresAtMillis) {
+    }
+
+    /**
+     * Owner of a cached token
+     *
+     * @param email email of the owner
+     * @param role  name of the role of the owner, null without role
+     */
+    public record Owner(String email, String role) {
+    }
+
+    /**
+     * Counters of the cache
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+}
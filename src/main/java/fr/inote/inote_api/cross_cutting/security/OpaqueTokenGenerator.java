@@ -0,0 +1,53 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Generator of opaque secrets (refresh tokens, token ids...)
+ * <p>
+ * A value holds {@value #SIZE_IN_BYTES} random bytes (256 bits), encoded in
+ * base64url without padding: {@value #LENGTH} characters, usable as is in an
+ * url, a header or a json body.
+ * <p>
+ * UUID.randomUUID() only holds 122 random bits and draws them from one
+ * SecureRandom shared by the whole JVM. Here each thread owns its generator.
+ * DRBG is preferred: its state belongs to the instance, where the default
+ * NativePRNG of Linux reads /dev/urandom under a lock common to all its
+ * instances.
+ */
+@Component
+public class OpaqueTokenGenerator {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    public static final int SIZE_IN_BYTES = 32;
+    public static final int LENGTH = 43;
+
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(() -> {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    });
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Generate a new opaque secret
+     *
+     * @return {@value #LENGTH} base64url characters
+     */
+    public String next() {
+        final byte[] bytes = new byte[SIZE_IN_BYTES];
+        RANDOM.get().nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+}
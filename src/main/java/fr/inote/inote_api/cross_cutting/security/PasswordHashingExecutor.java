@@ -0,0 +1,185 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.exceptions.InotePasswordHashingBusyException;
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool running the requests which hash or verify a password
+ * <p>
+ * BCrypt is deliberately slow (tens of milliseconds of cpu by password). Run
+ * on the servlet threads, a burst of sign in takes all of them and starves
+ * every other endpoint. The sign in, registration and new password requests
+ * are therefore handed to this pool, sized on the processors
+ * (inote.passwordHashing.threads), and their servlet thread is released
+ * meanwhile (asynchronous request).
+ * <p>
+ * The waiting queue is bounded (inote.passwordHashing.queueCapacity): when it
+ * is full, the request is rejected at once with a 429 instead of waiting for
+ * a thread it would not get before the client gives up.
+ * <p>
+ * Only the hashing or the verification runs in the pool. The rest of the
+ * request (saving, sending the activation mail, issuing the tokens) follows
+ * on the application task executor (spring.task.execution.pool.*): a slow
+ * mail server or database can't take the threads of the pool.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor implements StatsSource {
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final ThreadPoolExecutor executor;
+    private final Executor followUpExecutor;
+    private final LongAdder rejections = new LongAdder();
+
+    public PasswordHashingExecutor(
+            @Value("${inote.passwordHashing.threads:0}") int threads,
+            @Value("${inote.passwordHashing.queueCapacity:64}") int queueCapacity,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor followUpExecutor) {
+        this.followUpExecutor = followUpExecutor;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Run a task in the pool
+     *
+     * @param task the task, hashing or verifying a password
+     * @param <T>  type of the result
+     * @return the future result; completed with the exception thrown by the
+     *         task, as is, when it fails
+     * @throws InotePasswordHashingBusyException when the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) throws InotePasswordHashingBusyException {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.rejections.increment();
+            log.warn("Password hashing queue full ({} waiting), request rejected", this.executor.getQueue().size());
+            throw new InotePasswordHashingBusyException();
+        }
+        return result;
+    }
+
+    /**
+     * Run a hashing step in the pool, then the rest of the request on the
+     * follow-up executor
+     *
+     * @param hashing  the step hashing or verifying a password
+     * @param followUp the rest of the request, given the result of the
+     *                 hashing step
+     * @param <T>      type of the result of the hashing step
+     * @param <R>      type of the result
+     * @return the future result; completed with the exception thrown by
+     *         either step, as is, when it fails
+     * @throws InotePasswordHashingBusyException when the queue is full
+     */
+    public <T, R> CompletableFuture<R> submit(Callable<T> hashing, FollowUp<T, R> followUp)
+            throws InotePasswordHashingBusyException {
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        this.submit(hashing).whenComplete((value, failure) -> {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+                return;
+            }
+            try {
+                this.followUpExecutor.execute(() -> {
+                    try {
+                        result.complete(followUp.apply(value));
+                    } catch (Throwable e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "passwordHashing";
+    }
+
+    /**
+     * Get the counters of the pool
+     *
+     * @return the current state and the counters since startup
+     */
+    @Override
+    public Stats getStats() {
+        return new Stats(this.executor.getActiveCount(), this.executor.getQueue().size(),
+                this.executor.getCompletedTaskCount(), this.rejections.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * Counters of the pool
+     *
+     * @param active    tasks running
+     * @param queued    tasks waiting for a thread
+     * @param completed tasks done
+     * @param rejected  tasks refused because the queue was full
+     */
+    public record Stats(int active, int queued, long completed, long rejected) {
+    }
+
+    /**
+     * Rest of a request, after its hashing step
+     *
+     * @param <T> type of the result of the hashing step
+     * @param <R> type of the result
+     */
+    @FunctionalInterface
+    public interface FollowUp<T, R> {
+        R apply(T value) throws Exception;
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads that must see the last committed writes, even in a read-only
+ * transaction
+ * <p>
+ * With a replica (see ReadReplicaConfiguration), a read-only transaction
+ * takes its connection from the replica, which may lag behind the primary.
+ * The lookups deciding whether a request is authenticated can't afford it: a
+ * token just issued would be unknown, a token just revoked still active (and
+ * cached as such by JwtValidityCache). They run here: their read-only
+ * transaction takes a read-only connection of the primary.
+ * <p>
+ * The connection is chosen at the first statement of the transaction: a
+ * transaction that already ran a statement on the replica keeps it.
+ */
+public final class PrimaryReads {
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private PrimaryReads() {
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Run a lookup on the primary
+     *
+     * @param <T>    type of the result
+     * @param lookup the lookup
+     * @return the result of the lookup
+     */
+    public static <T> T call(Supplier<T> lookup) {
+        if (isPinned()) {
+            return lookup.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return lookup.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    /**
+     * Tell whether the current thread runs a lookup on the primary
+     *
+     * @return true inside call()
+     */
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+}
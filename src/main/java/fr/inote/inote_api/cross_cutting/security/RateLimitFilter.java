@@ -0,0 +1,197 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteRateLimitException;
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import fr.inote.inote_api.entity.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rate limit of the endpoints listed in Endpoint.RateLimit
+ * <p>
+ * A request to one of them takes a token from the bucket of its client ip,
+ * then from the bucket of its user when it is authenticated (the filter runs
+ * after JwtFilter). Without token, it is answered 429 with a Retry-After
+ * header, through the RestControllerAdvice as for JwtFilter.
+ * <p>
+ * The client ip is the remote address of the request: behind a reverse proxy,
+ * server.forward-headers-strategy must be set for it to be the one of the
+ * client.
+ * The buckets are per instance.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter implements StatsSource {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    private static final Endpoint.RateLimit[] LIMITS = Endpoint.RateLimit.values();
+    private static final long[] INTERVALS_IN_NANOS = new long[LIMITS.length];
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long KIND_IP = 1L;
+    private static final long KIND_USER = 2L;
+    private static final UrlPathHelper URL_PATH_HELPER = UrlPathHelper.defaultInstance;
+
+    static {
+        for (Endpoint.RateLimit limit : LIMITS) {
+            INTERVALS_IN_NANOS[limit.ordinal()] = TimeUnit.MINUTES.toNanos(1) / limit.getRefillByMinute();
+        }
+    }
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final boolean enabled;
+    private final StripedTokenBuckets buckets;
+    private final LongAdder[] allowed = new LongAdder[LIMITS.length];
+    private final LongAdder[] rejected = new LongAdder[LIMITS.length];
+
+    public RateLimitFilter(
+            HandlerExceptionResolver handlerExceptionResolver,
+            @Value("${inote.rateLimit.enabled:true}") boolean enabled,
+            @Value("${inote.rateLimit.stripes:64}") int stripes,
+            @Value("${inote.rateLimit.maxKeys:65536}") int maxKeys) {
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.enabled = enabled;
+        this.buckets = new StripedTokenBuckets(stripes, maxKeys);
+        for (int i = 0; i < LIMITS.length; i++) {
+            this.allowed[i] = new LongAdder();
+            this.rejected[i] = new LongAdder();
+        }
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    @Override
+    public String getStatsName() {
+        return "rateLimits";
+    }
+
+    /**
+     * Get the counters of each limit, and the evictions of the buckets
+     *
+     * @return the requests allowed and rejected since startup, by limit
+     */
+    @Override
+    public Stats getStats() {
+        Map<Endpoint.RateLimit, LimitStats> limits = new EnumMap<>(Endpoint.RateLimit.class);
+        for (Endpoint.RateLimit limit : LIMITS) {
+            limits.put(limit,
+                    new LimitStats(this.allowed[limit.ordinal()].sum(), this.rejected[limit.ordinal()].sum()));
+        }
+        return new Stats(limits, this.buckets.getEvictions());
+    }
+
+    /* PROTECTED METHODS */
+    /* ============================================================ */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        final Endpoint.RateLimit limit = this.enabled ? limitOf(request) : null;
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final int index = limit.ordinal();
+        final long now = System.nanoTime();
+        long waitNanos = this.buckets.tryAcquire(keyOf(index, KIND_IP, request.getRemoteAddr()),
+                INTERVALS_IN_NANOS[index], limit.getCapacity(), now);
+        if (waitNanos == 0) {
+            final Integer userId = currentUserId();
+            if (userId != null) {
+                waitNanos = this.buckets.tryAcquire(keyOf(index, KIND_USER, userId),
+                        INTERVALS_IN_NANOS[index], limit.getCapacity(), now);
+            }
+        }
+
+        if (waitNanos > 0) {
+            this.rejected[index].increment();
+            long retryAfterInSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            this.handlerExceptionResolver.resolveException(request, response, null,
+                    new InoteRateLimitException(retryAfterInSeconds));
+            return;
+        }
+        this.allowed[index].increment();
+        filterChain.doFilter(request, response);
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private static Endpoint.RateLimit limitOf(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        // Decoded path, as matched by Spring MVC and Spring Security: the raw uri
+        // would let /sign%2Din through
+        final String path = URL_PATH_HELPER.getPathWithinApplication(request);
+        for (Endpoint.RateLimit limit : LIMITS) {
+            if (limit.getPath().equals(path)) {
+                return limit;
+            }
+        }
+        return null;
+    }
+
+    private static Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    // FNV-1a over the characters of the ip, seeded by the limit and the kind of key
+    private static long keyOf(int index, long kind, String ip) {
+        long hash = (FNV_OFFSET ^ (kind << 8 | index)) * FNV_PRIME;
+        for (int i = 0; i < ip.length(); i++) {
+            hash = (hash ^ ip.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long keyOf(int index, long kind, int userId) {
+        return ((kind << 8 | index) << 32) ^ (userId & 0xffffffffL);
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * Counters of the filter
+     *
+     * @param limits    counters of each limit
+     * @param evictions buckets evicted while still active, for lack of room;
+     *                  if growing, inote.rateLimit.maxKeys is too low
+     */
+    public record Stats(Map<Endpoint.RateLimit, LimitStats> limits, long evictions) {
+    }
+
+    /**
+     * Counters of a limit
+     *
+     * @param allowed  requests let through
+     * @param rejected requests answered 429
+     */
+    public record LimitStats(long allowed, long rejected) {
+    }
+}
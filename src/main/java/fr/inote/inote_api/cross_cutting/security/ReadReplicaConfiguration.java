@@ -0,0 +1,104 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Routing of the read-only transactions to a replica, enabled by
+ * inote.datasource.replica.url
+ * <p>
+ * The datasource is a LazyConnectionDataSourceProxy: a transaction takes its
+ * physical connection at its first statement, from the replica if it has been
+ * marked read-only (@Transactional(readOnly = true), the read methods of the
+ * repositories), from the primary otherwise. Both pools are built from the
+ * spring.datasource properties, the replica overriding the url and, if set,
+ * the credentials.
+ * <p>
+ * The lookups of PrimaryReads are the exception: their read-only transactions
+ * take a read-only connection of the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inote.datasource.replica.url")
+public class ReadReplicaConfiguration {
+
+    /**
+     * Create the routing DataSource bean
+     *
+     * @param properties spring.datasource properties
+     * @param url        url of the replica
+     * @param username   user of the replica, the one of the primary if empty
+     * @param password   password of the replica, the one of the primary if
+     *                   empty
+     * @return DataSource bean
+     */
+    @Bean
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            @Value("${inote.datasource.replica.url}") String url,
+            @Value("${inote.datasource.replica.username:}") String username,
+            @Value("${inote.datasource.replica.password:}") String password) {
+        DataSource primary = properties.initializeDataSourceBuilder().build();
+        DataSource replica = properties.initializeDataSourceBuilder()
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        return routing(primary, replica);
+    }
+
+    /**
+     * Route the read-only connections to a replica, except inside
+     * PrimaryReads
+     *
+     * @param primary datasource of the read-write connections
+     * @param replica datasource of the read-only connections
+     * @return the routing datasource
+     */
+    public static LazyConnectionDataSourceProxy routing(DataSource primary, DataSource replica) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new ReplicaUnlessPinned(replica, primary));
+        return routing;
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * The replica, or the primary with the JDBC read-only hint for the lookups
+     * of PrimaryReads
+     */
+    private static final class ReplicaUnlessPinned extends DelegatingDataSource {
+        private final DataSource primary;
+
+        private ReplicaUnlessPinned(DataSource replica, DataSource primary) {
+            super(replica);
+            this.primary = primary;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return PrimaryReads.isPinned() ? readOnly(this.primary.getConnection()) : super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return PrimaryReads.isPinned()
+                    ? readOnly(this.primary.getConnection(username, password))
+                    : super.getConnection(username, password);
+        }
+
+        private static Connection readOnly(Connection connection) throws SQLException {
+            connection.setReadOnly(true);
+            return connection;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package fr.inote.inote_api.cross_cutting.security;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.*;
 
 import java.time.Instant;
@@ -29,7 +34,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "refresh-token")
+@Table(name = "refresh-token", indexes = @Index(name = "idx_refresh_token_content_digest", columnList = "contentDigest", unique = true))
 public class RefreshToken {
     
     /* Id & strategy generation <=> primary key */
@@ -41,7 +46,25 @@ public class RefreshToken {
     /* Private attributes <=> columns */
     /* ============================================================ */
     private boolean expirationStatus;
+
+    // The refresh token itself is never stored, only its digest (unique index)
+    @Transient
     private String contentValue;
+    @Column(length = TokenDigest.LENGTH)
+    private String contentDigest;
+
     private Instant creationDate;
     private Instant expirationDate;
+    // Time bucket of the expiration date (see TokenPartitions)
+    private Integer bucket;
+
+    /* Entity lifecycle */
+    /* ============================================================ */
+    @PrePersist
+    @PreUpdate
+    private void computeContentDigest() {
+        if (this.contentValue != null) {
+            this.contentDigest = TokenDigest.of(this.contentValue);
+        }
+    }
 }
@@ -0,0 +1,208 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import fr.inote.inote_api.cross_cutting.scheduling.ClusterNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Propagation of the revocations of tokens to the other instances
+ * <p>
+ * The validity cache and the revocation log are local to an instance: a
+ * sign out on one instance must also reach them on the others, or the token
+ * stays usable there until its cache entry or itself expires.
+ * Each revocation applied locally by JwtServiceImpl is published on a
+ * RevocationTransport; each instance polls it every
+ * jwt.revocation.broadcast.pollIntervalInMillis and applies the events
+ * published by the others:
+ * -> an event without jti evicts the tokens of its owner from the validity
+ * cache
+ * -> an event with a jti revokes it in the revocation log (stateless mode)
+ * <p>
+ * How far behind an instance is is published in the admin stats. With
+ * jwt.revocation.broadcast.transport=none, nothing is published nor polled.
+ */
+@Slf4j
+@Component
+public class RevocationBroadcaster implements StatsSource {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final RevocationTransport transport;
+    private final JwtValidityCache jwtValidityCache;
+    private final JwtRevocationLog jwtRevocationLog;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final String nodeId;
+    private final int batchSize;
+    private final long cacheTtlInSeconds;
+
+    private long position;
+    private long applied;
+    private long lagInMillis;
+    private long maxLagInMillis;
+    private Instant lastPoll;
+
+    public RevocationBroadcaster(
+            ObjectProvider<RevocationTransport> transport,
+            JwtValidityCache jwtValidityCache,
+            JwtRevocationLog jwtRevocationLog,
+            ClusterNode clusterNode,
+            @Value("${jwt.revocation.broadcast.batchSize:500}") int batchSize,
+            @Value("${jwt.cache.ttlInSeconds:60}") long cacheTtlInSeconds) {
+        this.transport = transport.getIfAvailable();
+        this.jwtValidityCache = jwtValidityCache;
+        this.jwtRevocationLog = jwtRevocationLog;
+        this.nodeId = clusterNode.getId();
+        this.batchSize = Math.max(batchSize, 1);
+        this.cacheTtlInSeconds = cacheTtlInSeconds;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Publish the revocation of all the tokens of an user, for the validity
+     * caches of the other instances
+     *
+     * @param email email of the user
+     */
+    public void publishUserRevocation(String email) {
+        // Useless once the entries cached before it have expired
+        this.publish(email, null, Instant.now().plusSeconds(this.cacheTtlInSeconds));
+    }
+
+    /**
+     * Publish the revocation of the tokens of many users (bulk revocation), for
+     * the validity caches of the other instances: they are emptied
+     */
+    public void publishGlobalRevocation() {
+        this.publish(null, null, Instant.now().plusSeconds(this.cacheTtlInSeconds));
+    }
+
+    /**
+     * Publish the revocation of a token id, for the revocation logs of the
+     * other instances
+     *
+     * @param email      email of the owner of the token
+     * @param jti        id of the token
+     * @param expiration expiration of the token
+     */
+    public void publishTokenRevocation(String email, String jti, Instant expiration) {
+        this.publish(email, jti, expiration);
+    }
+
+    /**
+     * Apply the events published by the other instances since the last poll
+     *
+     * @return number of events applied
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.broadcast.pollIntervalInMillis:1000}")
+    public synchronized int poll() {
+        if (this.transport == null) {
+            return 0;
+        }
+        int count = 0;
+        RevocationTransport.Batch batch;
+        do {
+            batch = this.transport.read(this.position, this.batchSize);
+            for (RevocationEvent event : batch.events()) {
+                if (!this.nodeId.equals(event.origin())) {
+                    this.apply(event);
+                    count++;
+                }
+            }
+            final boolean moved = batch.position() != this.position;
+            this.position = batch.position();
+            if (!moved) {
+                break;
+            }
+        } while (batch.events().size() == this.batchSize);
+
+        final Instant now = Instant.now();
+        if (batch.events().isEmpty()) {
+            this.lagInMillis = 0;
+        } else {
+            RevocationEvent last = batch.events().get(batch.events().size() - 1);
+            this.lagInMillis = Math.max(0, now.toEpochMilli() - last.creation().toEpochMilli());
+            this.maxLagInMillis = Math.max(this.maxLagInMillis, this.lagInMillis);
+        }
+        this.applied += count;
+        this.lastPoll = now;
+        return count;
+    }
+
+    /**
+     * Drop the events useless for every instance, from the reaper
+     *
+     * @return number of events dropped
+     */
+    public int prune() {
+        return this.transport == null ? 0 : this.transport.prune(Instant.now());
+    }
+
+    /**
+     * Get the id of this instance in the published events
+     *
+     * @return the id of the ClusterNode
+     */
+    public String getNodeId() {
+        return this.nodeId;
+    }
+
+    @Override
+    public String getStatsName() {
+        return "revocationBroadcast";
+    }
+
+    /**
+     * Get the progress of this instance in the channel
+     *
+     * @return the counters
+     */
+    @Override
+    public synchronized Stats getStats() {
+        return new Stats(this.position, this.applied, this.lagInMillis, this.maxLagInMillis, this.lastPoll);
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private void publish(String email, String jti, Instant expiration) {
+        if (this.transport != null) {
+            this.transport.publish(new RevocationEvent(email, jti, expiration, this.nodeId, Instant.now()));
+        }
+    }
+
+    private void apply(RevocationEvent event) {
+        if (event.jti() == null && event.owner() == null) {
+            this.jwtValidityCache.invalidateAll();
+        } else if (event.jti() == null) {
+            this.jwtValidityCache.invalidateUser(event.owner());
+        } else {
+            this.jwtRevocationLog.revoke(event.jti(), event.expiration());
+        }
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * Progress of an instance
+     *
+     * @param position       position in the channel
+     * @param applied        events of the other instances applied since
+     *                       startup (an event read again counts again)
+     * @param lagInMillis    age of the last event read by the last poll, 0 if
+     *                       it read none: how far behind the instance is
+     * @param maxLagInMillis maximum lag since startup
+     * @param lastPoll       instant of the last poll, null before the first
+     */
+    public record Stats(long position, long applied, long lagInMillis, long maxLagInMillis, Instant lastPoll) {
+    }
+}
@@ -0,0 +1,20 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.time.Instant;
+
+/**
+ * Revocation of tokens, sent by an instance to the others (see
+ * RevocationBroadcaster)
+ *
+ * @param owner      email of the user whose tokens are revoked, null after a
+ *                   bulk revocation
+ * @param jti        id of the revoked token (stateless mode), or null when
+ *                   the event only evicts the tokens of the user (of every
+ *                   user if owner is null too) from the validity caches
+ * @param expiration instant after which the event is useless: expiration of
+ *                   the token, or end of life of the cached entries
+ * @param origin     id of the publishing instance
+ * @param creation   instant of publication
+ */
+public record RevocationEvent(String owner, String jti, Instant expiration, String origin, Instant creation) {
+}
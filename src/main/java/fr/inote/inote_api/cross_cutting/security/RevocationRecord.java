@@ -0,0 +1,63 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Revocation published in database for the other instances (see
+ * DatabaseRevocationTransport)
+ * <p>
+ * The rows are only appended, in the transaction of the revocation, and read
+ * by increasing id. A row is removed once its expiration is past: the
+ * revocation it carries is then useless everywhere.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revocation_record", indexes = {
+        @Index(name = "idx_revocation_record_expiration", columnList = "expiration") })
+public class RevocationRecord {
+
+    /* Id & strategy generation <=> primary key */
+    /* ============================================================ */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /* Private attributes <=> columns*/
+    /* ============================================================ */
+
+    // Email of the user whose tokens are revoked
+    private String owner;
+    // Id of the revoked token, null when all the tokens of the user are
+    @Column(length = 64)
+    private String jti;
+    private Instant expiration;
+    private Instant creation;
+    // Instance which published the revocation
+    @Column(length = 64)
+    private String origin;
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    public RevocationEvent toEvent() {
+        return new RevocationEvent(this.owner, this.jti, this.expiration, this.origin, this.creation);
+    }
+
+    public static RevocationRecord of(RevocationEvent event) {
+        return RevocationRecord.builder()
+                .owner(event.owner())
+                .jti(event.jti())
+                .expiration(event.expiration())
+                .creation(event.creation())
+                .origin(event.origin())
+                .build();
+    }
+}
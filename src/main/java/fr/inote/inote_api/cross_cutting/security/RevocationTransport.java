@@ -0,0 +1,48 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Channel carrying the revocation events between the instances
+ * <p>
+ * Each instance reads the channel from its own position; an event may be read
+ * more than once (its application is idempotent), but none may be skipped.
+ * Implementations are selected by jwt.revocation.broadcast.transport.
+ */
+public interface RevocationTransport {
+
+    /**
+     * Publish an event, at the commit of the current transaction if there is
+     * one
+     *
+     * @param event the event
+     */
+    void publish(RevocationEvent event);
+
+    /**
+     * Read the events following a position
+     *
+     * @param position  position returned by the previous read, 0 at start
+     * @param maxEvents maximum number of events read
+     * @return the events, and the position of the next read
+     */
+    Batch read(long position, int maxEvents);
+
+    /**
+     * Drop the events useless for every instance
+     *
+     * @param now reference instant
+     * @return number of events dropped
+     */
+    int prune(Instant now);
+
+    /**
+     * Result of a read
+     *
+     * @param events   events read, in publication order
+     * @param position position of the next read
+     */
+    record Batch(List<RevocationEvent> events, long position) {
+    }
+}
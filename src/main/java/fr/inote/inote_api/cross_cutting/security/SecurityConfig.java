@@ -13,6 +13,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -62,6 +63,9 @@ public class SecurityConfig {
     /* Make validation on token(jwt) in the HTTP header request */
     private final JwtFilter jwtFilter;
 
+    /* Limit the rate of the costly endpoints, by client ip and by user */
+    private final RateLimitFilter rateLimitFilter;
+
     /*
      * UserDetailsService is a core interface in Spring Security used to retrieve
      * user authentication
@@ -74,6 +78,12 @@ public class SecurityConfig {
      */
     private final UserDetailsService userDetailsService;
 
+    /*
+     * Stores the new hash of a password whose stored hash has another BCrypt
+     * strength than the current one, after a successful authentication
+     */
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
     /* For Swagger */
     private final String[] AUTH_WHITELIST = {
             "/api/v1/auth/**",
@@ -86,10 +96,14 @@ public class SecurityConfig {
     public SecurityConfig(
             BCryptPasswordEncoder bCryptPasswordEncoder,
             JwtFilter jwtFilter,
-            UserDetailsService userDetailsService) {
+            RateLimitFilter rateLimitFilter,
+            UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService) {
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
         this.jwtFilter = jwtFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.userDetailsService = userDetailsService;
+        this.userDetailsPasswordService = userDetailsPasswordService;
     }
 
     /* SECURITY FILTERS CHAIN */
@@ -141,11 +155,17 @@ public class SecurityConfig {
                                 .requestMatchers(POST, Endpoint.CHANGE_PASSWORD).permitAll()
                                 .requestMatchers(POST, Endpoint.NEW_PASSWORD).permitAll()
                                 .requestMatchers(POST, Endpoint.REFRESH_TOKEN).permitAll()
+                                // -> Internal services, authenticated by their key (see AuthController)
+                                .requestMatchers(POST, Endpoint.INTROSPECT).permitAll()
                                 // -> Secured endpoints
                                 .requestMatchers(POST, Endpoint.GET_CURRENT_USER).authenticated()
                                 .requestMatchers(POST, Endpoint.SIGN_OUT).authenticated()
                                 .requestMatchers(POST, Endpoint.USER).hasAuthority("ROLE_ADMIN")
                                 .requestMatchers(GET, Endpoint.GET_ALL_USERS).hasAuthority("ROLE_ADMIN")
+                                .requestMatchers(GET, Endpoint.USERS_EXPORT).hasAuthority("ROLE_ADMIN")
+                                .requestMatchers(GET, Endpoint.COMMENTS_EXPORT).hasAuthority("ROLE_ADMIN")
+                                .requestMatchers(POST, Endpoint.REVOKE_SESSIONS).hasAuthority("ROLE_ADMIN")
+                                .requestMatchers(GET, Endpoint.ADMIN_STATS).hasAuthority("ROLE_ADMIN")
                                 
                                 /* Examples */
                                 // .requestMatchers(POST, Endpoint.CREATE_COMMENT).hasAnyAuthority("ROLE_USER",
@@ -207,6 +227,11 @@ public class SecurityConfig {
                  * handles the authentication process for username and password credentials
                  */
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                /*
+                 * After the jwt filter, for the requests to be limited by user once
+                 * authenticated, in addition to their ip
+                 */
+                .addFilterAfter(rateLimitFilter, JwtFilter.class)
                 .build();
     }
 
@@ -259,6 +284,8 @@ public class SecurityConfig {
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
         daoAuthenticationProvider.setUserDetailsService(userDetailsService);
         daoAuthenticationProvider.setPasswordEncoder(bCryptPasswordEncoder);
+        // Rehash on sign in when passwordEncoder.upgradeEncoding() asks for it
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return daoAuthenticationProvider;
     }
 
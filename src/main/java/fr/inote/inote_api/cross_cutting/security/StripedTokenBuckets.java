@@ -0,0 +1,162 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets of many clients, in a fixed size, lock-striped table
+ * <p>
+ * A bucket of capacity c refilled by one token every interval is kept as a
+ * single long: the instant its next token is due (generic cell rate
+ * algorithm). A request is allowed if that instant is at most
+ * (c - 1) * interval ahead of now, and pushes it by one interval. A bucket
+ * whose instant is past is full again: it is idle, and its slot can be given
+ * to another client.
+ * <p>
+ * Clients are identified by a 64 bits key hashed by the caller. The table is
+ * made of primitive arrays split in stripes, each one under its own monitor,
+ * with open addressing on a short probe window: an acquisition allocates
+ * nothing. When every slot of the window is active, the one closest to idle is
+ * evicted (its client gets a full bucket again) and counted.
+ */
+public final class StripedTokenBuckets {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    private static final long EMPTY = 0L;
+    private static final int PROBES = 8;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final Stripe[] stripes;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create the table
+     *
+     * @param stripes number of stripes, rounded up to a power of two
+     * @param maxKeys number of buckets kept, rounded up to a power of two by
+     *                stripe
+     */
+    public StripedTokenBuckets(int stripes, int maxKeys) {
+        int stripeCount = ceilingPowerOfTwo(stripes);
+        int slots = Math.max(ceilingPowerOfTwo(maxKeys / stripeCount), PROBES);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(slots);
+        }
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Take a token from the bucket of a client
+     *
+     * @param key            hash identifying the client
+     * @param intervalNanos  time between two refilled tokens
+     * @param capacity       maximum number of tokens in the bucket
+     * @param nowNanos       current System.nanoTime()
+     * @return 0 if the request is allowed, otherwise the nanoseconds before
+     *         the next token
+     */
+    public long tryAcquire(long key, long intervalNanos, int capacity, long nowNanos) {
+        long hash = mix(key);
+        long storedKey = key == EMPTY ? 1L : key;
+        Stripe stripe = this.stripes[(int) hash & (this.stripes.length - 1)];
+        long toleranceNanos = intervalNanos * (capacity - 1);
+
+        synchronized (stripe) {
+            int slot = stripe.slotOf(storedKey, (int) (hash >>> 32), nowNanos, this.evictions);
+            long due = stripe.dues[slot];
+            if (due - nowNanos < 0) {
+                due = nowNanos;
+            }
+            long waitNanos = due - toleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            stripe.dues[slot] = due + intervalNanos;
+            return 0L;
+        }
+    }
+
+    /**
+     * Get the number of active buckets evicted because their probe window was
+     * full
+     *
+     * @return evictions since startup
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private static int ceilingPowerOfTwo(int value) {
+        return Integer.highestOneBit(Math.max(value, 1) * 2 - 1);
+    }
+
+    // Finalizer of murmur3: spreads the keys over the stripes and the slots
+    private static long mix(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * Part of the table under one monitor
+     * <p>
+     * A slot never becomes empty again once used (it is reused in place), so a
+     * lookup may stop at the first empty slot of its window.
+     */
+    private static final class Stripe {
+        private final long[] keys;
+        private final long[] dues;
+        private final int mask;
+
+        private Stripe(int slots) {
+            this.keys = new long[slots];
+            this.dues = new long[slots];
+            this.mask = slots - 1;
+        }
+
+        private int slotOf(long key, int home, long nowNanos, LongAdder evictions) {
+            int reusable = -1;
+            int closestToIdle = -1;
+            for (int i = 0; i < PROBES; i++) {
+                int slot = (home + i) & this.mask;
+                long slotKey = this.keys[slot];
+                if (slotKey == key) {
+                    return slot;
+                }
+                if (slotKey == EMPTY) {
+                    if (reusable < 0) {
+                        reusable = slot;
+                    }
+                    break;
+                }
+                if (reusable < 0 && this.dues[slot] - nowNanos <= 0) {
+                    reusable = slot;
+                }
+                if (closestToIdle < 0 || this.dues[slot] - this.dues[closestToIdle] < 0) {
+                    closestToIdle = slot;
+                }
+            }
+            if (reusable < 0) {
+                reusable = closestToIdle;
+                evictions.increment();
+            }
+            // A new client starts with a full bucket
+            this.keys[reusable] = key;
+            this.dues[reusable] = nowNanos;
+            return reusable;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Fixed-width digest of a token value
+ * <p>
+ * Tokens (jwt and refresh tokens) are not stored in database: only their
+ * SHA-256 digest, encoded in base64url without padding, is stored in an
+ * indexed column of {@value #LENGTH} characters. Lookups compare these short
+ * digests instead of the whole compact JWT, whatever its size.
+ */
+public final class TokenDigest {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    public static final int LENGTH = 43;
+
+    /* A MessageDigest is not thread-safe: one instance per thread */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenDigest() {
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Compute the digest of a token value
+     *
+     * @param value value of the token
+     * @return the digest, {@value #LENGTH} characters long
+     */
+    public static String of(String value) {
+        return ENCODER.encodeToString(SHA_256.get().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,13 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+
+/**
+ * Owner of an active token, read without loading the token nor its user
+ *
+ * @param contentDigest digest of the token value (see TokenDigest)
+ * @param email         email of the owner
+ * @param role          role of the owner, null if he has none
+ */
+public record TokenOwner(String contentDigest, String email, RoleEnum role) {
+}
@@ -0,0 +1,43 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.time.Instant;
+
+/**
+ * Partitioned storage of the tokens (jwt.storage.layout=partitioned)
+ * <p>
+ * Each token and refresh token is put, at issuance, in the time bucket of the
+ * expiration of its refresh token (jwt.storage.bucketInSeconds wide): once
+ * the bucket is over, every row in it is useless, revoked or not. A bucket is
+ * then removed whole (see JwtPartitionJob) instead of row by row by the
+ * reaper. Lookups still go through JwtRepository: the layout is invisible to
+ * them.
+ */
+public interface TokenPartitions {
+
+    /**
+     * Get the bucket of an instant
+     *
+     * @param instant         the instant
+     * @param bucketInSeconds width of the buckets
+     * @return the number of the bucket since the epoch
+     */
+    static int bucketOf(Instant instant, long bucketInSeconds) {
+        return (int) Math.floorDiv(instant.getEpochSecond(), bucketInSeconds);
+    }
+
+    /**
+     * Make the storage ready for the tokens issued from now on
+     *
+     * @param now reference instant
+     */
+    void prepare(Instant now);
+
+    /**
+     * Remove the buckets which are over
+     *
+     * @param now reference instant
+     * @return number of rows removed (estimated when whole partitions are
+     *         dropped)
+     */
+    long dropExpired(Instant now);
+}
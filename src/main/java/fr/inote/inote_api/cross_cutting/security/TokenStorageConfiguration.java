@@ -0,0 +1,56 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.security.impl.DeletingTokenPartitions;
+import fr.inote.inote_api.cross_cutting.security.impl.MariaDbTokenPartitions;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Partitioned storage of the tokens, enabled by
+ * jwt.storage.layout=partitioned (see TokenPartitions)
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "jwt.storage.layout", havingValue = "partitioned")
+public class TokenStorageConfiguration {
+
+    /**
+     * Create the TokenPartitions bean of the database: real partitions on
+     * MariaDB and MySQL, a bucket column emptied by deletes elsewhere
+     *
+     * @param bucketInSeconds width of the buckets
+     * @return TokenPartitions bean
+     */
+    @Bean
+    public TokenPartitions tokenPartitions(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            JwtRepository jwtRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.storage.bucketInSeconds:3600}") long bucketInSeconds,
+            @Value("${jwt.validyTokenTimeInSeconds}") long validityTokenTimeInSeconds,
+            @Value("${jwt.jwtValidityRefreshTokenAdditionalTimeToTokenInSeconds}") long additionalTimeInSeconds)
+            throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("MariaDB".equalsIgnoreCase(product) || "MySQL".equalsIgnoreCase(product)) {
+            return new MariaDbTokenPartitions(jdbcTemplate, bucketInSeconds,
+                    validityTokenTimeInSeconds + additionalTimeInSeconds);
+        }
+        log.warn("No partitioning on {}: the buckets of tokens are emptied by deletes", product);
+        return new DeletingTokenPartitions(jwtRepository, refreshTokenRepository, transactionManager,
+                bucketInSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.entity.User;
+
+/**
+ * Published when the security of an user has changed (password, role,
+ * activation...)
+ * <p>
+ * All the tokens of the user are revoked on reception (see JwtServiceImpl):
+ * the principal they carry may be out of date. The tokens carry no version to
+ * compare: the revocation alone makes them invalid.
+ *
+ * @param user the user, changed
+ */
+public record UserSecurityChangedEvent(User user) {
+}
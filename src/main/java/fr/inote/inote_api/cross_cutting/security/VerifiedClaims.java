@@ -0,0 +1,54 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of the claims of a bearer token whose signature has already
+ * been checked.
+ * It is produced once per request by JwtServiceImpl.verify() and handed to the
+ * rest of the JwtFilter, so the token is never decoded twice.
+ *
+ * @param id         id of the token (jti), null on tokens issued without it
+ * @param subject    email of the user owning the token
+ * @param name       name of the user owning the token
+ * @param issuedAt   instant of creation of the token (may be null on tokens
+ *                   issued without "iat")
+ * @param expiration instant of expiration of the token
+ * @param role       role of the user, only in tokens carrying the principal
+ * @param userId     id of the user, only in tokens carrying the principal
+ */
+public record VerifiedClaims(
+        String id,
+        String subject,
+        String name,
+        Instant issuedAt,
+        Instant expiration,
+        String role,
+        Integer userId) {
+
+    /**
+     * Claims of a token which does not carry the principal
+     */
+    public VerifiedClaims(String id, String subject, String name, Instant issuedAt, Instant expiration) {
+        this(id, subject, name, issuedAt, expiration, null, null);
+    }
+
+    /**
+     * Get whether the principal can be built from these claims only
+     *
+     * @return true if role and user id are present
+     */
+    public boolean hasPrincipal() {
+        return this.role != null && this.userId != null;
+    }
+
+    /**
+     * Get expiration status of token at a given instant
+     *
+     * @param instant reference instant
+     * @return true if the token is expired at this instant
+     */
+    public boolean isExpiredAt(Instant instant) {
+        return this.expiration == null || this.expiration.isBefore(instant);
+    }
+}
@@ -36,8 +36,8 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addMapping(Endpoint.GET_CURRENT_USER)
                 .allowedOrigins(FRONTEND_HOST)
                 .allowedMethods("GET")
-                .allowedHeaders("Content-Type", "Authorization")
-                .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials");
+                .allowedHeaders("Content-Type", "Authorization", "If-None-Match")
+                .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "ETag");
 
         registry.addMapping(Endpoint.SIGN_OUT)
                 .allowedOrigins(FRONTEND_HOST)
@@ -82,6 +82,20 @@ public class WebConfig implements WebMvcConfigurer {
                         "Access-Control-Request-Method", "Access-Control-Request-Headers");
 
         registry.addMapping(Endpoint.GET_ALL_USERS)
+                .allowedOrigins(FRONTEND_HOST)
+                .allowedMethods("GET")
+                .allowedHeaders("Content-Type", "Authorization", "If-None-Match")
+                .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Request-Method",
+                        "Access-Control-Request-Headers", "ETag");
+
+        registry.addMapping(Endpoint.USERS_EXPORT)
+                .allowedOrigins(FRONTEND_HOST)
+                .allowedMethods("GET")
+                .allowedHeaders("Content-Type", "Authorization")
+                .exposedHeaders("Access-Control-Allow-Origin", "Access-Control-Request-Method",
+                        "Access-Control-Request-Headers");
+
+        registry.addMapping(Endpoint.COMMENTS_EXPORT)
                 .allowedOrigins(FRONTEND_HOST)
                 .allowedMethods("GET")
                 .allowedHeaders("Content-Type", "Authorization")
@@ -0,0 +1,99 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.security.RevocationEvent;
+import fr.inote.inote_api.cross_cutting.security.RevocationRecord;
+import fr.inote.inote_api.cross_cutting.security.RevocationTransport;
+import fr.inote.inote_api.repository.RevocationRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Revocation channel polled in the revocation_record table, shared by the
+ * instances
+ * <p>
+ * An event is inserted in the transaction of the revocation: it is visible to
+ * the other instances exactly when the revocation is committed, and never if
+ * it is rolled back. The position of a reader is the id of the last row read.
+ * <p>
+ * Ids are allocated at insertion but become visible at commit, so a row can
+ * appear behind one already read. The position therefore only moves past a
+ * missing id once it has been missing for jwt.revocation.broadcast
+ * .gapTimeoutInMillis (the id is then deemed rolled back); until then, the
+ * rows after it are read again at each poll.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.broadcast.transport", havingValue = "database", matchIfMissing = true)
+public class DatabaseRevocationTransport implements RevocationTransport {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final RevocationRecordRepository revocationRecordRepository;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final long gapTimeoutInMillis;
+
+    /* missing id -> first time it was seen missing, in epoch milliseconds */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+
+    public DatabaseRevocationTransport(
+            RevocationRecordRepository revocationRecordRepository,
+            @Value("${jwt.revocation.broadcast.gapTimeoutInMillis:10000}") long gapTimeoutInMillis) {
+        this.revocationRecordRepository = revocationRecordRepository;
+        this.gapTimeoutInMillis = gapTimeoutInMillis;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public void publish(RevocationEvent event) {
+        this.revocationRecordRepository.save(RevocationRecord.of(event));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * At start (position 0), the rows before the first one found are the
+     * pruned ones: they are not waited for.
+     */
+    @Override
+    public synchronized Batch read(long position, int maxEvents) {
+        final List<RevocationRecord> records = this.revocationRecordRepository
+                .findByIdGreaterThanOrderByIdAsc(position, PageRequest.of(0, maxEvents));
+        final long now = System.currentTimeMillis();
+
+        final List<RevocationEvent> events = new ArrayList<>(records.size());
+        long next = position;
+        boolean blocked = false;
+        for (RevocationRecord record : records) {
+            events.add(record.toEvent());
+            if (!blocked) {
+                if (next == 0 || record.getId() == next + 1 || this.isRolledBack(next + 1, now)) {
+                    next = record.getId();
+                } else {
+                    blocked = true;
+                }
+            }
+        }
+        this.gaps.headMap(next, true).clear();
+        return new Batch(events, next);
+    }
+
+    @Override
+    public int prune(Instant now) {
+        return this.revocationRecordRepository.deleteExpired(now);
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private boolean isRolledBack(long missingId, long now) {
+        return now - this.gaps.computeIfAbsent(missingId, id -> now) >= this.gapTimeoutInMillis;
+    }
+}
@@ -0,0 +1,56 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.security.TokenPartitions;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+/**
+ * Buckets of tokens emulated by a column, for the databases without
+ * partitioning (H2 in tests)
+ * <p>
+ * A bucket which is over is removed by two set-based deletes on the bucket
+ * column, in one transaction. The rows are still deleted one by one by the
+ * database: only the partitioned MariaDB layout avoids it.
+ */
+public class DeletingTokenPartitions implements TokenPartitions {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final JwtRepository jwtRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final long bucketInSeconds;
+
+    public DeletingTokenPartitions(
+            JwtRepository jwtRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            PlatformTransactionManager transactionManager,
+            long bucketInSeconds) {
+        this.jwtRepository = jwtRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bucketInSeconds = bucketInSeconds;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public void prepare(Instant now) {
+        // Nothing to create: a bucket is a value of the column
+    }
+
+    @Override
+    public long dropExpired(Instant now) {
+        final int current = TokenPartitions.bucketOf(now, this.bucketInSeconds);
+        // The jwt table holds the foreign key: tokens first
+        return this.transactionTemplate.execute(status -> (long) this.jwtRepository.deleteAllByBucketBefore(current)
+                + this.refreshTokenRepository.deleteAllByBucketBefore(current));
+    }
+}
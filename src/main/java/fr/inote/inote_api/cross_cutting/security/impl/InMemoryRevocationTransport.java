@@ -0,0 +1,78 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.security.RevocationEvent;
+import fr.inote.inote_api.cross_cutting.security.RevocationTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocation channel held in memory, shared by the Spring contexts of a same
+ * JVM which use the same jwt.revocation.broadcast.channel
+ * <p>
+ * Meant for tests running several instances in one JVM: the events are never
+ * dropped, and the position of a reader is the index of the next event.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.broadcast.transport", havingValue = "memory")
+public class InMemoryRevocationTransport implements RevocationTransport {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    private static final Map<String, List<RevocationEvent>> CHANNELS = new ConcurrentHashMap<>();
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final List<RevocationEvent> events;
+
+    public InMemoryRevocationTransport(@Value("${jwt.revocation.broadcast.channel:default}") String channel) {
+        this.events = CHANNELS.computeIfAbsent(channel, name -> new ArrayList<>());
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public void publish(RevocationEvent event) {
+        // As the database transport: nothing is visible before the commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(event);
+                }
+            });
+        } else {
+            this.append(event);
+        }
+    }
+
+    @Override
+    public Batch read(long position, int maxEvents) {
+        synchronized (this.events) {
+            int from = (int) Math.min(position, this.events.size());
+            int to = Math.min(this.events.size(), from + maxEvents);
+            return new Batch(new ArrayList<>(this.events.subList(from, to)), to);
+        }
+    }
+
+    @Override
+    public int prune(Instant now) {
+        return 0;
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private void append(RevocationEvent event) {
+        synchronized (this.events) {
+            this.events.add(event);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Revocation of the active tokens of many users at once (a list of users, a
+ * role, every token issued before an instant)
+ * <p>
+ * The tokens are revoked by chunks of jwt.revocation.bulk.chunkSize, each
+ * chunk in its own short transaction: the ids of the next active tokens of the
+ * scope are read after the last id of the previous chunk, then their refresh
+ * tokens are expired and the tokens revoked with two set-based updates. No
+ * entity is loaded, and locks are never held on a large part of the table.
+ * A scope given by a list of keys (the emails of users) is revoked list chunk
+ * after list chunk of the same size, so that a query never carries more than
+ * chunkSize keys.
+ * The revoked tokens are removed later by the reaper.
+ */
+@Slf4j
+@Component
+public class JwtBulkRevoker {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final JwtRepository jwtRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final int chunkSize;
+
+    public JwtBulkRevoker(
+            JwtRepository jwtRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.revocation.bulk.chunkSize:1000}") int chunkSize) {
+        this.jwtRepository = jwtRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Revoke all the active tokens of a scope, chunk after chunk
+     *
+     * @param scope      ids of the active tokens of the scope
+     * @param revokedJti receives the id (jti) of each revoked token once its
+     *                   chunk is committed, null if not needed
+     * @return number of tokens revoked and time spent
+     */
+    public Report revoke(Scope scope, Consumer<String> revokedJti) {
+        final long start = System.nanoTime();
+        Report report = this.revokeScope(scope, new Date(), revokedJti);
+        return this.report(report.tokens(), report.chunks(), start);
+    }
+
+    /**
+     * Revoke all the active tokens of a scope given by keys, chunk of keys
+     * after chunk of keys
+     *
+     * @param <K>        type of the keys
+     * @param keys       keys of the scope (emails of users...)
+     * @param scope      ids of the active tokens of some keys of the scope
+     * @param revokedJti receives the id (jti) of each revoked token once its
+     *                   chunk is committed, null if not needed
+     * @return number of tokens revoked and time spent
+     */
+    public <K> Report revoke(Collection<K> keys, KeyedScope<K> scope, Consumer<String> revokedJti) {
+        final long start = System.nanoTime();
+        final Date now = new Date();
+        final List<K> allKeys = List.copyOf(keys);
+
+        int tokens = 0;
+        int chunks = 0;
+        for (int from = 0; from < allKeys.size(); from += this.chunkSize) {
+            final List<K> someKeys = allKeys.subList(from, Math.min(from + this.chunkSize, allKeys.size()));
+            Report report = this.revokeScope(
+                    (afterId, pageable) -> scope.findActiveJwtIds(afterId, someKeys, pageable), now, revokedJti);
+            tokens += report.tokens();
+            chunks += report.chunks();
+        }
+        return this.report(tokens, chunks, start);
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+
+    /**
+     * Revoke all the active tokens of a scope, chunk after chunk
+     *
+     * @param scope      ids of the active tokens of the scope
+     * @param now        revocation time, after which the tokens are useless
+     * @param revokedJti receives the id (jti) of each revoked token, null if not
+     *                   needed
+     * @return number of tokens revoked, time not measured
+     */
+    private Report revokeScope(Scope scope, Date now, Consumer<String> revokedJti) {
+        int tokens = 0;
+        int chunks = 0;
+        int afterId = 0;
+        while (true) {
+            final int fromId = afterId;
+            Chunk chunk = this.transactionTemplate.execute(status -> this.revokeChunk(scope, fromId, now,
+                    revokedJti != null));
+            if (chunk.tokens() > 0) {
+                tokens += chunk.tokens();
+                chunks++;
+                if (revokedJti != null) {
+                    chunk.jtis().forEach(revokedJti);
+                }
+            }
+            if (chunk.tokens() < this.chunkSize) {
+                break;
+            }
+            afterId = chunk.lastId();
+        }
+        return new Report(tokens, chunks, 0);
+    }
+
+    /**
+     * Log and return the result of a revocation
+     *
+     * @param tokens number of tokens revoked
+     * @param chunks number of chunks (transactions)
+     * @param start  start of the revocation, from System.nanoTime()
+     * @return the result
+     */
+    private Report report(int tokens, int chunks, long start) {
+        Report report = new Report(tokens, chunks, (System.nanoTime() - start) / 1_000_000);
+        log.info("Bulk revocation: {} tokens revoked in {} chunks, {} ms",
+                report.tokens(), report.chunks(), report.elapsedInMillis());
+        return report;
+    }
+
+    /**
+     * Revoke the next chunk of active tokens of a scope, and their refresh
+     * tokens
+     *
+     * @param scope     ids of the active tokens of the scope
+     * @param afterId   last id of the previous chunk
+     * @param now       revocation time, after which the tokens are useless
+     * @param withJtis  true to read the ids (jti) of the tokens
+     * @return the tokens revoked
+     */
+    private Chunk revokeChunk(Scope scope, int afterId, Date now, boolean withJtis) {
+        List<Integer> ids = scope.findActiveJwtIds(afterId, PageRequest.of(0, this.chunkSize));
+        if (ids.isEmpty()) {
+            return new Chunk(0, afterId, List.of());
+        }
+        List<String> jtis = withJtis ? this.jwtRepository.findJtisByIdIn(ids) : List.of();
+
+        // Refresh tokens first: they are found through the still active tokens
+        this.refreshTokenRepository.expireAllOfJwtIds(ids);
+        this.jwtRepository.revokeAllByIdIn(ids, now);
+        return new Chunk(ids.size(), ids.get(ids.size() - 1), jtis);
+    }
+
+    /* NESTED TYPES */
+    /* ============================================================ */
+
+    /**
+     * Tokens to revoke
+     */
+    @FunctionalInterface
+    public interface Scope {
+
+        /**
+         * Find the ids of the next active tokens of the scope
+         *
+         * @param afterId  tokens with a greater id only
+         * @param pageable size of the chunk
+         * @return the ids, in ascending order
+         */
+        List<Integer> findActiveJwtIds(int afterId, Pageable pageable);
+    }
+
+    /**
+     * Tokens to revoke, given by keys
+     *
+     * @param <K> type of the keys
+     */
+    @FunctionalInterface
+    public interface KeyedScope<K> {
+
+        /**
+         * Find the ids of the next active tokens of some keys of the scope
+         *
+         * @param afterId  tokens with a greater id only
+         * @param keys     the keys, at most chunkSize
+         * @param pageable size of the chunk
+         * @return the ids, in ascending order
+         */
+        List<Integer> findActiveJwtIds(int afterId, Collection<K> keys, Pageable pageable);
+    }
+
+    /**
+     * Tokens revoked by a chunk
+     *
+     * @param tokens number of tokens revoked
+     * @param lastId greatest id revoked
+     * @param jtis   ids (jti) of the tokens revoked
+     */
+    private record Chunk(int tokens, int lastId, List<String> jtis) {
+    }
+
+    /**
+     * Result of a revocation
+     *
+     * @param tokens          number of tokens revoked
+     * @param chunks          number of chunks (transactions)
+     * @param elapsedInMillis time spent
+     */
+    public record Report(int tokens, int chunks, long elapsedInMillis) {
+    }
+}
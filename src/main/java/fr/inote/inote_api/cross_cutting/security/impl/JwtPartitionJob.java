@@ -0,0 +1,59 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.scheduling.ClusterJob;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.cross_cutting.security.TokenPartitions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Maintenance of the partitioned layout of the tokens, by one instance of the
+ * cluster every inote.jobs.jwtPurge.periodInSeconds, in place of JwtPurgeJob:
+ * creation of the partitions ahead, drop of the buckets which are over, and
+ * suppression of the expired revocation events
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.storage.layout", havingValue = "partitioned")
+public class JwtPartitionJob implements ClusterJob {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final TokenPartitions tokenPartitions;
+    private final RevocationBroadcaster revocationBroadcaster;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final Duration period;
+
+    public JwtPartitionJob(
+            TokenPartitions tokenPartitions,
+            RevocationBroadcaster revocationBroadcaster,
+            @Value("${inote.jobs.jwtPurge.periodInSeconds:60}") long periodInSeconds) {
+        this.tokenPartitions = tokenPartitions;
+        this.revocationBroadcaster = revocationBroadcaster;
+        this.period = Duration.ofSeconds(periodInSeconds);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public String getName() {
+        return "jwt-partitions";
+    }
+
+    @Override
+    public Duration getPeriod() {
+        return this.period;
+    }
+
+    @Override
+    public long run() {
+        final Instant now = Instant.now();
+        this.tokenPartitions.prepare(now);
+        return this.tokenPartitions.dropExpired(now) + this.revocationBroadcaster.prune();
+    }
+}
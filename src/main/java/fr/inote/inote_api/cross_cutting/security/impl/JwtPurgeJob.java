@@ -0,0 +1,52 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.scheduling.ClusterJob;
+import fr.inote.inote_api.cross_cutting.security.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Suppression of the useless tokens and revocation events, by one instance of
+ * the cluster every inote.jobs.jwtPurge.periodInSeconds
+ * <p>
+ * Replaced by JwtPartitionJob in the partitioned layout.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.storage.layout", havingValue = "rows", matchIfMissing = true)
+public class JwtPurgeJob implements ClusterJob {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final JwtService jwtService;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final Duration period;
+
+    public JwtPurgeJob(
+            JwtService jwtService,
+            @Value("${inote.jobs.jwtPurge.periodInSeconds:60}") long periodInSeconds) {
+        this.jwtService = jwtService;
+        this.period = Duration.ofSeconds(periodInSeconds);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public String getName() {
+        return "jwt-purge";
+    }
+
+    @Override
+    public Duration getPeriod() {
+        return this.period;
+    }
+
+    @Override
+    public long run() {
+        return this.jwtService.removeUselessJwt();
+    }
+}
@@ -0,0 +1,127 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Incremental suppression of the useless tokens
+ * <p>
+ * A token is useless once its refresh token has expired, or once it has been
+ * revoked (the revocation sets its refreshTokenExpiration to the revocation
+ * time). Both cases are found with the index on refreshTokenExpiration.
+ * <p>
+ * Tokens are deleted by batches of jwt.reaper.batchSize rows, each batch in its
+ * own short transaction, together with their refresh tokens, so that locks are
+ * never held on a large part of the table. A run stops when there is nothing
+ * left to delete or when its time budget (jwt.reaper.timeBudgetInMillis) is
+ * exhausted; the next run continues the job.
+ */
+@Slf4j
+@Component
+public class JwtReaper {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final JwtRepository jwtRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final int batchSize;
+    private final long timeBudgetInMillis;
+
+    public JwtReaper(
+            JwtRepository jwtRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.reaper.batchSize:500}") int batchSize,
+            @Value("${jwt.reaper.timeBudgetInMillis:2000}") long timeBudgetInMillis) {
+        this.jwtRepository = jwtRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.timeBudgetInMillis = timeBudgetInMillis;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+
+    /**
+     * Delete the useless tokens and their refresh tokens, batch after batch,
+     * within the time budget
+     *
+     * @return number of rows removed and time spent
+     */
+    public Report reap() {
+        final long start = System.nanoTime();
+        final long deadline = start + this.timeBudgetInMillis * 1_000_000;
+        final Date now = new Date();
+
+        int tokens = 0;
+        int refreshTokens = 0;
+        boolean complete = false;
+        while (System.nanoTime() < deadline) {
+            int[] removed = this.transactionTemplate.execute(status -> this.deleteBatch(now));
+            tokens += removed[0];
+            refreshTokens += removed[1];
+            if (removed[0] < this.batchSize) {
+                complete = true;
+                break;
+            }
+        }
+
+        Report report = new Report(tokens, refreshTokens, (System.nanoTime() - start) / 1_000_000, complete);
+        log.info("Useless tokens suppression: {} tokens and {} refresh tokens removed in {} ms{}",
+                report.tokens(), report.refreshTokens(), report.elapsedInMillis(),
+                complete ? "" : " (time budget exhausted)");
+        return report;
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+
+    /**
+     * Delete one batch of useless tokens, then their refresh tokens
+     *
+     * @param now reference instant of the run
+     * @return number of tokens and of refresh tokens removed
+     */
+    private int[] deleteBatch(Date now) {
+        List<Integer> jwtIds = this.jwtRepository.findUselessJwtIds(now, PageRequest.of(0, this.batchSize));
+        if (jwtIds.isEmpty()) {
+            return new int[] { 0, 0 };
+        }
+        List<Integer> refreshTokenIds = this.jwtRepository.findRefreshTokenIdsOfJwtIds(jwtIds);
+
+        // The jwt table holds the foreign key: tokens first
+        int tokens = this.jwtRepository.deleteAllByIdIn(jwtIds);
+        int refreshTokens = refreshTokenIds.isEmpty() ? 0
+                : this.refreshTokenRepository.deleteAllByIdIn(refreshTokenIds);
+        return new int[] { tokens, refreshTokens };
+    }
+
+    /* INNER TYPES */
+    /* ============================================================ */
+
+    /**
+     * Result of a run
+     *
+     * @param tokens          number of tokens removed
+     * @param refreshTokens   number of refresh tokens removed
+     * @param elapsedInMillis time spent
+     * @param complete        false if the run has been stopped by its time
+     *                        budget
+     */
+    public record Report(int tokens, int refreshTokens, long elapsedInMillis, boolean complete) {
+    }
+}
@@ -1,34 +1,57 @@
 package fr.inote.inote_api.cross_cutting.security.impl;
 
 import fr.inote.inote_api.cross_cutting.constants.HttpRequestBody;
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteExpiredRefreshTokenException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteJwtNotFoundException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteNotAuthenticatedUserException;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteTokenIssuanceBusyException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
 import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.JwtIssuanceLocks;
+import fr.inote.inote_api.cross_cutting.security.JwtKeyRing;
 import fr.inote.inote_api.cross_cutting.security.RefreshToken;
+import fr.inote.inote_api.cross_cutting.security.JwtRevocationLog;
 import fr.inote.inote_api.cross_cutting.security.JwtService;
+import fr.inote.inote_api.cross_cutting.security.JwtValidityCache;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
+import fr.inote.inote_api.cross_cutting.security.PrimaryReads;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.cross_cutting.security.TokenPartitions;
+import fr.inote.inote_api.cross_cutting.security.UserSecurityChangedEvent;
+import fr.inote.inote_api.cross_cutting.security.TokenDigest;
+import fr.inote.inote_api.cross_cutting.security.TokenOwner;
+import fr.inote.inote_api.cross_cutting.security.VerifiedClaims;
+import fr.inote.inote_api.dto.IntrospectionResponseDto;
+import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.entity.User;
 import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
 import fr.inote.inote_api.service.UserService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.security.Key;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.REFRESH;
@@ -47,12 +70,36 @@ public class JwtServiceImpl implements JwtService {
     /* ============================================================ */
     private UserService userService;
     private JwtRepository jwtRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private JwtValidityCache jwtValidityCache;
+    private JwtRevocationLog jwtRevocationLog;
+    private JwtReaper jwtReaper;
+    private JwtIssuanceLocks jwtIssuanceLocks;
+    private OpaqueTokenGenerator opaqueTokenGenerator;
+    private RevocationBroadcaster revocationBroadcaster;
+    private JwtBulkRevoker jwtBulkRevoker;
 
     public JwtServiceImpl(
             UserService userService,
-            JwtRepository jwtRepository) {
+            JwtRepository jwtRepository,
+            RefreshTokenRepository refreshTokenRepository,
+            JwtValidityCache jwtValidityCache,
+            JwtRevocationLog jwtRevocationLog,
+            JwtReaper jwtReaper,
+            JwtIssuanceLocks jwtIssuanceLocks,
+            OpaqueTokenGenerator opaqueTokenGenerator,
+            RevocationBroadcaster revocationBroadcaster,
+            JwtBulkRevoker jwtBulkRevoker) {
         this.userService = userService;
         this.jwtRepository = jwtRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtValidityCache = jwtValidityCache;
+        this.jwtRevocationLog = jwtRevocationLog;
+        this.jwtReaper = jwtReaper;
+        this.jwtIssuanceLocks = jwtIssuanceLocks;
+        this.opaqueTokenGenerator = opaqueTokenGenerator;
+        this.revocationBroadcaster = revocationBroadcaster;
+        this.jwtBulkRevoker = jwtBulkRevoker;
     }
 
     /* CONSTANTS */
@@ -70,6 +117,63 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.encryptionKey}")
     private String encryptionKey;
 
+    /*
+     * "database" (default): a token is valid only if it is found active in the jwt
+     * table (or in the validity cache).
+     * "stateless": a signed and unexpired token is valid unless its id (jti) has
+     * been revoked, without any access to the jwt table.
+     */
+    @Value("${jwt.validation.mode:database}")
+    private String validationMode;
+
+    /*
+     * When enabled, tokens also carry the role and the id of the user, and the
+     * authentication of a request is built from them without loading the user.
+     * A change of the security of the user (password, role...) revokes all its
+     * tokens: the revocation, not a version in the token, makes an out of date
+     * principal unusable.
+     */
+    @Value("${jwt.principalClaims.enabled:false}")
+    private boolean principalClaimsEnabled;
+
+    /*
+     * Beyond this number of users, a bulk revocation of users forgets every
+     * cached token at once rather than those of each user.
+     */
+    @Value("${jwt.revocation.bulk.maxUserRevocations:100}")
+    private int maxUserRevocations = 100;
+
+    /*
+     * Width of the time buckets of the tokens (see TokenPartitions), recorded
+     * whatever the storage layout.
+     */
+    @Value("${jwt.storage.bucketInSeconds:3600}")
+    private long storageBucketInSeconds = 3600;
+
+    /*
+     * Keys signing the tokens in addition to the encryption key (see
+     * JwtKeyRing): "kid:base64 secret[:retirement in epoch seconds]", comma
+     * separated, and the kid of the one signing the new tokens.
+     * Without them, the encryption key alone signs and verifies.
+     */
+    @Setter(AccessLevel.NONE) // see setKeyRing()
+    @Value("${jwt.keyRing.keys:}")
+    private String keyRingKeys;
+
+    @Setter(AccessLevel.NONE)
+    @Value("${jwt.keyRing.activeKid:}")
+    private String keyRingActiveKid;
+
+    /*
+     * The HMAC key, the parser and the key ring are derived once from the
+     * encryption key and the key ring properties, and reused by every sign and
+     * verify call.
+     * They are rebuilt lazily when one of them changes.
+     */
+    private volatile Key key;
+    private volatile JwtParser parser;
+    private volatile JwtKeyRing keyRing;
+
     /* PUBLIC METHODS */
     /* ============================================================ */
 
@@ -80,11 +184,131 @@ public class JwtServiceImpl implements JwtService {
      * @return the JWT
      * @throws InoteNotAuthenticatedUserException
      */
+    @Transactional(readOnly = true)
     public Jwt findValidToken(String value) throws InoteUserException, InoteNotAuthenticatedUserException {
-        return this.jwtRepository.findByContentValueAndDeactivatedAndExpired(
+        return PrimaryReads.call(() -> this.jwtRepository.findByContentValueAndDeactivatedAndExpired(
                 value,
                 false,
-                false).orElseThrow(() -> new InoteNotAuthenticatedUserException());
+                false)).orElseThrow(() -> new InoteNotAuthenticatedUserException());
+    }
+
+    /**
+     * Retrieve the owner of a token actived and not expired, from the validity
+     * cache or, on cache miss, from database
+     *
+     * In stateless mode, only the revocation of the token id is checked
+     * <p>
+     * Called for each authenticated request: it opens no transaction, the
+     * lookup on cache miss runs in the read-only transaction of the repository,
+     * on the primary even with a replica (see PrimaryReads).
+     *
+     * @param value  value of token to search
+     * @param claims verified claims of this token
+     * @return the email of the owner of token
+     * @throws InoteNotAuthenticatedUserException when the token is not valid
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String findValidTokenOwner(String value, VerifiedClaims claims)
+            throws InoteUserException, InoteNotAuthenticatedUserException {
+        // Tokens issued without id can't be revoked in stateless mode: they are
+        // still checked in database
+        if (this.isStatelessValidation() && claims.id() != null) {
+            if (this.jwtRevocationLog.isRevoked(claims.id())) {
+                throw new InoteNotAuthenticatedUserException();
+            }
+            return claims.subject();
+        }
+
+        String owner = this.jwtValidityCache.getOwner(value);
+        if (owner == null) {
+            long readStamp = this.jwtValidityCache.stamp();
+            User user = this.findValidToken(value).getUser();
+            owner = user.getEmail();
+            this.jwtValidityCache.put(value, owner,
+                    user.getRole() == null ? null : user.getRole().getName().name(),
+                    claims.expiration(), readStamp);
+        }
+        return owner;
+    }
+
+    /**
+     * Get the status of a batch of bearer tokens, with the checks of JwtFilter
+     * <p>
+     * Each token is verified and looked up in the validity cache (or the
+     * revocation log in stateless mode) as for an authenticated request: a
+     * cached token is answered with the role of its entry. The tokens still
+     * unknown, or whose role is neither cached nor in their claims, are read
+     * together: at most one statement, in a read-only transaction, for the
+     * whole batch.
+     *
+     * @param tokens values of the tokens
+     * @return the status of each token, in the order of the tokens
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<IntrospectionResponseDto> introspect(List<String> tokens) {
+        final Instant now = Instant.now();
+        final IntrospectionResponseDto[] results = new IntrospectionResponseDto[tokens.size()];
+        final VerifiedClaims[] verifiedClaims = new VerifiedClaims[tokens.size()];
+        final Map<String, String> digests = new HashMap<>();
+
+        for (int i = 0; i < results.length; i++) {
+            final String token = tokens.get(i);
+            final VerifiedClaims claims;
+            try {
+                claims = token == null ? null : this.verify(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                results[i] = IntrospectionResponseDto.INACTIVE;
+                continue;
+            }
+            if (claims == null || claims.isExpiredAt(now)) {
+                results[i] = IntrospectionResponseDto.INACTIVE;
+                continue;
+            }
+
+            final boolean stateless = this.isStatelessValidation() && claims.id() != null;
+            final String role;
+            if (stateless) {
+                role = this.principalClaimsEnabled && claims.hasPrincipal() ? claims.role() : null;
+            } else {
+                final JwtValidityCache.Owner cached = this.jwtValidityCache.get(token);
+                role = cached != null && cached.email().equals(claims.subject()) ? cached.role() : null;
+            }
+            if (stateless && this.jwtRevocationLog.isRevoked(claims.id())) {
+                results[i] = IntrospectionResponseDto.INACTIVE;
+            } else if (role != null) {
+                results[i] = new IntrospectionResponseDto(true, claims.subject(), role, claims.expiration());
+            } else {
+                // Unknown token, or role to read with its owner
+                verifiedClaims[i] = claims;
+                digests.computeIfAbsent(token, TokenDigest::of);
+            }
+        }
+
+        if (!digests.isEmpty()) {
+            final long readStamp = this.jwtValidityCache.stamp();
+            final Map<String, TokenOwner> found = new HashMap<>();
+            for (TokenOwner owner : PrimaryReads.call(
+                    () -> this.jwtRepository.findActiveOwnersByContentDigestIn(digests.values()))) {
+                found.put(owner.contentDigest(), owner);
+            }
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                final String token = tokens.get(i);
+                final VerifiedClaims claims = verifiedClaims[i];
+                final TokenOwner owner = found.get(digests.get(token));
+                if (owner == null || owner.role() == null || !owner.email().equals(claims.subject())) {
+                    results[i] = IntrospectionResponseDto.INACTIVE;
+                    continue;
+                }
+                this.jwtValidityCache.put(token, claims.subject(), owner.role().name(), claims.expiration(),
+                        readStamp);
+                results[i] = new IntrospectionResponseDto(true, claims.subject(), owner.role().name(),
+                        claims.expiration());
+            }
+        }
+        return Arrays.asList(results);
     }
 
     /**
@@ -93,34 +317,63 @@ public class JwtServiceImpl implements JwtService {
      *
      * @param username to assign token
      * @return Map containing token and refresh token
+     * @throws InoteTokenIssuanceBusyException when another issuance for this
+     *                                         user does not end in time
+     */
+    public Map<String, String> generate(String username) throws InoteTokenIssuanceBusyException {
+        return this.generate((User) this.userService.loadUserByUsername(username));
+    }
+
+    /**
+     * Generate a token and refresh token for an user already loaded (by the
+     * authentication, or with the refresh token), place it in a Map and returns
+     * <p>
+     * Statements: revocation of the previous tokens (two updates), publication
+     * of the revocation for the other instances when a token was active (one
+     * insertion with the database transport), then insertion of the refresh
+     * token and of the token.
+     * The issuances of a same user are serialised until the end of the
+     * transaction (see JwtIssuanceLocks): exactly one token stays active.
+     *
+     * @param user to assign token
+     * @return Map containing token and refresh token
+     * @throws InoteTokenIssuanceBusyException when another issuance for this
+     *                                         user does not end in time
      */
-    public Map<String, String> generate(String username) {
+    public Map<String, String> generate(User user) throws InoteTokenIssuanceBusyException {
 
-        User user = (User) this.userService.loadUserByUsername(username);
+        this.jwtIssuanceLocks.lockUntilEndOfTransaction(user.getId());
 
         // Desactivation of all actual tokens of user
         // They will be removed by schleduled task
         this.disableTokens(user);
 
         // Generate token and put it in HasMap
-        final Map<String, String> jwtMap = new HashMap<>(this.generateJwt(user));
+        final String jti = this.opaqueTokenGenerator.next();
+        final Map<String, String> jwtMap = new HashMap<>(this.generateJwt(user, jti));
 
         // Refresh-token creation
         RefreshToken refreshToken = RefreshToken.builder()
-                .contentValue(UUID.randomUUID().toString()) // Universal Unique IDentifier
+                .contentValue(this.opaqueTokenGenerator.next()) // 256 random bits
                 .expirationStatus(false)
                 .creationDate(Instant.now())
                 .expirationDate(Instant.now()
                     .plusSeconds(this.getValidityTokenTimeInSeconds())
                     .plusSeconds(this.getAdditionalTimeForRefreshTokenInSeconds()))
                 .build();
+        final int bucket = TokenPartitions.bucketOf(refreshToken.getExpirationDate(), this.storageBucketInSeconds);
+        refreshToken.setBucket(bucket);
 
         /* create the jwt and store in db for activation before expirationDate */
         final Jwt jwt = Jwt
                 .builder()
                 .contentValue(jwtMap.get(HttpRequestBody.BEARER))
+                .jti(jti)
                 .deactivated(false)
                 .expired(false)
+                .refreshTokenExpiration(Date.from(refreshToken.getExpirationDate()))
+                .issuedAt(refreshToken.getCreationDate())
+                .bucket(bucket)
                 .user(user)
                 .refreshToken(refreshToken)
                 .build();
@@ -132,18 +385,182 @@ public class JwtServiceImpl implements JwtService {
     }
 
     /**
-     * Desactive tokens of an user
+     * Desactive tokens of an user, and their refresh tokens, with set-based
+     * updates
+     * <p>
+     * The revocation is published for the other instances only if a token was
+     * active.
      * 
      * @param user
      */
     private void disableTokens(User user) {
-        final List<Jwt> jwtList = this.jwtRepository.findJwtWithUserEmail(user.getEmail()).peek(
-                jwt -> {
-                    jwt.setDeactivated(true);
-                    jwt.setExpired(true);
-                }).collect(Collectors.toList());
+        this.invalidateCachedTokens(user.getEmail());
+
+        if (this.isStatelessValidation()) {
+            final Instant expiration = Instant.now().plusSeconds(this.validityTokenTimeInSeconds);
+            this.jwtRepository.findActiveJtisOfUser(user.getId()).forEach(jti -> {
+                this.jwtRevocationLog.revoke(jti, expiration);
+                this.revocationBroadcaster.publishTokenRevocation(user.getEmail(), jti, expiration);
+            });
+        }
+
+        this.refreshTokenRepository.expireAllOfUser(user.getId());
+        if (this.jwtRepository.revokeAllOfUser(user.getId(), new Date()) > 0) {
+            this.revocationBroadcaster.publishUserRevocation(user.getEmail());
+        }
+    }
 
-        this.jwtRepository.saveAll(jwtList);
+    /**
+     * Revoke all the active tokens of users, and their refresh tokens
+     * <p>
+     * The cached tokens of the users are forgotten, here and on the other
+     * instances, one user after the other; beyond
+     * jwt.revocation.bulk.maxUserRevocations users, every cached token is
+     * forgotten at once instead. Nothing is forgotten when no token was active.
+     *
+     * @param emails emails of the users
+     * @return number of tokens revoked and time spent
+     */
+    // Outside of any transaction: the revoker opens one short transaction by chunk
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public JwtBulkRevoker.Report revokeSessionsOfUsers(Collection<String> emails) {
+        JwtBulkRevoker.Report report = this.jwtBulkRevoker.revoke(emails,
+                this.jwtRepository::findActiveJwtIdsOfUsers, this.revokedJtiConsumer());
+        if (report.tokens() == 0) {
+            return report;
+        }
+        if (emails.size() > this.maxUserRevocations) {
+            this.jwtValidityCache.invalidateAll();
+            this.revocationBroadcaster.publishGlobalRevocation();
+            return report;
+        }
+        for (String email : emails) {
+            this.jwtValidityCache.invalidateUser(email);
+            this.revocationBroadcaster.publishUserRevocation(email);
+        }
+        return report;
+    }
+
+    /**
+     * Revoke all the active tokens of the users of a role, and their refresh
+     * tokens
+     *
+     * @param role role of the users
+     * @return number of tokens revoked and time spent
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public JwtBulkRevoker.Report revokeSessionsOfRole(RoleEnum role) {
+        return this.revokeSessions(
+                (afterId, pageable) -> this.jwtRepository.findActiveJwtIdsOfRole(afterId, role, pageable));
+    }
+
+    /**
+     * Revoke all the active tokens issued before an instant, and their refresh
+     * tokens
+     *
+     * @param instant instant of issuance
+     * @return number of tokens revoked and time spent
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public JwtBulkRevoker.Report revokeSessionsIssuedBefore(Instant instant) {
+        return this.revokeSessions(
+                (afterId, pageable) -> this.jwtRepository.findActiveJwtIdsIssuedBefore(afterId, instant, pageable));
+    }
+
+    /**
+     * Revoke the active tokens of a scope, then forget every cached token, here
+     * and on the other instances: the owners of the revoked tokens are not
+     * known
+     *
+     * @param scope ids of the active tokens of the scope
+     * @return number of tokens revoked and time spent
+     */
+    private JwtBulkRevoker.Report revokeSessions(JwtBulkRevoker.Scope scope) {
+        JwtBulkRevoker.Report report = this.jwtBulkRevoker.revoke(scope, this.revokedJtiConsumer());
+        if (report.tokens() > 0) {
+            this.jwtValidityCache.invalidateAll();
+            this.revocationBroadcaster.publishGlobalRevocation();
+        }
+        return report;
+    }
+
+    /**
+     * Get the consumer of the ids of the tokens revoked by a bulk revocation
+     *
+     * @return the consumer adding them to the revocation log in stateless mode,
+     *         null otherwise
+     */
+    private Consumer<String> revokedJtiConsumer() {
+        if (!this.isStatelessValidation()) {
+            return null;
+        }
+        final Instant expiration = Instant.now().plusSeconds(this.validityTokenTimeInSeconds);
+        return jti -> {
+            this.jwtRevocationLog.revoke(jti, expiration);
+            this.revocationBroadcaster.publishTokenRevocation(null, jti, expiration);
+        };
+    }
+
+    /**
+     * Decode and verify a token once, and return its claims
+     * <p>
+     * The signature and the expiration date are checked by the codec of the key
+     * designated by the header of the token: an invalid token raises the same
+     * jjwt exceptions as before (MalformedJwtException, SignatureException,
+     * ExpiredJwtException...).
+     * Tokens not issued by generateJwt() are parsed by jjwt.
+     *
+     * @param token to be parsed
+     * @return the verified claims of token
+     */
+    // Pure computation: no transaction
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public VerifiedClaims verify(String token) {
+        VerifiedClaims verifiedClaims = this.getKeyRing().decode(token);
+        if (verifiedClaims != null) {
+            return verifiedClaims;
+        }
+
+        Claims claims = this.getAllClaims(token);
+        return new VerifiedClaims(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get("name", String.class),
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(),
+                claims.getExpiration() == null ? null : claims.getExpiration().toInstant(),
+                claims.get("role", String.class),
+                claims.get("uid", Integer.class));
+    }
+
+    /**
+     * Build the authenticated user from the claims of a verified token, without
+     * loading it
+     * <p>
+     * The user is not managed: only its id, email, name and role are set.
+     *
+     * @param claims verified claims of the token
+     * @return the user, or null when the principal claims are disabled or
+     *         absent from the token
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public User principalOf(VerifiedClaims claims) {
+        if (!this.principalClaimsEnabled || !claims.hasPrincipal()) {
+            return null;
+        }
+        final RoleEnum role;
+        try {
+            role = RoleEnum.valueOf(claims.role());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return User.builder()
+                .id(claims.userId())
+                .email(claims.subject())
+                .name(claims.name())
+                .password("")
+                .actif(true)
+                .role(Role.builder().name(role).build())
+                .build();
     }
 
     /**
@@ -152,8 +569,9 @@ public class JwtServiceImpl implements JwtService {
      * @param token to be parsed
      * @return the username in token
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public String extractUsername(String token) {
-        return this.getClaim(token, Claims::getSubject);
+        return this.verify(token).subject();
     }
 
     /**
@@ -162,9 +580,9 @@ public class JwtServiceImpl implements JwtService {
      * @param token to be parsed
      * @return a boolean indicate the status
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean isTokenExpired(String token) {
-        Date expirationDate = getExpirationDateFromToken(token);
-        return expirationDate.before(new Date());
+        return this.verify(token).isExpiredAt(Instant.now());
     }
 
     /**
@@ -202,14 +620,8 @@ public class JwtServiceImpl implements JwtService {
      */
     private Claims getAllClaims(String token) {
 
-        /* Creation of parser with the secret key */
-        JwtParserBuilder parserBuilder = Jwts.parserBuilder()
-                .setSigningKey(this.getKey());
-        // Compilation of parser
-        JwtParser parser = parserBuilder.build();
-
-        /* Token analyze whith our parser, then validation */
-        Jws<Claims> parsedJwt = parser.parseClaimsJws(token);
+        /* Token analyze whith our prebuilt parser, then validation */
+        Jws<Claims> parsedJwt = this.getParser().parseClaimsJws(token);
 
         /* Claims extraction */
 
@@ -223,21 +635,28 @@ public class JwtServiceImpl implements JwtService {
      * @return map with key "bearer" and value the token value
      */
     private Map<String, String> generateJwt(User user) {
-        final long currentTime = System.currentTimeMillis();
-        final long expirationTime = currentTime + this.validityTokenTimeInSeconds * 1000;
-
-        final Map<String, Object> claims = Map.of(
-                "name", user.getName(),
-                Claims.EXPIRATION, new Date(expirationTime),
-                Claims.SUBJECT, user.getEmail());
-
-        final String bearer = Jwts.builder()
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(expirationTime))
-                .setSubject(user.getEmail())
-                .setClaims(claims)
-                .signWith(getKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return this.generateJwt(user, this.opaqueTokenGenerator.next());
+    }
+
+    /**
+     * Generate a jwt from an user, with a given id
+     *
+     * @param user to affect to jwt
+     * @param jti  id of the token
+     * @return map with key "bearer" and value the token value
+     */
+    private Map<String, String> generateJwt(User user, String jti) {
+        final long issuedAt = System.currentTimeMillis() / 1000;
+
+        final boolean withPrincipal = this.principalClaimsEnabled && user.getRole() != null;
+        final String bearer = this.getKeyRing().signer().encode(
+                user.getName(),
+                user.getEmail(),
+                issuedAt,
+                issuedAt + this.validityTokenTimeInSeconds,
+                jti,
+                withPrincipal ? user.getRole().getName().name() : null,
+                withPrincipal ? user.getId() : null);
 
         return Map.of(BEARER, bearer);
     }
@@ -284,8 +703,81 @@ public class JwtServiceImpl implements JwtService {
      * @return the key
      */
     private Key getKey() {
-        final byte[] decoder = Decoders.BASE64.decode(encryptionKey);
-        return Keys.hmacShaKeyFor(decoder);
+        Key currentKey = this.key;
+        if (currentKey == null) {
+            final byte[] decoder = Decoders.BASE64.decode(encryptionKey);
+            currentKey = Keys.hmacShaKeyFor(decoder);
+            this.key = currentKey;
+        }
+        return currentKey;
+    }
+
+    /**
+     * Get the parser of tokens, built once with the keys of the key ring
+     * (a JwtParser is immutable and thread-safe)
+     *
+     * @return the parser
+     */
+    private JwtParser getParser() {
+        JwtParser currentParser = this.parser;
+        if (currentParser == null) {
+            final JwtKeyRing currentKeyRing = this.getKeyRing();
+            currentParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        // Raw in the signature of jjwt 0.11: JwsHeader<?> would not override it
+                        @Override
+                        @SuppressWarnings("rawtypes")
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            return currentKeyRing.keyOf(header.getKeyId());
+                        }
+                    })
+                    .build();
+            this.parser = currentParser;
+        }
+        return currentParser;
+    }
+
+    /**
+     * Get the key ring, built once with the HMAC-SHA key and the key ring
+     * properties (the ring and its codecs are thread-safe)
+     *
+     * @return the key ring
+     */
+    private JwtKeyRing getKeyRing() {
+        JwtKeyRing currentKeyRing = this.keyRing;
+        if (currentKeyRing == null) {
+            currentKeyRing = new JwtKeyRing(this.getKey(), this.keyRingKeys, this.keyRingActiveKid);
+            this.keyRing = currentKeyRing;
+        }
+        return currentKeyRing;
+    }
+
+    /**
+     * Set the encryption key, and drop the key, parser and key ring derived from
+     * the previous one
+     *
+     * @param encryptionKey Base64 encoded secret
+     */
+    public void setEncryptionKey(String encryptionKey) {
+        this.encryptionKey = encryptionKey;
+        this.key = null;
+        this.parser = null;
+        this.keyRing = null;
+    }
+
+    /**
+     * Set the keys of the key ring and the active one, and drop the parser and
+     * key ring built with the previous ones
+     *
+     * @param keys      "kid:base64 secret[:retirement in epoch seconds]", comma
+     *                  separated
+     * @param activeKid kid of the key signing the new tokens
+     */
+    public void setKeyRing(String keys, String activeKid) {
+        this.keyRingKeys = keys;
+        this.keyRingActiveKid = activeKid;
+        this.parser = null;
+        this.keyRing = null;
     }
 
     /**
@@ -302,14 +794,109 @@ public class JwtServiceImpl implements JwtService {
                 user.getEmail(),
                 false,
                 false).orElseThrow(InoteJwtNotFoundException::new);
-        jwt.setExpired(true);
-        jwt.setDeactivated(true);
+        this.markAsUseless(jwt);
         this.jwtRepository.save(jwt);
+        this.revokeInStatelessMode(jwt, user.getEmail());
+
+        this.invalidateCachedTokens(user.getEmail());
+        this.revocationBroadcaster.publishUserRevocation(user.getEmail());
     }
 
     /**
-     * Schleduled suppression of all expired/desactived tokens
+     * Revoke all tokens of an user whose security has changed: the principal
+     * they carry (role) may be out of date
+     *
+     * @param event the change
+     */
+    @EventListener
+    public void onUserSecurityChanged(UserSecurityChangedEvent event) {
+        this.disableTokens(event.user());
+    }
+
+    /**
+     * Remove the tokens of an user from the validity cache, at once and again
+     * after the commit of the current transaction (a request could reload in
+     * between the not yet committed rows)
+     *
+     * @param email email of the user
+     */
+    private void invalidateCachedTokens(String email) {
+        this.jwtValidityCache.invalidateUser(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jwtValidityCache.invalidateUser(email);
+                }
+            });
+        }
+    }
+
+    /**
+     * Revoke a token in database: it is deactivated, and will be removed by the
+     * next run of the reaper
+     *
+     * @param jwt token to revoke
+     */
+    private void markAsUseless(Jwt jwt) {
+        final Date now = new Date();
+        jwt.setDeactivated(true);
+        jwt.setExpired(true);
+        if (jwt.getRefreshTokenExpiration() == null || jwt.getRefreshTokenExpiration().after(now)) {
+            jwt.setRefreshTokenExpiration(now);
+        }
+    }
+
+    /**
+     * Get the validation mode of tokens
+     *
+     * @return true if tokens are validated without access to the jwt table
+     */
+    public boolean isStatelessValidation() {
+        return "stateless".equalsIgnoreCase(this.validationMode);
+    }
+
+    /**
+     * Revoke the id of a token in the revocation log, when the stateless mode is
+     * enabled
+     * The token being valid at most validityTokenTimeInSeconds from now, its id
+     * is kept until then.
+     *
+     * @param jwt   token to revoke
+     * @param email email of its owner
+     */
+    private void revokeInStatelessMode(Jwt jwt, String email) {
+        if (this.isStatelessValidation() && jwt.getJti() != null) {
+            final Instant expiration = Instant.now().plusSeconds(this.validityTokenTimeInSeconds);
+            this.jwtRevocationLog.revoke(jwt.getJti(), expiration);
+            this.revocationBroadcaster.publishTokenRevocation(email, jwt.getJti(), expiration);
+        }
+    }
+
+    /**
+     * Suppression of all useless tokens (revoked, or whose refresh token has
+     * expired), by batches within a time budget (see JwtReaper), and of the
+     * expired revocation events
+     * <p>
+     * Run by one instance of the cluster every minute (see JwtPurgeJob).
+     *
+     * @return number of rows removed
+     */
+    // Outside of any transaction: the reaper opens one short transaction by batch
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long removeUselessJwt() {
+        log.info("Inactive/expired tokens suppression at {}", Instant.now());
+        JwtReaper.Report report = this.jwtReaper.reap();
+
+        int events = this.revocationBroadcaster.prune();
+        log.info("{} expired revocation events removed", events);
+        return (long) report.tokens() + report.refreshTokens() + events;
+    }
+
+    /**
+     * Schleduled compaction of the revocation log, in stateless mode
      * <p>
+     * The log being local, it runs on every instance.
      * Use a cron expression (www.cron.guru)
      * Crontable syntax:
      * # .---------------- minute (0 - 59)
@@ -327,9 +914,23 @@ public class JwtServiceImpl implements JwtService {
      */
     @Scheduled(cron = "0 * * * * ?") // Execution every minute
     // @Scheduled(cron = "@daily") // Execution every days at midnight
-    public void removeUselessJwt() {
-        log.info("Inactive/expired tokens suppression at {}", Instant.now());
-        this.jwtRepository.deleteAllByExpiredAndDeactivated(true, true);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void compactRevocationLog() {
+        if (this.isStatelessValidation()) {
+            log.info("{} expired ids removed from revocation log", this.jwtRevocationLog.compact());
+        }
+    }
+
+    /**
+     * Open the revocation log at startup in stateless mode, so that a missing
+     * or shared jwt.revocation.logFile stops the instance before it serves
+     * requests
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void openRevocationLog() {
+        if (this.isStatelessValidation()) {
+            log.info("{} revoked ids loaded from revocation log", this.jwtRevocationLog.size());
+        }
     }
 
     /**
@@ -344,7 +945,7 @@ public class JwtServiceImpl implements JwtService {
      * @return a Map containing the refresh token
      */
     public Map<String, String> refreshConnectionWithRefreshTokenValue(String tokenValue)
-            throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException {
+            throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException, InoteTokenIssuanceBusyException {
 
         // find the first jwt with value of refreshToken
         final Jwt jwt = this.jwtRepository.findJwtWithRefreshTokenValue(tokenValue)
@@ -356,10 +957,8 @@ public class JwtServiceImpl implements JwtService {
             throw new InoteExpiredRefreshTokenException();
         }
 
-        // All related user tokens desactivation, include refreshToken
-        this.disableTokens(jwt.getUser());
-
-        // Generation of new token + refresh token
-        return this.generate(jwt.getUser().getEmail());
+        // Generation of new token + refresh token, after desactivation of all
+        // related user tokens, include refreshToken
+        return this.generate(jwt.getUser());
     }
 }
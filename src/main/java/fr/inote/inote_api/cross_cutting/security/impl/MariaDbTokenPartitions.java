@@ -0,0 +1,170 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.security.TokenPartitions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Buckets of tokens as RANGE partitions of the jwt and refresh-token tables,
+ * on MariaDB (or MySQL)
+ * <p>
+ * Partition p&lt;n&gt; holds the bucket n; pmax catches the rows beyond the
+ * partitions created. Each preparation creates, by splitting pmax, the
+ * partitions up to the bucket of now plus the lifetime of a refresh token; a
+ * bucket which is over is dropped with ALTER TABLE ... DROP PARTITION, without
+ * deleting its rows one by one.
+ * <p>
+ * The schema is generated by Hibernate without partitions: the first
+ * preparation converts each table. MariaDB partitioned tables accept neither
+ * foreign keys nor unique keys without the partitioning column, so:
+ * -> the foreign keys from and to the table are dropped
+ * -> its unique keys become plain indexes
+ * -> its primary key becomes (id, bucket), the rows without bucket taking the
+ * one of their expiration
+ * The rows of the buckets before the first partition are kept in it.
+ */
+@Slf4j
+public class MariaDbTokenPartitions implements TokenPartitions {
+
+    /* CONSTANTS */
+    /* ============================================================ */
+    private static final String MAX_PARTITION = "pmax";
+    // The jwt table first: it held the foreign key to refresh-token
+    private static final Map<String, String> EXPIRATION_COLUMN_BY_TABLE = new LinkedHashMap<>();
+
+    static {
+        EXPIRATION_COLUMN_BY_TABLE.put("jwt", "refresh_token_expiration");
+        EXPIRATION_COLUMN_BY_TABLE.put("refresh-token", "expiration_date");
+    }
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final JdbcTemplate jdbcTemplate;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final long bucketInSeconds;
+    private final long horizonInSeconds;
+
+    /**
+     * @param jdbcTemplate     template of the application datasource
+     * @param bucketInSeconds  width of the buckets
+     * @param horizonInSeconds lifetime of a refresh token: the partitions are
+     *                         created that far ahead
+     */
+    public MariaDbTokenPartitions(JdbcTemplate jdbcTemplate, long bucketInSeconds, long horizonInSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketInSeconds = bucketInSeconds;
+        this.horizonInSeconds = horizonInSeconds;
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    public void prepare(Instant now) {
+        final int first = TokenPartitions.bucketOf(now, this.bucketInSeconds);
+        final int last = TokenPartitions.bucketOf(now.plusSeconds(this.horizonInSeconds), this.bucketInSeconds) + 1;
+
+        for (Map.Entry<String, String> table : EXPIRATION_COLUMN_BY_TABLE.entrySet()) {
+            Map<Integer, Long> partitions = this.partitionsOf(table.getKey());
+            if (partitions.isEmpty()) {
+                this.convert(table.getKey(), table.getValue(), first);
+                partitions = Map.of(first, 0L);
+            }
+            int from = Math.max(first, partitions.keySet().stream().max(Integer::compare).orElse(first - 1) + 1);
+            if (from > last) {
+                continue;
+            }
+            StringJoiner definitions = new StringJoiner(", ");
+            for (int bucket = from; bucket <= last; bucket++) {
+                definitions.add(partitionDefinition(bucket));
+            }
+            definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE");
+            this.jdbcTemplate.execute("ALTER TABLE " + quote(table.getKey()) + " REORGANIZE PARTITION "
+                    + MAX_PARTITION + " INTO (" + definitions + ")");
+            log.info("Partitions of buckets {} to {} created in {}", from, last, table.getKey());
+        }
+    }
+
+    @Override
+    public long dropExpired(Instant now) {
+        final int current = TokenPartitions.bucketOf(now, this.bucketInSeconds);
+        long rows = 0;
+        for (String table : EXPIRATION_COLUMN_BY_TABLE.keySet()) {
+            StringJoiner expired = new StringJoiner(", ");
+            for (Map.Entry<Integer, Long> partition : this.partitionsOf(table).entrySet()) {
+                if (partition.getKey() < current) {
+                    expired.add("p" + partition.getKey());
+                    rows += partition.getValue();
+                }
+            }
+            if (expired.length() > 0) {
+                this.jdbcTemplate.execute("ALTER TABLE " + quote(table) + " DROP PARTITION " + expired);
+                log.info("Partitions {} dropped from {}", expired, table);
+            }
+        }
+        return rows;
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+
+    // Bucket -> estimated number of rows, of the partitions but pmax; empty if
+    // the table is not partitioned
+    private Map<Integer, Long> partitionsOf(String table) {
+        final Map<Integer, Long> partitions = new LinkedHashMap<>();
+        this.jdbcTemplate.query("SELECT PARTITION_NAME, TABLE_ROWS FROM information_schema.PARTITIONS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL"
+                + " ORDER BY PARTITION_ORDINAL_POSITION", resultSet -> {
+                    String name = resultSet.getString(1);
+                    if (!MAX_PARTITION.equals(name)) {
+                        partitions.put(Integer.parseInt(name.substring(1)), resultSet.getLong(2));
+                    }
+                }, table);
+        return partitions;
+    }
+
+    private void convert(String table, String expirationColumn, int firstBucket) {
+        log.info("Conversion of {} to partitions by bucket", table);
+
+        this.jdbcTemplate.query("SELECT TABLE_NAME, CONSTRAINT_NAME FROM information_schema.REFERENTIAL_CONSTRAINTS"
+                + " WHERE CONSTRAINT_SCHEMA = DATABASE() AND (TABLE_NAME = ? OR REFERENCED_TABLE_NAME = ?)",
+                (resultSet, rowNum) -> "ALTER TABLE " + quote(resultSet.getString(1)) + " DROP FOREIGN KEY "
+                        + quote(resultSet.getString(2)),
+                table, table).forEach(this.jdbcTemplate::execute);
+
+        final Map<String, List<String>> uniqueKeys = new LinkedHashMap<>();
+        this.jdbcTemplate.query("SELECT INDEX_NAME, COLUMN_NAME FROM information_schema.STATISTICS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'"
+                + " ORDER BY INDEX_NAME, SEQ_IN_INDEX", resultSet -> {
+                    uniqueKeys.computeIfAbsent(resultSet.getString(1), name -> new ArrayList<>())
+                            .add(quote(resultSet.getString(2)));
+                }, table);
+        uniqueKeys.forEach((name, columns) -> this.jdbcTemplate.execute("ALTER TABLE " + quote(table)
+                + " DROP INDEX " + quote(name) + ", ADD INDEX " + quote(name) + " (" + String.join(", ", columns)
+                + ")"));
+
+        this.jdbcTemplate.update("UPDATE " + quote(table) + " SET bucket = FLOOR(UNIX_TIMESTAMP(COALESCE("
+                + expirationColumn + ", NOW())) / ?) WHERE bucket IS NULL", this.bucketInSeconds);
+        this.jdbcTemplate.execute("ALTER TABLE " + quote(table)
+                + " MODIFY bucket INT NOT NULL, DROP PRIMARY KEY, ADD PRIMARY KEY (id, bucket)");
+        this.jdbcTemplate.execute("ALTER TABLE " + quote(table) + " PARTITION BY RANGE (bucket) ("
+                + partitionDefinition(firstBucket) + ", PARTITION " + MAX_PARTITION
+                + " VALUES LESS THAN MAXVALUE)");
+    }
+
+    private static String partitionDefinition(int bucket) {
+        return "PARTITION p" + bucket + " VALUES LESS THAN (" + (bucket + 1) + ")";
+    }
+
+    private static String quote(String identifier) {
+        return "`" + identifier + "`";
+    }
+}
@@ -0,0 +1,14 @@
+package fr.inote.inote_api.dto;
+
+import java.util.List;
+
+/**
+ * A page of the comment feed, newest first
+ *
+ * @param comments   comments of the page
+ * @param nextCursor cursor of the next page, null on the last one
+ */
+public record CommentPageResponseDto(
+        List<CommentResponseDto> comments,
+        Integer nextCursor
+) {}
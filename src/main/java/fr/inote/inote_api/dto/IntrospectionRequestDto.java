@@ -0,0 +1,8 @@
+package fr.inote.inote_api.dto;
+
+import java.util.List;
+
+public record IntrospectionRequestDto(
+        List<String> tokens
+) {
+}
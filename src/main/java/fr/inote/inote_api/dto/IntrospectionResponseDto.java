@@ -0,0 +1,20 @@
+package fr.inote.inote_api.dto;
+
+import java.time.Instant;
+
+/**
+ * Status of a bearer token, as seen by JwtFilter
+ *
+ * @param active     true if the token authenticates its owner right now
+ * @param subject    email of the owner, null when not active
+ * @param role       role of the owner, null when not active
+ * @param expiration instant of expiration of the token, null when not active
+ */
+public record IntrospectionResponseDto(
+        boolean active,
+        String subject,
+        String role,
+        Instant expiration
+) {
+    public static final IntrospectionResponseDto INACTIVE = new IntrospectionResponseDto(false, null, null, null);
+}
@@ -1,5 +1,7 @@
 package fr.inote.inote_api.dto;
 
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+
 public record ProtectedUserResponseDto(
     String name,
     String email,
@@ -9,4 +11,12 @@ public record ProtectedUserResponseDto(
     String roleName
 ) {
 
+    /**
+     * Constructor of the projection queries, where the role is selected as its
+     * enumeration
+     */
+    public ProtectedUserResponseDto(String name, String email, boolean active, String pseudonyme, String avatar,
+            RoleEnum role) {
+        this(name, email, active, pseudonyme, avatar, role == null ? null : role.name());
+    }
 }
@@ -0,0 +1,20 @@
+package fr.inote.inote_api.dto;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Scope of a bulk revocation of sessions: exactly one of the fields is set
+ *
+ * @param emails       emails of the users whose sessions are revoked
+ * @param role         role of the users whose sessions are revoked
+ * @param issuedBefore the sessions opened before this instant are revoked
+ */
+public record SessionRevocationRequestDto(
+        List<String> emails,
+        RoleEnum role,
+        Instant issuedBefore
+) {
+}
@@ -0,0 +1,7 @@
+package fr.inote.inote_api.dto;
+
+public record SessionRevocationResponseDto(
+        int revoked,
+        long elapsedInMillis
+) {
+}
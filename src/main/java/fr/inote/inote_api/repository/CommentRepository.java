@@ -1,9 +1,51 @@
 package fr.inote.inote_api.repository;
 
+import fr.inote.inote_api.dto.CommentResponseDto;
 import fr.inote.inote_api.entity.Comment;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends CrudRepository<Comment, Integer> {
+
+    /**
+     * Get a page of comments, newest first, by keyset on the primary key
+     * <p>
+     * The page is a range scan of the primary key index starting at the
+     * cursor: its cost does not depend on the depth of the page, unlike an
+     * offset. The dtos are built by the query, without loading the users nor
+     * their roles.
+     *
+     * @param beforeId comments with a lower id only
+     * @param pageable size of the page
+     * @return the comments, by decreasing id
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new fr.inote.inote_api.dto.CommentResponseDto(c.id, c.message, c.user.id)"
+            + " FROM Comment c WHERE c.id < :beforeId ORDER BY c.id DESC")
+    List<CommentResponseDto> findPageBefore(int beforeId, Pageable pageable);
+
+    /**
+     * Stream all the comments, by increasing id, for an export
+     * <p>
+     * Only the id of their user is read, from the foreign key: no join, and no
+     * entity to load nor to detach. The rows are read forward only, by fetches
+     * of {@value ExportFetchSize#ROWS}: the stream must be consumed in a
+     * transaction, and closed.
+     *
+     * @return the comments
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportFetchSize.ROWS))
+    @Query("SELECT new fr.inote.inote_api.dto.CommentResponseDto(c.id, c.message, c.user.id)"
+            + " FROM Comment c ORDER BY c.id")
+    Stream<CommentResponseDto> streamAllForExport();
 }
@@ -0,0 +1,16 @@
+package fr.inote.inote_api.repository;
+
+/**
+ * Fetch size of the queries streaming a whole table for an export
+ * <p>
+ * The driver reads the result set by batches of this size instead of
+ * buffering it whole (MariaDB Connector/J streams as soon as a fetch size is
+ * set).
+ */
+final class ExportFetchSize {
+
+    static final String ROWS = "500";
+
+    private ExportFetchSize() {
+    }
+}
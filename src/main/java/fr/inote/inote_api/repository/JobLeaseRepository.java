@@ -0,0 +1,47 @@
+package fr.inote.inote_api.repository;
+
+import fr.inote.inote_api.cross_cutting.scheduling.JobLease;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface JobLeaseRepository extends CrudRepository<JobLease, String> {
+
+    /**
+     * Take the lease of a job, in one statement, if it has expired
+     *
+     * @param name  name of the job
+     * @param owner instance taking the lease
+     * @param now   reference instant
+     * @param until end of the lease
+     * @return 1 if the lease has been taken, 0 if another instance holds it
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.leaseUntil = :until"
+            + " WHERE l.name = :name AND l.leaseUntil <= :now")
+    int acquire(String name, String owner, Instant now, Instant until);
+
+    /**
+     * Record a run of a job, by the holder of its lease
+     *
+     * @param name             name of the job
+     * @param owner            instance holding the lease
+     * @param start            start of the run
+     * @param durationInMillis duration of the run
+     * @param rows             number of rows affected
+     * @param failed           true if the run has thrown
+     * @return number of rows updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE JobLease l SET l.runs = l.runs + 1, l.lastRunStart = :start,"
+            + " l.lastRunDurationInMillis = :durationInMillis, l.lastRunRows = :rows, l.lastRunFailed = :failed"
+            + " WHERE l.name = :name AND l.owner = :owner")
+    int recordRun(String name, String owner, Instant start, long durationInMillis, long rows, boolean failed);
+}
@@ -1,16 +1,64 @@
 package fr.inote.inote_api.repository;
 
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
 import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.TokenDigest;
+import fr.inote.inote_api.cross_cutting.security.TokenOwner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 @Repository
 public interface JwtRepository extends CrudRepository<Jwt, Integer> {
-    Optional<Jwt> findByContentValueAndDeactivatedAndExpired(String value, boolean deactivated, boolean expired);
+
+    /**
+     * Find a token by the digest of its value (indexed column) and its status
+     *
+     * @param contentDigest digest of the token value (see TokenDigest)
+     * @param deactivated   deactivation status
+     * @param expired       expiration status
+     * @return the optional token
+     */
+    @Transactional(readOnly = true)
+    Optional<Jwt> findByContentDigestAndDeactivatedAndExpired(String contentDigest, boolean deactivated,
+            boolean expired);
+
+    /**
+     * Find a token by its value and its status
+     *
+     * @param value       value of the token, digested before the lookup
+     * @param deactivated deactivation status
+     * @param expired     expiration status
+     * @return the optional token
+     */
+    @Transactional(readOnly = true)
+    default Optional<Jwt> findByContentValueAndDeactivatedAndExpired(String value, boolean deactivated,
+            boolean expired) {
+        return this.findByContentDigestAndDeactivatedAndExpired(TokenDigest.of(value), deactivated, expired);
+    }
+
+    /**
+     * Find the owners of the active tokens among digests (one statement, no
+     * entity loaded)
+     *
+     * @param contentDigests digests of the token values (see TokenDigest)
+     * @return the owners of the tokens found, in no particular order
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new fr.inote.inote_api.cross_cutting.security.TokenOwner(j.contentDigest, u.email, r.name)"
+            + " FROM Jwt j JOIN j.user u LEFT JOIN u.role r"
+            + " WHERE j.contentDigest IN :contentDigests AND j.deactivated = false AND j.expired = false")
+    List<TokenOwner> findActiveOwnersByContentDigestIn(Collection<String> contentDigests);
 
     @Query("FROM Jwt j WHERE j.expired = :expired AND j.deactivated = :deactivated AND j.user.email = :email")
     Optional<Jwt> findTokenWithEmailAndStatusToken(String email, boolean deactivated, boolean expired);
@@ -18,8 +66,125 @@ public interface JwtRepository extends CrudRepository<Jwt, Integer> {
     @Query("FROM Jwt j WHERE j.user.email = :email")
     Stream<Jwt> findJwtWithUserEmail(String email);
 
-    @Query("FROM Jwt j WHERE j.refreshToken.contentValue = :contentValue")
-    Optional<Jwt> findJwtWithRefreshTokenValue(String contentValue);
+    /**
+     * Find the token associated to a refresh token, with its refresh token, its
+     * user and the role of its user (one statement)
+     *
+     * @param contentDigest digest of the refresh token value (see TokenDigest)
+     * @return the optional token
+     */
+    @Query("FROM Jwt j JOIN FETCH j.refreshToken r JOIN FETCH j.user u LEFT JOIN FETCH u.role"
+            + " WHERE r.contentDigest = :contentDigest")
+    Optional<Jwt> findJwtWithRefreshTokenDigest(String contentDigest);
+
+    /**
+     * Find the token associated to a refresh token
+     *
+     * @param contentValue value of the refresh token, digested before the lookup
+     * @return the optional token
+     */
+    default Optional<Jwt> findJwtWithRefreshTokenValue(String contentValue) {
+        return this.findJwtWithRefreshTokenDigest(TokenDigest.of(contentValue));
+    }
 
     void deleteAllByExpiredAndDeactivated(boolean expired, boolean deactivated);
-}
\ No newline at end of file
+
+    /**
+     * Revoke, in one statement, all active tokens of an user
+     *
+     * @param userId id of the user
+     * @param now    revocation time, after which the tokens are useless
+     * @return number of tokens revoked
+     */
+    @Modifying
+    @Query("UPDATE Jwt j SET j.deactivated = true, j.expired = true, j.refreshTokenExpiration = :now"
+            + " WHERE j.user.id = :userId AND j.deactivated = false")
+    int revokeAllOfUser(Integer userId, Date now);
+
+    @Query("SELECT j.jti FROM Jwt j WHERE j.user.id = :userId AND j.deactivated = false AND j.jti IS NOT NULL")
+    List<String> findActiveJtisOfUser(Integer userId);
+
+    @Query("SELECT j.jti FROM Jwt j WHERE j.id IN :ids AND j.jti IS NOT NULL")
+    List<String> findJtisByIdIn(Collection<Integer> ids);
+
+    /**
+     * Find ids of the active tokens of users, by ascending id (see
+     * JwtBulkRevoker)
+     *
+     * @param afterId  tokens with a greater id only
+     * @param emails   emails of the users
+     * @param pageable size of the chunk
+     * @return ids of tokens
+     */
+    @Query("SELECT j.id FROM Jwt j WHERE j.id > :afterId AND j.deactivated = false"
+            + " AND j.user.email IN :emails ORDER BY j.id")
+    List<Integer> findActiveJwtIdsOfUsers(int afterId, Collection<String> emails, Pageable pageable);
+
+    /**
+     * Find ids of the active tokens of the users of a role, by ascending id (see
+     * JwtBulkRevoker)
+     *
+     * @param afterId  tokens with a greater id only
+     * @param role     role of the users
+     * @param pageable size of the chunk
+     * @return ids of tokens
+     */
+    @Query("SELECT j.id FROM Jwt j WHERE j.id > :afterId AND j.deactivated = false"
+            + " AND j.user.role.name = :role ORDER BY j.id")
+    List<Integer> findActiveJwtIdsOfRole(int afterId, RoleEnum role, Pageable pageable);
+
+    /**
+     * Find ids of the active tokens issued before an instant, by ascending id
+     * (see JwtBulkRevoker); the tokens issued before the issuedAt column
+     * existed are included
+     *
+     * @param afterId  tokens with a greater id only
+     * @param before   instant of issuance
+     * @param pageable size of the chunk
+     * @return ids of tokens
+     */
+    @Query("SELECT j.id FROM Jwt j WHERE j.id > :afterId AND j.deactivated = false"
+            + " AND (j.issuedAt IS NULL OR j.issuedAt < :before) ORDER BY j.id")
+    List<Integer> findActiveJwtIdsIssuedBefore(int afterId, Instant before, Pageable pageable);
+
+    /**
+     * Revoke, in one statement, the active tokens among ids
+     *
+     * @param ids ids of the tokens
+     * @param now revocation time, after which the tokens are useless
+     * @return number of tokens revoked
+     */
+    @Modifying
+    @Query("UPDATE Jwt j SET j.deactivated = true, j.expired = true, j.refreshTokenExpiration = :now"
+            + " WHERE j.id IN :ids AND j.deactivated = false")
+    int revokeAllByIdIn(Collection<Integer> ids, Date now);
+
+    /**
+     * Find ids of the useless tokens: refresh token expired or revoked, by
+     * increasing expiry (a range of idx_jwt_refresh_token_expiration)
+     *
+     * @param now      reference instant
+     * @param pageable size of the batch
+     * @return ids of tokens
+     */
+    @Query("SELECT j.id FROM Jwt j WHERE j.refreshTokenExpiration < :now ORDER BY j.refreshTokenExpiration")
+    List<Integer> findUselessJwtIds(Date now, Pageable pageable);
+
+    @Query("SELECT j.refreshToken.id FROM Jwt j WHERE j.id IN :ids AND j.refreshToken IS NOT NULL")
+    List<Integer> findRefreshTokenIdsOfJwtIds(Collection<Integer> ids);
+
+    @Modifying
+    @Query("DELETE FROM Jwt j WHERE j.id IN :ids")
+    int deleteAllByIdIn(Collection<Integer> ids);
+
+    /**
+     * Delete, in one statement, the tokens of the buckets which are over (see
+     * TokenPartitions)
+     *
+     * @param bucket current bucket
+     * @return number of tokens deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Jwt j WHERE j.bucket < :bucket")
+    int deleteAllByBucketBefore(int bucket);
+}
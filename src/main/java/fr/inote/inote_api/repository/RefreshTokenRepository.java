@@ -1,11 +1,51 @@
 package fr.inote.inote_api.repository;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import fr.inote.inote_api.cross_cutting.security.RefreshToken;
 
+import java.util.Collection;
+
 @Repository
 public interface RefreshTokenRepository extends CrudRepository<RefreshToken, Integer> {
 
+    /**
+     * Expire, in one statement, the refresh tokens of all tokens of an user
+     *
+     * @param userId id of the user
+     * @return number of refresh tokens expired
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.expirationStatus = true WHERE r.expirationStatus = false"
+            + " AND r.id IN (SELECT j.refreshToken.id FROM Jwt j WHERE j.user.id = :userId)")
+    int expireAllOfUser(Integer userId);
+
+    /**
+     * Expire, in one statement, the refresh tokens of tokens
+     *
+     * @param jwtIds ids of the tokens
+     * @return number of refresh tokens expired
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.expirationStatus = true WHERE r.expirationStatus = false"
+            + " AND r.id IN (SELECT j.refreshToken.id FROM Jwt j WHERE j.id IN :jwtIds)")
+    int expireAllOfJwtIds(Collection<Integer> jwtIds);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.id IN :ids")
+    int deleteAllByIdIn(Collection<Integer> ids);
+
+    /**
+     * Delete, in one statement, the refresh tokens of the buckets which are
+     * over (see TokenPartitions)
+     *
+     * @param bucket current bucket
+     * @return number of refresh tokens deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.bucket < :bucket")
+    int deleteAllByBucketBefore(int bucket);
 }
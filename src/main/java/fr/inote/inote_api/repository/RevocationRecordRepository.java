@@ -0,0 +1,36 @@
+package fr.inote.inote_api.repository;
+
+import fr.inote.inote_api.cross_cutting.security.RevocationRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevocationRecordRepository extends CrudRepository<RevocationRecord, Long> {
+
+    /**
+     * Find the revocations published after a given one, by primary key
+     *
+     * @param id       id of the last revocation read
+     * @param pageable size of the batch
+     * @return revocations in publication order
+     */
+    List<RevocationRecord> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Delete, in one statement, the revocations whose expiration is past
+     *
+     * @param now reference instant
+     * @return number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevocationRecord r WHERE r.expiration < :now")
+    int deleteExpired(Instant now);
+}
@@ -1,10 +1,18 @@
 package fr.inote.inote_api.repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.entity.User;
 
 @Repository
@@ -17,5 +25,34 @@ public interface UserRepository extends CrudRepository<User, Integer> {
      * @return the optional
      * @author AtsuhikoMochizuki
      */
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
+
+    /**
+     * List the users as ProtectedUserResponseDto, by increasing id
+     * <p>
+     * The dtos are built by the query (one statement, with the role joined):
+     * no entity is loaded nor kept in the persistence context, and the
+     * passwords are not read.
+     *
+     * @return the users
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new fr.inote.inote_api.dto.ProtectedUserResponseDto(u.name, u.email, u.actif, u.pseudonyme,"
+            + " u.avatar, r.name) FROM User u LEFT JOIN u.role r ORDER BY u.id")
+    List<ProtectedUserResponseDto> findAllProtectedUsers();
+
+    /**
+     * Stream all the users with their role, by increasing id, for an export
+     * <p>
+     * The rows are read forward only, by fetches of
+     * {@value ExportFetchSize#ROWS}, and the entities are read-only: the
+     * stream must be consumed in a transaction, and closed.
+     *
+     * @return the users
+     */
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ExportFetchSize.ROWS),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.role ORDER BY u.id")
+    Stream<User> streamAllForExport();
 }
@@ -0,0 +1,25 @@
+package fr.inote.inote_api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    /**
+     * Write all the comments in NDJSON (one CommentResponseDto by line)
+     *
+     * @param outputStream where to write, left open
+     * @return number of comments written
+     * @throws IOException when the output stream fails
+     */
+    long exportComments(OutputStream outputStream) throws IOException;
+
+    /**
+     * Write all the users in NDJSON (one ProtectedUserResponseDto by line)
+     *
+     * @param outputStream where to write, left open
+     * @return number of users written
+     * @throws IOException when the output stream fails
+     */
+    long exportUsers(OutputStream outputStream) throws IOException;
+}
@@ -1,5 +1,7 @@
 package fr.inote.inote_api.service;
 
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteRoleNotFoundException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
 import fr.inote.inote_api.entity.Role;
 
@@ -16,6 +18,15 @@ public interface RoleService {
      */
     List<Role> insertRolesInDb();
 
+    /**
+     * Load a role, without query once it is cached
+     *
+     * @param name name of the role
+     * @return Singleton of asked Role
+     * @throws InoteRoleNotFoundException when the role is not in database
+     */
+    Role loadRole(RoleEnum name) throws InoteRoleNotFoundException;
+
     /**
      * Load admin role
      *
@@ -4,11 +4,13 @@ import fr.inote.inote_api.cross_cutting.exceptions.*;
 import fr.inote.inote_api.entity.User;
 
 import org.springframework.mail.MailException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 
-public interface UserService extends UserDetailsService {
+public interface UserService extends UserDetailsService, UserDetailsPasswordService {
 
     /**
      * Create an user in database with:<br>
@@ -59,4 +61,15 @@ public interface UserService extends UserDetailsService {
      * @param email containing user email
      */
     void newPassword(String email, String newPassword, String code) throws InoteValidationNotFoundException, UsernameNotFoundException, InoteInvalidPasswordFormatException;
+
+    /**
+     * Store the password of an user rehashed on sign in, because its stored hash
+     * was made with another BCrypt strength than the current one
+     *
+     * @param user        the authenticated user
+     * @param newPassword the password hashed with the current strength
+     * @return the user with its new hash
+     */
+    @Override
+    User updatePassword(UserDetails user, String newPassword);
 }
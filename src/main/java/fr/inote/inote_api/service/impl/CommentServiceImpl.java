@@ -1,6 +1,8 @@
 package fr.inote.inote_api.service.impl;
 
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteEmptyMessageCommentException;
+import fr.inote.inote_api.dto.CommentPageResponseDto;
 import fr.inote.inote_api.dto.CommentResponseDto;
 import fr.inote.inote_api.entity.Comment;
 import fr.inote.inote_api.entity.User;
@@ -8,10 +10,9 @@ import fr.inote.inote_api.repository.CommentRepository;
 import fr.inote.inote_api.repository.UserRepository;
 import fr.inote.inote_api.service.CommentService;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import org.springframework.data.util.Streamable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -28,10 +29,13 @@ public class CommentServiceImpl implements CommentService {
     /* ============================================================ */
     private CommentRepository commentRepository;
     private UserRepository userRepository;
+    private ResourceVersions resourceVersions;
 
-    public CommentServiceImpl(CommentRepository commentRepository, UserRepository userRepository) {
+    public CommentServiceImpl(CommentRepository commentRepository, UserRepository userRepository,
+            ResourceVersions resourceVersions) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
+        this.resourceVersions = resourceVersions;
     }
 
     /* PUBLIC METHODS */
@@ -59,22 +63,28 @@ public class CommentServiceImpl implements CommentService {
                 .user(foundedUser)
                 .message(msg)
                 .build();
-        return this.commentRepository.save(commentToWrite);
+        Comment savedComment = this.commentRepository.save(commentToWrite);
+        this.resourceVersions.bump(ResourceVersions.Collection.COMMENTS);
+        return savedComment;
     }
 
     /**
-     * Get the list of all comments recorded
+     * Get a page of the comments recorded, newest first
+     * <p>
+     * One more comment than asked is read: its presence tells that a next page
+     * exists, without counting the table.
      *
-     * @return the list of all comments in database
-     * @author atsuhiko Mochizuki
-     * @date 11/04/2024
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param size   number of comments of the page
+     * @return the page, with the cursor of the next one
      */
-    public List<CommentResponseDto> getAll() {
-        List<CommentResponseDto> commentDtos = new ArrayList<>();
-        List<Comment> comments =Streamable.of(this.commentRepository.findAll()).toList();
-        for(Comment item : comments){
-            commentDtos.add(new CommentResponseDto(item.getId(), item.getMessage(), item.getUser().getId()));
+    public CommentPageResponseDto getPage(Integer cursor, int size) {
+        List<CommentResponseDto> comments = this.commentRepository.findPageBefore(
+                cursor == null ? Integer.MAX_VALUE : cursor, PageRequest.of(0, size + 1));
+        if (comments.size() <= size) {
+            return new CommentPageResponseDto(comments, null);
         }
-        return  commentDtos;
+        List<CommentResponseDto> page = comments.subList(0, size);
+        return new CommentPageResponseDto(page, page.get(size - 1).id());
     }
 }
@@ -0,0 +1,116 @@
+package fr.inote.inote_api.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fr.inote.inote_api.dto.CommentResponseDto;
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.CommentRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import fr.inote.inote_api.service.ExportService;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The Service ExportServiceImpl
+ * <p>
+ * Writes a whole table in NDJSON while reading it: the rows come from a
+ * forward only stream, each one is serialized straight into the output stream
+ * and its entity, if any, detached at once (the comments are read as their
+ * response directly). Every inote.export.chunkSize rows, the output is flushed
+ * to the client and the persistence context cleared (of the roles fetched with
+ * the users). The heap used does not depend on the
+ * size of the table, and the first bytes leave with the first chunk.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    /* DEPENDENCIES INJECTION */
+    /* ============================================================ */
+    private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /* PROPERTIES */
+    /* ============================================================ */
+    private final int chunkSize;
+
+    public ExportServiceImpl(CommentRepository commentRepository, UserRepository userRepository,
+            EntityManager entityManager, ObjectMapper objectMapper,
+            @Value("${inote.export.chunkSize:500}") int chunkSize) {
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /* PUBLIC METHODS */
+    /* ============================================================ */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportComments(OutputStream outputStream) throws IOException {
+        try (Stream<CommentResponseDto> comments = this.commentRepository.streamAllForExport()) {
+            return this.write(comments, CommentResponseDto.class, Function.identity(), comment -> {
+            }, outputStream);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream outputStream) throws IOException {
+        try (Stream<User> users = this.userRepository.streamAllForExport()) {
+            return this.write(users, ProtectedUserResponseDto.class,
+                    user -> new ProtectedUserResponseDto(
+                            user.getName(),
+                            user.getEmail(),
+                            user.isActif(),
+                            user.getPseudonyme(),
+                            user.getAvatar(),
+                            user.getRole().getName().toString()),
+                    this.entityManager::detach, outputStream);
+        }
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private <E, D> long write(Stream<E> entities, Class<D> type, Function<E, D> toDto, Consumer<E> release,
+            OutputStream outputStream) throws IOException {
+        // Flushed by chunk, not after each line
+        ObjectWriter writer = this.objectMapper.writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = 0;
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // One value by line, ended by a line feed
+            generator.setRootValueSeparator(null);
+
+            Iterator<E> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                E entity = iterator.next();
+                writer.writeValue(generator, toDto.apply(entity));
+                generator.writeRaw('\n');
+                release.accept(entity);
+
+                if (++rows % this.chunkSize == 0) {
+                    generator.flush();
+                    this.entityManager.clear();
+                }
+            }
+        }
+        this.entityManager.clear();
+        return rows;
+    }
+}
@@ -1,17 +1,30 @@
 package fr.inote.inote_api.service.impl;
 
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteRoleNotFoundException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.repository.RoleRepository;
 import fr.inote.inote_api.service.RoleService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The Service RoleServiceImpl
+ * <p>
+ * The roles are a fixed set, known by the enumeration: their entities are
+ * loaded once at startup, in a map indexed by RoleEnum, and then served
+ * without query. A role missing at startup (table populated later) is looked
+ * up on first demand and kept from then on.
+ * The map is never modified in place: a change publishes a new copy, so the
+ * readers need no lock.
+ *
  * @author Atsuhiko Mochizuki
  * @date   11/04/2024
  */
@@ -22,6 +35,10 @@ public class RoleServiceImpl implements RoleService {
     /* ============================================================ */
     private RoleRepository roleRepository;
 
+    /* PROPERTIES */
+    /* ============================================================ */
+    private volatile Map<RoleEnum, Role> roles = new EnumMap<>(RoleEnum.class);
+
     public RoleServiceImpl(RoleRepository roleRepository) {
         this.roleRepository = roleRepository;
     }
@@ -43,9 +60,38 @@ public class RoleServiceImpl implements RoleService {
             rolesInApp.add(this.roleRepository.save(
                     Role.builder().name(role).build()));
         }
+        this.cache(rolesInApp);
         return rolesInApp;
     }
 
+    /**
+     * Load the roles of the database in the cache, once the application is
+     * started (after the initialization scripts)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRoles() {
+        List<Role> loaded = new ArrayList<>();
+        this.roleRepository.findAll().forEach(loaded::add);
+        this.cache(loaded);
+    }
+
+    /**
+     * Load a role
+     *
+     * @param name name of the role
+     * @return the role entity, from the cache
+     * @throws InoteRoleNotFoundException when the role is not in database
+     */
+    @Override
+    public Role loadRole(RoleEnum name) throws InoteRoleNotFoundException {
+        Role role = this.roles.get(name);
+        if (role == null) {
+            role = this.roleRepository.findByName(name).orElseThrow(InoteRoleNotFoundException::new);
+            this.cache(List.of(role));
+        }
+        return role;
+    }
+
     /**
      * Load admin role
      *
@@ -55,7 +101,7 @@ public class RoleServiceImpl implements RoleService {
      */
     @Override
     public Role loadAdminRole() throws InoteUserException {
-        return this.roleRepository.findByName(RoleEnum.ADMIN).orElseThrow(() -> new InoteUserException());
+        return this.loadRoleOrThrowUserException(RoleEnum.ADMIN);
     }
 
     /**
@@ -67,7 +113,7 @@ public class RoleServiceImpl implements RoleService {
      */
     @Override
     public Role loadManagerRole() throws InoteUserException {
-        return this.roleRepository.findByName(RoleEnum.MANAGER).orElseThrow(() -> new InoteUserException());
+        return this.loadRoleOrThrowUserException(RoleEnum.MANAGER);
     }
 
     /**
@@ -79,6 +125,25 @@ public class RoleServiceImpl implements RoleService {
      */
     @Override
     public Role loadUserRole() throws InoteUserException {
-        return this.roleRepository.findByName(RoleEnum.USER).orElseThrow(() -> new InoteUserException());
+        return this.loadRoleOrThrowUserException(RoleEnum.USER);
+    }
+
+    /* PRIVATE METHODS */
+    /* ============================================================ */
+    private Role loadRoleOrThrowUserException(RoleEnum name) throws InoteUserException {
+        try {
+            return this.loadRole(name);
+        } catch (InoteRoleNotFoundException e) {
+            throw new InoteUserException();
+        }
+    }
+
+    private synchronized void cache(List<Role> loaded) {
+        Map<RoleEnum, Role> copy = new EnumMap<>(RoleEnum.class);
+        copy.putAll(this.roles);
+        for (Role role : loaded) {
+            copy.put(role.getName(), role);
+        }
+        this.roles = copy;
     }
 }
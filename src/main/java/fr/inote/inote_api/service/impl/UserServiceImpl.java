@@ -1,20 +1,26 @@
 package fr.inote.inote_api.service.impl;
 
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.*;
+import fr.inote.inote_api.cross_cutting.security.PrimaryReads;
+import fr.inote.inote_api.cross_cutting.security.UserSecurityChangedEvent;
 
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.entity.User;
 import fr.inote.inote_api.entity.Validation;
 import fr.inote.inote_api.repository.ValidationRepository;
+import fr.inote.inote_api.service.RoleService;
 import fr.inote.inote_api.service.UserService;
 import fr.inote.inote_api.service.ValidationService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.MailException;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import fr.inote.inote_api.repository.RoleRepository;
 import fr.inote.inote_api.repository.UserRepository;
 
 import java.time.Instant;
@@ -41,20 +47,26 @@ public class UserServiceImpl implements UserService {
     private UserRepository userRepository;
     private BCryptPasswordEncoder passwordEncoder;
     private ValidationService validationService;
-    private RoleRepository roleRepository;
+    private RoleService roleService;
     private ValidationRepository validationRepository;
+    private ApplicationEventPublisher applicationEventPublisher;
+    private ResourceVersions resourceVersions;
 
     public UserServiceImpl(
             UserRepository userRepository,
             BCryptPasswordEncoder passwordEncoder,
             ValidationService validationService,
-            RoleRepository roleRepository,
-            ValidationRepository validationRepository) {
+            RoleService roleService,
+            ValidationRepository validationRepository,
+            ApplicationEventPublisher applicationEventPublisher,
+            ResourceVersions resourceVersions) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.validationService = validationService;
-        this.roleRepository = roleRepository;
+        this.roleService = roleService;
         this.validationRepository = validationRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.resourceVersions = resourceVersions;
     }
 
     /* PUBLIC METHODS */
@@ -96,10 +108,29 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
-        return this.userRepository.findByEmail(username)
+        return PrimaryReads.call(() -> this.userRepository.findByEmail(username))
                 .orElseThrow(() -> new UsernameNotFoundException("None user found"));
     }
 
+    /**
+     * Store the new hash of the password of an user, after a successful sign
+     * in with a hash of another BCrypt strength than the current one
+     * <p>
+     * The password itself is the same: the tokens of the user stay valid.
+     *
+     * @param user        the authenticated user
+     * @param newPassword the password hashed with the current strength
+     * @return the user with its new hash
+     */
+    @Override
+    public User updatePassword(UserDetails user, String newPassword) {
+        User userToUpdate = (User) user;
+        userToUpdate.setPassword(newPassword);
+        User updatedUser = this.userRepository.save(userToUpdate);
+        this.resourceVersions.bump(ResourceVersions.Collection.USERS);
+        return updatedUser;
+    }
+
     /**
      * Create an user in database with:<br>
      * <ul>
@@ -128,6 +159,71 @@ public class UserServiceImpl implements UserService {
         return userToRegister;
     }
 
+    /**
+     * Check that an user can be registered: email format, password format and
+     * email not already registered
+     * <p>
+     * First step of a registration split around the hashing of the password
+     * (see AuthController.register), before encodePassword and
+     * registerEncoded.
+     *
+     * @param user the user to register, with its password in clear
+     * @throws InoteInvalidEmailException
+     * @throws InoteInvalidPasswordFormatException
+     * @throws InoteExistingEmailException
+     */
+    public void checkRegistration(User user)
+            throws InoteInvalidEmailException, InoteInvalidPasswordFormatException, InoteExistingEmailException {
+        Pattern compiledPattern;
+        Matcher matcher;
+
+        // Email format checking
+        compiledPattern = Pattern.compile(REGEX_EMAIL_PATTERN);
+        matcher = compiledPattern.matcher(user.getEmail());
+        if (!matcher.matches()) {
+            throw new InoteInvalidEmailException();
+        }
+
+        this.checkPasswordSecurityRequirements(user.getPassword());
+
+        // Verification of any existing registration
+        Optional<User> utilisateurOptional = this.userRepository.findByEmail(user.getEmail());
+        if (utilisateurOptional.isPresent()) {
+            throw new InoteExistingEmailException();
+        }
+    }
+
+    /**
+     * Hash a password with BCrypt
+     * <p>
+     * The only costly step of a registration or of a new password: the one run
+     * in the password hashing pool.
+     *
+     * @param rawPassword the password in clear
+     * @return the hash
+     */
+    public String encodePassword(String rawPassword) {
+        return this.passwordEncoder.encode(rawPassword);
+    }
+
+    /**
+     * Save an user checked by checkRegistration, whose password is already
+     * hashed, then create its validation and send it by email
+     *
+     * @param user the user to register, with its hashed password
+     * @return the user
+     * @throws InoteRoleNotFoundException
+     * @throws InoteInvalidEmailException
+     * @throws MailException
+     * @throws InoteMailException
+     */
+    public User registerEncoded(User user)
+            throws InoteRoleNotFoundException, InoteInvalidEmailException, MailException, InoteMailException {
+        User userToRegister = this.saveNewUser(user, RoleEnum.USER);
+        this.validationService.createAndSave(userToRegister);
+        return userToRegister;
+    }
+
     public User registerTester(User user) throws InoteExistingEmailException, InoteInvalidEmailException,
             InoteRoleNotFoundException, InoteInvalidPasswordFormatException, MailException, InoteMailException {
         User userToRegister = this.createTesterUser(user);
@@ -155,34 +251,22 @@ public class UserServiceImpl implements UserService {
     private User createUser(User user) throws InoteExistingEmailException, InoteInvalidEmailException,
             InoteInvalidPasswordFormatException, InoteRoleNotFoundException {
 
-        Pattern compiledPattern;
-        Matcher matcher;
-
-        // Email format checking
-        compiledPattern = Pattern.compile(REGEX_EMAIL_PATTERN);
-        matcher = compiledPattern.matcher(user.getEmail());
-        if (!matcher.matches()) {
-            throw new InoteInvalidEmailException();
-        }
-
-        this.checkPasswordSecurityRequirements(user.getPassword());
-
-        // Verification of any existing registration
-        Optional<User> utilisateurOptional = this.userRepository.findByEmail(user.getEmail());
-        if (utilisateurOptional.isPresent()) {
-            throw new InoteExistingEmailException();
-        }
+        this.checkRegistration(user);
 
         // Insert encrypted password in database
-        String pass = user.getPassword();
-        String mdpCrypte = this.passwordEncoder.encode(pass);
-        user.setPassword(mdpCrypte);
+        user.setPassword(this.encodePassword(user.getPassword()));
 
+        return this.saveNewUser(user, RoleEnum.USER);
+    }
+
+    private User saveNewUser(User user, RoleEnum roleName) throws InoteRoleNotFoundException {
         // Role affectation
-        Role role = this.roleRepository.findByName(RoleEnum.USER).orElseThrow(InoteRoleNotFoundException::new);
+        Role role = this.roleService.loadRole(roleName);
         user.setRole(role);
 
-        return this.userRepository.save(user);
+        User savedUser = this.userRepository.save(user);
+        this.resourceVersions.bump(ResourceVersions.Collection.USERS);
+        return savedUser;
     }
 
     /**
@@ -226,10 +310,12 @@ public class UserServiceImpl implements UserService {
         user.setPassword(mdpCrypte);
 
         // Role affectation
-        Role role = this.roleRepository.findByName(RoleEnum.TESTER).orElseThrow(InoteRoleNotFoundException::new);
+        Role role = this.roleService.loadRole(RoleEnum.TESTER);
         user.setRole(role);
 
-        return this.userRepository.save(user);
+        User savedUser = this.userRepository.save(user);
+        this.resourceVersions.bump(ResourceVersions.Collection.USERS);
+        return savedUser;
     }
 
     /**
@@ -252,7 +338,9 @@ public class UserServiceImpl implements UserService {
 
         validation.setActivation(Instant.now());
         validationRepository.save(validation);
-        return this.userRepository.save(activatedUser);
+        User savedUser = this.userRepository.save(activatedUser);
+        this.resourceVersions.bump(ResourceVersions.Collection.USERS);
+        return savedUser;
     }
 
     /**
@@ -275,22 +363,60 @@ public class UserServiceImpl implements UserService {
      * code,
      * the user's new password, if it meets security requirements,
      * is encoded and replaces the previous one.
+     * All his tokens are revoked.
      *
      * @param email containing user email
      */
     public void newPassword(String email, String newPassword, String code)
             throws InoteValidationNotFoundException, InoteInvalidPasswordFormatException, UsernameNotFoundException {
 
+        User user = this.checkNewPassword(email, newPassword, code);
+        if (user != null) {
+            this.replacePassword(user, this.encodePassword(newPassword));
+        }
+    }
+
+    /**
+     * Check a new password request: the user, its validation code and the
+     * security requirements of the password
+     * <p>
+     * First step of newPassword, split around the hashing of the password (see
+     * AuthController.newPassword), before encodePassword and replacePassword.
+     *
+     * @param email       email of the user
+     * @param newPassword the new password, in clear
+     * @param code        the validation code sent by email
+     * @return the user, or null if the code is the one of another user
+     * @throws InoteValidationNotFoundException
+     * @throws InoteInvalidPasswordFormatException
+     * @throws UsernameNotFoundException
+     */
+    public User checkNewPassword(String email, String newPassword, String code)
+            throws InoteValidationNotFoundException, InoteInvalidPasswordFormatException, UsernameNotFoundException {
+
         User user = this.loadUserByUsername(email);
 
         final Validation validation = validationService.getValidationFromCode(code);
 
-        if (validation.getUser().getEmail().equals(user.getEmail())) {
-            this.checkPasswordSecurityRequirements(newPassword);
-            String EncrytedPassword = this.passwordEncoder.encode(newPassword);
-            user.setPassword(EncrytedPassword);
-            this.userRepository.save(user);
+        if (!validation.getUser().getEmail().equals(user.getEmail())) {
+            return null;
         }
+        this.checkPasswordSecurityRequirements(newPassword);
+        return user;
+    }
+
+    /**
+     * Replace the password of an user checked by checkNewPassword: all its
+     * tokens are revoked
+     *
+     * @param user            the user
+     * @param encodedPassword the new password, hashed
+     */
+    public void replacePassword(User user, String encodedPassword) {
+        user.setPassword(encodedPassword);
+        this.userRepository.save(user);
+        this.resourceVersions.bump(ResourceVersions.Collection.USERS);
+        this.applicationEventPublisher.publishEvent(new UserSecurityChangedEvent(user));
     }
 
     /**
@@ -310,6 +436,12 @@ public class UserServiceImpl implements UserService {
         return users;
     }
 
-    
-
+    /**
+     * Get all users, with the informations useful for the frontend
+     *
+     * @return a list containing all users, by increasing id
+     */
+    public List<ProtectedUserResponseDto> listProtectedUsers() {
+        return this.userRepository.findAllProtectedUsers();
+    }
 }
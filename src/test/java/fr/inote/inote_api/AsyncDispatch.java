@@ -0,0 +1,36 @@
+package fr.inote.inote_api;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Requests to the endpoints which may answer with a future (sign in, register
+ * and new password run in the password hashing pool)
+ */
+public final class AsyncDispatch {
+
+        private AsyncDispatch() {
+        }
+
+        /**
+         * Perform a request, then its asynchronous dispatch when the controller
+         * answered with a future
+         *
+         * @param mockMvc        the MockMvc of the test
+         * @param requestBuilder the request
+         * @return the actions on the final response
+         * @throws Exception
+         */
+        public static ResultActions perform(MockMvc mockMvc, RequestBuilder requestBuilder) throws Exception {
+                ResultActions actions = mockMvc.perform(requestBuilder);
+                MvcResult mvcResult = actions.andReturn();
+                if (mvcResult.getRequest().isAsyncStarted()) {
+                        return mockMvc.perform(asyncDispatch(mvcResult));
+                }
+                return actions;
+        }
+}
@@ -0,0 +1,110 @@
+package fr.inote.inote_api.benchmark;
+
+import fr.inote.inote_api.cross_cutting.security.Hs256JwtCodec;
+import fr.inote.inote_api.cross_cutting.security.VerifiedClaims;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issue and verify of our tokens: jjwt (previous implementation of
+ * JwtServiceImpl) against Hs256JwtCodec
+ * <p>
+ * Run from main(), or from the command line after mvn test-compile:
+ * java -cp target/test-classes:target/classes:(test classpath)
+ * org.openjdk.jmh.Main JwtCodecBenchmark -prof gc
+ * The gc profiler reports the allocations by operation (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtCodecBenchmark {
+
+    private static final String ENCRYPTION_KEY = "40c9201ff1204cfaa2b8eb5ac72bbe5020af8dfaa3b59cf243a5d41e04fb6b1907c490ef0686e646199d6629711cbccd953e11df4bbd913da2a8902f57e99a55";
+    private static final String NAME = "Sangoku";
+    private static final String EMAIL = "sangoku@inote.fr";
+
+    private Key key;
+    private JwtParser parser;
+    private Hs256JwtCodec codec;
+    private String jti;
+    private String jjwtToken;
+    private String codecToken;
+
+    @Setup
+    public void setUp() {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(ENCRYPTION_KEY));
+        this.parser = Jwts.parserBuilder().setSigningKey(this.key).build();
+        this.codec = new Hs256JwtCodec(this.key.getEncoded());
+        this.jti = UUID.randomUUID().toString();
+        this.jjwtToken = this.jjwtSign();
+        this.codecToken = this.codecSign();
+    }
+
+    @Benchmark
+    public String jjwtSign() {
+        final long currentTime = System.currentTimeMillis();
+        final long expirationTime = currentTime + 3600 * 1000;
+        final Map<String, Object> claims = Map.of(
+                "name", NAME,
+                Claims.EXPIRATION, new Date(expirationTime),
+                Claims.SUBJECT, EMAIL,
+                Claims.ID, this.jti);
+        return Jwts.builder()
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(expirationTime))
+                .setSubject(EMAIL)
+                .setClaims(claims)
+                .signWith(this.key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String codecSign() {
+        final long issuedAt = System.currentTimeMillis() / 1000;
+        return this.codec.encode(NAME, EMAIL, issuedAt, issuedAt + 3600, this.jti);
+    }
+
+    @Benchmark
+    public Claims jjwtVerify() {
+        return this.parser.parseClaimsJws(this.jjwtToken).getBody();
+    }
+
+    @Benchmark
+    public VerifiedClaims codecVerify() {
+        return this.codec.decode(this.codecToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,152 @@
+package fr.inote.inote_api.benchmark;
+
+import fr.inote.inote_api.InoteApiApplication;
+import fr.inote.inote_api.dto.CommentResponseDto;
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
+import fr.inote.inote_api.entity.Comment;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.CommentRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listings of comments and users at 100k rows: entities copied into the dtos
+ * (previous implementation) against the constructor-expression queries
+ * <p>
+ * - commentsEntities / usersEntities: findAll(), then one dto by entity
+ * - commentsProjection: CommentRepository.findPageBefore for a page of all the
+ * rows
+ * - usersProjection: UserRepository.findAllProtectedUsers
+ * Each listing runs in a read-only transaction, on the H2 database of the
+ * test profile (the environment variables of the tests must be set).
+ * <p>
+ * Run from main(), or from the command line after mvn test-compile:
+ * java -cp target/test-classes:target/classes:(test classpath)
+ * org.openjdk.jmh.Main ListingProjectionBenchmark -prof gc
+ * The gc profiler reports the allocations by listing (gc.alloc.rate.norm):
+ * the entity path also pays the managed entities, their snapshots for dirty
+ * checking, and the selects of the users of the comments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ListingProjectionBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int BATCH = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private CommentRepository commentRepository;
+    private UserRepository userRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.context = new SpringApplicationBuilder(InoteApiApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        this.transactionTemplate = new TransactionTemplate(this.context.getBean(PlatformTransactionManager.class));
+        this.transactionTemplate.setReadOnly(true);
+        this.commentRepository = this.context.getBean(CommentRepository.class);
+        this.userRepository = this.context.getBean(UserRepository.class);
+
+        JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        Integer roleId = jdbcTemplate.queryForObject("SELECT id FROM role WHERE name = 'USER'", Integer.class);
+        List<Object[]> users = new ArrayList<>(BATCH);
+        for (int i = 0; i < ROWS; i++) {
+            users.add(new Object[] { "user" + i, "user" + i + "@inote.fr", "password", roleId });
+            if (users.size() == BATCH) {
+                jdbcTemplate.batchUpdate("INSERT INTO user_table (name, email, password, actif, role_id)"
+                        + " VALUES (?, ?, ?, true, ?)", users);
+                users.clear();
+            }
+        }
+        List<Integer> userIds = jdbcTemplate.queryForList("SELECT id FROM user_table ORDER BY id", Integer.class);
+        List<Object[]> comments = new ArrayList<>(BATCH);
+        for (int i = 0; i < ROWS; i++) {
+            comments.add(new Object[] { "comment " + i, userIds.get(i % userIds.size()) });
+            if (comments.size() == BATCH) {
+                jdbcTemplate.batchUpdate("INSERT INTO comment (message, user_id) VALUES (?, ?)", comments);
+                comments.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public List<CommentResponseDto> commentsEntities() {
+        return this.transactionTemplate.execute(status -> {
+            List<CommentResponseDto> dtos = new ArrayList<>();
+            for (Comment comment : this.commentRepository.findAll()) {
+                dtos.add(new CommentResponseDto(comment.getId(), comment.getMessage(), comment.getUser().getId()));
+            }
+            return dtos;
+        });
+    }
+
+    @Benchmark
+    public List<CommentResponseDto> commentsProjection() {
+        return this.transactionTemplate.execute(status -> this.commentRepository.findPageBefore(Integer.MAX_VALUE,
+                PageRequest.of(0, ROWS)));
+    }
+
+    @Benchmark
+    public List<ProtectedUserResponseDto> usersEntities() {
+        return this.transactionTemplate.execute(status -> {
+            List<ProtectedUserResponseDto> dtos = new ArrayList<>();
+            for (User user : this.userRepository.findAll()) {
+                dtos.add(new ProtectedUserResponseDto(user.getName(), user.getEmail(), user.isActif(),
+                        user.getPseudonyme(), user.getAvatar(), user.getRole().getName().toString()));
+            }
+            return dtos;
+        });
+    }
+
+    @Benchmark
+    public List<ProtectedUserResponseDto> usersProjection() {
+        return this.transactionTemplate.execute(status -> this.userRepository.findAllProtectedUsers());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListingProjectionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package fr.inote.inote_api.benchmark;
+
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the generation of refresh tokens by concurrent threads:
+ * UUID.randomUUID() (previous implementation of JwtServiceImpl) against
+ * OpaqueTokenGenerator
+ * <p>
+ * Run from main(), which measures with 1, 2, 4... threads up to the number of
+ * cores, or from the command line after mvn test-compile:
+ * java -cp target/test-classes:target/classes:(test classpath)
+ * org.openjdk.jmh.Main OpaqueTokenGeneratorBenchmark -t 4
+ * The throughput (ops/ms, all threads together) should grow with the threads
+ * for OpaqueTokenGenerator, and stall for UUID.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpaqueTokenGeneratorBenchmark {
+
+    private final OpaqueTokenGenerator opaqueTokenGenerator = new OpaqueTokenGenerator();
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String opaqueTokenGenerator() {
+        return this.opaqueTokenGenerator.next();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .include(OpaqueTokenGeneratorBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()).run();
+        }
+    }
+}
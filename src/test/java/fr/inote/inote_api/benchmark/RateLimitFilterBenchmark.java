@@ -0,0 +1,102 @@
+package fr.inote.inote_api.benchmark;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.security.RateLimitFilter;
+import fr.inote.inote_api.cross_cutting.security.StripedTokenBuckets;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of RateLimitFilter on a request
+ * <p>
+ * - baseline: the rest of the chain only
+ * - notLimited: an endpoint without limit (method and path check)
+ * - limitedRejected: sign in from 4096 ips, all beyond their capacity (429
+ * path, answer written by a no-op resolver)
+ * - bucketsAllowed: the acquisition of a token in the striped table, for
+ * 4096 clients within their limit
+ * <p>
+ * Run from main(), or from the command line after mvn test-compile:
+ * java -cp target/test-classes:target/classes:(test classpath)
+ * org.openjdk.jmh.Main RateLimitFilterBenchmark -prof gc
+ * notLimited and bucketsAllowed should stay under a microsecond, and allocate
+ * nothing beyond the baseline (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RateLimitFilterBenchmark {
+
+    private static final int CLIENTS = 4096;
+
+    private final FilterChain chain = (request, response) -> {
+    };
+    private RateLimitFilter rateLimitFilter;
+    private StripedTokenBuckets buckets;
+    private MockHttpServletRequest notLimitedRequest;
+    private MockHttpServletRequest[] limitedRequests;
+    private MockHttpServletResponse response;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.rateLimitFilter = new RateLimitFilter((request, response, handler, ex) -> null, true, 64, 65536);
+        this.buckets = new StripedTokenBuckets(64, 65536);
+        this.notLimitedRequest = new MockHttpServletRequest("GET", Endpoint.COMMENT_GET_ALL);
+        this.limitedRequests = new MockHttpServletRequest[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            this.limitedRequests[i] = new MockHttpServletRequest("POST", Endpoint.SIGN_IN);
+            this.limitedRequests[i].setRemoteAddr("10.0." + (i >> 8) + "." + (i & 0xff));
+        }
+        this.response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void baseline() throws Exception {
+        this.chain.doFilter(this.notLimitedRequest, this.response);
+    }
+
+    @Benchmark
+    public void notLimited() throws Exception {
+        this.rateLimitFilter.doFilter(this.notLimitedRequest, this.response, this.chain);
+    }
+
+    @Benchmark
+    public void limitedRejected() throws Exception {
+        this.next = (this.next + 1) & (CLIENTS - 1);
+        this.rateLimitFilter.doFilter(this.limitedRequests[this.next], this.response, this.chain);
+    }
+
+    @Benchmark
+    public long bucketsAllowed() {
+        this.next = (this.next + 1) & (CLIENTS - 1);
+        return this.buckets.tryAcquire(this.next, 1L, Integer.MAX_VALUE, System.nanoTime());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -2,11 +2,14 @@ package fr.inote.inote_api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import fr.inote.inote_api.AsyncDispatch;
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
 import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.*;
 import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.PasswordHashingExecutor;
 import fr.inote.inote_api.cross_cutting.security.RefreshToken;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.*;
@@ -23,6 +26,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -30,11 +35,13 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
@@ -42,6 +49,7 @@ import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.REFRESH;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
@@ -60,6 +68,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
  */
 @WebMvcTest(AuthController.class)
 
+/* Real pool: the sign in, register and new password requests are run in it */
+@Import(PasswordHashingExecutor.class)
+
 /*
  * Enables all autoconfiguration related to MockMvc and ONLY MockMvc + none
  * Spring security filters applied
@@ -69,8 +80,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 /* Add Mockito functionalities to Junit 5 */
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
+@TestPropertySource(properties = { "inote.introspection.serviceKey=" + AuthControllerTest.SERVICE_KEY,
+                "inote.introspection.maxTokens=2" })
 public class AuthControllerTest {
 
+        static final String SERVICE_KEY = "service-key-for-test";
+
         /* DEPENDENCIES INJECTION */
         /* ============================================================ */
 
@@ -96,6 +111,8 @@ public class AuthControllerTest {
         private JwtServiceImpl jwtServiceImpl;
         @MockBean
         private UserServiceImpl userService;
+        @MockBean
+        private ResourceVersions resourceVersions;
 
         /* REFERENCES FOR MOCKING */
         /* ============================================================ */
@@ -147,10 +164,11 @@ public class AuthControllerTest {
         @DisplayName("Register a non existing user")
         void register_ShouldSuccess_WithNotExistingUser() throws Exception {
                 /* Arrange */
-                when(this.userService.register(any(User.class))).thenReturn(this.userRef);
+                when(this.userService.encodePassword(anyString())).thenReturn("encodedPassword");
+                when(this.userService.registerEncoded(any(User.class))).thenReturn(this.userRef);
 
                 /* Act & assert */
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper.writeValueAsString(this.registerRequestDto)))
@@ -159,24 +177,28 @@ public class AuthControllerTest {
                                                 .string(MessagesEn.ACTIVATION_NEED_ACTIVATION));
 
                 /* Mocking invocation check */
-                verify(this.userService, times(1)).register(any(User.class));
+                verify(this.userService, times(1)).checkRegistration(any(User.class));
+                verify(this.userService, times(1)).encodePassword(this.registerRequestDto.password());
+                verify(this.userService, times(1)).registerEncoded(argThat(
+                                user -> "encodedPassword".equals(user.getPassword())));
         }
 
         @Test
         @DisplayName("Attempt to register an existing user")
         void register_ShouldFail_WithExistingUser() throws Exception {
                 /* Arrange */
-                when(this.userService.register(any(User.class)))
-                                .thenThrow(new InoteExistingEmailException());
+                doThrow(new InoteExistingEmailException()).when(this.userService).checkRegistration(any(User.class));
 
                 /* Act & assert */
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper.writeValueAsString(this.registerRequestDto)))
                                 .andExpect(MockMvcResultMatchers.status().isNotAcceptable());
                 /* Mocking invocation check */
-                verify(this.userService, times(1)).register(any(User.class));
+                verify(this.userService, times(1)).checkRegistration(any(User.class));
+                verify(this.userService, never()).encodePassword(anyString());
+                verify(this.userService, never()).registerEncoded(any(User.class));
         }
 
         @Test
@@ -236,12 +258,12 @@ public class AuthControllerTest {
                 Map<String, String> mockResponse = new HashMap<>();
                 mockResponse.put(BEARER, REFERENCE_USER_BEARER);
                 mockResponse.put(REFRESH, REFERENCE_USER_REFRESH_TOKEN);
-                when(this.jwtServiceImpl.generate(anyString())).thenReturn(mockResponse);
+                when(this.jwtServiceImpl.generate(any(User.class))).thenReturn(mockResponse);
 
                 /* Act & assert */
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(REFERENCE_USER_EMAIL,
                                 REFERENCE_USER_PASSWORD);
-                this.mockMvc.perform(post(Endpoint.SIGN_IN)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.SIGN_IN)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(authenticationDtoRequest)))
                                 .andExpect(MockMvcResultMatchers
@@ -259,7 +281,7 @@ public class AuthControllerTest {
                 /* Act & assert */
                 SignInRequestDto userDtoTest = new SignInRequestDto("BadUsername", "badPassword");
                                 
-                this.mockMvc.perform(post(Endpoint.SIGN_IN)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.SIGN_IN)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(userDtoTest)))
                                 .andExpect(MockMvcResultMatchers.status().isUnauthorized());
@@ -316,7 +338,8 @@ public class AuthControllerTest {
         @DisplayName("set new password of existing user")
         void newPassword_ShouldSuccess_WhenUserExists() throws Exception {
                 /* Arrange */
-                doNothing().when(this.userService).newPassword(anyString(), anyString(), anyString());
+                when(this.userService.checkNewPassword(anyString(), anyString(), anyString())).thenReturn(this.userRef);
+                when(this.userService.encodePassword(anyString())).thenReturn("encodedPassword");
 
                 /* Act & assert */
                 NewPasswordRequestDto newPasswordDto = new NewPasswordRequestDto(
@@ -324,20 +347,22 @@ public class AuthControllerTest {
                                 this.validationRef.getCode(),
                                 this.validationRef.getUser().getPassword());
 
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isOk())
                                 .andExpect(MockMvcResultMatchers.content().string(MessagesEn.NEW_PASSWORD_SUCCESS));
 
+                /* Mocking invocation check */
+                verify(this.userService, times(1)).replacePassword(this.userRef, "encodedPassword");
         }
 
         @Test
         @DisplayName("set new password of non existing user")
         void newPassword_ShouldFail_WhenUserNotExists() throws Exception {
                 /* Arrange */
-                doThrow(UsernameNotFoundException.class).when(this.userService).newPassword(anyString(),
-                                anyString(), anyString());
+                when(this.userService.checkNewPassword(anyString(), anyString(), anyString()))
+                                .thenThrow(UsernameNotFoundException.class);
 
                 /* Act & assert */
                 NewPasswordRequestDto newPasswordDto = new NewPasswordRequestDto(
@@ -345,7 +370,7 @@ public class AuthControllerTest {
                                 this.validationRef.getCode(),
                                 this.validationRef.getUser().getPassword());
 
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -355,8 +380,8 @@ public class AuthControllerTest {
         @DisplayName("set new password with non-referenced validation by code")
         void newPassword_ShouldFail_WhenValidationNotExists() throws Exception {
                 /* Arrange */
-                doThrow(InoteValidationNotFoundException.class).when(this.userService).newPassword(anyString(),
-                                anyString(), anyString());
+                when(this.userService.checkNewPassword(anyString(), anyString(), anyString()))
+                                .thenThrow(InoteValidationNotFoundException.class);
 
                 /* Act & assert */
                 NewPasswordRequestDto newPasswordDto = new NewPasswordRequestDto(
@@ -364,7 +389,7 @@ public class AuthControllerTest {
                                 "0000000000000000000",
                                 this.validationRef.getUser().getPassword());
 
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -375,15 +400,15 @@ public class AuthControllerTest {
         void newPassword_ShouldFail_WhenPasswordNotEnoughSecured() throws Exception {
 
                 /* Arrange */
-                doThrow(InoteInvalidPasswordFormatException.class).when(this.userService).newPassword(anyString(),
-                                anyString(), anyString());
+                when(this.userService.checkNewPassword(anyString(), anyString(), anyString()))
+                                .thenThrow(InoteInvalidPasswordFormatException.class);
 
                 /* Act & assert */
                 NewPasswordRequestDto newPasswordDto = new NewPasswordRequestDto(
                                 this.validationRef.getUser().getEmail(),
                                 this.validationRef.getCode(),
                                 "1234");
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
@@ -409,6 +434,24 @@ public class AuthControllerTest {
                                 .andExpect(MockMvcResultMatchers.status().isCreated());
         }
 
+        @Test
+        @DisplayName("Refresh connection while another issuance of the user holds the lock")
+        void refreshConnectionWithRefreshTokenValue_ShouldFail_WhenIssuanceIsBusy() throws Exception {
+
+                /* Arrange */
+                when(this.jwtServiceImpl.refreshConnectionWithRefreshTokenValue(anyString()))
+                                .thenThrow(new InoteTokenIssuanceBusyException(3));
+
+                /* Act & assert */
+                RefreshRequestDto refreshConnectionDto = new RefreshRequestDto("refresh_token_value");
+
+                this.mockMvc.perform(post(Endpoint.REFRESH_TOKEN)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(this.objectMapper.writeValueAsString(refreshConnectionDto)))
+                                .andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+                                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "3"));
+        }
+
         @Test
         @DisplayName("Refresh connection with bad refresh token value")
         void refreshConnectionWithRefreshTokenValue_ShouldFail_WhenRefreshTokenValueIsBad() throws Exception {
@@ -466,4 +509,60 @@ public class AuthControllerTest {
                                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
         }
 
+        @Test
+        @DisplayName("Introspect a batch of tokens with the service key")
+        void introspect_ShouldSuccess_WhenServiceKeyIsCorrect() throws Exception {
+                /* Arrange */
+                when(this.jwtServiceImpl.introspect(List.of("bearer1", "bearer2"))).thenReturn(List.of(
+                                new IntrospectionResponseDto(true, REFERENCE_USER_EMAIL, RoleEnum.ADMIN.name(),
+                                                Instant.now().plus(10, ChronoUnit.MINUTES)),
+                                IntrospectionResponseDto.INACTIVE));
+
+                /* Act & assert */
+                this.mockMvc.perform(post(Endpoint.INTROSPECT)
+                                .header(AuthController.SERVICE_KEY_HEADER, SERVICE_KEY)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(this.objectMapper.writeValueAsString(
+                                                new IntrospectionRequestDto(List.of("bearer1", "bearer2")))))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$[0].active").value(true))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$[0].subject").value(REFERENCE_USER_EMAIL))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$[0].role").value(RoleEnum.ADMIN.name()))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$[1].active").value(false));
+
+                /* Mocking invocation check */
+                verify(this.jwtServiceImpl, times(1)).introspect(List.of("bearer1", "bearer2"));
+        }
+
+        @Test
+        @DisplayName("Attempt to introspect tokens with a bad service key")
+        void introspect_ShouldFail_WhenServiceKeyIsBad() throws Exception {
+                /* Act & assert */
+                this.mockMvc.perform(post(Endpoint.INTROSPECT)
+                                .header(AuthController.SERVICE_KEY_HEADER, "bad-key")
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(this.objectMapper.writeValueAsString(
+                                                new IntrospectionRequestDto(List.of("bearer1")))))
+                                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+                /* Mocking invocation check */
+                verify(this.jwtServiceImpl, never()).introspect(any());
+        }
+
+        @Test
+        @DisplayName("Attempt to introspect more tokens than allowed")
+        void introspect_ShouldFail_WhenBatchIsTooLarge() throws Exception {
+                /* Act & assert */
+                this.mockMvc.perform(post(Endpoint.INTROSPECT)
+                                .header(AuthController.SERVICE_KEY_HEADER, SERVICE_KEY)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(this.objectMapper.writeValueAsString(
+                                                new IntrospectionRequestDto(List.of("bearer1", "bearer2", "bearer3")))))
+                                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.detail")
+                                                .value(MessagesEn.TOKEN_ERROR_INTROSPECTION_BATCH_TOO_LARGE));
+
+                /* Mocking invocation check */
+                verify(this.jwtServiceImpl, never()).introspect(any());
+        }
 }
@@ -3,6 +3,7 @@ package fr.inote.inote_api.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.*;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.*;
@@ -20,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.context.ActiveProfiles;
@@ -30,6 +32,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -95,6 +98,8 @@ public class CommentControllerTest {
         private CommentRepository commentRepository;
         @MockBean
         private CommentServiceImpl commentService;
+        @MockBean
+        private ResourceVersions resourceVersions;
 
         /* REFERENCES FOR MOCKING */
         /* ============================================================ */
@@ -180,15 +185,16 @@ public class CommentControllerTest {
         }
 
         @Test
-        @DisplayName("Get all comments registered in database")
+        @DisplayName("Get the first page of comments registered in database")
         void getComments_ShouldSuccess() throws Exception {
 
                 /* Arrange */
                 List<CommentResponseDto> comments = new ArrayList<>();
-                comments.add(new CommentResponseDto(1,"this application is really crap",1));
-                comments.add(new CommentResponseDto(1,"What in God's name have I done to use such an application?",1));
+                comments.add(new CommentResponseDto(3,"this application is really crap",1));
+                comments.add(new CommentResponseDto(2,"What in God's name have I done to use such an application?",1));
                 comments.add(new CommentResponseDto(1,"I'm puzzled by this application...",1));
-                when(this.commentService.getAll()).thenReturn(comments);
+                CommentPageResponseDto page = new CommentPageResponseDto(comments, null);
+                when(this.commentService.getPage(null, 20)).thenReturn(page);
 
                 /* Act & assert */
                 this.mockMvc.perform(get(Endpoint.COMMENT_GET_ALL))
@@ -196,6 +202,46 @@ public class CommentControllerTest {
                                 .andExpect(MockMvcResultMatchers.content()
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE))
                                 .andExpect(MockMvcResultMatchers.content()
-                                                .string(this.objectMapper.writeValueAsString(comments)));
+                                                .string(this.objectMapper.writeValueAsString(page)));
+        }
+
+        @Test
+        @DisplayName("Get a page of comments after a cursor, with a bounded size")
+        void getComments_ShouldPassCursorAndBoundSize() throws Exception {
+
+                /* Arrange */
+                CommentPageResponseDto page = new CommentPageResponseDto(List.of(), null);
+                when(this.commentService.getPage(anyInt(), anyInt())).thenReturn(page);
+
+                /* Act */
+                this.mockMvc.perform(get(Endpoint.COMMENT_GET_ALL).param("cursor", "42").param("size", "1000"))
+                                .andExpect(MockMvcResultMatchers.status().isOk());
+                this.mockMvc.perform(get(Endpoint.COMMENT_GET_ALL).param("cursor", "42").param("size", "0"))
+                                .andExpect(MockMvcResultMatchers.status().isOk());
+
+                /* Verify */
+                verify(this.commentService, times(1)).getPage(42, 100);
+                verify(this.commentService, times(1)).getPage(42, 1);
+        }
+
+        @Test
+        @DisplayName("Get the comments with their ETag, then 304 without reading them when it still matches")
+        void getComments_ShouldAnswerNotModified_whenEtagMatches() throws Exception {
+
+                /* Arrange */
+                String etag = "W/\"comments-epoch-7\"";
+                when(this.resourceVersions.etagOf(ResourceVersions.Collection.COMMENTS)).thenReturn(etag);
+                when(this.commentService.getPage(null, 20)).thenReturn(new CommentPageResponseDto(List.of(), null));
+
+                /* Act & assert */
+                this.mockMvc.perform(get(Endpoint.COMMENT_GET_ALL))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag));
+                this.mockMvc.perform(get(Endpoint.COMMENT_GET_ALL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                                .andExpect(MockMvcResultMatchers.content().string(""));
+
+                /* Verify */
+                verify(this.commentService, times(1)).getPage(null, 20);
         }
 }
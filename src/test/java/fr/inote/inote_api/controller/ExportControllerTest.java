@@ -0,0 +1,92 @@
+package fr.inote.inote_api.controller;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
+import fr.inote.inote_api.service.ExportService;
+import fr.inote.inote_api.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Unit tests of Export controller layer
+ */
+@WebMvcTest(ExportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class ExportControllerTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private MockMvc mockMvc;
+
+        /* DEPENDENCIES MOCKING */
+        /* ============================================================ */
+        @MockBean
+        private ExportService exportService;
+        @MockBean
+        private AuthenticationManager authenticationManager;
+        @MockBean
+        private JwtServiceImpl jwtServiceImpl;
+        @MockBean
+        private UserServiceImpl userService;
+
+        /* CONTROLLER UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Export the comments in NDJSON into the response")
+        void exportComments_ShouldWriteNdjsonIntoResponse() throws Exception {
+
+                /* Arrange */
+                String line = "{\"id\":1,\"message\":\"I'm puzzled by this application...\",\"UserId\":1}\n";
+                when(this.exportService.exportComments(any(OutputStream.class))).then(invocation -> {
+                        invocation.getArgument(0, OutputStream.class).write(line.getBytes(StandardCharsets.UTF_8));
+                        return 1L;
+                });
+
+                /* Act & assert */
+                this.mockMvc.perform(get(Endpoint.COMMENTS_EXPORT))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.content()
+                                                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                                .andExpect(MockMvcResultMatchers.content().string(line));
+
+                /* Verify */
+                verify(this.exportService, times(1)).exportComments(any(OutputStream.class));
+        }
+
+        @Test
+        @DisplayName("Export the users in NDJSON into the response")
+        void exportUsers_ShouldWriteNdjsonIntoResponse() throws Exception {
+
+                /* Act & assert */
+                this.mockMvc.perform(get(Endpoint.USERS_EXPORT))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.content()
+                                                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+                /* Verify */
+                verify(this.exportService, times(1)).exportUsers(any(OutputStream.class));
+        }
+}
@@ -0,0 +1,99 @@
+package fr.inote.inote_api.controller;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.monitoring.StatsSource;
+import fr.inote.inote_api.cross_cutting.security.JwtValidityCache;
+import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
+import fr.inote.inote_api.service.impl.UserServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Unit tests of Stats controller layer
+ */
+@WebMvcTest(StatsController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+@Import(StatsControllerTest.Sources.class)
+class StatsControllerTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private MockMvc mockMvc;
+        @Autowired
+        private JwtValidityCache jwtValidityCache;
+
+        /* DEPENDENCIES MOCKING */
+        /* ============================================================ */
+        @MockBean
+        private AuthenticationManager authenticationManager;
+        @MockBean
+        private JwtServiceImpl jwtServiceImpl;
+        @MockBean
+        private UserServiceImpl userService;
+
+        /* CONTROLLER UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Get the counters of every source, under its name")
+        void getStats_ShouldPublishEverySource() throws Exception {
+
+                /* Arrange */
+                this.jwtValidityCache.put("token", "sangoku@inote.fr", null, Instant.now().plusSeconds(60),
+                                this.jwtValidityCache.stamp());
+                this.jwtValidityCache.getOwner("token");
+
+                /* Act & assert */
+                this.mockMvc.perform(get(Endpoint.ADMIN_STATS))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.jwtValidityCache.hits").value(1))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.jwtValidityCache.size").value(1))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.custom.value").value(42));
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        @TestConfiguration
+        static class Sources {
+
+                @Bean
+                JwtValidityCache jwtValidityCache() {
+                        return new JwtValidityCache(100, 60);
+                }
+
+                @Bean
+                StatsSource customStatsSource() {
+                        return new StatsSource() {
+                                @Override
+                                public String getStatsName() {
+                                        return "custom";
+                                }
+
+                                @Override
+                                public Object getStats() {
+                                        return Map.of("value", 42);
+                                }
+                        };
+                }
+        }
+}
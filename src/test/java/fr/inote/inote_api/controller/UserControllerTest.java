@@ -1,10 +1,15 @@
 package fr.inote.inote_api.controller;
 
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
 import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_NAME;
 import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_PASSWORD;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -20,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -32,10 +38,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
+import fr.inote.inote_api.cross_cutting.security.impl.JwtBulkRevoker;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.dto.PublicUserResponseDto;
+import fr.inote.inote_api.dto.SessionRevocationRequestDto;
 import fr.inote.inote_api.dto.UserRequestDto;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.entity.User;
@@ -70,6 +80,8 @@ public class UserControllerTest {
         private AuthenticationManager authenticationManager;
         @MockBean
         private JwtServiceImpl jwtServiceImpl;
+        @MockBean
+        private ResourceVersions resourceVersions;
 
         /* REFERENCES FOR MOCKING */
         /* ============================================================ */
@@ -164,7 +176,7 @@ public class UserControllerTest {
                                                         item.getRole().getName().toString()));
                 }
 
-                when(this.userService.list()).thenReturn(users);
+                when(this.userService.listProtectedUsers()).thenReturn(protectedUserDtos);
 
                 /* Act & assert */
                 ResultActions response = this.mockMvc.perform(get(Endpoint.GET_ALL_USERS))
@@ -182,8 +194,7 @@ public class UserControllerTest {
         void list_ShouldReturnNull_WhenNoneUserExists() throws Exception {
 
                 /* Arrange */
-                List<User> users = new ArrayList<>();
-                when(this.userService.list()).thenReturn(users);
+                when(this.userService.listProtectedUsers()).thenReturn(new ArrayList<>());
 
                 /* Act & assert */
                 ResultActions response = this.mockMvc.perform(get(Endpoint.GET_ALL_USERS))
@@ -191,4 +202,60 @@ public class UserControllerTest {
 
                 assertThat(response.andReturn().getResponse().getContentAsString()).isEqualTo("[]");
         }
-}
\ No newline at end of file
+
+        @Test
+        @DisplayName("Get all users with their ETag, then 304 without listing them when it still matches")
+        void list_ShouldAnswerNotModified_WhenEtagMatches() throws Exception {
+
+                /* Arrange */
+                String etag = "W/\"users-epoch-3\"";
+                when(this.resourceVersions.etagOf(ResourceVersions.Collection.USERS)).thenReturn(etag);
+                when(this.userService.listProtectedUsers()).thenReturn(new ArrayList<>());
+
+                /* Act & assert */
+                this.mockMvc.perform(get(Endpoint.GET_ALL_USERS))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, etag));
+                this.mockMvc.perform(get(Endpoint.GET_ALL_USERS).header(HttpHeaders.IF_NONE_MATCH, etag))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified());
+
+                /* Verify */
+                verify(this.userService, times(1)).listProtectedUsers();
+        }
+
+        @Test
+        @DisplayName("Revoke the sessions of the users of a role")
+        void revokeSessions_ShouldSuccess_WhenScopeIsRole() throws Exception {
+                /* Arrange */
+                when(this.jwtServiceImpl.revokeSessionsOfRole(RoleEnum.USER))
+                                .thenReturn(new JwtBulkRevoker.Report(42, 1, 7));
+
+                /* Act & assert */
+                this.mockMvc.perform(post(Endpoint.REVOKE_SESSIONS)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(this.objectMapper.writeValueAsString(
+                                                new SessionRevocationRequestDto(null, RoleEnum.USER, null))))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.revoked").value(42));
+
+                /* Mocking invocation check */
+                verify(this.jwtServiceImpl, times(1)).revokeSessionsOfRole(RoleEnum.USER);
+        }
+
+        @Test
+        @DisplayName("Attempt to revoke sessions with two scopes")
+        void revokeSessions_ShouldFail_WhenScopeIsAmbiguous() throws Exception {
+                /* Act & assert */
+                this.mockMvc.perform(post(Endpoint.REVOKE_SESSIONS)
+                                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                .content(this.objectMapper.writeValueAsString(new SessionRevocationRequestDto(
+                                                List.of(REFERENCE_USER_EMAIL), RoleEnum.USER, null))))
+                                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.detail")
+                                                .value(MessagesEn.TOKEN_ERROR_INVALID_REVOCATION_SCOPE));
+
+                /* Mocking invocation check */
+                verify(this.jwtServiceImpl, never()).revokeSessionsOfUsers(any());
+                verify(this.jwtServiceImpl, never()).revokeSessionsOfRole(any());
+        }
+}
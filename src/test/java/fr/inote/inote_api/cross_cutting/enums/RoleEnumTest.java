@@ -0,0 +1,48 @@
+package fr.inote.inote_api.cross_cutting.enums;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests of RoleEnum
+ */
+@ActiveProfiles("test")
+class RoleEnumTest {
+
+        @Test
+        @DisplayName("Get the authorities of a role: its permissions and its title")
+        void getAuthorities_shouldReturnPermissionsAndRole() {
+                /* Act */
+                Collection<? extends GrantedAuthority> authorities = RoleEnum.MANAGER.getAuthorities();
+
+                /* Assert */
+                assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactlyInAnyOrder(
+                                PermissionEnum.MANAGER_CREATE.name(),
+                                PermissionEnum.MANAGER_READ.name(),
+                                PermissionEnum.MANAGER_UPDATE.name(),
+                                PermissionEnum.MANAGER_DELETE_AVIS.name(),
+                                "ROLE_MANAGER");
+        }
+
+        @Test
+        @DisplayName("Get the authorities of a role: the same immutable instance at each call")
+        void getAuthorities_shouldReturnSameImmutableInstance() {
+                for (RoleEnum role : RoleEnum.values()) {
+                        /* Act */
+                        Collection<? extends GrantedAuthority> authorities = role.getAuthorities();
+
+                        /* Assert */
+                        assertThat(role.getAuthorities()).isSameAs(authorities);
+                        assertThat(authorities).hasSize(role.getPermissions().size() + 1);
+                        assertThatThrownBy(() -> authorities.clear())
+                                        .isInstanceOf(UnsupportedOperationException.class);
+                }
+        }
+}
@@ -0,0 +1,107 @@
+package fr.inote.inote_api.cross_cutting.etag;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of ResourceVersions
+ */
+@ActiveProfiles("test")
+class ResourceVersionsTest {
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @AfterEach
+        void tearDown() {
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.clearSynchronization();
+                }
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Get the ETag of a collection: weak, stable until a write into it")
+        void etagOf_shouldChangeOnlyWhenCollectionIsBumped() {
+                /* Arrange */
+                ResourceVersions resourceVersions = new ResourceVersions(0);
+                String comments = resourceVersions.etagOf(ResourceVersions.Collection.COMMENTS);
+                String users = resourceVersions.etagOf(ResourceVersions.Collection.USERS);
+
+                /* Act */
+                resourceVersions.bump(ResourceVersions.Collection.COMMENTS);
+
+                /* Assert */
+                assertThat(comments).startsWith("W/\"comments-").endsWith("\"");
+                assertThat(resourceVersions.etagOf(ResourceVersions.Collection.COMMENTS)).isNotEqualTo(comments);
+                assertThat(resourceVersions.etagOf(ResourceVersions.Collection.USERS)).isEqualTo(users);
+        }
+
+        @Test
+        @DisplayName("Get the ETag of a resource: carries its key, changes with its collection")
+        void etagOf_shouldCarryKey() {
+                /* Arrange */
+                ResourceVersions resourceVersions = new ResourceVersions(0);
+                String first = resourceVersions.etagOf(ResourceVersions.Collection.USERS, 1);
+                String second = resourceVersions.etagOf(ResourceVersions.Collection.USERS, 2);
+
+                /* Act */
+                resourceVersions.bump(ResourceVersions.Collection.USERS);
+
+                /* Assert */
+                assertThat(first).startsWith("W/\"users-1-");
+                assertThat(second).isNotEqualTo(first);
+                assertThat(resourceVersions.etagOf(ResourceVersions.Collection.USERS, 1)).isNotEqualTo(first);
+        }
+
+        @Test
+        @DisplayName("Get the ETags of two instances: they never match")
+        void etagOf_shouldDifferBetweenInstances() {
+                /* Act & assert */
+                assertThat(new ResourceVersions(0).etagOf(ResourceVersions.Collection.COMMENTS))
+                                .isNotEqualTo(new ResourceVersions(0).etagOf(ResourceVersions.Collection.COMMENTS));
+        }
+
+        @Test
+        @DisplayName("Bump a collection in a transaction: its ETag changes again after the commit")
+        void bump_shouldBumpAgainAfterCommit() {
+                /* Arrange */
+                ResourceVersions resourceVersions = new ResourceVersions(0);
+                TransactionSynchronizationManager.initSynchronization();
+
+                /* Act */
+                resourceVersions.bump(ResourceVersions.Collection.COMMENTS);
+                String beforeCommit = resourceVersions.etagOf(ResourceVersions.Collection.COMMENTS);
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager
+                                .getSynchronizations();
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+                /* Assert */
+                assertThat(synchronizations).hasSize(1);
+                assertThat(resourceVersions.etagOf(ResourceVersions.Collection.COMMENTS)).isNotEqualTo(beforeCommit);
+        }
+
+        @Test
+        @DisplayName("Get the ETag with a staleness window: carries the current window")
+        void etagOf_shouldCarryWindow_whenMaxStalenessIsSet() {
+                /* Arrange */
+                ResourceVersions withoutWindow = new ResourceVersions(0);
+                ResourceVersions withWindow = new ResourceVersions(3600);
+
+                /* Act */
+                String etagWithoutWindow = withoutWindow.etagOf(ResourceVersions.Collection.USERS);
+                String etagWithWindow = withWindow.etagOf(ResourceVersions.Collection.USERS);
+
+                /* Assert */
+                assertThat(etagWithoutWindow.split("-")).hasSize(3);
+                assertThat(etagWithWindow.split("-")).hasSize(4);
+        }
+}
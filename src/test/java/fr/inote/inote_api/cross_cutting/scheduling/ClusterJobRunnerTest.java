@@ -0,0 +1,148 @@
+package fr.inote.inote_api.cross_cutting.scheduling;
+
+import fr.inote.inote_api.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of ClusterJobRunner, two instances sharing a database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class ClusterJobRunnerTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JobLeaseRepository jobLeaseRepository;
+        @Autowired
+        private TestEntityManager entityManager;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final Instant slotStart = Instant.parse("2026-01-01T10:00:00Z");
+        private ClusterJobRunner nodeA;
+        private ClusterJobRunner nodeB;
+        private CountingJob job;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                this.nodeA = new ClusterJobRunner(this.jobLeaseRepository, new ClusterNode("node-a"), 10000);
+                this.nodeB = new ClusterJobRunner(this.jobLeaseRepository, new ClusterNode("node-b"), 10000);
+                this.job = new CountingJob();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Run a job once by slot, on the first instance taking its lease")
+        void runIfLeader_shouldRunOnceBySlot() {
+                /* Act */
+                boolean ranOnA = this.nodeA.runIfLeader(this.job, this.slotStart.plusSeconds(3));
+                boolean ranOnB = this.nodeB.runIfLeader(this.job, this.slotStart.plusSeconds(7));
+                boolean ranAgainOnA = this.nodeA.runIfLeader(this.job, this.slotStart.plusSeconds(59));
+                boolean ranOnBNextSlot = this.nodeB.runIfLeader(this.job, this.slotStart.plusSeconds(61));
+
+                /* Assert */
+                assertThat(ranOnA).isTrue();
+                assertThat(ranOnB).isFalse();
+                assertThat(ranAgainOnA).isFalse();
+                assertThat(ranOnBNextSlot).isTrue();
+                assertThat(this.job.runs.get()).isEqualTo(2);
+                assertThat(this.nodeA.getStats().get("counting")).isEqualTo(new ClusterJobRunner.Stats(1, 1, 0));
+                assertThat(this.nodeB.getStats().get("counting")).isEqualTo(new ClusterJobRunner.Stats(1, 1, 0));
+        }
+
+        @Test
+        @DisplayName("Record the duration, the rows and the failure of the last run on the lease")
+        void runIfLeader_shouldRecordRun() {
+                /* Arrange */
+                this.nodeA.runIfLeader(this.job, this.slotStart);
+                this.job.failing = true;
+
+                /* Act */
+                boolean ran = this.nodeB.runIfLeader(this.job, this.slotStart.plusSeconds(60));
+
+                /* Assert */
+                assertThat(ran).isTrue();
+                this.entityManager.clear();
+                JobLease lease = this.jobLeaseRepository.findById("counting").orElseThrow();
+                assertThat(lease.getOwner()).isEqualTo("node-b");
+                assertThat(lease.getLeaseUntil()).isEqualTo(this.slotStart.plusSeconds(120));
+                assertThat(lease.getRuns()).isEqualTo(2);
+                assertThat(lease.getLastRunStart()).isEqualTo(this.slotStart.plusSeconds(60));
+                assertThat(lease.getLastRunRows()).isZero();
+                assertThat(lease.isLastRunFailed()).isTrue();
+                assertThat(this.nodeB.getStats().get("counting").failures()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Fire at the start of the next slot, delayed by a jitter bounded by half the period")
+        void triggerOf_shouldFireInNextSlotWithJitter() {
+                /* Arrange */
+                TriggerContext context = mock(TriggerContext.class);
+                when(context.lastScheduledExecution()).thenReturn(this.slotStart.plusSeconds(4));
+
+                /* Act & assert */
+                for (int i = 0; i < 100; i++) {
+                        Instant next = this.nodeA.triggerOf(this.job).nextExecution(context);
+                        assertThat(next).isBetween(this.slotStart.plusSeconds(60), this.slotStart.plusSeconds(70));
+                }
+                ClusterJob shortJob = new CountingJob() {
+                        @Override
+                        public Duration getPeriod() {
+                                return Duration.ofSeconds(4);
+                        }
+                };
+                when(context.lastScheduledExecution()).thenReturn(null);
+                when(context.getClock()).thenReturn(Clock.fixed(this.slotStart.plusSeconds(1), Clock.systemUTC().getZone()));
+                assertThat(this.nodeA.triggerOf(shortJob).nextExecution(context))
+                                .isBetween(this.slotStart.plusSeconds(4), this.slotStart.plusSeconds(6));
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        private static class CountingJob implements ClusterJob {
+                private final AtomicInteger runs = new AtomicInteger();
+                private boolean failing;
+
+                @Override
+                public String getName() {
+                        return "counting";
+                }
+
+                @Override
+                public Duration getPeriod() {
+                        return Duration.ofMinutes(1);
+                }
+
+                @Override
+                public long run() {
+                        this.runs.incrementAndGet();
+                        if (this.failing) {
+                                throw new IllegalStateException("failure");
+                        }
+                        return 42;
+                }
+        }
+}
@@ -0,0 +1,63 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_PASSWORD;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of CalibratedBCryptPasswordEncoder
+ */
+@ActiveProfiles("test")
+class CalibratedBCryptPasswordEncoderTest {
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("The calibration never goes under the minimal strength")
+        void calibrate_shouldKeepMinimalStrength_whenTargetIsUnreachable() {
+                /* Act */
+                CalibratedBCryptPasswordEncoder encoder = CalibratedBCryptPasswordEncoder.calibrate(0, 5);
+
+                /* Assert */
+                assertThat(encoder.getStrength()).isEqualTo(6);
+                assertThat(CalibratedBCryptPasswordEncoder.calibrate(0, 8).getStrength()).isEqualTo(8);
+                assertThat(encoder.encode(REFERENCE_USER_PASSWORD)).startsWith("$2a$06$");
+        }
+
+        @Test
+        @DisplayName("The calibration chooses a valid strength for a reachable target")
+        void calibrate_shouldChooseValidStrength_whenTargetIsReachable() {
+                /* Act */
+                int strength = CalibratedBCryptPasswordEncoder.calibrate(20, 4).getStrength();
+
+                /* Assert */
+                assertThat(strength).isBetween(6, 31);
+        }
+
+        @Test
+        @DisplayName("Hashes of a lower strength only are to be upgraded")
+        void upgradeEncoding_shouldBeTrue_whenStrengthOfHashIsLower() {
+                /* Arrange */
+                CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+                String lower = new BCryptPasswordEncoder(4).encode(REFERENCE_USER_PASSWORD);
+                String same = encoder.encode(REFERENCE_USER_PASSWORD);
+                String higher = new BCryptPasswordEncoder(6).encode(REFERENCE_USER_PASSWORD);
+                // As in data.sql
+                String seeded = "$2y$10$" + lower.substring(7);
+                CalibratedBCryptPasswordEncoder strongerEncoder = new CalibratedBCryptPasswordEncoder(11);
+
+                /* Act & assert */
+                assertThat(encoder.upgradeEncoding(lower)).isTrue();
+                assertThat(encoder.upgradeEncoding(higher)).isFalse();
+                assertThat(encoder.upgradeEncoding(seeded)).isFalse();
+                assertThat(strongerEncoder.upgradeEncoding(seeded)).isTrue();
+                assertThat(encoder.upgradeEncoding(same)).isFalse();
+                assertThat(encoder.upgradeEncoding("not a bcrypt hash")).isFalse();
+                assertThat(encoder.upgradeEncoding(null)).isFalse();
+                assertThat(encoder.matches(REFERENCE_USER_PASSWORD, higher)).isTrue();
+        }
+}
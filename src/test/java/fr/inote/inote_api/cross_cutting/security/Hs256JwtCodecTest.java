@@ -0,0 +1,151 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests of Hs256JwtCodec
+ */
+@ActiveProfiles("test")
+class Hs256JwtCodecTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final String ENCRYPTION_KEY_FOR_TEST = "40c9201ff1204cfaa2b8eb5ac72bbe5020af8dfaa3b59cf243a5d41e04fb6b1907c490ef0686e646199d6629711cbccd953e11df4bbd913da2a8902f57e99a55";
+        private final Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(ENCRYPTION_KEY_FOR_TEST));
+        private final Hs256JwtCodec codec = new Hs256JwtCodec(this.key.getEncoded());
+        private final long now = Instant.now().getEpochSecond();
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Encode then decode a token")
+        void decode_shouldReturnClaims_whenTokenIsEncodedByCodec() {
+                /* Arrange */
+                String token = this.codec.encode(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL, this.now,
+                                this.now + 60, "jti");
+
+                /* Act */
+                VerifiedClaims claims = this.codec.decode(token);
+
+                /* Assert */
+                assertThat(claims).isEqualTo(new VerifiedClaims("jti", REFERENCE_USER_EMAIL, REFERENCE_USER_NAME,
+                                Instant.ofEpochSecond(this.now), Instant.ofEpochSecond(this.now + 60)));
+        }
+
+        @Test
+        @DisplayName("Encode then decode a token carrying the principal")
+        void decode_shouldReturnPrincipalClaims_whenTokenCarriesThePrincipal() {
+                /* Arrange */
+                String token = this.codec.encode(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL, this.now,
+                                this.now + 60, "jti", "ADMIN", 42);
+
+                /* Act */
+                VerifiedClaims claims = this.codec.decode(token);
+
+                /* Assert */
+                assertThat(claims).isEqualTo(new VerifiedClaims("jti", REFERENCE_USER_EMAIL, REFERENCE_USER_NAME,
+                                Instant.ofEpochSecond(this.now), Instant.ofEpochSecond(this.now + 60),
+                                "ADMIN", 42));
+                assertThat(claims.hasPrincipal()).isTrue();
+                assertThat(Jwts.parserBuilder().setSigningKey(this.key).build().parseClaimsJws(token).getBody()
+                                .get("uid", Integer.class)).isEqualTo(42);
+        }
+
+        @Test
+        @DisplayName("Tokens of the codec and of jjwt are interchangeable")
+        void decode_shouldBeCompatibleWithJjwt() {
+                /* Arrange */
+                String name = "Zoé \"Ô\" \\ 日本 😀\n";
+                String codecToken = this.codec.encode(name, REFERENCE_USER_EMAIL, this.now, this.now + 60, "jti");
+                String jjwtToken = Jwts.builder()
+                                .setClaims(Map.of("name", name, Claims.SUBJECT, REFERENCE_USER_EMAIL,
+                                                Claims.ID, "jti"))
+                                .setIssuedAt(new Date(this.now * 1000))
+                                .setExpiration(new Date((this.now + 60) * 1000))
+                                .signWith(this.key, SignatureAlgorithm.HS256)
+                                .compact();
+
+                /* Act */
+                Claims parsedByJjwt = Jwts.parserBuilder().setSigningKey(this.key).build()
+                                .parseClaimsJws(codecToken).getBody();
+                VerifiedClaims decodedByCodec = this.codec.decode(jjwtToken);
+
+                /* Assert */
+                assertThat(parsedByJjwt.get("name", String.class)).isEqualTo(name);
+                assertThat(parsedByJjwt.getSubject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(parsedByJjwt.getExpiration()).isEqualTo(new Date((this.now + 60) * 1000));
+                assertThat(decodedByCodec.name()).isEqualTo(name);
+                assertThat(decodedByCodec.id()).isEqualTo("jti");
+                assertThat(decodedByCodec.expiration()).isEqualTo(Instant.ofEpochSecond(this.now + 60));
+        }
+
+        @Test
+        @DisplayName("A token with other claims is left to jjwt")
+        void decode_shouldReturnNull_whenTokenHasOtherClaims() {
+                /* Arrange */
+                String token = Jwts.builder()
+                                .setSubject(REFERENCE_USER_EMAIL)
+                                .claim("scope", "ADMIN")
+                                .signWith(this.key, SignatureAlgorithm.HS256)
+                                .compact();
+
+                /* Act & assert */
+                assertThat(this.codec.decode(token)).isNull();
+        }
+
+        @Test
+        @DisplayName("A token with a bad signature is rejected")
+        void decode_shouldThrowSignatureException_whenSignatureIsBad() {
+                /* Arrange */
+                String token = this.codec.encode(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL, this.now,
+                                this.now + 60, "jti");
+                Hs256JwtCodec otherCodec = new Hs256JwtCodec(Keys.hmacShaKeyFor(
+                                Decoders.BASE64.decode(ENCRYPTION_KEY_FOR_TEST.replace('4', '5'))).getEncoded());
+
+                /* Act & assert */
+                assertThatExceptionOfType(SignatureException.class).isThrownBy(() -> otherCodec.decode(token));
+                assertThatExceptionOfType(SignatureException.class)
+                                .isThrownBy(() -> this.codec.decode(token.substring(0, token.length() - 1)));
+        }
+
+        @Test
+        @DisplayName("An expired token is rejected")
+        void decode_shouldThrowExpiredJwtException_whenTokenIsExpired() {
+                /* Arrange */
+                String token = this.codec.encode(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL, this.now - 120,
+                                this.now - 60, "jti");
+
+                /* Act & assert */
+                assertThatExceptionOfType(ExpiredJwtException.class).isThrownBy(() -> this.codec.decode(token))
+                                .satisfies(e -> assertThat(e.getClaims().getSubject()).isEqualTo(REFERENCE_USER_EMAIL));
+        }
+
+        @Test
+        @DisplayName("A malformed token is rejected")
+        void decode_shouldThrowMalformedJwtException_whenTokenIsMalformed() {
+                /* Act & assert */
+                assertThatExceptionOfType(MalformedJwtException.class).isThrownBy(() -> this.codec.decode("abc"));
+                assertThatExceptionOfType(MalformedJwtException.class)
+                                .isThrownBy(() -> this.codec.decode("a.b.c.d"));
+        }
+}
@@ -0,0 +1,120 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.security.Key;
+import java.time.Instant;
+import java.util.Base64;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests of JwtKeyRing
+ */
+@ActiveProfiles("test")
+class JwtKeyRingTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final String ENCRYPTION_KEY_FOR_TEST = "40c9201ff1204cfaa2b8eb5ac72bbe5020af8dfaa3b59cf243a5d41e04fb6b1907c490ef0686e646199d6629711cbccd953e11df4bbd913da2a8902f57e99a55";
+        private final Key legacyKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(ENCRYPTION_KEY_FOR_TEST));
+        private final String secret1 = Base64.getEncoder().encodeToString(new byte[] {
+                        1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16,
+                        17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32 });
+        private final String secret2 = Base64.getEncoder().encodeToString(new byte[] {
+                        32, 31, 30, 29, 28, 27, 26, 25, 24, 23, 22, 21, 20, 19, 18, 17,
+                        16, 15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1 });
+        private final long now = Instant.now().getEpochSecond();
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Without other keys, the legacy key signs tokens without kid")
+        void signer_shouldBeLegacyKey_whenNoKeyIsActive() {
+                /* Arrange */
+                JwtKeyRing keyRing = new JwtKeyRing(this.legacyKey, "", "");
+
+                /* Act */
+                String token = this.sign(keyRing);
+
+                /* Assert */
+                assertThat(keyRing.activeKid()).isNull();
+                assertThat(token).startsWith(Hs256JwtCodec.ENCODED_HEADER + ".");
+                assertThat(keyRing.decode(token).subject()).isEqualTo(REFERENCE_USER_EMAIL);
+        }
+
+        @Test
+        @DisplayName("After a rotation, the tokens of the previous keys stay valid")
+        void decode_shouldVerifyTokensOfPreviousKeys_whenActiveKeyHasChanged() {
+                /* Arrange */
+                String legacyToken = this.sign(new JwtKeyRing(this.legacyKey, "", ""));
+                String token1 = this.sign(new JwtKeyRing(this.legacyKey, "k1:" + this.secret1, "k1"));
+
+                /* Act */
+                JwtKeyRing rotated = new JwtKeyRing(this.legacyKey, "k1:" + this.secret1 + ", k2:" + this.secret2,
+                                "k2");
+                String token2 = this.sign(rotated);
+
+                /* Assert */
+                assertThat(rotated.activeKid()).isEqualTo("k2");
+                assertThat(token2).startsWith(Hs256JwtCodec.encodedHeader("k2") + ".");
+                assertThat(rotated.decode(legacyToken).subject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(rotated.decode(token1).subject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(rotated.decode(token2).subject()).isEqualTo(REFERENCE_USER_EMAIL);
+        }
+
+        @Test
+        @DisplayName("A token claiming the kid of another key is rejected")
+        void decode_shouldFail_whenTokenIsNotSignedByKeyOfItsKid() {
+                /* Arrange */
+                String token1 = this.sign(new JwtKeyRing(this.legacyKey, "k1:" + this.secret1, "k1"));
+                JwtKeyRing keyRing = new JwtKeyRing(this.legacyKey, "k1:" + this.secret2, "k1");
+
+                /* Act & assert */
+                assertThatExceptionOfType(SignatureException.class).isThrownBy(() -> keyRing.decode(token1));
+        }
+
+        @Test
+        @DisplayName("A retired key verifies nothing, an unknown kid has no key")
+        void keyOf_shouldFail_whenKeyIsRetiredOrUnknown() {
+                /* Arrange */
+                String token1 = this.sign(new JwtKeyRing(this.legacyKey, "k1:" + this.secret1, "k1"));
+                JwtKeyRing keyRing = new JwtKeyRing(this.legacyKey,
+                                "k1:" + this.secret1 + ":" + (this.now - 1) + ",k2:" + this.secret2, "k2");
+
+                /* Act & assert */
+                assertThatExceptionOfType(SignatureException.class).isThrownBy(() -> keyRing.decode(token1));
+                assertThatExceptionOfType(SignatureException.class).isThrownBy(() -> keyRing.keyOf("k1"));
+                assertThatExceptionOfType(SignatureException.class).isThrownBy(() -> keyRing.keyOf("k3"));
+                assertThat(keyRing.keyOf(null)).isEqualTo(this.legacyKey);
+        }
+
+        @Test
+        @DisplayName("The active key must be in the ring and not retired")
+        void constructor_shouldFail_whenActiveKeyIsMissingOrRetired() {
+                /* Act & assert */
+                assertThatExceptionOfType(IllegalStateException.class)
+                                .isThrownBy(() -> new JwtKeyRing(this.legacyKey, "k1:" + this.secret1, "k2"));
+                assertThatExceptionOfType(IllegalStateException.class)
+                                .isThrownBy(() -> new JwtKeyRing(this.legacyKey,
+                                                "k1:" + this.secret1 + ":" + (this.now - 1), "k1"));
+                assertThatExceptionOfType(IllegalArgumentException.class)
+                                .isThrownBy(() -> new JwtKeyRing(this.legacyKey,
+                                                "k1:" + this.secret1 + ",k1:" + this.secret2, "k1"));
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        private String sign(JwtKeyRing keyRing) {
+                return keyRing.signer().encode(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL, this.now, this.now + 60,
+                                "jti");
+        }
+}
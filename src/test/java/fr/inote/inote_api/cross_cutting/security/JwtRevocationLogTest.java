@@ -0,0 +1,148 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit tests of JwtRevocationLog
+ */
+@ActiveProfiles("test")
+class JwtRevocationLogTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        @TempDir
+        Path tempDir;
+
+        private final Instant tokenExpiration = Instant.now().plus(10, ChronoUnit.MINUTES);
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("A revoked id is still revoked after a restart")
+        void revoke_shouldSurviveRestart() {
+                /* Arrange */
+                Path file = this.tempDir.resolve("revocations.log");
+                JwtRevocationLog revocationLog = new JwtRevocationLog(file.toString(), 4);
+
+                /* Act */
+                revocationLog.revoke("jti-1", this.tokenExpiration);
+                revocationLog.close();
+                JwtRevocationLog reopenedLog = new JwtRevocationLog(file.toString(), 4);
+
+                /* Assert */
+                assertThat(reopenedLog.isRevoked("jti-1")).isTrue();
+                assertThat(reopenedLog.isRevoked("jti-2")).isFalse();
+        }
+
+        @Test
+        @DisplayName("The log grows when it is full of ids not yet expired")
+        void revoke_shouldGrow_whenLogIsFull() throws Exception {
+                /* Arrange */
+                Path file = this.tempDir.resolve("revocations.log");
+                JwtRevocationLog revocationLog = new JwtRevocationLog(file.toString(), 2);
+
+                /* Act */
+                for (int i = 0; i < 10; i++) {
+                        revocationLog.revoke("jti-" + i, this.tokenExpiration);
+                }
+
+                /* Assert */
+                assertThat(revocationLog.size()).isEqualTo(10);
+                assertThat(Files.size(file)).isGreaterThanOrEqualTo(
+                                JwtRevocationLog.HEADER_SIZE + 10L * JwtRevocationLog.RECORD_SIZE);
+                revocationLog.close();
+                assertThat(new JwtRevocationLog(file.toString(), 2).size()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("Expired ids are dropped by the compaction")
+        void compact_shouldDropExpiredIds() throws InterruptedException {
+                /* Arrange */
+                Path file = this.tempDir.resolve("revocations.log");
+                JwtRevocationLog revocationLog = new JwtRevocationLog(file.toString(), 4);
+                revocationLog.revoke("short-lived", Instant.now().plusSeconds(1));
+                revocationLog.revoke("long-lived", this.tokenExpiration);
+                Thread.sleep(1100);
+
+                /* Act */
+                int dropped = revocationLog.compact();
+
+                /* Assert */
+                assertThat(dropped).isEqualTo(1);
+                assertThat(revocationLog.isRevoked("short-lived")).isFalse();
+                revocationLog.close();
+                assertThat(new JwtRevocationLog(file.toString(), 4).isRevoked("long-lived")).isTrue();
+        }
+
+        @Test
+        @DisplayName("Nothing is rewritten by the compaction when no id has expired")
+        void compact_shouldKeepFile_whenNoIdHasExpired() throws Exception {
+                /* Arrange */
+                Path file = this.tempDir.resolve("revocations.log");
+                JwtRevocationLog revocationLog = new JwtRevocationLog(file.toString(), 4);
+                revocationLog.revoke("jti-1", this.tokenExpiration);
+                Object fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+                FileTime modified = Files.getLastModifiedTime(file);
+
+                /* Act */
+                int dropped = revocationLog.compact();
+
+                /* Assert */
+                assertThat(dropped).isZero();
+                assertThat(Files.readAttributes(file, BasicFileAttributes.class).fileKey()).isEqualTo(fileKey);
+                assertThat(Files.getLastModifiedTime(file)).isEqualTo(modified);
+                assertThat(revocationLog.isRevoked("jti-1")).isTrue();
+        }
+
+        @Test
+        @DisplayName("A log file already used by another instance is rejected")
+        void revoke_shouldFail_whenFileIsUsedByAnotherInstance() {
+                /* Arrange */
+                Path file = this.tempDir.resolve("revocations.log");
+                JwtRevocationLog revocationLog = new JwtRevocationLog(file.toString(), 4);
+                revocationLog.revoke("jti-1", this.tokenExpiration);
+                JwtRevocationLog otherLog = new JwtRevocationLog(file.toString(), 4);
+
+                /* Act & assert */
+                assertThatIllegalStateException().isThrownBy(() -> otherLog.revoke("jti-2", this.tokenExpiration));
+                revocationLog.close();
+                assertThat(otherLog.isRevoked("jti-1")).isTrue();
+        }
+
+        @Test
+        @DisplayName("A log without file is rejected at its first use")
+        void revoke_shouldFail_whenFileIsNotSet() {
+                /* Arrange */
+                JwtRevocationLog revocationLog = new JwtRevocationLog("", 4);
+
+                /* Act & assert */
+                assertThatIllegalStateException().isThrownBy(() -> revocationLog.isRevoked("jti-1"));
+        }
+
+        @Test
+        @DisplayName("An id too long for a record is rejected")
+        void revoke_shouldFail_whenIdIsTooLong() {
+                /* Arrange */
+                JwtRevocationLog revocationLog = new JwtRevocationLog(
+                                this.tempDir.resolve("revocations.log").toString(), 4);
+
+                /* Act & assert */
+                assertThatIllegalArgumentException().isThrownBy(
+                                () -> revocationLog.revoke("x".repeat(JwtRevocationLog.MAX_ID_LENGTH + 1),
+                                                this.tokenExpiration));
+        }
+}
@@ -0,0 +1,157 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER2_EMAIL;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of JwtValidityCache
+ */
+@ActiveProfiles("test")
+class JwtValidityCacheTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private JwtValidityCache jwtValidityCache;
+        private final Instant tokenExpiration = Instant.now().plus(10, ChronoUnit.MINUTES);
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                this.jwtValidityCache = new JwtValidityCache(3, 60);
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Get the owner of a cached token")
+        void getOwner_shouldReturnOwner_whenTokenIsCached() {
+                /* Arrange */
+                this.jwtValidityCache.put("token", REFERENCE_USER_EMAIL, null, this.tokenExpiration,
+                                this.jwtValidityCache.stamp());
+
+                /* Act & assert */
+                assertThat(this.jwtValidityCache.getOwner("token")).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(this.jwtValidityCache.getOwner("unknown")).isNull();
+                assertThat(this.jwtValidityCache.getStats().hits()).isEqualTo(1);
+                assertThat(this.jwtValidityCache.getStats().misses()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Get the owner of a cached token with its role")
+        void get_shouldReturnOwnerWithRole_whenTokenIsCached() {
+                /* Arrange */
+                this.jwtValidityCache.put("token", REFERENCE_USER_EMAIL, "ADMIN", this.tokenExpiration,
+                                this.jwtValidityCache.stamp());
+
+                /* Act & assert */
+                assertThat(this.jwtValidityCache.get("token"))
+                                .isEqualTo(new JwtValidityCache.Owner(REFERENCE_USER_EMAIL, "ADMIN"));
+                assertThat(this.jwtValidityCache.get("unknown")).isNull();
+        }
+
+        @Test
+        @DisplayName("A token is never cached beyond its own expiration")
+        void put_shouldNotCache_whenTokenIsExpired() {
+                /* Act */
+                this.jwtValidityCache.put("token", REFERENCE_USER_EMAIL, null, Instant.now().minusSeconds(1),
+                                this.jwtValidityCache.stamp());
+
+                /* Assert */
+                assertThat(this.jwtValidityCache.getOwner("token")).isNull();
+                assertThat(this.jwtValidityCache.getStats().size()).isZero();
+        }
+
+        @Test
+        @DisplayName("The cache never grows beyond its maximum size")
+        void put_shouldEvict_whenCacheIsFull() {
+                /* Act */
+                for (int i = 0; i < 10; i++) {
+                        this.jwtValidityCache.put("token" + i, REFERENCE_USER_EMAIL, null, this.tokenExpiration,
+                                        this.jwtValidityCache.stamp());
+                }
+
+                /* Assert */
+                assertThat(this.jwtValidityCache.getStats().size()).isEqualTo(3);
+                assertThat(this.jwtValidityCache.getStats().evictions()).isEqualTo(7);
+                assertThat(this.jwtValidityCache.getOwner("token9")).isEqualTo(REFERENCE_USER_EMAIL);
+        }
+
+        @Test
+        @DisplayName("A full cache is brought back to 90% of its size at once, not scanned on each miss")
+        void put_shouldEvictInBatch_whenCacheIsFull() {
+                /* Arrange */
+                JwtValidityCache cache = new JwtValidityCache(20, 60);
+
+                /* Act */
+                for (int i = 0; i < 22; i++) {
+                        cache.put("token" + i, REFERENCE_USER_EMAIL, null, this.tokenExpiration, cache.stamp());
+                }
+
+                /* Assert */
+                assertThat(cache.getStats().size()).isEqualTo(20);
+                assertThat(cache.getStats().evictions()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Invalidate all tokens of an user")
+        void invalidateUser_shouldRemoveOnlyTokensOfUser() {
+                /* Arrange */
+                this.jwtValidityCache.put("token1", REFERENCE_USER_EMAIL, null, this.tokenExpiration,
+                                this.jwtValidityCache.stamp());
+                this.jwtValidityCache.put("token2", REFERENCE_USER2_EMAIL, null, this.tokenExpiration,
+                                this.jwtValidityCache.stamp());
+
+                /* Act */
+                this.jwtValidityCache.invalidateUser(REFERENCE_USER_EMAIL);
+
+                /* Assert */
+                assertThat(this.jwtValidityCache.getOwner("token1")).isNull();
+                assertThat(this.jwtValidityCache.getOwner("token2")).isEqualTo(REFERENCE_USER2_EMAIL);
+        }
+
+        @Test
+        @DisplayName("Invalidate the tokens of an user after some of them were evicted or revoked")
+        void invalidateUser_shouldRemoveRemainingTokens_whenSomeAreGone() {
+                /* Arrange */
+                for (int i = 0; i < 4; i++) {
+                        this.jwtValidityCache.put("token" + i, REFERENCE_USER_EMAIL, null, this.tokenExpiration,
+                                        this.jwtValidityCache.stamp());
+                }
+                this.jwtValidityCache.invalidate("token3");
+                this.jwtValidityCache.put("other", REFERENCE_USER2_EMAIL, null, this.tokenExpiration,
+                                this.jwtValidityCache.stamp());
+
+                /* Act */
+                this.jwtValidityCache.invalidateUser(REFERENCE_USER_EMAIL);
+
+                /* Assert */
+                for (int i = 0; i < 4; i++) {
+                        assertThat(this.jwtValidityCache.getOwner("token" + i)).isNull();
+                }
+                assertThat(this.jwtValidityCache.getOwner("other")).isEqualTo(REFERENCE_USER2_EMAIL);
+        }
+
+        @Test
+        @DisplayName("A value read before an invalidation is not cached")
+        void put_shouldBeIgnored_whenInvalidationHappenedDuringRead() {
+                /* Arrange */
+                long readStamp = this.jwtValidityCache.stamp();
+                this.jwtValidityCache.invalidate("token");
+
+                /* Act */
+                this.jwtValidityCache.put("token", REFERENCE_USER_EMAIL, null, this.tokenExpiration, readStamp);
+
+                /* Assert */
+                assertThat(this.jwtValidityCache.getOwner("token")).isNull();
+        }
+}
@@ -0,0 +1,49 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of OpaqueTokenGenerator
+ */
+@ActiveProfiles("test")
+class OpaqueTokenGeneratorTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final OpaqueTokenGenerator opaqueTokenGenerator = new OpaqueTokenGenerator();
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("A token holds 256 bits encoded in base64url without padding")
+        void next_shouldReturn256BitsInBase64Url() {
+                /* Act */
+                String token = this.opaqueTokenGenerator.next();
+
+                /* Assert */
+                assertThat(token).hasSize(OpaqueTokenGenerator.LENGTH).matches("[A-Za-z0-9_-]+");
+                assertThat(Base64.getUrlDecoder().decode(token)).hasSize(OpaqueTokenGenerator.SIZE_IN_BYTES);
+        }
+
+        @Test
+        @DisplayName("Tokens generated by concurrent threads are all distinct")
+        void next_shouldReturnDistinctTokens_whenCalledByConcurrentThreads() {
+                /* Arrange */
+                Set<String> tokens = ConcurrentHashMap.newKeySet();
+
+                /* Act */
+                IntStream.range(0, 10000).parallel().forEach(i -> tokens.add(this.opaqueTokenGenerator.next()));
+
+                /* Assert */
+                assertThat(tokens).hasSize(10000);
+        }
+}
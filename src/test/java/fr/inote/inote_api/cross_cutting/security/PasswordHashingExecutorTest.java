@@ -0,0 +1,118 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.exceptions.InoteInvalidPasswordFormatException;
+import fr.inote.inote_api.cross_cutting.exceptions.InotePasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit tests of PasswordHashingExecutor
+ */
+@ActiveProfiles("test")
+class PasswordHashingExecutorTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final ExecutorService followUpExecutor = Executors.newSingleThreadExecutor(
+                        runnable -> new Thread(runnable, "follow-up"));
+        private final PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(1, 1,
+                        this.followUpExecutor);
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @AfterEach
+        void tearDown() {
+                this.passwordHashingExecutor.shutdown();
+                this.followUpExecutor.shutdown();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Run a task in the pool and give its result")
+        void submit_shouldGiveResultOfTask() throws Exception {
+                /* Act */
+                CompletableFuture<String> result = this.passwordHashingExecutor
+                                .submit(() -> Thread.currentThread().getName());
+
+                /* Assert */
+                assertThat(result.get(5, TimeUnit.SECONDS)).startsWith("password-hashing-");
+        }
+
+        @Test
+        @DisplayName("Run the hashing step in the pool, then the rest of the request out of it")
+        void submit_shouldRunFollowUpOutOfPool() throws Exception {
+                /* Act */
+                CompletableFuture<String> result = this.passwordHashingExecutor.submit(
+                                () -> Thread.currentThread().getName(),
+                                hashingThread -> hashingThread + "," + Thread.currentThread().getName());
+
+                /* Assert */
+                assertThat(result.get(5, TimeUnit.SECONDS)).matches("password-hashing-\\d+,follow-up");
+        }
+
+        @Test
+        @DisplayName("The exception of a failing follow-up is given as is, not wrapped")
+        void submit_shouldCompleteWithExceptionOfFollowUp_whenFollowUpFails() throws Exception {
+                /* Act */
+                CompletableFuture<String> result = this.passwordHashingExecutor.submit(() -> "hash", hash -> {
+                        throw new InoteInvalidPasswordFormatException();
+                });
+
+                /* Assert */
+                assertThatExceptionOfType(ExecutionException.class)
+                                .isThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                                .withCauseExactlyInstanceOf(InoteInvalidPasswordFormatException.class);
+        }
+
+        @Test
+        @DisplayName("The exception of a failing task is given as is, not wrapped")
+        void submit_shouldCompleteWithExceptionOfTask_whenTaskFails() throws Exception {
+                /* Act */
+                CompletableFuture<String> result = this.passwordHashingExecutor.submit(() -> {
+                        throw new InoteInvalidPasswordFormatException();
+                });
+
+                /* Assert */
+                assertThatExceptionOfType(ExecutionException.class)
+                                .isThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                                .withCauseExactlyInstanceOf(InoteInvalidPasswordFormatException.class);
+        }
+
+        @Test
+        @DisplayName("Reject at once the tasks exceeding the queue")
+        void submit_shouldFail_whenQueueIsFull() throws Exception {
+                /* Arrange */
+                CountDownLatch running = new CountDownLatch(1);
+                CountDownLatch release = new CountDownLatch(1);
+                CompletableFuture<Boolean> first = this.passwordHashingExecutor.submit(() -> {
+                        running.countDown();
+                        return release.await(5, TimeUnit.SECONDS);
+                });
+                assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+                CompletableFuture<Boolean> queued = this.passwordHashingExecutor.submit(() -> true);
+
+                /* Act & assert */
+                assertThatExceptionOfType(InotePasswordHashingBusyException.class)
+                                .isThrownBy(() -> this.passwordHashingExecutor.submit(() -> true));
+                PasswordHashingExecutor.Stats stats = this.passwordHashingExecutor.getStats();
+                assertThat(stats.queued()).isEqualTo(1);
+                assertThat(stats.rejected()).isEqualTo(1);
+
+                release.countDown();
+                assertThat(first.get(5, TimeUnit.SECONDS)).isTrue();
+                assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+}
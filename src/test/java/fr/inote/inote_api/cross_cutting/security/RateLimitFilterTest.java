@@ -0,0 +1,178 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.constants.Endpoint;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteRateLimitException;
+import fr.inote.inote_api.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.util.List;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_NAME;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_PASSWORD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests of RateLimitFilter
+ */
+@ExtendWith(MockitoExtension.class)
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+        /* DEPENDENCIES MOCKING */
+        /* ============================================================ */
+        @Mock
+        private HandlerExceptionResolver handlerExceptionResolver;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @AfterEach
+        void tearDown() {
+                SecurityContextHolder.clearContext();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Reject the requests of an ip beyond the capacity of the endpoint, with a delay")
+        void doFilter_shouldReject_whenIpExceedsCapacity() throws Exception {
+                /* Arrange */
+                RateLimitFilter rateLimitFilter = new RateLimitFilter(this.handlerExceptionResolver, true, 4, 1024);
+                int capacity = Endpoint.RateLimit.REGISTER.getCapacity();
+
+                /* Act */
+                int passed = 0;
+                for (int i = 0; i < capacity + 2; i++) {
+                        MockFilterChain chain = new MockFilterChain();
+                        rateLimitFilter.doFilter(request(Endpoint.REGISTER, "10.0.0.1"), new MockHttpServletResponse(),
+                                        chain);
+                        passed += chain.getRequest() == null ? 0 : 1;
+                }
+                MockFilterChain otherIpChain = new MockFilterChain();
+                rateLimitFilter.doFilter(request(Endpoint.REGISTER, "10.0.0.2"), new MockHttpServletResponse(),
+                                otherIpChain);
+
+                /* Assert */
+                assertThat(passed).isEqualTo(capacity);
+                assertThat(otherIpChain.getRequest()).isNotNull();
+                assertThat(rateLimitFilter.getStats().limits().get(Endpoint.RateLimit.REGISTER))
+                                .isEqualTo(new RateLimitFilter.LimitStats(capacity + 1, 2));
+                assertThat(rateLimitFilter.getStats().evictions()).isZero();
+
+                /* Verify */
+                ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+                verify(this.handlerExceptionResolver, times(2)).resolveException(any(), any(), isNull(),
+                                exception.capture());
+                assertThat(exception.getValue()).isInstanceOf(InoteRateLimitException.class);
+                assertThat(((InoteRateLimitException) exception.getValue()).getRetryAfterInSeconds())
+                                .isBetween(1L, 60L / Endpoint.RateLimit.REGISTER.getRefillByMinute());
+        }
+
+        @Test
+        @DisplayName("An authenticated user is limited whatever its ip")
+        void doFilter_shouldReject_whenUserExceedsCapacityFromSeveralIps() throws Exception {
+                /* Arrange */
+                RateLimitFilter rateLimitFilter = new RateLimitFilter(this.handlerExceptionResolver, true, 4, 1024);
+                User user = User.builder()
+                                .id(7)
+                                .email(REFERENCE_USER_EMAIL)
+                                .name(REFERENCE_USER_NAME)
+                                .password(REFERENCE_USER_PASSWORD)
+                                .build();
+                SecurityContextHolder.getContext().setAuthentication(
+                                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+                int capacity = Endpoint.RateLimit.CREATE_COMMENT.getCapacity();
+
+                /* Act */
+                int passed = 0;
+                for (int i = 0; i < capacity + 1; i++) {
+                        MockFilterChain chain = new MockFilterChain();
+                        rateLimitFilter.doFilter(request(Endpoint.CREATE_COMMENT, "10.0.1." + i),
+                                        new MockHttpServletResponse(), chain);
+                        passed += chain.getRequest() == null ? 0 : 1;
+                }
+
+                /* Assert */
+                assertThat(passed).isEqualTo(capacity);
+        }
+
+        @Test
+        @DisplayName("A percent-encoded path is limited as the endpoint it designates")
+        void doFilter_shouldReject_whenPathIsPercentEncoded() throws Exception {
+                /* Arrange */
+                RateLimitFilter rateLimitFilter = new RateLimitFilter(this.handlerExceptionResolver, true, 4, 1024);
+                String encodedPath = Endpoint.SIGN_IN.replace("-", "%2D");
+                int capacity = Endpoint.RateLimit.SIGN_IN.getCapacity();
+
+                /* Act */
+                int passed = 0;
+                for (int i = 0; i < capacity + 1; i++) {
+                        MockFilterChain chain = new MockFilterChain();
+                        rateLimitFilter.doFilter(request(i % 2 == 0 ? encodedPath : Endpoint.SIGN_IN, "10.0.0.1"),
+                                        new MockHttpServletResponse(), chain);
+                        passed += chain.getRequest() == null ? 0 : 1;
+                }
+
+                /* Assert */
+                assertThat(encodedPath).isNotEqualTo(Endpoint.SIGN_IN);
+                assertThat(passed).isEqualTo(capacity);
+                assertThat(rateLimitFilter.getStats().limits().get(Endpoint.RateLimit.SIGN_IN).rejected())
+                                .isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Other endpoints, other methods and a disabled filter are not limited")
+        void doFilter_shouldLetPass_whenRequestIsNotLimited() throws Exception {
+                /* Arrange */
+                RateLimitFilter rateLimitFilter = new RateLimitFilter(this.handlerExceptionResolver, true, 4, 1024);
+                RateLimitFilter disabledFilter = new RateLimitFilter(this.handlerExceptionResolver, false, 4, 1024);
+
+                /* Act & assert */
+                for (int i = 0; i < 50; i++) {
+                        MockFilterChain chain = new MockFilterChain();
+                        rateLimitFilter.doFilter(request(Endpoint.REFRESH_TOKEN, "10.0.0.1"),
+                                        new MockHttpServletResponse(), chain);
+                        assertThat(chain.getRequest()).isNotNull();
+
+                        MockHttpServletRequest get = request(Endpoint.SIGN_IN, "10.0.0.1");
+                        get.setMethod("GET");
+                        chain = new MockFilterChain();
+                        rateLimitFilter.doFilter(get, new MockHttpServletResponse(), chain);
+                        assertThat(chain.getRequest()).isNotNull();
+
+                        chain = new MockFilterChain();
+                        disabledFilter.doFilter(request(Endpoint.SIGN_IN, "10.0.0.1"), new MockHttpServletResponse(),
+                                        chain);
+                        assertThat(chain.getRequest()).isNotNull();
+                }
+
+                /* Verify */
+                verify(this.handlerExceptionResolver, never()).resolveException(any(), any(), any(), any());
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        private static MockHttpServletRequest request(String path, String ip) {
+                MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+                request.setRemoteAddr(ip);
+                return request;
+        }
+}
@@ -0,0 +1,100 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing of the read-only transactions to the replica
+ */
+class ReadReplicaConfigurationTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private JdbcTemplate jdbcTemplate;
+        private DataSourceTransactionManager transactionManager;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                DataSource routing = ReadReplicaConfiguration.routing(database("primary"), database("replica"));
+                this.jdbcTemplate = new JdbcTemplate(routing);
+                this.transactionManager = new DataSourceTransactionManager(routing);
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Read-only transaction: replica")
+        void routing_shouldUseReplica_whenTransactionIsReadOnly() {
+                /* Arrange */
+                TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+                transactionTemplate.setReadOnly(true);
+
+                /* Act */
+                String node = transactionTemplate.execute(status -> this.currentNode());
+
+                /* Assert */
+                assertThat(node).isEqualTo("replica");
+        }
+
+        @Test
+        @DisplayName("Read-write transaction: primary")
+        void routing_shouldUsePrimary_whenTransactionIsReadWrite() {
+                /* Arrange */
+                TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+
+                /* Act */
+                String node = transactionTemplate.execute(status -> this.currentNode());
+
+                /* Assert */
+                assertThat(node).isEqualTo("primary");
+        }
+
+        @Test
+        @DisplayName("Read-only transaction of a primary read: primary, read-only")
+        void routing_shouldUsePrimary_whenReadIsPinned() {
+                /* Arrange */
+                TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+                transactionTemplate.setReadOnly(true);
+
+                /* Act */
+                String node = PrimaryReads.call(() -> transactionTemplate.execute(status -> this.currentNode()));
+                Boolean readOnly = PrimaryReads.call(() -> transactionTemplate.execute(
+                                status -> this.jdbcTemplate.execute((ConnectionCallback<Boolean>) Connection::isReadOnly)));
+                String nodeAfter = transactionTemplate.execute(status -> this.currentNode());
+
+                /* Assert */
+                assertThat(node).isEqualTo("primary");
+                assertThat(readOnly).isTrue();
+                assertThat(nodeAfter).isEqualTo("replica");
+                assertThat(PrimaryReads.isPinned()).isFalse();
+        }
+
+        /* PRIVATE METHODS */
+        /* ============================================================ */
+        private String currentNode() {
+                return this.jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+        }
+
+        private static DataSource database(String name) {
+                DataSource dataSource = new DriverManagerDataSource(
+                                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+                jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+                jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+                return dataSource;
+        }
+}
@@ -0,0 +1,144 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import fr.inote.inote_api.cross_cutting.scheduling.ClusterNode;
+import fr.inote.inote_api.cross_cutting.security.impl.InMemoryRevocationTransport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER2_EMAIL;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests of RevocationBroadcaster, two instances sharing an in-memory
+ * channel
+ */
+@ActiveProfiles("test")
+class RevocationBroadcasterTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final Instant tokenExpiration = Instant.now().plusSeconds(600);
+        private JwtValidityCache cacheOfA;
+        private JwtValidityCache cacheOfB;
+        private JwtRevocationLog logOfB;
+        private RevocationBroadcaster nodeA;
+        private RevocationBroadcaster nodeB;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                String channel = UUID.randomUUID().toString();
+                this.cacheOfA = new JwtValidityCache(100, 60);
+                this.cacheOfB = new JwtValidityCache(100, 60);
+                this.logOfB = mock(JwtRevocationLog.class);
+                this.nodeA = new RevocationBroadcaster(this.providerOf(new InMemoryRevocationTransport(channel)),
+                                this.cacheOfA, mock(JwtRevocationLog.class), new ClusterNode("node-a"), 2, 60);
+                this.nodeB = new RevocationBroadcaster(this.providerOf(new InMemoryRevocationTransport(channel)),
+                                this.cacheOfB, this.logOfB, new ClusterNode("node-b"), 2, 60);
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Apply on an instance the revocations published by another one")
+        void poll_shouldApplyEventsOfOtherInstances() {
+                /* Arrange */
+                this.cacheOfB.put("token", REFERENCE_USER_EMAIL, null, this.tokenExpiration, this.cacheOfB.stamp());
+                this.cacheOfB.put("token2", REFERENCE_USER2_EMAIL, null, this.tokenExpiration, this.cacheOfB.stamp());
+                this.nodeA.publishUserRevocation(REFERENCE_USER_EMAIL);
+                this.nodeA.publishTokenRevocation(REFERENCE_USER_EMAIL, "jti-1", this.tokenExpiration);
+                this.nodeA.publishTokenRevocation(REFERENCE_USER_EMAIL, "jti-2", this.tokenExpiration);
+
+                /* Act */
+                int applied = this.nodeB.poll();
+
+                /* Assert */
+                // Three events, read by batches of two
+                assertThat(applied).isEqualTo(3);
+                assertThat(this.cacheOfB.getOwner("token")).isNull();
+                assertThat(this.cacheOfB.getOwner("token2")).isEqualTo(REFERENCE_USER2_EMAIL);
+                assertThat(this.nodeB.getStats().position()).isEqualTo(3);
+                assertThat(this.nodeB.getStats().applied()).isEqualTo(3);
+                assertThat(this.nodeB.getStats().lastPoll()).isNotNull();
+                assertThat(this.nodeB.poll()).isZero();
+                assertThat(this.nodeB.getStats().lagInMillis()).isZero();
+
+                /* Verify */
+                verify(this.logOfB, times(1)).revoke("jti-1", this.tokenExpiration);
+                verify(this.logOfB, times(1)).revoke("jti-2", this.tokenExpiration);
+        }
+
+        @Test
+        @DisplayName("Empty the validity cache of the other instances after a bulk revocation")
+        void poll_shouldInvalidateWholeCache_whenGlobalRevocationIsPublished() {
+                /* Arrange */
+                this.cacheOfB.put("token", REFERENCE_USER_EMAIL, null, this.tokenExpiration, this.cacheOfB.stamp());
+                this.cacheOfB.put("token2", REFERENCE_USER2_EMAIL, null, this.tokenExpiration, this.cacheOfB.stamp());
+                this.nodeA.publishGlobalRevocation();
+
+                /* Act */
+                int applied = this.nodeB.poll();
+
+                /* Assert */
+                assertThat(applied).isEqualTo(1);
+                assertThat(this.cacheOfB.getOwner("token")).isNull();
+                assertThat(this.cacheOfB.getOwner("token2")).isNull();
+
+                /* Verify */
+                verify(this.logOfB, never()).revoke(anyString(), any(Instant.class));
+        }
+
+        @Test
+        @DisplayName("Do not apply again the revocations published by the instance itself")
+        void poll_shouldSkipOwnEvents() {
+                /* Arrange */
+                this.nodeB.publishTokenRevocation(REFERENCE_USER_EMAIL, "jti-1", this.tokenExpiration);
+
+                /* Act */
+                int applied = this.nodeB.poll();
+
+                /* Assert */
+                assertThat(applied).isZero();
+                assertThat(this.nodeB.getStats().position()).isEqualTo(1);
+
+                /* Verify */
+                verify(this.logOfB, never()).revoke(anyString(), any(Instant.class));
+        }
+
+        @Test
+        @DisplayName("Publish and poll nothing without transport")
+        void poll_shouldDoNothing_whenNoTransport() {
+                /* Arrange */
+                RevocationBroadcaster alone = new RevocationBroadcaster(this.providerOf(null), this.cacheOfB,
+                                this.logOfB, new ClusterNode(""), 500, 60);
+
+                /* Act */
+                alone.publishUserRevocation(REFERENCE_USER_EMAIL);
+
+                /* Assert */
+                assertThat(alone.poll()).isZero();
+                assertThat(alone.prune()).isZero();
+                assertThat(alone.getNodeId()).isNotBlank();
+                assertThat(alone.getStats().lastPoll()).isNull();
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        @SuppressWarnings("unchecked")
+        private ObjectProvider<RevocationTransport> providerOf(RevocationTransport transport) {
+                ObjectProvider<RevocationTransport> provider = mock(ObjectProvider.class);
+                when(provider.getIfAvailable()).thenReturn(transport);
+                return provider;
+        }
+}
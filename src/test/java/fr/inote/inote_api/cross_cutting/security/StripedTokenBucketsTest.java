@@ -0,0 +1,79 @@
+package fr.inote.inote_api.cross_cutting.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of StripedTokenBuckets
+ */
+@ActiveProfiles("test")
+class StripedTokenBucketsTest {
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private static final long INTERVAL = TimeUnit.SECONDS.toNanos(6);
+        private static final int CAPACITY = 3;
+        private final long now = System.nanoTime();
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("A client gets a burst of capacity requests, then one by interval")
+        void tryAcquire_shouldAllowBurstThenRefill() {
+                /* Arrange */
+                StripedTokenBuckets buckets = new StripedTokenBuckets(4, 64);
+
+                /* Act & assert */
+                for (int i = 0; i < CAPACITY; i++) {
+                        assertThat(buckets.tryAcquire(42L, INTERVAL, CAPACITY, this.now)).isZero();
+                }
+                assertThat(buckets.tryAcquire(42L, INTERVAL, CAPACITY, this.now)).isEqualTo(INTERVAL);
+                assertThat(buckets.tryAcquire(42L, INTERVAL, CAPACITY, this.now + INTERVAL / 2))
+                                .isEqualTo(INTERVAL / 2);
+                assertThat(buckets.tryAcquire(42L, INTERVAL, CAPACITY, this.now + INTERVAL)).isZero();
+                assertThat(buckets.tryAcquire(42L, INTERVAL, CAPACITY, this.now + INTERVAL)).isPositive();
+        }
+
+        @Test
+        @DisplayName("The buckets of two clients are independent")
+        void tryAcquire_shouldKeepClientsApart() {
+                /* Arrange */
+                StripedTokenBuckets buckets = new StripedTokenBuckets(4, 64);
+                for (int i = 0; i < CAPACITY; i++) {
+                        buckets.tryAcquire(1L, INTERVAL, CAPACITY, this.now);
+                }
+
+                /* Act & assert */
+                assertThat(buckets.tryAcquire(1L, INTERVAL, CAPACITY, this.now)).isPositive();
+                assertThat(buckets.tryAcquire(2L, INTERVAL, CAPACITY, this.now)).isZero();
+                assertThat(buckets.tryAcquire(0L, INTERVAL, CAPACITY, this.now)).isZero();
+        }
+
+        @Test
+        @DisplayName("Idle buckets are reused without eviction, active ones are evicted when room lacks")
+        void tryAcquire_shouldReuseIdleSlots_beforeEvictingActiveOnes() {
+                /* Arrange */
+                // One stripe of 8 slots: the whole probe window
+                StripedTokenBuckets buckets = new StripedTokenBuckets(1, 8);
+                for (long key = 1; key <= 8; key++) {
+                        buckets.tryAcquire(key, INTERVAL, CAPACITY, this.now);
+                }
+
+                /* Act */
+                // Full again after an interval: idle
+                for (long key = 9; key <= 16; key++) {
+                        buckets.tryAcquire(key, INTERVAL, CAPACITY, this.now + INTERVAL);
+                }
+                long evictionsOfIdle = buckets.getEvictions();
+                buckets.tryAcquire(17L, INTERVAL, CAPACITY, this.now + INTERVAL);
+
+                /* Assert */
+                assertThat(evictionsOfIdle).isZero();
+                assertThat(buckets.getEvictions()).isEqualTo(1);
+        }
+}
@@ -0,0 +1,136 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.security.RevocationEvent;
+import fr.inote.inote_api.cross_cutting.security.RevocationRecord;
+import fr.inote.inote_api.cross_cutting.security.RevocationTransport;
+import fr.inote.inote_api.repository.RevocationRecordRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER2_EMAIL;
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_EMAIL;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of DatabaseRevocationTransport, with database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class DatabaseRevocationTransportTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private RevocationRecordRepository revocationRecordRepository;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final Instant expiration = Instant.now().plusSeconds(60);
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Read the published events in order, from the start then from the returned position")
+        void read_shouldReturnEventsInOrder() {
+                /* Arrange */
+                DatabaseRevocationTransport transport = new DatabaseRevocationTransport(
+                                this.revocationRecordRepository, 60000);
+                transport.publish(this.event(REFERENCE_USER_EMAIL, "jti-1"));
+                transport.publish(this.event(REFERENCE_USER2_EMAIL, null));
+
+                /* Act */
+                RevocationTransport.Batch first = transport.read(0, 10);
+                transport.publish(this.event(REFERENCE_USER_EMAIL, "jti-2"));
+                RevocationTransport.Batch second = transport.read(first.position(), 10);
+
+                /* Assert */
+                assertThat(first.events()).extracting(RevocationEvent::owner)
+                                .containsExactly(REFERENCE_USER_EMAIL, REFERENCE_USER2_EMAIL);
+                assertThat(first.events().get(0).jti()).isEqualTo("jti-1");
+                assertThat(second.events()).extracting(RevocationEvent::jti).containsExactly("jti-2");
+                assertThat(second.position()).isGreaterThan(first.position());
+                assertThat(transport.read(second.position(), 10).events()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Do not move past a missing id before the gap timeout: it may be committed later")
+        void read_shouldWaitForMissingId_untilGapTimeout() {
+                /* Arrange */
+                List<Long> ids = this.publishWithMissingMiddle();
+                DatabaseRevocationTransport waiting = new DatabaseRevocationTransport(
+                                this.revocationRecordRepository, 60000);
+                DatabaseRevocationTransport skipping = new DatabaseRevocationTransport(
+                                this.revocationRecordRepository, 0);
+
+                /* Act */
+                RevocationTransport.Batch blocked = waiting.read(ids.get(0), 10);
+                RevocationTransport.Batch skipped = skipping.read(ids.get(0), 10);
+
+                /* Assert */
+                // The event after the gap is applied, and will be read again
+                assertThat(blocked.events()).extracting(RevocationEvent::jti).containsExactly("jti-3");
+                assertThat(blocked.position()).isEqualTo(ids.get(0));
+                assertThat(skipped.events()).extracting(RevocationEvent::jti).containsExactly("jti-3");
+                assertThat(skipped.position()).isEqualTo(ids.get(2));
+        }
+
+        @Test
+        @DisplayName("At start, the rows already pruned are not waited for")
+        void read_shouldNotWaitForPrunedIds_atStart() {
+                /* Arrange */
+                List<Long> ids = this.publishWithMissingMiddle();
+                this.revocationRecordRepository.deleteById(ids.get(0));
+                DatabaseRevocationTransport transport = new DatabaseRevocationTransport(
+                                this.revocationRecordRepository, 60000);
+
+                /* Act */
+                RevocationTransport.Batch batch = transport.read(0, 10);
+
+                /* Assert */
+                assertThat(batch.events()).extracting(RevocationEvent::jti).containsExactly("jti-3");
+                assertThat(batch.position()).isEqualTo(ids.get(2));
+        }
+
+        @Test
+        @DisplayName("Prune the events whose expiration is past")
+        void prune_shouldDeleteExpiredEvents() {
+                /* Arrange */
+                DatabaseRevocationTransport transport = new DatabaseRevocationTransport(
+                                this.revocationRecordRepository, 60000);
+                transport.publish(new RevocationEvent(REFERENCE_USER_EMAIL, null, Instant.now().minusSeconds(1),
+                                "node", Instant.now().minusSeconds(61)));
+                transport.publish(this.event(REFERENCE_USER_EMAIL, null));
+
+                /* Act */
+                int pruned = transport.prune(Instant.now());
+
+                /* Assert */
+                assertThat(pruned).isEqualTo(1);
+                assertThat(this.revocationRecordRepository.count()).isEqualTo(1);
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        private RevocationEvent event(String owner, String jti) {
+                return new RevocationEvent(owner, jti, this.expiration, "node", Instant.now());
+        }
+
+        // Three rows, the second one deleted: as if it were not committed yet
+        private List<Long> publishWithMissingMiddle() {
+                List<Long> ids = List.of(
+                                this.revocationRecordRepository.save(RevocationRecord.of(this.event(REFERENCE_USER_EMAIL, "jti-1"))).getId(),
+                                this.revocationRecordRepository.save(RevocationRecord.of(this.event(REFERENCE_USER_EMAIL, "jti-2"))).getId(),
+                                this.revocationRecordRepository.save(RevocationRecord.of(this.event(REFERENCE_USER_EMAIL, "jti-3"))).getId());
+                this.revocationRecordRepository.deleteById(ids.get(1));
+                return ids;
+        }
+}
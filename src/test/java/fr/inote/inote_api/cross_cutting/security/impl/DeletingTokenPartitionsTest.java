@@ -0,0 +1,123 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.RefreshToken;
+import fr.inote.inote_api.cross_cutting.security.TokenPartitions;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of DeletingTokenPartitions, with database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class DeletingTokenPartitionsTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JwtRepository jwtRepository;
+        @Autowired
+        private RefreshTokenRepository refreshTokenRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private static final long BUCKET_IN_SECONDS = 3600;
+        private final Instant now = Instant.parse("2026-01-01T10:30:00Z");
+        private Role roleForTest = Role.builder().name(RoleEnum.ADMIN).build();
+        private User userRef = User.builder()
+                        .email(REFERENCE_USER_EMAIL)
+                        .name(REFERENCE_USER_NAME)
+                        .password(REFERENCE_USER_PASSWORD)
+                        .role(roleForTest)
+                        .build();
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                this.roleRepository.save(this.roleForTest);
+                this.userRepository.save(this.userRef);
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Bucket of an instant: floor of its epoch second by the width")
+        void bucketOf_shouldReturnNumberOfBucketSinceEpoch() {
+                /* Act & assert */
+                assertThat(TokenPartitions.bucketOf(Instant.ofEpochSecond(7199), BUCKET_IN_SECONDS)).isEqualTo(1);
+                assertThat(TokenPartitions.bucketOf(Instant.ofEpochSecond(7200), BUCKET_IN_SECONDS)).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Remove the tokens and refresh tokens of the buckets which are over, revoked or not")
+        void dropExpired_shouldRemoveBucketsWhichAreOver() {
+                /* Arrange */
+                DeletingTokenPartitions partitions = new DeletingTokenPartitions(this.jwtRepository,
+                                this.refreshTokenRepository, this.transactionManager, BUCKET_IN_SECONDS);
+                this.saveToken(this.now.minusSeconds(7200), false);
+                this.saveToken(this.now.minusSeconds(3600), true);
+                Jwt current = this.saveToken(this.now.minusSeconds(60), false);
+                Jwt next = this.saveToken(this.now.plusSeconds(3600), false);
+
+                /* Act */
+                partitions.prepare(this.now);
+                long removed = partitions.dropExpired(this.now);
+
+                /* Assert */
+                assertThat(removed).isEqualTo(4);
+                assertThat(this.jwtRepository.findAll()).containsExactlyInAnyOrder(current, next);
+                assertThat(this.refreshTokenRepository.count()).isEqualTo(2);
+        }
+
+        /* PRIVATE METHODS */
+        /* ============================================================ */
+        private Jwt saveToken(Instant refreshTokenExpiration, boolean revoked) {
+                int bucket = TokenPartitions.bucketOf(refreshTokenExpiration, BUCKET_IN_SECONDS);
+                RefreshToken refreshToken = RefreshToken.builder()
+                                .contentValue(UUID.randomUUID().toString())
+                                .expirationStatus(revoked)
+                                .creationDate(refreshTokenExpiration.minusSeconds(7200))
+                                .expirationDate(refreshTokenExpiration)
+                                .bucket(bucket)
+                                .build();
+                return this.jwtRepository.save(Jwt.builder()
+                                .contentValue(UUID.randomUUID().toString())
+                                .deactivated(revoked)
+                                .expired(revoked)
+                                .refreshTokenExpiration(Date.from(refreshTokenExpiration))
+                                .bucket(bucket)
+                                .user(this.userRef)
+                                .refreshToken(refreshToken)
+                                .build());
+        }
+}
@@ -0,0 +1,223 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.RefreshToken;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of JwtBulkRevoker, with database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(JwtBulkRevoker.class)
+@TestPropertySource(properties = { "jwt.revocation.bulk.chunkSize=2",
+                "spring.jpa.properties.hibernate.generate_statistics=true" })
+class JwtBulkRevokerTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JwtBulkRevoker jwtBulkRevoker;
+        @Autowired
+        private JwtRepository jwtRepository;
+        @Autowired
+        private RefreshTokenRepository refreshTokenRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private EntityManager entityManager;
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private Role adminRole = Role.builder().name(RoleEnum.ADMIN).build();
+        private Role userRole = Role.builder().name(RoleEnum.USER).build();
+        private User admin = User.builder()
+                        .email(REFERENCE_USER_EMAIL)
+                        .name(REFERENCE_USER_NAME)
+                        .password(REFERENCE_USER_PASSWORD)
+                        .role(adminRole)
+                        .build();
+        private User user = User.builder()
+                        .email(REFERENCE_USER2_EMAIL)
+                        .name("user")
+                        .password(REFERENCE_USER_PASSWORD)
+                        .role(userRole)
+                        .build();
+        private Statistics statistics;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                this.roleRepository.save(this.adminRole);
+                this.roleRepository.save(this.userRole);
+                this.userRepository.save(this.admin);
+                this.userRepository.save(this.user);
+                this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Revoke by chunks the active tokens of a role and their refresh tokens, without loading them")
+        void revoke_shouldRevokeActiveTokensOfScope_byChunks() {
+                /* Arrange */
+                Instant now = Instant.now();
+                for (int i = 0; i < 5; i++) {
+                        this.saveToken(this.user, "jti-" + i, now);
+                }
+                this.saveToken(this.admin, "jti-admin", now);
+                this.entityManager.flush();
+                this.entityManager.clear();
+                this.statistics.clear();
+                List<String> revokedJtis = new ArrayList<>();
+
+                /* Act */
+                JwtBulkRevoker.Report report = this.jwtBulkRevoker.revoke(
+                                (afterId, pageable) -> this.jwtRepository.findActiveJwtIdsOfRole(afterId,
+                                                RoleEnum.USER, pageable),
+                                revokedJtis::add);
+
+                /* Assert */
+                assertThat(this.statistics.getEntityLoadCount()).isZero();
+                assertThat(report.tokens()).isEqualTo(5);
+                assertThat(report.chunks()).isEqualTo(3);
+                assertThat(revokedJtis).containsExactlyInAnyOrder("jti-0", "jti-1", "jti-2", "jti-3", "jti-4");
+
+                this.entityManager.clear();
+                for (Jwt jwt : this.jwtRepository.findAll()) {
+                        boolean ofUser = jwt.getUser().getEmail().equals(REFERENCE_USER2_EMAIL);
+                        assertThat(jwt.isDeactivated()).isEqualTo(ofUser);
+                        assertThat(jwt.getRefreshToken().isExpirationStatus()).isEqualTo(ofUser);
+                        if (ofUser) {
+                                assertThat(jwt.getRefreshTokenExpiration()).isNotNull();
+                        }
+                }
+        }
+
+        @Test
+        @DisplayName("Revoke the tokens issued before an instant, and those issued before issuedAt existed")
+        void revoke_shouldRevokeTokensIssuedBeforeInstant() {
+                /* Arrange */
+                Instant now = Instant.now();
+                this.saveToken(this.user, null, now.minus(2, ChronoUnit.HOURS));
+                this.saveToken(this.admin, null, null);
+                Jwt recent = this.saveToken(this.admin, null, now);
+
+                /* Act */
+                JwtBulkRevoker.Report report = this.jwtBulkRevoker.revoke(
+                                (afterId, pageable) -> this.jwtRepository.findActiveJwtIdsIssuedBefore(afterId,
+                                                now.minus(1, ChronoUnit.HOURS), pageable),
+                                null);
+
+                /* Assert */
+                assertThat(report.tokens()).isEqualTo(2);
+                this.entityManager.clear();
+                assertThat(this.jwtRepository.findAll())
+                                .filteredOn(jwt -> !jwt.isDeactivated())
+                                .extracting(Jwt::getId)
+                                .containsExactly(recent.getId());
+        }
+
+        @Test
+        @DisplayName("Revoke the tokens of a list of users, nothing when they have none")
+        void revoke_shouldRevokeTokensOfUsers() {
+                /* Arrange */
+                this.saveToken(this.user, null, Instant.now());
+                this.saveToken(this.admin, null, Instant.now());
+
+                /* Act */
+                JwtBulkRevoker.Report report = this.jwtBulkRevoker.revoke(
+                                (afterId, pageable) -> this.jwtRepository.findActiveJwtIdsOfUsers(afterId,
+                                                List.of(REFERENCE_USER_EMAIL), pageable),
+                                null);
+                JwtBulkRevoker.Report again = this.jwtBulkRevoker.revoke(
+                                (afterId, pageable) -> this.jwtRepository.findActiveJwtIdsOfUsers(afterId,
+                                                List.of(REFERENCE_USER_EMAIL, "nobody@inote.fr"), pageable),
+                                null);
+
+                /* Assert */
+                assertThat(report.tokens()).isEqualTo(1);
+                assertThat(again.tokens()).isZero();
+                assertThat(again.chunks()).isZero();
+        }
+
+        @Test
+        @DisplayName("Revoke the tokens of more users than a chunk: the users are queried by chunks")
+        void revoke_shouldRevokeTokensOfUsers_byChunksOfUsers() {
+                /* Arrange */
+                this.saveToken(this.user, null, Instant.now());
+                this.saveToken(this.admin, null, Instant.now());
+                List<Integer> keysByQuery = new ArrayList<>();
+
+                /* Act */
+                JwtBulkRevoker.Report report = this.jwtBulkRevoker.revoke(
+                                List.of("nobody@inote.fr", REFERENCE_USER2_EMAIL, REFERENCE_USER_EMAIL),
+                                (afterId, emails, pageable) -> {
+                                        keysByQuery.add(emails.size());
+                                        return this.jwtRepository.findActiveJwtIdsOfUsers(afterId, emails,
+                                                        pageable);
+                                },
+                                null);
+
+                /* Assert */
+                assertThat(report.tokens()).isEqualTo(2);
+                assertThat(keysByQuery).isNotEmpty().allMatch(size -> size <= 2);
+                this.entityManager.clear();
+                assertThat(this.jwtRepository.findAll()).allMatch(Jwt::isDeactivated);
+        }
+
+        /* PRIVATE METHODS */
+        /* ============================================================ */
+        private Jwt saveToken(User owner, String jti, Instant issuedAt) {
+                RefreshToken refreshToken = RefreshToken.builder()
+                                .contentValue(UUID.randomUUID().toString())
+                                .expirationStatus(false)
+                                .creationDate(Instant.now())
+                                .expirationDate(Instant.now().plus(1, ChronoUnit.HOURS))
+                                .build();
+                return this.jwtRepository.save(Jwt.builder()
+                                .contentValue(UUID.randomUUID().toString())
+                                .jti(jti)
+                                .deactivated(false)
+                                .expired(false)
+                                .issuedAt(issuedAt)
+                                .refreshToken(refreshToken)
+                                .user(owner)
+                                .build());
+        }
+}
@@ -0,0 +1,134 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.RefreshToken;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of JwtReaper, with database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(JwtReaper.class)
+@TestPropertySource(properties = "jwt.reaper.batchSize=2")
+class JwtReaperTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JwtReaper jwtReaper;
+        @Autowired
+        private JwtRepository jwtRepository;
+        @Autowired
+        private RefreshTokenRepository refreshTokenRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private Role roleForTest = Role.builder().name(RoleEnum.ADMIN).build();
+        private User userRef = User.builder()
+                        .email(REFERENCE_USER_EMAIL)
+                        .name(REFERENCE_USER_NAME)
+                        .password(REFERENCE_USER_PASSWORD)
+                        .role(roleForTest)
+                        .build();
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                this.roleRepository.save(this.roleForTest);
+                this.userRepository.save(this.userRef);
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Remove by batches the revoked tokens and those whose refresh token has expired")
+        void reap_shouldRemoveUselessTokensAndTheirRefreshTokens() {
+                /* Arrange */
+                for (int i = 0; i < 5; i++) {
+                        this.saveToken(false, Instant.now().minus(1, ChronoUnit.MINUTES));
+                }
+                this.saveToken(true, Instant.now().minus(1, ChronoUnit.SECONDS)); // revoked
+                Jwt validJwt = this.saveToken(false, Instant.now().plus(1, ChronoUnit.HOURS));
+
+                /* Act */
+                JwtReaper.Report report = this.jwtReaper.reap();
+
+                /* Assert */
+                assertThat(report.tokens()).isEqualTo(6);
+                assertThat(report.refreshTokens()).isEqualTo(6);
+                assertThat(report.complete()).isTrue();
+                assertThat(this.jwtRepository.findAll()).containsExactly(validJwt);
+                assertThat(this.refreshTokenRepository.count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("A run stops when its time budget is exhausted")
+        void reap_shouldStop_whenTimeBudgetIsExhausted() {
+                /* Arrange */
+                this.saveToken(false, Instant.now().minus(1, ChronoUnit.MINUTES));
+                JwtReaper reaperWithoutBudget = new JwtReaper(this.jwtRepository, this.refreshTokenRepository,
+                                this.transactionManager, 2, 0);
+
+                /* Act */
+                JwtReaper.Report report = reaperWithoutBudget.reap();
+
+                /* Assert */
+                assertThat(report.tokens()).isZero();
+                assertThat(report.complete()).isFalse();
+                assertThat(this.jwtRepository.count()).isEqualTo(1);
+        }
+
+        /* PRIVATE METHODS */
+        /* ============================================================ */
+        private Jwt saveToken(boolean revoked, Instant refreshTokenExpiration) {
+                RefreshToken refreshToken = RefreshToken.builder()
+                                .contentValue(UUID.randomUUID().toString())
+                                .expirationStatus(revoked)
+                                .creationDate(Instant.now())
+                                .expirationDate(Instant.now().plus(1, ChronoUnit.HOURS))
+                                .build();
+                return this.jwtRepository.save(Jwt.builder()
+                                .contentValue(UUID.randomUUID().toString())
+                                .deactivated(revoked)
+                                .expired(revoked)
+                                .refreshTokenExpiration(refreshTokenExpiration == null ? null
+                                                : Date.from(refreshTokenExpiration))
+                                .refreshToken(refreshToken)
+                                .user(this.userRef)
+                                .build());
+        }
+}
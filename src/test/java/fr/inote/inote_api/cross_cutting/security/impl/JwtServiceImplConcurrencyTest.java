@@ -0,0 +1,160 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.JwtIssuanceLocks;
+import fr.inote.inote_api.cross_cutting.security.JwtRevocationLog;
+import fr.inote.inote_api.cross_cutting.security.JwtValidityCache;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import fr.inote.inote_api.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static fr.inote.inote_api.ConstantsForTests.REFERENCE_USER_PASSWORD;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Concurrent issuances of tokens, committed in database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+// Each issuance commits its own transaction, as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JwtServiceImplConcurrencyTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JwtRepository jwtRepository;
+        @Autowired
+        private RefreshTokenRepository refreshTokenRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private static final int USERS = 4;
+        private static final int THREADS = 8;
+        private static final int ISSUANCES_BY_THREAD = 10;
+        private final String ENCRYPTION_KEY_FOR_TEST = "40c9201ff1204cfaa2b8eb5ac72bbe5020af8dfaa3b59cf243a5d41e04fb6b1907c490ef0686e646199d6629711cbccd953e11df4bbd913da2a8902f57e99a55";
+        private JwtServiceImpl jwtService;
+        private JwtIssuanceLocks jwtIssuanceLocks;
+        private List<User> users = new ArrayList<>();
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                Role role = this.roleRepository.save(Role.builder().name(RoleEnum.USER).build());
+                for (int i = 0; i < USERS; i++) {
+                        this.users.add(this.userRepository.save(User.builder()
+                                        .email("user" + i + "@inote.fr")
+                                        .name("user" + i)
+                                        .password(REFERENCE_USER_PASSWORD)
+                                        .role(role)
+                                        .build()));
+                }
+
+                this.jwtIssuanceLocks = new JwtIssuanceLocks(64, 10000);
+                this.jwtService = new JwtServiceImpl(mock(UserService.class), this.jwtRepository,
+                                this.refreshTokenRepository, new JwtValidityCache(100, 60),
+                                mock(JwtRevocationLog.class), null, this.jwtIssuanceLocks,
+                                new OpaqueTokenGenerator(), mock(RevocationBroadcaster.class), null);
+                this.jwtService.setValidityTokenTimeInSeconds(60);
+                this.jwtService.setAdditionalTimeForRefreshTokenInSeconds(60);
+                this.jwtService.setEncryptionKey(ENCRYPTION_KEY_FOR_TEST);
+        }
+
+        @AfterEach
+        void tearDown() {
+                this.jwtRepository.deleteAll();
+                this.userRepository.deleteAll();
+                this.roleRepository.deleteAll();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Concurrent sign in of the same users: no deadlock, exactly one active token by user")
+        void generate_shouldLeaveOneActiveTokenByUser_whenIssuancesAreConcurrent() throws Exception {
+                /* Arrange */
+                TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+                ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+                CountDownLatch start = new CountDownLatch(1);
+                Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+                /* Act */
+                for (int t = 0; t < THREADS; t++) {
+                        final int thread = t;
+                        executor.submit(() -> {
+                                try {
+                                        start.await();
+                                        for (int i = 0; i < ISSUANCES_BY_THREAD; i++) {
+                                                User user = this.users.get((thread + i) % USERS);
+                                                transactionTemplate.executeWithoutResult(status -> {
+                                                        try {
+                                                                this.jwtService.generate(user);
+                                                        } catch (Exception e) {
+                                                                throw new IllegalStateException(e);
+                                                        }
+                                                });
+                                        }
+                                } catch (Throwable e) {
+                                        errors.add(e);
+                                }
+                        });
+                }
+                start.countDown();
+                executor.shutdown();
+
+                /* Assert */
+                assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+                assertThat(errors).isEmpty();
+
+                List<Jwt> jwts = (List<Jwt>) this.jwtRepository.findAll();
+                assertThat(jwts).hasSize(THREADS * ISSUANCES_BY_THREAD);
+                for (User user : this.users) {
+                        assertThat(jwts.stream()
+                                        .filter(jwt -> jwt.getUser().getId().equals(user.getId()))
+                                        .filter(jwt -> !jwt.isDeactivated() && !jwt.isExpired()))
+                                        .hasSize(1);
+                }
+
+                JwtIssuanceLocks.Stats stats = this.jwtIssuanceLocks.getStats();
+                assertThat(stats.acquisitions()).isEqualTo(THREADS * ISSUANCES_BY_THREAD);
+                assertThat(stats.timeouts()).isZero();
+        }
+}
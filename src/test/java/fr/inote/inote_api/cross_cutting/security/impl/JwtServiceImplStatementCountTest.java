@@ -0,0 +1,219 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.scheduling.ClusterNode;
+import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.JwtIssuanceLocks;
+import fr.inote.inote_api.cross_cutting.security.JwtRevocationLog;
+import fr.inote.inote_api.cross_cutting.security.JwtValidityCache;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.cross_cutting.security.RevocationTransport;
+import fr.inote.inote_api.dto.IntrospectionResponseDto;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import fr.inote.inote_api.repository.RevocationRecordRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import fr.inote.inote_api.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
+import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.REFRESH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Number of SQL statements of the issuance and refresh of tokens
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class JwtServiceImplStatementCountTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JwtRepository jwtRepository;
+        @Autowired
+        private RefreshTokenRepository refreshTokenRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private EntityManager entityManager;
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+        @Autowired
+        private RevocationRecordRepository revocationRecordRepository;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final String ENCRYPTION_KEY_FOR_TEST = "40c9201ff1204cfaa2b8eb5ac72bbe5020af8dfaa3b59cf243a5d41e04fb6b1907c490ef0686e646199d6629711cbccd953e11df4bbd913da2a8902f57e99a55";
+        private JwtServiceImpl jwtService;
+        private Statistics statistics;
+        private Role roleForTest = Role.builder().name(RoleEnum.ADMIN).build();
+        private User userRef = User.builder()
+                        .email(REFERENCE_USER_EMAIL)
+                        .name(REFERENCE_USER_NAME)
+                        .password(REFERENCE_USER_PASSWORD)
+                        .role(roleForTest)
+                        .build();
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                this.roleRepository.save(this.roleForTest);
+                this.userRepository.save(this.userRef);
+
+                this.jwtService = new JwtServiceImpl(mock(UserService.class), this.jwtRepository,
+                                this.refreshTokenRepository, new JwtValidityCache(100, 60),
+                                mock(JwtRevocationLog.class), null, new JwtIssuanceLocks(4, 1000),
+                                new OpaqueTokenGenerator(), this.revocationBroadcaster(), null);
+                this.jwtService.setValidityTokenTimeInSeconds(60);
+                this.jwtService.setAdditionalTimeForRefreshTokenInSeconds(60);
+                this.jwtService.setEncryptionKey(ENCRYPTION_KEY_FOR_TEST);
+
+                this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Sign in of an authenticated user: two updates, the published revocation and two inserts")
+        void generate_shouldUseFiveStatements_whenUserIsAlreadyLoaded() throws Exception {
+                /* Arrange */
+                this.jwtService.generate(this.userRef);
+                this.entityManager.flush();
+                this.statistics.clear();
+
+                /* Act */
+                this.jwtService.generate(this.userRef);
+                this.entityManager.flush();
+
+                /* Assert */
+                assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(5);
+                this.entityManager.clear();
+                List<Jwt> jwts = (List<Jwt>) this.jwtRepository.findAll();
+                assertThat(jwts).hasSize(2);
+                assertThat(jwts.stream().filter(jwt -> !jwt.isDeactivated())).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Refresh: one select, two updates, the published revocation and two inserts, the used refresh token is expired")
+        void refreshConnectionWithRefreshTokenValue_shouldUseSixStatements() throws Exception {
+                /* Arrange */
+                Map<String, String> tokens = this.jwtService.generate(this.userRef);
+                this.entityManager.flush();
+                this.entityManager.clear();
+                this.statistics.clear();
+
+                /* Act */
+                this.jwtService.refreshConnectionWithRefreshTokenValue(tokens.get(REFRESH));
+                this.entityManager.flush();
+
+                /* Assert */
+                assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(6);
+                this.entityManager.clear();
+                assertThat(this.jwtRepository.findJwtWithRefreshTokenValue(tokens.get(REFRESH)).orElseThrow()
+                                .getRefreshToken().isExpirationStatus()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Introspection of a batch: one select for the whole batch")
+        void introspect_shouldUseOneStatement_whenTokensAreNotCached() throws Exception {
+                /* Arrange */
+                String deactivated = this.jwtService.generate(this.userRef).get(BEARER);
+                String active = this.jwtService.generate(this.userRef).get(BEARER);
+                this.entityManager.flush();
+                this.entityManager.clear();
+                this.statistics.clear();
+
+                /* Act */
+                List<IntrospectionResponseDto> results = this.jwtService
+                                .introspect(Arrays.asList(active, deactivated, "not.a.token", null, active));
+
+                /* Assert */
+                assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+                assertThat(results).extracting(IntrospectionResponseDto::active)
+                                .containsExactly(true, false, false, false, true);
+                assertThat(results.get(0).subject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(results.get(0).role()).isEqualTo(RoleEnum.ADMIN.name());
+                assertThat(results.get(0).expiration()).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Introspection of cached tokens carrying their principal: no statement")
+        void introspect_shouldUseNoStatement_whenTokensAreCachedWithPrincipal() throws Exception {
+                /* Arrange */
+                this.jwtService.setPrincipalClaimsEnabled(true);
+                String active = this.jwtService.generate(this.userRef).get(BEARER);
+                this.entityManager.flush();
+                this.entityManager.clear();
+                this.jwtService.introspect(List.of(active));
+                this.statistics.clear();
+
+                /* Act */
+                List<IntrospectionResponseDto> results = this.jwtService.introspect(List.of(active, active));
+
+                /* Assert */
+                assertThat(this.statistics.getPrepareStatementCount()).isZero();
+                assertThat(results).extracting(IntrospectionResponseDto::role)
+                                .containsExactly(RoleEnum.ADMIN.name(), RoleEnum.ADMIN.name());
+        }
+
+        @Test
+        @DisplayName("Introspection of tokens cached by an authenticated request: no statement, without principal claims")
+        void introspect_shouldUseNoStatement_whenTokensAreCachedByFilter() throws Exception {
+                /* Arrange */
+                String active = this.jwtService.generate(this.userRef).get(BEARER);
+                this.entityManager.flush();
+                this.entityManager.clear();
+                this.jwtService.findValidTokenOwner(active, this.jwtService.verify(active));
+                this.statistics.clear();
+
+                /* Act */
+                List<IntrospectionResponseDto> results = this.jwtService.introspect(List.of(active));
+
+                /* Assert */
+                assertThat(this.statistics.getPrepareStatementCount()).isZero();
+                assertThat(results.get(0).active()).isTrue();
+                assertThat(results.get(0).role()).isEqualTo(RoleEnum.ADMIN.name());
+        }
+
+        /* PRIVATE METHODS */
+        /* ============================================================ */
+        @SuppressWarnings("unchecked")
+        private RevocationBroadcaster revocationBroadcaster() {
+                // Published in the database, as in production
+                ObjectProvider<RevocationTransport> transport = mock(ObjectProvider.class);
+                when(transport.getIfAvailable())
+                                .thenReturn(new DatabaseRevocationTransport(this.revocationRecordRepository, 10000));
+                return new RevocationBroadcaster(transport, new JwtValidityCache(100, 60),
+                                mock(JwtRevocationLog.class), new ClusterNode("node"), 500, 60);
+        }
+}
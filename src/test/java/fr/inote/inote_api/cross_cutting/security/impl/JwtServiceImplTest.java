@@ -4,12 +4,21 @@ import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteExpiredRefreshTokenException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteJwtNotFoundException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteNotAuthenticatedUserException;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteTokenIssuanceBusyException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
 import fr.inote.inote_api.cross_cutting.security.Jwt;
+import fr.inote.inote_api.cross_cutting.security.JwtIssuanceLocks;
+import fr.inote.inote_api.cross_cutting.security.JwtRevocationLog;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.cross_cutting.security.JwtValidityCache;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
 import fr.inote.inote_api.cross_cutting.security.RefreshToken;
+import fr.inote.inote_api.cross_cutting.security.UserSecurityChangedEvent;
+import fr.inote.inote_api.cross_cutting.security.VerifiedClaims;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.entity.User;
 import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
 import fr.inote.inote_api.repository.UserRepository;
 import fr.inote.inote_api.service.UserService;
 import io.jsonwebtoken.Claims;
@@ -20,8 +29,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.mockito.stubbing.Answer;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -33,7 +42,6 @@ import java.security.Key;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Stream;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
@@ -83,6 +91,22 @@ class JwtServiceImplTest {
         private UserService userService;
         @Mock
         SecurityContextHolder securityContextHolder;
+        @Spy
+        private JwtValidityCache jwtValidityCache = new JwtValidityCache(100, 60);
+        @Mock
+        private JwtRevocationLog jwtRevocationLog;
+        @Mock
+        private JwtReaper jwtReaper;
+        @Mock
+        private RefreshTokenRepository refreshTokenRepository;
+        @Mock
+        private JwtIssuanceLocks jwtIssuanceLocks;
+        @Spy
+        private OpaqueTokenGenerator opaqueTokenGenerator = new OpaqueTokenGenerator();
+        @Mock
+        private RevocationBroadcaster revocationBroadcaster;
+        @Mock
+        private JwtBulkRevoker jwtBulkRevoker;
 
         /* REFERENCES FOR MOCKING */
         /* ============================================================ */
@@ -180,6 +204,85 @@ class JwtServiceImplTest {
 
         }
 
+        @Test
+        @DisplayName("Search the owner of a valid token twice, database is only reached once")
+        void findValidTokenOwner_shouldUseCache_whenTokenWasAlreadyFound()
+                        throws InoteUserException, InoteNotAuthenticatedUserException {
+                /* Arrange */
+                when(this.jwtRepository.findByContentValueAndDeactivatedAndExpired(TOKEN, false, false))
+                                .thenReturn(Optional.of(this.jwtRef));
+                VerifiedClaims claims = this.jwtService.verify(TOKEN);
+
+                /* Act */
+                String firstOwner = this.jwtService.findValidTokenOwner(TOKEN, claims);
+                String secondOwner = this.jwtService.findValidTokenOwner(TOKEN, claims);
+
+                /* Assert */
+                assertThat(firstOwner).isEqualTo(this.userRef.getEmail());
+                assertThat(secondOwner).isEqualTo(this.userRef.getEmail());
+                assertThat(this.jwtValidityCache.getStats().hits()).isEqualTo(1);
+
+                /* Verify */
+                verify(this.jwtRepository, times(1)).findByContentValueAndDeactivatedAndExpired(TOKEN, false, false);
+        }
+
+        @Test
+        @DisplayName("Search the owner of an unknown token")
+        void findValidTokenOwner_shouldFail_whenTokenIsNotInDatabase() {
+                /* Arrange */
+                when(this.jwtRepository.findByContentValueAndDeactivatedAndExpired(TOKEN, false, false))
+                                .thenReturn(Optional.empty());
+                VerifiedClaims claims = this.jwtService.verify(TOKEN);
+
+                /* Act & assert */
+                assertThatExceptionOfType(InoteNotAuthenticatedUserException.class)
+                                .isThrownBy(() -> this.jwtService.findValidTokenOwner(TOKEN, claims));
+                assertThat(this.jwtValidityCache.getStats().size()).isZero();
+        }
+
+        @Test
+        @DisplayName("Search the owner of a valid token in stateless mode, database is never reached")
+        void findValidTokenOwner_shouldNotReachDatabase_whenModeIsStateless() throws Exception {
+                /* Arrange */
+                this.jwtService.setValidationMode("stateless");
+                Method privateMethod_generateJwt = JwtServiceImpl.class.getDeclaredMethod("generateJwt", User.class);
+                privateMethod_generateJwt.setAccessible(true);
+                @SuppressWarnings("unchecked")
+                String token = ((Map<String, String>) privateMethod_generateJwt.invoke(this.jwtService, this.userRef))
+                                .get(BEARER);
+                VerifiedClaims claims = this.jwtService.verify(token);
+
+                /* Act */
+                String owner = this.jwtService.findValidTokenOwner(token, claims);
+
+                /* Assert */
+                assertThat(claims.id()).isNotNull();
+                assertThat(owner).isEqualTo(this.userRef.getEmail());
+
+                /* Verify */
+                verify(this.jwtRevocationLog, times(1)).isRevoked(claims.id());
+                verifyNoInteractions(this.jwtRepository);
+        }
+
+        @Test
+        @DisplayName("Search the owner of a revoked token in stateless mode")
+        void findValidTokenOwner_shouldFail_whenTokenIdIsRevokedInStatelessMode() throws Exception {
+                /* Arrange */
+                this.jwtService.setValidationMode("stateless");
+                Method privateMethod_generateJwt = JwtServiceImpl.class.getDeclaredMethod("generateJwt", User.class);
+                privateMethod_generateJwt.setAccessible(true);
+                @SuppressWarnings("unchecked")
+                String token = ((Map<String, String>) privateMethod_generateJwt.invoke(this.jwtService, this.userRef))
+                                .get(BEARER);
+                VerifiedClaims claims = this.jwtService.verify(token);
+                when(this.jwtRevocationLog.isRevoked(claims.id())).thenReturn(true);
+
+                /* Act & assert */
+                assertThatExceptionOfType(InoteNotAuthenticatedUserException.class)
+                                .isThrownBy(() -> this.jwtService.findValidTokenOwner(token, claims));
+                verifyNoInteractions(this.jwtRepository);
+        }
+
         @Test
         @DisplayName("HMAC-SHA Key generation")
         void getKey_shouldSuccess() throws InvocationTargetException, IllegalAccessException, NoSuchMethodException,
@@ -343,12 +446,118 @@ class JwtServiceImplTest {
                                 .isInstanceOf(MalformedJwtException.class);
         }
 
+        @Test
+        @DisplayName("Verify a well-formed token and get its claims in one pass")
+        void verify_shouldReturnClaims_whenTokenIsCorrect() {
+                /* Act */
+                VerifiedClaims claims = this.jwtService.verify(TOKEN);
+
+                /* Assert */
+                assertThat(claims.subject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(claims.name()).isEqualTo(REFERENCE_USER_NAME);
+                assertThat(claims.expiration()).isEqualTo(Instant.ofEpochSecond(1869675996));
+                assertThat(claims.isExpiredAt(Instant.now())).isFalse();
+        }
+
+        @Test
+        @DisplayName("Build the authenticated user from a token carrying the principal, without loading it")
+        void principalOf_shouldBuildUserFromClaims_whenPrincipalClaimsAreEnabled() throws Exception {
+                /* Arrange */
+                this.jwtService.setPrincipalClaimsEnabled(true);
+                this.userRef.setId(42);
+                String token = this.generateJwt(this.userRef);
+
+                /* Act */
+                User principal = this.jwtService.principalOf(this.jwtService.verify(token));
+
+                /* Assert */
+                assertThat(principal.getId()).isEqualTo(42);
+                assertThat(principal.getEmail()).isEqualTo(this.userRef.getEmail());
+                assertThat(principal.getAuthorities()).isEqualTo(this.userRef.getAuthorities());
+                assertThat(principal.isEnabled()).isTrue();
+
+                /* Verify */
+                verifyNoInteractions(this.userService);
+        }
+
+        @Test
+        @DisplayName("Tokens carry no principal while the principal claims are disabled")
+        void principalOf_shouldReturnNull_whenPrincipalClaimsAreDisabled() throws Exception {
+                /* Arrange */
+                String token = this.generateJwt(this.userRef);
+
+                /* Act & assert */
+                assertThat(this.jwtService.verify(token).hasPrincipal()).isFalse();
+                assertThat(this.jwtService.principalOf(this.jwtService.verify(token))).isNull();
+        }
+
+        @Test
+        @DisplayName("Revoke all tokens of an user whose security has changed")
+        void onUserSecurityChanged_shouldRevokeAllTokensOfUser() {
+                /* Arrange */
+                this.userRef.setId(42);
+
+                /* Act */
+                this.jwtService.onUserSecurityChanged(new UserSecurityChangedEvent(this.userRef));
+
+                /* Verify */
+                verify(this.refreshTokenRepository, times(1)).expireAllOfUser(42);
+                verify(this.jwtRepository, times(1)).revokeAllOfUser(eq(42), any(Date.class));
+        }
+
+        @Test
+        @DisplayName("Tokens signed before a key rotation are still verified, by jjwt too")
+        void verify_shouldAcceptTokensOfPreviousKey_whenKeyRingIsRotated() throws Exception {
+                /* Arrange */
+                final String secret = "9Fn3bq0a6v5S1rT8Kx2LmYpQw4Zc7Hd0Ej6Ui1Oa5Ns=";
+                String legacyToken = this.generateJwt(this.userRef);
+
+                /* Act */
+                this.jwtService.setKeyRing("2024-07:" + secret, "2024-07");
+                String rotatedToken = this.generateJwt(this.userRef);
+
+                /* Assert */
+                assertThat(this.jwtService.verify(legacyToken).subject()).isEqualTo(this.userRef.getEmail());
+                assertThat(this.jwtService.verify(rotatedToken).subject()).isEqualTo(this.userRef.getEmail());
+                assertThat(this.jwtService.verify(TOKEN).subject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(io.jsonwebtoken.Jwts.parserBuilder()
+                                .setSigningKey(io.jsonwebtoken.io.Decoders.BASE64.decode(secret)).build()
+                                .parseClaimsJws(rotatedToken).getHeader().getKeyId()).isEqualTo("2024-07");
+        }
+
+        @Test
+        @DisplayName("Verify a malformed token")
+        void verify_shouldThrowException_whenTokenIsMalformed() {
+                /* Act & assert */
+                assertThatExceptionOfType(MalformedJwtException.class)
+                                .isThrownBy(() -> this.jwtService.verify("MalformedToken"));
+        }
+
+        @Test
+        @DisplayName("Key and parser are built once, and rebuilt when encryption key changes")
+        void getParser_shouldBeReused_untilEncryptionKeyChanges()
+                        throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+                /* Arrange */
+                Method privateMethod_getParser = JwtServiceImpl.class.getDeclaredMethod("getParser");
+                privateMethod_getParser.setAccessible(true);
+
+                /* Act */
+                Object firstParser = privateMethod_getParser.invoke(this.jwtService);
+                Object secondParser = privateMethod_getParser.invoke(this.jwtService);
+                this.jwtService.setEncryptionKey(ENCRYPTION_KEY_FOR_TEST);
+                Object parserAfterKeyChange = privateMethod_getParser.invoke(this.jwtService);
+
+                /* Assert */
+                assertThat(secondParser).isSameAs(firstParser);
+                assertThat(parserAfterKeyChange).isNotSameAs(firstParser);
+        }
+
         @SuppressWarnings("unchecked")
         @Test
         @DisplayName("Generate a token from user with correct user")
         void generateJwt_shouldSuccess_whenUserIsCorrect()
                         throws NoSuchMethodException, InvocationTargetException, IllegalAccessException,
-                        InterruptedException {
+                        InterruptedException, InoteTokenIssuanceBusyException {
 
                 /* Arrange */
                 Map<String, String> jwtTest;
@@ -378,7 +587,7 @@ class JwtServiceImplTest {
         @DisplayName("Generate Map containing token and refreshToken whith existing user")
         void generate_shouldReturnCorrectMap_whenUserExistInDb()
                         throws NoSuchMethodException, InvocationTargetException, IllegalAccessException,
-                        InterruptedException {
+                        InterruptedException, InoteTokenIssuanceBusyException {
                 /* Arrange */
                 when(this.userService.loadUserByUsername(anyString())).thenReturn(this.userRef);
                 when(this.jwtRepository.save(any(Jwt.class))).thenReturn(any(Jwt.class));
@@ -431,24 +640,31 @@ class JwtServiceImplTest {
                 verify(this.userService, times(1)).loadUserByUsername(any(String.class));
         }
 
+        @Test
+        @DisplayName("Generate nothing while another issuance of the user holds the lock")
+        void generate_shouldFail_whenIssuanceOfUserIsLocked() throws InoteTokenIssuanceBusyException {
+                /* Arrange */
+                doThrow(InoteTokenIssuanceBusyException.class).when(this.jwtIssuanceLocks)
+                                .lockUntilEndOfTransaction(this.userRef.getId());
+
+                /* Act & assert */
+                assertThatExceptionOfType(InoteTokenIssuanceBusyException.class)
+                                .isThrownBy(() -> this.jwtService.generate(this.userRef));
+
+                /* Verify */
+                verifyNoInteractions(this.jwtRepository, this.refreshTokenRepository);
+        }
+
         @Test
         @DisplayName("refresh connection with token value")
         void refreshConnectionWithRefreshTokenValue_ShouldSuccess_WhenFirstJwtIsRetrievedAndRefreshTokenIsNotExpired()
-                        throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException {
+                        throws InoteJwtNotFoundException, InoteExpiredRefreshTokenException,
+                        InoteTokenIssuanceBusyException {
 
                 /* Arrange */
                 when(this.jwtRepository.findJwtWithRefreshTokenValue(any(String.class)))
                                 .thenReturn(Optional.of(this.jwtRef));
-
-                Mockito.doAnswer((Answer<Stream<Jwt>>) invocation -> {
-                        invocation.getArgument(0);
-                        List<Jwt> jwts = new ArrayList<>();
-                        jwts.add(jwtRef);
-                        return jwts.stream();
-                }).when(this.jwtRepository).findJwtWithUserEmail(Mockito.anyString());
-
                 when(this.jwtRepository.save(any(Jwt.class))).thenReturn(this.jwtRef);
-                when(this.userService.loadUserByUsername(any(String.class))).thenReturn(this.userRef);
 
                 /* Act */
                 Map<String, String> returnValue = this.jwtService
@@ -457,9 +673,15 @@ class JwtServiceImplTest {
 
                 /* Assert */
                 assertThat(returnValue.get(BEARER)).isNotNull();
-                assertThat(returnValue.get(BEARER).length()).isEqualTo(145);
+                assertThat(returnValue.get(BEARER).length()).isEqualTo(237);
                 assertThat(returnValue.get(REFRESH)).isNotNull();
-                assertThat(returnValue.get(REFRESH).length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(returnValue.get(REFRESH).length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
+
+                /* Verify */
+                verify(this.jwtIssuanceLocks, times(1)).lockUntilEndOfTransaction(this.userRef.getId());
+                verify(this.refreshTokenRepository, times(1)).expireAllOfUser(this.userRef.getId());
+                verify(this.jwtRepository, times(1)).revokeAllOfUser(eq(this.userRef.getId()), any(Date.class));
+                verifyNoInteractions(this.userService);
         }
 
         @Test
@@ -505,9 +727,15 @@ class JwtServiceImplTest {
                 when(this.jwtRepository.findTokenWithEmailAndStatusToken(anyString(), anyBoolean(), anyBoolean()))
                                 .thenReturn(Optional.of(this.jwtRef));
                 when(this.jwtRepository.save(any(Jwt.class))).thenReturn(this.jwtRef);
+                this.jwtValidityCache.put(TOKEN, this.userRef.getEmail(), null, Instant.now().plusSeconds(60),
+                                this.jwtValidityCache.stamp());
 
                 /* Act & assert */
                 assertThatCode(() -> this.jwtService.signOut()).doesNotThrowAnyException();
+                assertThat(this.jwtValidityCache.getOwner(TOKEN)).isNull();
+
+                /* Verify */
+                verify(this.revocationBroadcaster, times(1)).publishUserRevocation(this.userRef.getEmail());
         }
 
         @Test
@@ -527,4 +755,92 @@ class JwtServiceImplTest {
                 /* Act & assert */
                 assertThatExceptionOfType(InoteJwtNotFoundException.class).isThrownBy(() -> this.jwtService.signOut());
         }
-}
\ No newline at end of file
+
+        @Test
+        @DisplayName("Bulk revocation of a role: every cached token is forgotten, here and on the other instances")
+        void revokeSessionsOfRole_ShouldInvalidateAllCachedTokens_whenTokensAreRevoked() {
+                /* Arrange */
+                this.jwtValidityCache.put(TOKEN, this.userRef.getEmail(), null, Instant.now().plusSeconds(60),
+                                this.jwtValidityCache.stamp());
+                when(this.jwtBulkRevoker.revoke(any(JwtBulkRevoker.Scope.class), any()))
+                                .thenReturn(new JwtBulkRevoker.Report(3, 1, 5));
+
+                /* Act */
+                JwtBulkRevoker.Report report = this.jwtService.revokeSessionsOfRole(RoleEnum.USER);
+
+                /* Assert */
+                assertThat(report.tokens()).isEqualTo(3);
+                assertThat(this.jwtValidityCache.getOwner(TOKEN)).isNull();
+
+                /* Verify */
+                verify(this.revocationBroadcaster, times(1)).publishGlobalRevocation();
+        }
+
+        @Test
+        @DisplayName("Bulk revocation of users: only their cached tokens are forgotten")
+        void revokeSessionsOfUsers_ShouldInvalidateCachedTokensOfUsers() {
+                /* Arrange */
+                this.jwtValidityCache.put(TOKEN, this.userRef.getEmail(), null, Instant.now().plusSeconds(60),
+                                this.jwtValidityCache.stamp());
+                this.jwtValidityCache.put("other", "other@inote.fr", null, Instant.now().plusSeconds(60),
+                                this.jwtValidityCache.stamp());
+                when(this.jwtBulkRevoker.revoke(anyCollection(), any(JwtBulkRevoker.KeyedScope.class), any()))
+                                .thenReturn(new JwtBulkRevoker.Report(1, 1, 5));
+
+                /* Act */
+                this.jwtService.revokeSessionsOfUsers(List.of(this.userRef.getEmail()));
+
+                /* Assert */
+                assertThat(this.jwtValidityCache.getOwner(TOKEN)).isNull();
+                assertThat(this.jwtValidityCache.getOwner("other")).isEqualTo("other@inote.fr");
+
+                /* Verify */
+                verify(this.revocationBroadcaster, times(1)).publishUserRevocation(this.userRef.getEmail());
+                verify(this.revocationBroadcaster, never()).publishGlobalRevocation();
+        }
+
+        @Test
+        @DisplayName("Bulk revocation of many users: every cached token is forgotten at once")
+        void revokeSessionsOfUsers_ShouldInvalidateAllCachedTokens_whenUsersAreMany() {
+                /* Arrange */
+                this.jwtService.setMaxUserRevocations(1);
+                this.jwtValidityCache.put("other", "other@inote.fr", null, Instant.now().plusSeconds(60),
+                                this.jwtValidityCache.stamp());
+                when(this.jwtBulkRevoker.revoke(anyCollection(), any(JwtBulkRevoker.KeyedScope.class), any()))
+                                .thenReturn(new JwtBulkRevoker.Report(2, 1, 5));
+
+                /* Act */
+                this.jwtService.revokeSessionsOfUsers(List.of(this.userRef.getEmail(), "other@inote.fr"));
+
+                /* Assert */
+                assertThat(this.jwtValidityCache.getOwner("other")).isNull();
+
+                /* Verify */
+                verify(this.revocationBroadcaster, times(1)).publishGlobalRevocation();
+                verify(this.revocationBroadcaster, never()).publishUserRevocation(any());
+        }
+
+        @Test
+        @DisplayName("Bulk revocation of users without active token: nothing is published")
+        void revokeSessionsOfUsers_ShouldPublishNothing_whenNoTokenIsRevoked() {
+                /* Arrange */
+                when(this.jwtBulkRevoker.revoke(anyCollection(), any(JwtBulkRevoker.KeyedScope.class), any()))
+                                .thenReturn(new JwtBulkRevoker.Report(0, 0, 5));
+
+                /* Act */
+                this.jwtService.revokeSessionsOfUsers(List.of(this.userRef.getEmail()));
+
+                /* Verify */
+                verify(this.revocationBroadcaster, never()).publishUserRevocation(any());
+                verify(this.revocationBroadcaster, never()).publishGlobalRevocation();
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        @SuppressWarnings("unchecked")
+        private String generateJwt(User user) throws Exception {
+                Method privateMethod_generateJwt = JwtServiceImpl.class.getDeclaredMethod("generateJwt", User.class);
+                privateMethod_generateJwt.setAccessible(true);
+                return ((Map<String, String>) privateMethod_generateJwt.invoke(this.jwtService, user)).get(BEARER);
+        }
+}
@@ -0,0 +1,167 @@
+package fr.inote.inote_api.cross_cutting.security.impl;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.JwtIssuanceLocks;
+import fr.inote.inote_api.cross_cutting.security.JwtRevocationLog;
+import fr.inote.inote_api.cross_cutting.security.JwtValidityCache;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.cross_cutting.security.VerifiedClaims;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.JwtRepository;
+import fr.inote.inote_api.repository.RefreshTokenRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import fr.inote.inote_api.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transactions opened by the verification of the tokens of the authenticated
+ * requests
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({ JwtServiceImpl.class, JwtValidityCache.class, JwtIssuanceLocks.class, OpaqueTokenGenerator.class })
+// The service opens its own transactions, as in production
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JwtServiceImplTransactionTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private JwtServiceImpl jwtService;
+        @Autowired
+        private JwtRepository jwtRepository;
+        @Autowired
+        private RefreshTokenRepository refreshTokenRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private JpaTransactionManager transactionManager;
+
+        @MockBean
+        private UserService userService;
+        @MockBean
+        private JwtRevocationLog jwtRevocationLog;
+        @MockBean
+        private JwtReaper jwtReaper;
+        @MockBean
+        private RevocationBroadcaster revocationBroadcaster;
+        @MockBean
+        private JwtBulkRevoker jwtBulkRevoker;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private final List<TransactionExecution> begun = new CopyOnWriteArrayList<>();
+        private final TransactionExecutionListener listener = new TransactionExecutionListener() {
+                @Override
+                public void beforeBegin(TransactionExecution transaction) {
+                        begun.add(transaction);
+                }
+        };
+        private String bearer;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                Role role = this.roleRepository.save(Role.builder().name(RoleEnum.USER).build());
+                User user = this.userRepository.save(User.builder()
+                                .email(REFERENCE_USER_EMAIL)
+                                .name(REFERENCE_USER_NAME)
+                                .password(REFERENCE_USER_PASSWORD)
+                                .role(role)
+                                .build());
+                this.bearer = new TransactionTemplate(this.transactionManager).execute(status -> {
+                        try {
+                                return this.jwtService.generate(user).get(BEARER);
+                        } catch (Exception e) {
+                                throw new IllegalStateException(e);
+                        }
+                });
+                this.transactionManager.getTransactionExecutionListeners().add(this.listener);
+        }
+
+        @AfterEach
+        void tearDown() {
+                this.transactionManager.getTransactionExecutionListeners().remove(this.listener);
+                this.jwtRepository.deleteAll();
+                this.refreshTokenRepository.deleteAll();
+                this.userRepository.deleteAll();
+                this.roleRepository.deleteAll();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Verification of the signature and the claims: no transaction")
+        void verify_shouldOpenNoTransaction() {
+                /* Act */
+                VerifiedClaims claims = this.jwtService.verify(this.bearer);
+                this.jwtService.principalOf(claims);
+                this.jwtService.extractUsername(this.bearer);
+                this.jwtService.isTokenExpired(this.bearer);
+
+                /* Assert */
+                assertThat(claims.subject()).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(this.begun).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Owner of a token on cache miss: one read-only transaction")
+        void findValidTokenOwner_shouldOpenOneReadOnlyTransaction_whenCacheMisses() throws Exception {
+                /* Arrange */
+                VerifiedClaims claims = this.jwtService.verify(this.bearer);
+
+                /* Act */
+                String owner = this.jwtService.findValidTokenOwner(this.bearer, claims);
+
+                /* Assert */
+                assertThat(owner).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(this.begun).hasSize(1);
+                assertThat(this.begun.get(0).isReadOnly()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Owner of a token on cache hit: no transaction")
+        void findValidTokenOwner_shouldOpenNoTransaction_whenCacheHits() throws Exception {
+                /* Arrange */
+                VerifiedClaims claims = this.jwtService.verify(this.bearer);
+                this.jwtService.findValidTokenOwner(this.bearer, claims);
+                this.begun.clear();
+
+                /* Act */
+                String owner = this.jwtService.findValidTokenOwner(this.bearer, claims);
+
+                /* Assert */
+                assertThat(owner).isEqualTo(REFERENCE_USER_EMAIL);
+                assertThat(this.begun).isEmpty();
+        }
+}
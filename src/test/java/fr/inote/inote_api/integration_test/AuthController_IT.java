@@ -7,6 +7,7 @@ import com.icegreen.greenmail.junit5.GreenMailExtension;
 import com.icegreen.greenmail.store.FolderException;
 import com.icegreen.greenmail.util.GreenMailUtil;
 import com.icegreen.greenmail.util.ServerSetupTest;
+import fr.inote.inote_api.AsyncDispatch;
 import fr.inote.inote_api.ConstantsForTests;
 
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
@@ -14,6 +15,7 @@ import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteExpiredRefreshTokenException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.ActivationRequestDto;
 import fr.inote.inote_api.dto.SignInRequestDto;
@@ -53,14 +55,12 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.AUTHORIZATION;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
 import static fr.inote.inote_api.cross_cutting.constants.MessagesEn.EMAIL_SUBJECT_ACTIVATION_CODE;
-import static java.util.UUID.randomUUID;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
@@ -192,7 +192,7 @@ public class AuthController_IT {
                 /* Act & assert */
                 // Send request, print response, check returned status and primary checking
                 // (status code, content body type...)
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper.writeValueAsString(this.registerRequestDto)))
@@ -218,7 +218,7 @@ public class AuthController_IT {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
 
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper.writeValueAsString(this.registerRequestDto)))
@@ -278,7 +278,7 @@ public class AuthController_IT {
         void IT_signIn_ShouldSuccess_whenCredentialsAreCorrect() throws Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -317,7 +317,7 @@ public class AuthController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 this.registerRequestDto.username(), this.registerRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -330,8 +330,8 @@ public class AuthController_IT {
                                 SignInResponseDto.class);
 
                 /* Assert */
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
         }
 
         @Test
@@ -342,7 +342,7 @@ public class AuthController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 "JamesWebb@triton.com", "fjOM487$?8dd");
 
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -355,7 +355,7 @@ public class AuthController_IT {
         void IT_changePassword_ShouldSuccess_WhenUsernameExists() throws Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -428,7 +428,7 @@ public class AuthController_IT {
         void IT_newPassword_ShouldSuccess_WhenUserExists() throws Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -495,7 +495,7 @@ public class AuthController_IT {
                                 extractedCode,
                                 "klfbeUB22@@@?sdjfJJ");
 
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(passwordDtoRequest)))
                                 .andExpect(MockMvcResultMatchers.status().isOk())
@@ -512,7 +512,7 @@ public class AuthController_IT {
                                 this.validationRef.getUser().getPassword());
 
                 // Act
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -523,7 +523,7 @@ public class AuthController_IT {
         void IT_newPassword_ShouldFail_WhenValidationNotExists() throws Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -590,7 +590,7 @@ public class AuthController_IT {
                                 "1111111",
                                 "klfbeUB22@@@?sdjfJJ");
 
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isNotFound());
@@ -602,7 +602,7 @@ public class AuthController_IT {
 
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -669,7 +669,7 @@ public class AuthController_IT {
                                 extractedCode,
                                 "1234");
 
-                this.mockMvc.perform(post(Endpoint.NEW_PASSWORD)
+                AsyncDispatch.perform(this.mockMvc, post(Endpoint.NEW_PASSWORD)
                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                 .content(this.objectMapper.writeValueAsString(newPasswordDto)))
                                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
@@ -680,7 +680,7 @@ public class AuthController_IT {
         void IT_refreshConnectionWithRefreshTokenValue_ShouldSuccess_WhenRefreshTokenValueIsCorrect() throws Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -716,7 +716,7 @@ public class AuthController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 this.registerRequestDto.username(), this.registerRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -727,8 +727,8 @@ public class AuthController_IT {
                 returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
 
                 /* Act */
                 RefreshRequestDto refreshConnectionDto = new RefreshRequestDto(
@@ -743,8 +743,8 @@ public class AuthController_IT {
                 signInDtoresponse = this.objectMapper.readValue(returnedResponse, SignInResponseDto.class);
 
                 /* Assert */
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
         }
 
         @Test
@@ -782,7 +782,7 @@ public class AuthController_IT {
                         throws JsonProcessingException, Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -818,7 +818,7 @@ public class AuthController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 this.registerRequestDto.username(), this.registerRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -829,8 +829,8 @@ public class AuthController_IT {
                 returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
 
                 /* Act & assert */
                 // 1- We await expiration of token and make sure that application is protected
@@ -850,8 +850,8 @@ public class AuthController_IT {
                 returnedResponse = response.andReturn().getResponse().getContentAsString();
                 signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
 
                 // // 4- We make sure that new token is functionnal
                 this.mockMvc.perform(post(Endpoint.SIGN_OUT).header("Authorization", "bearer "
@@ -865,7 +865,7 @@ public class AuthController_IT {
         void IT_signOut_ShouldSuccess_whenUserIsConnected() throws Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -901,7 +901,7 @@ public class AuthController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 this.registerRequestDto.username(), this.registerRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -912,8 +912,8 @@ public class AuthController_IT {
                 returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
 
                 /* Act & assert */
                 this.mockMvc.perform(
@@ -946,7 +946,7 @@ public class AuthController_IT {
                 /* Act & assert */
                 // Send request, print response, check returned status and primary checking
                 // (status code, content body type...)
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper.writeValueAsString(this.registerRequestDto)))
@@ -998,7 +998,7 @@ public class AuthController_IT {
        private SignInResponseDto connectAndReturnAllCredentials() throws JsonProcessingException, Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -1034,7 +1034,7 @@ public class AuthController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 this.registerRequestDto.username(), this.registerRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -1045,8 +1045,8 @@ public class AuthController_IT {
                 returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
                 return signInDtoresponse;
         }
 }
@@ -7,9 +7,11 @@ import com.icegreen.greenmail.junit5.GreenMailExtension;
 import com.icegreen.greenmail.util.GreenMailUtil;
 import com.icegreen.greenmail.util.ServerSetupTest;
 import com.jayway.jsonpath.JsonPath;
+import fr.inote.inote_api.AsyncDispatch;
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
 import fr.inote.inote_api.cross_cutting.constants.MessagesEn;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
 import fr.inote.inote_api.dto.ActivationRequestDto;
 import fr.inote.inote_api.dto.SignInRequestDto;
 import fr.inote.inote_api.dto.CommentRequestDto;
@@ -46,7 +48,6 @@ import javax.mail.internet.MimeMessage;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.AUTHORIZATION;
@@ -318,7 +319,7 @@ public class CommentController_IT {
         private String connectAndReturnBearer() throws JsonProcessingException, Exception {
                 /* Arrange */
                 final String[] messageContainingCode = new String[1];
-                this.mockMvc.perform(
+                AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.REGISTER)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -354,7 +355,7 @@ public class CommentController_IT {
                 SignInRequestDto authenticationDtoRequest = new SignInRequestDto(
                                 this.registerRequestDto.username(), this.registerRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -365,8 +366,8 @@ public class CommentController_IT {
                 returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.bearer().length()).isEqualTo(145);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.bearer().length()).isEqualTo(237);
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
                 return signInDtoresponse.bearer();
         }
 
@@ -427,7 +428,7 @@ public class CommentController_IT {
                 signInBodyContent.put("username", anotherRegisterRequestDto.username());
                 signInBodyContent.put("password", anotherRegisterRequestDto.password());
 
-                response = this.mockMvc.perform(
+                response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper.writeValueAsString(signInBodyContent)));
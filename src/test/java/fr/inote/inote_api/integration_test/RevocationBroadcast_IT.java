@@ -0,0 +1,123 @@
+package fr.inote.inote_api.integration_test;
+
+import fr.inote.inote_api.InoteApiApplication;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteNotAuthenticatedUserException;
+import fr.inote.inote_api.cross_cutting.security.RevocationBroadcaster;
+import fr.inote.inote_api.cross_cutting.security.VerifiedClaims;
+import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Integration tests of the propagation of revocations between instances
+ * <p>
+ * Two instances of the application run as two Spring contexts of the same
+ * JVM, on the same database, linked by the in-memory revocation channel.
+ * Scheduling is disabled by the test profile: the polls are explicit.
+ */
+public class RevocationBroadcast_IT {
+
+        /* TEST VARIABLES */
+        /* ============================================================ */
+        private static final String USER_EMAIL = "user@inote.fr"; // see data.sql
+        private static ConfigurableApplicationContext nodeA;
+        private static ConfigurableApplicationContext nodeB;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeAll
+        static void startNodes() {
+                String database = "jdbc:h2:mem:revocation-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+                String channel = UUID.randomUUID().toString();
+
+                // The first instance creates the schema, the second one only uses it
+                nodeA = startNode("node-a", database, channel,
+                                "spring.jpa.hibernate.ddl-auto=create-drop");
+                nodeB = startNode("node-b", database, channel,
+                                "spring.jpa.hibernate.ddl-auto=none", "spring.sql.init.mode=never");
+        }
+
+        @AfterAll
+        static void stopNodes() {
+                nodeB.close();
+                nodeA.close();
+        }
+
+        @AfterEach
+        void tearDown() {
+                SecurityContextHolder.clearContext();
+        }
+
+        /* INTEGRATION TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("A sign out on an instance evicts the token from the validity cache of the other one")
+        void signOut_shouldReachOtherInstance_afterItsPoll() throws Exception {
+                /* Arrange */
+                JwtServiceImpl jwtServiceOfA = nodeA.getBean(JwtServiceImpl.class);
+                JwtServiceImpl jwtServiceOfB = nodeB.getBean(JwtServiceImpl.class);
+                RevocationBroadcaster broadcasterOfB = nodeB.getBean(RevocationBroadcaster.class);
+                broadcasterOfB.poll();
+
+                String token = jwtServiceOfA.generate(USER_EMAIL).get(BEARER);
+                VerifiedClaims claims = jwtServiceOfB.verify(token);
+                // Now in the validity cache of B
+                assertThat(jwtServiceOfB.findValidTokenOwner(token, claims)).isEqualTo(USER_EMAIL);
+
+                User user = (User) nodeA.getBean(UserService.class).loadUserByUsername(USER_EMAIL);
+                SecurityContextHolder.setContext(new SecurityContextImpl(
+                                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities())));
+
+                /* Act */
+                jwtServiceOfA.signOut();
+
+                /* Assert */
+                // Before its poll, B still trusts its cache
+                assertThat(jwtServiceOfB.findValidTokenOwner(token, claims)).isEqualTo(USER_EMAIL);
+
+                assertThat(broadcasterOfB.poll()).isEqualTo(1);
+                assertThatExceptionOfType(InoteNotAuthenticatedUserException.class)
+                                .isThrownBy(() -> jwtServiceOfB.findValidTokenOwner(token, claims));
+                assertThat(broadcasterOfB.getStats().applied()).isEqualTo(1);
+
+                // A does not apply its own revocation again
+                assertThat(nodeA.getBean(RevocationBroadcaster.class).poll()).isZero();
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+        // Passed as command line arguments: they must override application-test.properties
+        private static ConfigurableApplicationContext startNode(String nodeId, String database, String channel,
+                        String... properties) {
+                List<String> arguments = new ArrayList<>(List.of(
+                                "--server.port=0",
+                                "--spring.datasource.url=" + database,
+                                "--jwt.revocation.broadcast.transport=memory",
+                                "--jwt.revocation.broadcast.channel=" + channel,
+                                "--inote.nodeId=" + nodeId));
+                for (String property : properties) {
+                        arguments.add("--" + property);
+                }
+                return new SpringApplicationBuilder(InoteApiApplication.class)
+                                .profiles("test")
+                                .run(arguments.toArray(String[]::new));
+        }
+}
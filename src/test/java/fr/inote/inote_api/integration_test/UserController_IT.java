@@ -7,8 +7,10 @@ import com.icegreen.greenmail.configuration.GreenMailConfiguration;
 import com.icegreen.greenmail.junit5.GreenMailExtension;
 import com.icegreen.greenmail.store.FolderException;
 import com.icegreen.greenmail.util.ServerSetupTest;
+import fr.inote.inote_api.AsyncDispatch;
 import fr.inote.inote_api.cross_cutting.constants.Endpoint;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.security.OpaqueTokenGenerator;
 import fr.inote.inote_api.cross_cutting.security.impl.JwtServiceImpl;
 import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.dto.SignInRequestDto;
@@ -36,7 +38,6 @@ import org.springframework.web.context.WebApplicationContext;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
 import static fr.inote.inote_api.cross_cutting.constants.HttpRequestBody.BEARER;
@@ -253,7 +254,7 @@ public class UserController_IT {
         /* UTILS */
         /* ============================================================ */
         private SignInResponseDto connectAnAdminAndReturnAllCredentials() throws JsonProcessingException, Exception {
-                ResultActions response = this.mockMvc.perform(
+                ResultActions response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -264,13 +265,13 @@ public class UserController_IT {
                 String returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
 
                 return signInDtoresponse;
         }
 
         private SignInResponseDto connectAnUserAndReturnAllCredentials() throws JsonProcessingException, Exception {
-                ResultActions response = this.mockMvc.perform(
+                ResultActions response = AsyncDispatch.perform(this.mockMvc, 
                                 post(Endpoint.SIGN_IN)
                                                 .contentType(MediaType.APPLICATION_JSON_VALUE)
                                                 .content(this.objectMapper
@@ -281,7 +282,7 @@ public class UserController_IT {
                 String returnedResponse = response.andReturn().getResponse().getContentAsString();
                 SignInResponseDto signInDtoresponse = this.objectMapper.readValue(returnedResponse,
                                 SignInResponseDto.class);
-                assertThat(signInDtoresponse.refresh().length()).isEqualTo(UUID.randomUUID().toString().length());
+                assertThat(signInDtoresponse.refresh().length()).isEqualTo(OpaqueTokenGenerator.LENGTH);
 
                 return signInDtoresponse;
         }
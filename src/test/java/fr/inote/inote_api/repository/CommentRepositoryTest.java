@@ -0,0 +1,103 @@
+package fr.inote.inote_api.repository;
+
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.dto.CommentResponseDto;
+import fr.inote.inote_api.entity.Comment;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests of repository
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CommentRepositoryTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private CommentRepository commentRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private EntityManager entityManager;
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private List<Comment> comments = new ArrayList<>();
+        private User user;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                Role role = this.roleRepository.save(Role.builder().name(RoleEnum.USER).build());
+                this.user = this.userRepository.save(User.builder()
+                                .email(REFERENCE_USER_EMAIL)
+                                .name(REFERENCE_USER_NAME)
+                                .password(REFERENCE_USER_PASSWORD)
+                                .role(role)
+                                .build());
+                for (int i = 0; i < 5; i++) {
+                        this.comments.add(this.commentRepository.save(Comment.builder()
+                                        .message("comment " + i)
+                                        .user(this.user)
+                                        .build()));
+                }
+                this.entityManager.flush();
+                this.entityManager.clear();
+        }
+
+        /* REPOSITORY UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Walk the comments newest first by pages, without loading entities")
+        void findPageBefore_shouldReturnPagesNewestFirst_withoutLoadingEntities() {
+                /* Arrange */
+                Statistics statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+
+                /* Act */
+                List<CommentResponseDto> first = this.commentRepository.findPageBefore(Integer.MAX_VALUE,
+                                PageRequest.of(0, 2));
+                List<CommentResponseDto> second = this.commentRepository.findPageBefore(first.get(1).id(),
+                                PageRequest.of(0, 2));
+                List<CommentResponseDto> last = this.commentRepository.findPageBefore(second.get(1).id(),
+                                PageRequest.of(0, 2));
+
+                /* Assert */
+                assertThat(first).extracting(CommentResponseDto::message).containsExactly("comment 4", "comment 3");
+                assertThat(second).extracting(CommentResponseDto::message).containsExactly("comment 2", "comment 1");
+                assertThat(last).extracting(CommentResponseDto::message).containsExactly("comment 0");
+                assertThat(last.get(0).id()).isEqualTo(this.comments.get(0).getId());
+                assertThat(last.get(0).UserId()).isEqualTo(this.user.getId());
+                assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+                assertThat(statistics.getEntityLoadCount()).isZero();
+        }
+}
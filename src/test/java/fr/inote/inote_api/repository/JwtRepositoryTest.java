@@ -3,6 +3,7 @@ package fr.inote.inote_api.repository;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
 import fr.inote.inote_api.cross_cutting.security.Jwt;
 import fr.inote.inote_api.cross_cutting.security.RefreshToken;
+import fr.inote.inote_api.cross_cutting.security.TokenDigest;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.entity.User;
 import io.jsonwebtoken.Claims;
@@ -22,6 +23,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.crypto.SecretKey;
 import java.time.Instant;
@@ -76,6 +78,7 @@ class JwtRepositoryTest {
         RoleRepository roleRepository;
         UserRepository userRepository;
         JwtRepository jwtRepository;
+        JdbcTemplate jdbcTemplate;
 
         // Constructor
         @Autowired
@@ -83,11 +86,13 @@ class JwtRepositoryTest {
                         RoleRepository roleRepository,
                         RoleRepository mockedRoleRepository,
                         UserRepository userRepository,
-                        JwtRepository jwtRepository) {
+                        JwtRepository jwtRepository,
+                        JdbcTemplate jdbcTemplate) {
                 this.roleRepository = roleRepository;
                 this.mockedRoleRepository = mockedRoleRepository;
                 this.userRepository = userRepository;
                 this.jwtRepository = jwtRepository;
+                this.jdbcTemplate = jdbcTemplate;
         }
 
         /* REFERENCES FOR MOCKING */
@@ -285,6 +290,24 @@ class JwtRepositoryTest {
                 assertThat(result).isEmpty();
         }
 
+        @Test
+        @DisplayName("Only a fixed-width digest of the token values is stored in db")
+        void save_shouldStoreDigestOfContentValues() {
+                /* Act */
+                Optional<Jwt> result = this.jwtRepository
+                                .findByContentDigestAndDeactivatedAndExpired(
+                                                TokenDigest.of(this.jwtRef.getContentValue()), false, false);
+
+                /* Assert */
+                assertThat(result).isNotEmpty();
+                assertThat(result.get().getContentDigest())
+                                .hasSize(TokenDigest.LENGTH)
+                                .isEqualTo(TokenDigest.of(this.jwtRef.getContentValue()));
+                assertThat(result.get().getRefreshToken().getContentDigest()).hasSize(TokenDigest.LENGTH);
+                assertThat(this.jdbcTemplate.queryForObject("SELECT content_digest FROM jwt", String.class))
+                                .isEqualTo(TokenDigest.of(this.jwtRef.getContentValue()));
+        }
+
         @Test
         @DisplayName("Searching token in db from user email and status validity with good params")
         void findTokenWithEmailAndStatusToken_shouldReturnOptional_withCorrectParams() {
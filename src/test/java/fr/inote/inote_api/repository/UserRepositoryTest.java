@@ -13,10 +13,14 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
 import java.util.Optional;
 
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.entity.Role;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import fr.inote.inote_api.entity.User;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -65,6 +69,8 @@ public class UserRepositoryTest {
      */
     private UserRepository userRepository;
     private RoleRepository roleRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     // Constructor
     @Autowired
@@ -134,4 +140,21 @@ public class UserRepositoryTest {
         /*Assert */
         assertThat(testUser).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("List the users as dtos, without loading entities")
+    void findAllProtectedUsers_shouldReturnDtos_withoutLoadingEntities() {
+        /* Arrange */
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        /* Act */
+        List<ProtectedUserResponseDto> users = this.userRepository.findAllProtectedUsers();
+
+        /* Assert */
+        assertThat(users).hasSize((int) this.userRepository.count());
+        assertThat(users).contains(new ProtectedUserResponseDto(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL,
+                false, null, null, RoleEnum.ADMIN.name()));
+        assertThat(this.entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+}
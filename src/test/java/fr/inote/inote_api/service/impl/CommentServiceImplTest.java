@@ -1,7 +1,9 @@
 package fr.inote.inote_api.service.impl;
 
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteEmptyMessageCommentException;
+import fr.inote.inote_api.dto.CommentPageResponseDto;
 import fr.inote.inote_api.dto.CommentRequestDto;
 import fr.inote.inote_api.dto.CommentResponseDto;
 import fr.inote.inote_api.entity.Comment;
@@ -16,6 +18,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,6 +31,7 @@ import java.util.Optional;
 
 import static fr.inote.inote_api.ConstantsForTests.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -59,6 +64,8 @@ class CommentServiceImplTest {
         private CommentRepository commentRepository;
         @Mock
         private UserRepository userRepository;
+        @Mock
+        private ResourceVersions resourceVersions;
 
         /* DEPENDENCIES INJECTION */
         /* ============================================================ */
@@ -68,7 +75,8 @@ class CommentServiceImplTest {
          * params
          */
         @InjectMocks
-        private CommentService commentService = new CommentServiceImpl(commentRepository, userRepository);
+        private CommentService commentService = new CommentServiceImpl(commentRepository, userRepository,
+                        resourceVersions);
 
         /* REFERENCES FOR MOCKING */
         /* ============================================================ */
@@ -116,6 +124,8 @@ class CommentServiceImplTest {
                 /* Assert */
                 assertThat(commentForTest.getMessage()).isEqualTo(this.commentDtoRequestRef.msg());
 
+                /* Verify */
+                verify(this.resourceVersions, times(1)).bump(ResourceVersions.Collection.COMMENTS);
         }
 
         @Test
@@ -159,39 +169,43 @@ class CommentServiceImplTest {
         }
 
         @Test
-        @DisplayName("Get the list of all comments recorded in database")
-        void getAll_ShouldSucces() {
+        @DisplayName("Get the first page of comments, with the cursor of the next one")
+        void getPage_ShouldReturnPageAndNextCursor_whenMoreCommentsExist() {
 
                 /* Arrange */
-                List<Comment> comments = new ArrayList<>();
+                List<CommentResponseDto> comments = List.of(
+                                new CommentResponseDto(9, "this application is really crap", 1),
+                                new CommentResponseDto(7, "What in God's name have I done to use such an application?", 1),
+                                new CommentResponseDto(4, "I'm puzzled by this application...", 1));
+                when(this.commentRepository.findPageBefore(Integer.MAX_VALUE, PageRequest.of(0, 3)))
+                                .thenReturn(comments);
 
-                comments.add(Comment.builder()
-                                .message("this application is really crap")
-                                .user(this.userRef)
-                                .build());
+                /* Act */
+                CommentPageResponseDto page = this.commentService.getPage(null, 2);
 
-                comments.add(Comment.builder()
-                                .message("What in God's name have I done to use such an application?")
-                                .user(this.userRef)
-                                .build());
+                /* Assert */
+                assertThat(page.comments()).containsExactly(comments.get(0), comments.get(1));
+                assertThat(page.nextCursor()).isEqualTo(7);
 
-                comments.add(Comment.builder()
-                                .message("I'm puzzled by this application...")
-                                .user(this.userRef)
-                                .build());
-                when(this.commentRepository.findAll()).thenReturn(comments);
+                /* Verify */
+                verify(this.commentRepository, times(1)).findPageBefore(anyInt(), any(Pageable.class));
+        }
 
-                /*Act */
-                List<CommentResponseDto> returnedList = this.commentService.getAll();
+        @Test
+        @DisplayName("Get the last page of comments, without next cursor")
+        void getPage_ShouldReturnPageWithoutNextCursor_whenNoMoreComments() {
 
-                /*Assert */
-                assertThat(returnedList.get(0).message()).isEqualTo(comments.get(0).getMessage());
-                assertThat(returnedList.get(1).message()).isEqualTo(comments.get(1).getMessage());
-                assertThat(returnedList.get(2).message()).isEqualTo(comments.get(2).getMessage());
+                /* Arrange */
+                List<CommentResponseDto> comments = List.of(
+                                new CommentResponseDto(4, "I'm puzzled by this application...", 1));
+                when(this.commentRepository.findPageBefore(7, PageRequest.of(0, 3))).thenReturn(comments);
 
-                /*Verify */
-                verify(this.commentRepository, times(1)).findAll();
+                /* Act */
+                CommentPageResponseDto page = this.commentService.getPage(7, 2);
 
+                /* Assert */
+                assertThat(page.comments()).containsExactlyElementsOf(comments);
+                assertThat(page.nextCursor()).isNull();
         }
 
-}
\ No newline at end of file
+}
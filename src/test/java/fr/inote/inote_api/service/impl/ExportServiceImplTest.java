@@ -0,0 +1,150 @@
+package fr.inote.inote_api.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.dto.CommentResponseDto;
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
+import fr.inote.inote_api.entity.Comment;
+import fr.inote.inote_api.entity.Role;
+import fr.inote.inote_api.entity.User;
+import fr.inote.inote_api.repository.CommentRepository;
+import fr.inote.inote_api.repository.RoleRepository;
+import fr.inote.inote_api.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static fr.inote.inote_api.ConstantsForTests.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of ExportServiceImpl, with database
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(ExportServiceImpl.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = "inote.export.chunkSize=2")
+class ExportServiceImplTest {
+
+        /* DEPENDENCIES INJECTION */
+        /* ============================================================ */
+        @Autowired
+        private ExportServiceImpl exportService;
+        @Autowired
+        private CommentRepository commentRepository;
+        @Autowired
+        private RoleRepository roleRepository;
+        @Autowired
+        private UserRepository userRepository;
+        @Autowired
+        private EntityManager entityManager;
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        /* REFERENCES FOR MOCKING */
+        /* ============================================================ */
+        private List<Comment> comments = new ArrayList<>();
+        private User user;
+
+        /* FIXTURES */
+        /* ============================================================ */
+        @BeforeEach
+        void setUp() {
+                Role role = this.roleRepository.save(Role.builder().name(RoleEnum.USER).build());
+                this.user = this.userRepository.save(User.builder()
+                                .email(REFERENCE_USER_EMAIL)
+                                .name(REFERENCE_USER_NAME)
+                                .password(REFERENCE_USER_PASSWORD)
+                                .role(role)
+                                .build());
+                for (int i = 0; i < 5; i++) {
+                        this.comments.add(this.commentRepository.save(Comment.builder()
+                                        .message("comment " + i)
+                                        .user(this.user)
+                                        .build()));
+                }
+                this.entityManager.flush();
+                this.entityManager.clear();
+        }
+
+        /* UNIT TESTS */
+        /* ============================================================ */
+        @Test
+        @DisplayName("Export the comments in NDJSON, flushed by chunks, without keeping the entities")
+        void exportComments_shouldWriteOneLineByComment_byChunks() throws Exception {
+                /* Arrange */
+                FlushRecordingOutputStream outputStream = new FlushRecordingOutputStream();
+
+                /* Act */
+                long rows = this.exportService.exportComments(outputStream);
+
+                /* Assert */
+                String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+                assertThat(rows).isEqualTo(5);
+                assertThat(outputStream.toString(StandardCharsets.UTF_8)).endsWith("\n");
+                assertThat(lines).hasSize(5);
+                for (int i = 0; i < 5; i++) {
+                        assertThat(this.objectMapper.readValue(lines[i], CommentResponseDto.class))
+                                        .isEqualTo(new CommentResponseDto(this.comments.get(i).getId(),
+                                                        "comment " + i, this.user.getId()));
+                }
+                // The first chunk left before the end of the export
+                assertThat(outputStream.sizesAtFlush.get(0))
+                                .isEqualTo((lines[0] + "\n" + lines[1] + "\n").getBytes(StandardCharsets.UTF_8).length);
+                assertThat(this.entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("Export the users in NDJSON")
+        void exportUsers_shouldWriteOneLineByUser() throws Exception {
+                /* Arrange */
+                FlushRecordingOutputStream outputStream = new FlushRecordingOutputStream();
+
+                /* Act */
+                long rows = this.exportService.exportUsers(outputStream);
+
+                /* Assert */
+                String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+                assertThat(rows).isEqualTo(this.userRepository.count());
+                assertThat(lines).hasSize((int) rows);
+                // Last one by increasing id
+                assertThat(this.objectMapper.readValue(lines[lines.length - 1], ProtectedUserResponseDto.class))
+                                .isEqualTo(new ProtectedUserResponseDto(REFERENCE_USER_NAME, REFERENCE_USER_EMAIL,
+                                                false, null, null, RoleEnum.USER.name()));
+                assertThat(outputStream.toString(StandardCharsets.UTF_8)).doesNotContain(REFERENCE_USER_PASSWORD);
+                assertThat(this.entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        }
+
+        /* UTILS */
+        /* ============================================================ */
+
+        /**
+         * Output stream recording how many bytes were written at each flush
+         */
+        private static class FlushRecordingOutputStream extends ByteArrayOutputStream {
+                private final List<Integer> sizesAtFlush = new ArrayList<>();
+
+                @Override
+                public void flush() {
+                        this.sizesAtFlush.add(this.size());
+                }
+        }
+}
@@ -1,6 +1,7 @@
 package fr.inote.inote_api.service.impl;
 
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.exceptions.InoteRoleNotFoundException;
 import fr.inote.inote_api.cross_cutting.exceptions.InoteUserException;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.repository.RoleRepository;
@@ -19,6 +20,8 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -83,7 +86,7 @@ class RoleServiceImplTest {
     void insertRolesInDb_shouldReturnAnArrayWithNumberOfRoleApp() {
 
         /* Arrange */
-        when(this.roleRepository.save(ArgumentMatchers.any(Role.class))).thenReturn(ArgumentMatchers.any(Role.class));
+        when(this.roleRepository.save(ArgumentMatchers.any(Role.class))).then(returnsFirstArg());
 
         /* Act */
         List<Role> roles = this.roleService.insertRolesInDb();
@@ -149,4 +152,73 @@ class RoleServiceImplTest {
         /* Verify */
         verify(this.roleRepository, times(1)).findByName(any(RoleEnum.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Load a role loaded at startup without query")
+    void loadRole_shouldNotQuery_whenRolesAreLoaded() throws InoteRoleNotFoundException {
+
+        /* Arrange */
+        when(this.roleRepository.findAll()).thenReturn(List.of(this.admin, this.manager, this.user));
+        ((RoleServiceImpl) this.roleService).loadRoles();
+
+        /* Act */
+        Role first = this.roleService.loadRole(RoleEnum.USER);
+        Role second = this.roleService.loadRole(RoleEnum.USER);
+
+        /* Assert */
+        assertThat(first).isSameAs(this.user);
+        assertThat(second).isSameAs(first);
+
+        /* Verify */
+        verify(this.roleRepository, times(1)).findAll();
+        verify(this.roleRepository, never()).findByName(any(RoleEnum.class));
+    }
+
+    @Test
+    @DisplayName("Load a role missing at startup from database once")
+    void loadRole_shouldQueryOnce_whenRoleIsNotLoaded() throws InoteRoleNotFoundException {
+
+        /* Arrange */
+        when(this.roleRepository.findByName(RoleEnum.MANAGER)).thenReturn(Optional.of(this.manager));
+
+        /* Act */
+        this.roleService.loadRole(RoleEnum.MANAGER);
+        Role role = this.roleService.loadRole(RoleEnum.MANAGER);
+
+        /* Assert */
+        assertThat(role).isSameAs(this.manager);
+
+        /* Verify */
+        verify(this.roleRepository, times(1)).findByName(RoleEnum.MANAGER);
+    }
+
+    @Test
+    @DisplayName("Load a role absent from database")
+    void loadRole_shouldThrowException_whenRoleIsNotInDb() {
+
+        /* Arrange */
+        when(this.roleRepository.findByName(RoleEnum.TESTER)).thenReturn(Optional.empty());
+
+        /* Act & Assert */
+        assertThatThrownBy(() -> this.roleService.loadRole(RoleEnum.TESTER))
+                .isInstanceOf(InoteRoleNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Load a role inserted in db without query")
+    void loadRole_shouldNotQuery_whenRolesAreInserted() throws InoteRoleNotFoundException {
+
+        /* Arrange */
+        when(this.roleRepository.save(any(Role.class))).then(returnsFirstArg());
+        this.roleService.insertRolesInDb();
+
+        /* Act */
+        Role role = this.roleService.loadRole(RoleEnum.ADMIN);
+
+        /* Assert */
+        assertThat(role.getName()).isEqualTo(RoleEnum.ADMIN);
+
+        /* Verify */
+        verify(this.roleRepository, never()).findByName(any(RoleEnum.class));
+    }
+}
@@ -13,10 +13,13 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 
 
 import fr.inote.inote_api.cross_cutting.exceptions.*;
+import fr.inote.inote_api.cross_cutting.security.UserSecurityChangedEvent;
+import fr.inote.inote_api.dto.ProtectedUserResponseDto;
 import fr.inote.inote_api.entity.Validation;
 import fr.inote.inote_api.repository.ValidationRepository;
 import fr.inote.inote_api.service.ValidationService;
@@ -28,15 +31,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.MailException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import fr.inote.inote_api.service.RoleService;
 import fr.inote.inote_api.service.UserService;
 import fr.inote.inote_api.cross_cutting.enums.RoleEnum;
+import fr.inote.inote_api.cross_cutting.etag.ResourceVersions;
 import fr.inote.inote_api.entity.Role;
 import fr.inote.inote_api.entity.User;
-import fr.inote.inote_api.repository.RoleRepository;
 import fr.inote.inote_api.repository.UserRepository;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -64,13 +69,17 @@ public class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private RoleRepository roleRepository;
+    private RoleService roleService;
     @Mock
     private ValidationRepository validationRepository;
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
     @Mock
     private ValidationService validationService;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private ResourceVersions resourceVersions;
 
     /* DEPENDENCIES INJECTION */
     /* ============================================================ */
@@ -81,12 +90,12 @@ public class UserServiceImplTest {
      */
     @InjectMocks
     private UserService userService = new UserServiceImpl(userRepository, passwordEncoder, validationService,
-            roleRepository, validationRepository);
+            roleService, validationRepository, applicationEventPublisher, resourceVersions);
 
     // For registerAdmin, not declared in interface
     @InjectMocks
     private UserServiceImpl userServiceImpl = new UserServiceImpl(userRepository, passwordEncoder, validationService,
-            roleRepository, validationRepository);
+            roleService, validationRepository, applicationEventPublisher, resourceVersions);
 
     
 
@@ -140,7 +149,8 @@ public class UserServiceImplTest {
     @Test
     @DisplayName("Insert user in database with good parameters")
     void createUser_shouldReturnUser_whenGoodParameters() throws NoSuchMethodException,
-            SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+            SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException,
+            InoteRoleNotFoundException {
 
         /* Arrange */
         // Access to the private method using reflection
@@ -157,7 +167,7 @@ public class UserServiceImplTest {
 
         when(this.userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(this.passwordEncoder.encode(anotherUser.getPassword())).thenReturn("encodedPassword");
-        when(this.roleRepository.findByName(any(RoleEnum.class))).thenReturn(Optional.of(roleForTest));
+        when(this.roleService.loadRole(any(RoleEnum.class))).thenReturn(roleForTest);
         when(this.userRepository.save(any(User.class))).thenReturn(anotherUser);
 
         /* Act */
@@ -170,7 +180,8 @@ public class UserServiceImplTest {
         /* Verify */
         verify(this.userRepository, times(1)).findByEmail(any(String.class));
         verify(this.passwordEncoder, times(1)).encode(any(String.class));
-        verify(this.roleRepository, times(1)).findByName(any(RoleEnum.class));
+        verify(this.roleService, times(1)).loadRole(any(RoleEnum.class));
+        verify(this.resourceVersions, times(1)).bump(ResourceVersions.Collection.USERS);
     }
 
     @Test
@@ -235,7 +246,8 @@ public class UserServiceImplTest {
     @Test
     @DisplayName("Create an non-existing admin user")
     void createTesterUser_shouldTesterUser_whenGoodParameters() throws NoSuchMethodException,
-            SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+            SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException,
+            InoteRoleNotFoundException {
 
         /* Arrange */
         // Access to the private method using reflection
@@ -252,7 +264,7 @@ public class UserServiceImplTest {
 
         when(this.userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
         when(this.passwordEncoder.encode(anotherUser.getPassword())).thenReturn("encodedPassword");
-        when(this.roleRepository.findByName(any(RoleEnum.class))).thenReturn(Optional.of(roleForTest));
+        when(this.roleService.loadRole(any(RoleEnum.class))).thenReturn(roleForTest);
         when(this.userRepository.save(any(User.class))).thenReturn(anotherUser);
 
         /* Act */
@@ -265,7 +277,7 @@ public class UserServiceImplTest {
         /* Verify */
         verify(this.userRepository, times(1)).findByEmail(any(String.class));
         verify(this.passwordEncoder, times(1)).encode(any(String.class));
-        verify(this.roleRepository, times(1)).findByName(any(RoleEnum.class));
+        verify(this.roleService, times(1)).loadRole(any(RoleEnum.class));
     }
 
     @Test
@@ -319,7 +331,7 @@ public class UserServiceImplTest {
 
         when(this.userRepository.findByEmail(anotherUser.getEmail())).thenReturn(Optional.empty());
         when(this.passwordEncoder.encode(anotherUser.getPassword())).thenReturn("encodedPassword");
-        when(this.roleRepository.findByName(any(RoleEnum.class))).thenReturn(Optional.of(roleForTest));
+        when(this.roleService.loadRole(any(RoleEnum.class))).thenReturn(roleForTest);
         when(this.userRepository.save(any(User.class))).thenReturn(anotherUser);
 
         /* Act & assert */
@@ -328,7 +340,7 @@ public class UserServiceImplTest {
         /* Verify */
         verify(this.userRepository, times(1)).findByEmail(any(String.class));
         verify(this.passwordEncoder, times(1)).encode(any(String.class));
-        verify(this.roleRepository, times(1)).findByName(any(RoleEnum.class));
+        verify(this.roleService, times(1)).loadRole(any(RoleEnum.class));
     }
 
     @Test
@@ -347,7 +359,7 @@ public class UserServiceImplTest {
 
         when(this.userRepository.findByEmail(anotherUser.getEmail())).thenReturn(Optional.empty());
         when(this.passwordEncoder.encode(anotherUser.getPassword())).thenReturn("encodedPassword");
-        when(this.roleRepository.findByName(any(RoleEnum.class))).thenReturn(Optional.of(roleForTest));
+        when(this.roleService.loadRole(any(RoleEnum.class))).thenReturn(roleForTest);
         when(this.userRepository.save(any(User.class))).thenReturn(anotherUser);
 
         /* Act & assert */
@@ -356,7 +368,7 @@ public class UserServiceImplTest {
         /* Verify */
         verify(this.userRepository, times(1)).findByEmail(any(String.class));
         verify(this.passwordEncoder, times(1)).encode(any(String.class));
-        verify(this.roleRepository, times(1)).findByName(any(RoleEnum.class));
+        verify(this.roleService, times(1)).loadRole(any(RoleEnum.class));
        }
 
     @Test
@@ -379,6 +391,7 @@ public class UserServiceImplTest {
         /* Verify */
         verify(this.validationService, times(1)).getValidationFromCode(any(String.class));
         verify(this.validationRepository, times(1)).save(any(Validation.class));
+        verify(this.resourceVersions, times(1)).bump(ResourceVersions.Collection.USERS);
         }
 
     @Test
@@ -486,6 +499,10 @@ public class UserServiceImplTest {
                     this.userRef.getPassword(),
                     "123465");
         }).doesNotThrowAnyException();
+
+        /* Verify */
+        verify(this.applicationEventPublisher, times(1)).publishEvent(new UserSecurityChangedEvent(this.userRef));
+        verify(this.resourceVersions, times(1)).bump(ResourceVersions.Collection.USERS);
     }
 
     @Test
@@ -547,6 +564,42 @@ public class UserServiceImplTest {
         /* Act & asert */
         assertThat(this.userServiceImpl.list()).isEqualTo(this.usersList);
     }
+
+    @Test
+    @DisplayName("Get all users as protected dtos, from the projection query")
+    void listProtectedUsers_ShouldReturnProjection() {
+
+        /* Arrange */
+        List<ProtectedUserResponseDto> protectedUsers = List.of(new ProtectedUserResponseDto(
+                REFERENCE_USER_NAME, REFERENCE_USER_EMAIL, true, null, null, RoleEnum.USER));
+        when(this.userRepository.findAllProtectedUsers()).thenReturn(protectedUsers);
+
+        /* Act & assert */
+        assertThat(this.userServiceImpl.listProtectedUsers()).isEqualTo(protectedUsers);
+
+        /* Verify */
+        verify(this.userRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("Store the password rehashed on sign in, without invalidating the tokens")
+    void updatePassword_ShouldSaveNewHash_WithoutSecurityChange() {
+
+        /* Arrange */
+        // The fixture has already saved the reference users
+        clearInvocations(this.userRepository);
+        when(this.userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        /* Act */
+        User updatedUser = this.userService.updatePassword(this.userRef, "$2a$12$newHash");
+
+        /* Assert */
+        assertThat(updatedUser.getPassword()).isEqualTo("$2a$12$newHash");
+
+        /* Verify */
+        verify(this.userRepository, times(1)).save(this.userRef);
+        verify(this.applicationEventPublisher, never()).publishEvent(any());
+    }
     
 
 